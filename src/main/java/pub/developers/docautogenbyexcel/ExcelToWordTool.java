@@ -6,8 +6,11 @@ import pub.developers.docautogenbyexcel.generator.AbstractDocumentGenerator;
 import pub.developers.docautogenbyexcel.generator.STRGenerator;
 import pub.developers.docautogenbyexcel.generator.STDGenerator;
 import pub.developers.docautogenbyexcel.hub.DataHub;
-import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
+import pub.developers.docautogenbyexcel.hub.IndexedStoreDataHub;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 import pub.developers.docautogenbyexcel.util.FileUtil;
+import pub.developers.docautogenbyexcel.validator.PreflightValidator;
 
 import java.io.File;
 
@@ -19,25 +22,42 @@ public class ExcelToWordTool {
 
     public static void main(String[] args) {
         try {
+            // 所有参数按同一组选项一次解析，选项可按任意顺序出现
+            CommandLine cmd = parseCommandLine(args);
+
+            // 导入索引存储：从 -excel 指定的数据源导入后退出，不生成文档
+            if (runImportStore(cmd)) {
+                return;
+            }
+
             // 解析命令行参数或加载配置文件
-            ConfigLoader config = parseArguments(args);
-            String docType = parseDocType(args);
+            ConfigLoader config = parseArguments(cmd, args);
+            String docType = parseDocType(cmd);
+            DataSourceType dataSource = parseDataSource(cmd);
+            ModuleFilter moduleFilter = parseModuleFilter(cmd);
 
             // 验证文件路径
-            validatePaths(config);
+            validatePaths(config, dataSource);
+
+            // 预检：只读取Excel表头和模板的目录、占位符段落，有错误时不进入完整解析
+            new PreflightValidator().check(
+                    dataSource == DataSourceType.EXCEL ? config.getExcelPath() : null,
+                    config.getWordPath(),
+                    docType);
 
             // 生成输出文件路径（generateOutputFileName 已经确保目录存在）
             String outputPath = FileUtil.generateOutputFileName(
                     config.getWordPath(),
                     config.getOutputPath());
 
-            // 统一走生成引擎：STD/STR
-            DataHub dataHub = new ExcelDataHub();
+            // 统一走生成引擎：STD/STR；数据中枢按数据源类型选择（Excel工作簿、CSV/JSON-Lines数据目录或索引存储）
+            DataHub dataHub = dataSource.createHub();
             AbstractDocumentGenerator generator = createGenerator(docType, dataHub);
             AbstractDocumentGenerator.GenerateResult result = generator.generate(
                     config.getExcelPath(),
                     config.getWordPath(),
-                    outputPath);
+                    outputPath,
+                    moduleFilter);
             int successCount = result.moduleCount();
 
             System.out.println("\n生成成功！输出文件: " + outputPath);
@@ -53,20 +73,27 @@ public class ExcelToWordTool {
     }
 
     /**
-     * 解析命令行参数或加载配置文件
+     * 命令行选项
      */
-    private static ConfigLoader parseArguments(String[] args) throws Exception {
-        ConfigLoader config = new ConfigLoader();
-
-        // 创建命令行选项
+    private static Options options() {
         Options options = new Options();
-        options.addOption("excel", true, "Excel文件路径");
+        options.addOption("excel", true, "Excel文件路径（.xlsx 或 .xlsb）");
         options.addOption("word", true, "Word模板文件路径");
         options.addOption("out", true, "输出目录路径");
         options.addOption("docType", true, "文档类型：STD 或 STR");
+        options.addOption("source", true, "数据源类型：excel（默认）、csv、jsonl 或 store；非 excel 时 -excel 指定数据目录");
+        options.addOption("importStore", true, "把 -excel 指定的数据导入到该索引存储目录后退出");
+        options.addOption("modules", true, "只重新生成的模块：逗号分隔的章节前缀或通配符，如 \"5.3.*,6.1\"");
         options.addOption("config", false, "使用配置文件");
         options.addOption("h", "help", false, "显示帮助信息");
+        return options;
+    }
 
+    /**
+     * 按完整的选项解析命令行，指定 -h 时显示帮助信息后退出
+     */
+    static CommandLine parseCommandLine(String[] args) throws ParseException {
+        Options options = options();
         CommandLineParser parser = new DefaultParser();
         CommandLine cmd = parser.parse(options, args);
 
@@ -75,6 +102,14 @@ public class ExcelToWordTool {
             printHelp(options);
             System.exit(0);
         }
+        return cmd;
+    }
+
+    /**
+     * 从命令行参数读取路径，或加载配置文件
+     */
+    private static ConfigLoader parseArguments(CommandLine cmd, String[] args) throws Exception {
+        ConfigLoader config = new ConfigLoader();
 
         // 如果指定使用配置文件
         if (cmd.hasOption("config") || (args.length == 0)) {
@@ -105,7 +140,7 @@ public class ExcelToWordTool {
     /**
      * 验证文件路径
      */
-    private static void validatePaths(ConfigLoader config) throws Exception {
+    private static void validatePaths(ConfigLoader config, DataSourceType dataSource) throws Exception {
         // 验证配置不为空
         if (config.getExcelPath() == null || config.getExcelPath().trim().isEmpty()) {
             throw new Exception("Excel文件路径不能为空");
@@ -117,11 +152,14 @@ public class ExcelToWordTool {
             throw new Exception("输出路径不能为空");
         }
 
-        // 验证Excel文件
+        // 验证Excel文件（CSV/JSON-Lines数据源和索引存储为数据目录）
         File excelFile = new File(config.getExcelPath());
         if (!excelFile.exists()) {
             throw new Exception("Excel文件不存在: " + config.getExcelPath());
         }
+        if (dataSource.isDirectory() && !excelFile.isDirectory()) {
+            throw new Exception(dataSource + "数据源需要指定数据目录: " + config.getExcelPath());
+        }
         if (!excelFile.canRead()) {
             throw new Exception("无法读取Excel文件: " + config.getExcelPath());
         }
@@ -142,15 +180,43 @@ public class ExcelToWordTool {
         }
     }
 
-    private static String parseDocType(String[] args) throws ParseException {
-        Options options = new Options();
-        options.addOption("docType", true, "文档类型：STD 或 STR");
-        CommandLineParser parser = new DefaultParser();
-        CommandLine cmd = parser.parse(options, args, true);
+    private static String parseDocType(CommandLine cmd) {
         String docType = cmd.getOptionValue("docType", "STD").trim().toUpperCase();
         return "STR".equals(docType) ? "STR" : "STD";
     }
 
+    static DataSourceType parseDataSource(CommandLine cmd) {
+        return DataSourceType.of(cmd.getOptionValue("source"));
+    }
+
+    static ModuleFilter parseModuleFilter(CommandLine cmd) {
+        return ModuleFilter.parse(cmd.getOptionValue("modules"));
+    }
+
+    /**
+     * 处理 -importStore：把 -excel（按 -source 类型）指定的数据导入索引存储目录
+     *
+     * @return 是否执行了导入
+     */
+    private static boolean runImportStore(CommandLine cmd) throws Exception {
+        if (!cmd.hasOption("importStore")) {
+            return false;
+        }
+        if (!cmd.hasOption("excel")) {
+            throw new Exception("导入索引存储需要用 -excel 指定源数据");
+        }
+        DataSourceType source = DataSourceType.of(cmd.getOptionValue("source"));
+        if (source == DataSourceType.STORE) {
+            throw new Exception("导入索引存储的源数据不能是 store 类型");
+        }
+        String sourcePath = cmd.getOptionValue("excel");
+        if (!new File(sourcePath).exists()) {
+            throw new Exception("Excel文件不存在: " + sourcePath);
+        }
+        new IndexedStoreDataHub().importFrom(source.createHub(), sourcePath, cmd.getOptionValue("importStore"));
+        return true;
+    }
+
     private static AbstractDocumentGenerator createGenerator(String docType, DataHub dataHub) {
         if ("STR".equals(docType)) {
             return new STRGenerator(dataHub);
@@ -169,6 +235,14 @@ public class ExcelToWordTool {
                 "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"data.xlsx\" -word \"template.docx\" -out \"output\" -docType STD");
         System.out.println(
                 "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"data.xlsx\" -word \"template.docx\" -out \"output\" -docType STR");
+        System.out.println(
+                "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"data.xlsx\" -word \"template.docx\" -modules \"5.3.*\"  # 只重新生成5.3章");
+        System.out.println(
+                "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"ci-data/\" -source csv -word \"template.docx\" -docType STR");
+        System.out.println(
+                "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"data.xlsx\" -importStore \"data-store\"  # 导入索引存储");
+        System.out.println(
+                "  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -excel \"data-store\" -source store -word \"template.docx\" -docType STR");
         System.out.println("  java -jar DocAutoGenByExcel-0.0.1-SNAPSHOT.jar -config  # 使用config.properties配置文件");
         System.out.println("\n详细说明请参考 README.md");
     }
@@ -4,11 +4,13 @@ import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.processor.TableFillProcessor;
 import pub.developers.docautogenbyexcel.processor.WordProcessor;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
 
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -25,40 +27,63 @@ public class WordDocumentBuilder {
         this.tableFillProcessor = new TableFillProcessor();
     }
 
+    /**
+     * Test case columns referenced by the template's tables.
+     */
+    public ColumnProjection templateColumnProjection(String templatePath) {
+        return wordProcessor.templateColumnProjection(templatePath);
+    }
+
     public int buildModuleSections(String templatePath, String outputPath,
                                    Map<String, ModuleData> moduleDataMap) throws Exception {
         return wordProcessor.processWord(templatePath, outputPath, moduleDataMap);
     }
 
-    public void fillAdditionalTables(String outputPath,
+    /**
+     * Loads the template into memory. Every later stage works on the returned document,
+     * which is serialized once by {@link #write}; the caller closes it.
+     */
+    public XWPFDocument openTemplate(String templatePath) throws Exception {
+        return wordProcessor.openTemplate(templatePath);
+    }
+
+    /**
+     * Builds the sections selected by the filter on an in-memory document;
+     * the rest of the template is left as is.
+     */
+    public int buildModuleSections(XWPFDocument document, Map<String, ModuleData> moduleDataMap,
+                                   ModuleFilter moduleFilter) throws Exception {
+        return wordProcessor.processDocument(document, moduleDataMap, moduleFilter);
+    }
+
+    public void fillAdditionalTables(XWPFDocument document,
                                      Map<String, BasicInfoData> basicInfoMap,
                                      Map<String, ListTableData> listTableMap,
-                                     Map<String, ModuleData> moduleDataMap) throws Exception {
+                                     Map<String, ModuleData> moduleDataMap) {
         // 即使basicInfoMap和listTableMap为空，只要moduleDataMap不为空就继续处理追踪表
         boolean hasBasicOrList = (basicInfoMap != null && !basicInfoMap.isEmpty())
                 || (listTableMap != null && !listTableMap.isEmpty());
         boolean hasModule = moduleDataMap != null && !moduleDataMap.isEmpty();
+
+        if (hasBasicOrList) {
+            tableFillProcessor.fillBasicInfoTables(document, basicInfoMap);
+            tableFillProcessor.fillListTables(document, listTableMap);
+        }
         
-        if (!hasBasicOrList && !hasModule) {
-            return;
+        // 填充测试项追踪表（表9.1 测试依据到测试项的追踪）
+        if (hasModule) {
+            tableFillProcessor.fillTestTraceabilityTables(document, moduleDataMap);
         }
+    }
 
-        try (FileInputStream fis = new FileInputStream(outputPath);
-             XWPFDocument document = new XWPFDocument(fis)) {
-
-            if (hasBasicOrList) {
-                tableFillProcessor.fillBasicInfoTables(document, basicInfoMap);
-                tableFillProcessor.fillListTables(document, listTableMap);
-            }
-            
-            // 填充测试项追踪表（表9.1 测试依据到测试项的追踪）
-            if (hasModule) {
-                tableFillProcessor.fillTestTraceabilityTables(document, moduleDataMap);
-            }
-
-            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-                document.write(fos);
-            }
+    /**
+     * Serializes the finished document to the output path.
+     */
+    public void write(XWPFDocument document, String outputPath) throws Exception {
+        try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+            document.write(fos);
+        } catch (IOException e) {
+            throw new Exception("写出Word文档失败: " + e.getMessage(), e);
         }
     }
 }
@@ -22,6 +22,9 @@ public class TableConfig {
     private static final String DEFAULT_BASICINFO_COLUMN_FIELDNAME = "字段名";
     private static final String DEFAULT_BASICINFO_COLUMN_FIELDVALUE = "字段值";
     private static final String DEFAULT_LISTDATA_COLUMN_TABLENAME = "表格名称";
+    private static final String DEFAULT_STREAMING_THRESHOLD_MB = "10";
+    private static final String DEFAULT_RESULT_TCID_PATTERN = "(?i)TC[-_]?(\\d+)";
+    private static final String DEFAULT_RESULT_TCID_REPLACEMENT = "TC-$1";
     
     private TableConfig() {
         properties = new Properties();
@@ -113,6 +116,38 @@ public class TableConfig {
         return getProperty("listdata.column.tablename", DEFAULT_LISTDATA_COLUMN_TABLENAME);
     }
     
+    // ==================== 读取模式配置 ====================
+    
+    /**
+     * 获取启用流式读取的Excel文件大小阈值（字节）
+     * 文件大小达到该阈值时改用SAX事件模式读取，避免整本工作簿载入内存
+     */
+    public long getStreamingThresholdBytes() {
+        String value = getProperty("excel.streaming.threshold.mb", DEFAULT_STREAMING_THRESHOLD_MB);
+        try {
+            return (long) (Double.parseDouble(value.trim()) * 1024 * 1024);
+        } catch (NumberFormatException e) {
+            return Long.parseLong(DEFAULT_STREAMING_THRESHOLD_MB) * 1024 * 1024;
+        }
+    }
+    
+    // ==================== 测试结果导入配置 ====================
+    
+    /**
+     * 获取从JUnit/TestNG报告的testcase名称中提取用例标识的正则表达式
+     * 先在方法名中查找，找不到再在类名中查找
+     */
+    public String getResultTcidPattern() {
+        return getProperty("result.tcid.pattern", DEFAULT_RESULT_TCID_PATTERN);
+    }
+    
+    /**
+     * 获取用例标识的替换模板，可引用正则中的分组，如 TC-$1
+     */
+    public String getResultTcidReplacement() {
+        return getProperty("result.tcid.replacement", DEFAULT_RESULT_TCID_REPLACEMENT);
+    }
+    
     // ==================== 调试配置 ====================
     
     /**
@@ -158,6 +193,19 @@ public class TableConfig {
         return headerColumns.get(0).equals(getListDataTableNameColumn());
     }
     
+    /**
+     * 影响Sheet识别和解析结果的配置指纹
+     * 用于解析结果缓存的键，配置变化后旧的缓存不会再被命中
+     */
+    public String getSettingsFingerprint() {
+        return String.join("|",
+                getTestCaseRequiredColumn(),
+                getBasicInfoTableNameColumn(),
+                getBasicInfoFieldNameColumn(),
+                getBasicInfoFieldValueColumn(),
+                getListDataTableNameColumn());
+    }
+    
     /**
      * 获取Properties对象（用于扩展配置加载）
      */
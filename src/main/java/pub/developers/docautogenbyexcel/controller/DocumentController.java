@@ -4,9 +4,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
 import pub.developers.docautogenbyexcel.service.DocumentService;
 import pub.developers.docautogenbyexcel.service.DocumentService.DocumentInfo;
 import pub.developers.docautogenbyexcel.service.DocumentService.ProcessResult;
+import pub.developers.docautogenbyexcel.validator.ValidationReport;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -30,14 +32,18 @@ public class DocumentController {
      * POST /api/documents/process
      * Content-Type: multipart/form-data
      * 
-     * @param excelFile Excel数据文件
-     * @param wordFile  Word模板文件
+     * @param excelFile  Excel数据文件；dataSource为csv/jsonl/store时为包含数据文件的zip包
+     * @param wordFile   Word模板文件
+     * @param dataSource 数据源类型：excel（默认）、csv、jsonl 或 store
+     * @param modules    只重新生成的模块，逗号分隔的章节前缀或通配符（如 5.3.*），为空时生成全部模块
      */
     @PostMapping("/process")
     public ResponseEntity<?> processDocuments(
             @RequestParam("excel") MultipartFile excelFile,
             @RequestParam("word") MultipartFile wordFile,
-            @RequestParam(value = "docType", defaultValue = "STD") String docType) {
+            @RequestParam(value = "docType", defaultValue = "STD") String docType,
+            @RequestParam(value = "dataSource", defaultValue = "excel") String dataSource,
+            @RequestParam(value = "modules", required = false) String modules) {
 
         // 验证文件
         if (excelFile.isEmpty() || wordFile.isEmpty()) {
@@ -48,9 +54,21 @@ public class DocumentController {
         String excelName = excelFile.getOriginalFilename();
         String wordName = wordFile.getOriginalFilename();
 
-        if (excelName == null || !excelName.matches(".*\\.xlsx?$")) {
+        DataSourceType sourceType;
+        try {
+            sourceType = DataSourceType.of(dataSource);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+
+        if (sourceType.isDirectory()) {
+            if (excelName == null || !excelName.toLowerCase().endsWith(".zip")) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "CSV/JSON-Lines数据源和索引存储请上传包含数据文件的zip包"));
+            }
+        } else if (excelName == null || !excelName.matches(".*\\.xls[xb]?$")) {
             return ResponseEntity.badRequest()
-                    .body(Map.of("error", "请上传有效的Excel文件(.xlsx或.xls)"));
+                    .body(Map.of("error", "请上传有效的Excel文件(.xlsx、.xlsb或.xls)"));
         }
 
         if (wordName == null || !wordName.matches(".*\\.docx?$")) {
@@ -61,7 +79,7 @@ public class DocumentController {
         try {
             ProcessResult result = documentService.processDocuments(
                     excelFile.getInputStream(), excelName,
-                    wordFile.getInputStream(), wordName, docType);
+                    wordFile.getInputStream(), wordName, docType, dataSource, modules);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
@@ -82,6 +100,60 @@ public class DocumentController {
         }
     }
 
+    /**
+     * 预检Excel和Word文件：只读取表头和模板的目录、占位符段落，不生成文档
+     * 两个文件至少上传一个
+     *
+     * POST /api/documents/validate
+     * Content-Type: multipart/form-data
+     */
+    @PostMapping("/validate")
+    public ResponseEntity<?> validateDocuments(
+            @RequestParam(value = "excel", required = false) MultipartFile excelFile,
+            @RequestParam(value = "word", required = false) MultipartFile wordFile,
+            @RequestParam(value = "docType", defaultValue = "STD") String docType) {
+
+        boolean hasExcel = excelFile != null && !excelFile.isEmpty();
+        boolean hasWord = wordFile != null && !wordFile.isEmpty();
+        if (!hasExcel && !hasWord) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "请上传Excel或Word文件"));
+        }
+        if (hasExcel && (excelFile.getOriginalFilename() == null
+                || !excelFile.getOriginalFilename().matches(".*\\.xls[xb]?$"))) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "请上传有效的Excel文件(.xlsx、.xlsb或.xls)"));
+        }
+        if (hasWord && (wordFile.getOriginalFilename() == null
+                || !wordFile.getOriginalFilename().matches(".*\\.docx?$"))) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "请上传有效的Word文件(.docx或.doc)"));
+        }
+
+        try {
+            ValidationReport report = documentService.validateDocuments(
+                    hasExcel ? excelFile.getInputStream() : null, hasExcel ? excelFile.getOriginalFilename() : null,
+                    hasWord ? wordFile.getInputStream() : null, hasWord ? wordFile.getOriginalFilename() : null,
+                    docType);
+
+            return ResponseEntity.ok(Map.of(
+                    "success", report.isValid(),
+                    "errors", report.getErrors(),
+                    "warnings", report.getWarnings(),
+                    "sheets", report.getSheets(),
+                    "moduleNumbers", report.getModuleNumbers(),
+                    "wordSections", report.getWordSections(),
+                    "placeholders", report.getPlaceholders(),
+                    "elapsedMillis", report.getElapsedMillis()));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of(
+                            "error", "预检失败: " + e.getMessage(),
+                            "success", false));
+        }
+    }
+
     /**
      * 下载处理后的文档（根据文件名）
      * 
@@ -289,6 +361,18 @@ public class DocumentController {
         }
     }
 
+    /**
+     * 获取Excel解析缓存统计（命中/未命中/淘汰次数）
+     * 
+     * GET /api/documents/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getParseCacheStats() {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "stats", documentService.getParseCacheStats()));
+    }
+
     /**
      * 清理旧文件
      * 
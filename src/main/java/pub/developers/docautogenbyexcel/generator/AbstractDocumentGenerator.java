@@ -1,7 +1,10 @@
 package pub.developers.docautogenbyexcel.generator;
 
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import pub.developers.docautogenbyexcel.builder.WordDocumentBuilder;
 import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 
 /**
  * 抽象生成层基类
@@ -9,6 +12,7 @@ import pub.developers.docautogenbyexcel.hub.DataHub;
  *
  * 所有文档生成器都应继承此基类，
  * 确保生成流程遵循统一的数据提取、内容生成、保存三步流程。
+ * 模板只读取一次，内容生成和保存阶段都在同一个内存文档上修改，全部完成后写出一次。
  */
 public abstract class AbstractDocumentGenerator {
 
@@ -23,6 +27,8 @@ public abstract class AbstractDocumentGenerator {
   /**
    * 模板方法：提取数据 → 生成内容 → 保存
    * 不可被子类覆盖，确保执行顺序为 extractData → generateContent → save
+   * 整个流程运行在同一个数据中枢会话中，数据源只解析一次；
+   * 测试用例只读取模板表格用到的列（见 {@link WordDocumentBuilder#templateColumnProjection}）
    *
    * @param excelPath    Excel数据源路径
    * @param templatePath Word模板路径
@@ -31,45 +37,73 @@ public abstract class AbstractDocumentGenerator {
    * @throws Exception 任何步骤失败时抛出
    */
   public final GenerateResult generate(String excelPath, String templatePath, String outputPath) throws Exception {
-    ExtractedData extractedData = extractData(excelPath);
-    int contentResult = generateContent(templatePath, outputPath, extractedData);
-    return save(outputPath, extractedData, contentResult);
+    return generate(excelPath, templatePath, outputPath, ModuleFilter.ALL);
+  }
+
+  /**
+   * 只重新生成选中模块的章节
+   * 数据源读取时跳过未选中模块的测试用例，Word中只处理选中的章节，其余部分保持模板原样；
+   * 筛选生成时不执行 save() 中针对全文的后处理（附加表格填充、统计），避免用部分数据覆盖全文内容
+   *
+   * @param moduleFilter 模块筛选，{@link ModuleFilter#ALL} 时与完整生成相同
+   */
+  public final GenerateResult generate(String excelPath, String templatePath, String outputPath,
+      ModuleFilter moduleFilter) throws Exception {
+    ColumnProjection projection = wordDocumentBuilder.templateColumnProjection(templatePath);
+    try (DataHub.Session ignored = dataHub.openSession(excelPath, projection, moduleFilter)) {
+      ExtractedData extractedData = extractData(excelPath, projection, moduleFilter);
+      try (XWPFDocument document = wordDocumentBuilder.openTemplate(templatePath)) {
+        int contentResult = generateContent(document, extractedData, moduleFilter);
+        GenerateResult result;
+        if (moduleFilter.isAll()) {
+          result = save(document, extractedData, contentResult);
+        } else {
+          System.out.println("按模块筛选生成，跳过附加表格和统计: " + moduleFilter);
+          result = new GenerateResult(contentResult);
+        }
+        wordDocumentBuilder.write(document, outputPath);
+        return result;
+      }
+    }
   }
 
   /**
    * 第一步：从数据源提取所需数据
    * 子类实现具体的数据提取逻辑
    *
-   * @param excelPath 数据源路径
+   * @param excelPath    数据源路径
+   * @param projection   测试用例只需读取的列，按列裁剪读取测试用例时传给数据中枢
+   * @param moduleFilter 只需读取的模块，读取测试用例时传给数据中枢
    * @return 提取的数据容器
    * @throws Exception 提取失败时抛出
    */
-  protected abstract ExtractedData extractData(String excelPath) throws Exception;
+  protected abstract ExtractedData extractData(String excelPath, ColumnProjection projection,
+      ModuleFilter moduleFilter) throws Exception;
 
   /**
    * 第二步：基于提取的数据生成文档内容
    * 子类实现具体的文档内容生成逻辑
    *
-   * @param templatePath  模板文件路径
-   * @param outputPath    输出文件路径
+   * @param document      已读取的模板文档，在其上直接生成内容
    * @param extractedData 提取的数据
+   * @param moduleFilter  只处理的章节
    * @return 生成的内容统计（如模块数量）
    * @throws Exception 生成失败时抛出
    */
-  protected abstract int generateContent(String templatePath, String outputPath, ExtractedData extractedData)
-      throws Exception;
+  protected abstract int generateContent(XWPFDocument document, ExtractedData extractedData,
+      ModuleFilter moduleFilter) throws Exception;
 
   /**
-   * 第三步：保存最终结果并返回生成结果
+   * 第三步：保存前的后处理并返回生成结果，返回后文档由基类写出
    * 默认实现直接返回结果，子类可覆盖以添加后处理（如追加表格）
    *
-   * @param outputPath    输出文件路径
+   * @param document      已生成内容的文档
    * @param extractedData 提取的数据
    * @param contentResult 生成的内容统计
    * @return 最终生成结果
    * @throws Exception 保存失败时抛出
    */
-  protected GenerateResult save(String outputPath, ExtractedData extractedData, int contentResult) throws Exception {
+  protected GenerateResult save(XWPFDocument document, ExtractedData extractedData, int contentResult) throws Exception {
     return new GenerateResult(contentResult);
   }
 
@@ -1,9 +1,12 @@
 package pub.developers.docautogenbyexcel.generator;
 
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import pub.developers.docautogenbyexcel.hub.DataHub;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.Requirement;
 import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
 
@@ -60,8 +63,9 @@ public class STDGenerator extends AbstractDocumentGenerator {
     }
 
     @Override
-    protected STDExtractedData extractData(String excelPath) throws Exception {
-        Map<String, ModuleData> moduleDataMap = dataHub.loadModuleData(excelPath);
+    protected STDExtractedData extractData(String excelPath, ColumnProjection projection,
+                                           ModuleFilter moduleFilter) throws Exception {
+        Map<String, ModuleData> moduleDataMap = dataHub.loadModuleData(excelPath, projection, moduleFilter);
         Map<String, BasicInfoData> basicInfoMap = dataHub.loadBasicInfo(excelPath);
         Map<String, ListTableData> listTableMap = dataHub.loadListTables(excelPath);
         List<Requirement> requirements = dataHub.loadRequirements(excelPath);
@@ -69,19 +73,19 @@ public class STDGenerator extends AbstractDocumentGenerator {
     }
 
     @Override
-    protected int generateContent(String templatePath, String outputPath, ExtractedData extractedData)
-            throws Exception {
+    protected int generateContent(XWPFDocument document, ExtractedData extractedData,
+                                  ModuleFilter moduleFilter) throws Exception {
         STDExtractedData stdData = (STDExtractedData) extractedData;
-        return wordDocumentBuilder.buildModuleSections(templatePath, outputPath, stdData.getModuleDataMap());
+        return wordDocumentBuilder.buildModuleSections(document, stdData.getModuleDataMap(), moduleFilter);
     }
 
     @Override
-    protected GenerateResult save(String outputPath, ExtractedData extractedData, int contentResult) throws Exception {
+    protected GenerateResult save(XWPFDocument document, ExtractedData extractedData, int contentResult) throws Exception {
         STDExtractedData stdData = (STDExtractedData) extractedData;
-        wordDocumentBuilder.fillAdditionalTables(outputPath, stdData.getBasicInfoMap(), stdData.getListTableMap(), stdData.getModuleDataMap());
+        wordDocumentBuilder.fillAdditionalTables(document, stdData.getBasicInfoMap(), stdData.getListTableMap(), stdData.getModuleDataMap());
         
         // 生成追溯矩阵和孤儿需求警告
-        generateTraceMatrixAndOrphanWarnings(outputPath, stdData.getRequirements(), stdData.getModuleDataMap());
+        generateTraceMatrixAndOrphanWarnings(stdData.getRequirements(), stdData.getModuleDataMap());
         
         return new GenerateResult(contentResult);
     }
@@ -91,8 +95,8 @@ public class STDGenerator extends AbstractDocumentGenerator {
      * 追溯矩阵：以需求为行、用例为列，交叉处标记"×"表示覆盖
      * 孤儿需求检测：没有任何用例覆盖的需求，在矩阵下方添加警告信息
      */
-    private void generateTraceMatrixAndOrphanWarnings(String outputPath, 
-            List<Requirement> requirements, Map<String, ModuleData> moduleDataMap) throws Exception {
+    private void generateTraceMatrixAndOrphanWarnings(
+            List<Requirement> requirements, Map<String, ModuleData> moduleDataMap) {
         // 构建需求->用例映射关系
         Map<String, List<String>> reqToTcMap = new LinkedHashMap<>();
         Map<String, String> reqIdToTitleMap = new LinkedHashMap<>();
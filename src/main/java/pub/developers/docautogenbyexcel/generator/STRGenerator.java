@@ -1,10 +1,13 @@
 package pub.developers.docautogenbyexcel.generator;
 
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import pub.developers.docautogenbyexcel.hub.DataHub;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.Requirement;
 import pub.developers.docautogenbyexcel.model.TestCase;
 import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
 
@@ -75,34 +78,35 @@ public class STRGenerator extends AbstractDocumentGenerator {
   }
 
   @Override
-  protected STRExtractedData extractData(String excelPath) throws Exception {
-    Map<String, ModuleData> moduleDataMap = dataHub.loadModuleData(excelPath);
+  protected STRExtractedData extractData(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+      throws Exception {
+    Map<String, ModuleData> moduleDataMap = dataHub.loadModuleData(excelPath, projection, moduleFilter);
     List<TestResult> testResults = dataHub.loadTestResults(excelPath);
     Map<String, BasicInfoData> basicInfoMap = dataHub.loadBasicInfo(excelPath);
     Map<String, ListTableData> listTableMap = dataHub.loadListTables(excelPath);
     List<Requirement> requirements = dataHub.loadRequirements(excelPath);
-    List<TestCase> testCases = dataHub.loadTestCases(excelPath);
+    List<TestCase> testCases = dataHub.loadTestCases(excelPath, projection, moduleFilter);
     return new STRExtractedData(moduleDataMap, testResults, basicInfoMap, listTableMap, requirements, testCases);
   }
 
   @Override
-  protected int generateContent(String templatePath, String outputPath, ExtractedData extractedData)
+  protected int generateContent(XWPFDocument document, ExtractedData extractedData, ModuleFilter moduleFilter)
       throws Exception {
     STRExtractedData strData = (STRExtractedData) extractedData;
     StrStatistics stats = analyzeStatistics(strData.getTestResults());
     System.out.println("STR统计：总结果=" + stats.total() + "，通过=" + stats.passed()
         + "，失败=" + stats.failed() + "，其他=" + stats.others());
-    int moduleCount = wordDocumentBuilder.buildModuleSections(templatePath, outputPath, strData.getModuleDataMap());
+    int moduleCount = wordDocumentBuilder.buildModuleSections(document, strData.getModuleDataMap(), moduleFilter);
     return moduleCount;
   }
 
   @Override
-  protected GenerateResult save(String outputPath, ExtractedData extractedData, int contentResult) throws Exception {
+  protected GenerateResult save(XWPFDocument document, ExtractedData extractedData, int contentResult) throws Exception {
     STRExtractedData strData = (STRExtractedData) extractedData;
-    wordDocumentBuilder.fillAdditionalTables(outputPath, strData.getBasicInfoMap(), strData.getListTableMap(), strData.getModuleDataMap());
+    wordDocumentBuilder.fillAdditionalTables(document, strData.getBasicInfoMap(), strData.getListTableMap(), strData.getModuleDataMap());
     
     // 生成STR统计分析：测试统计、需求通过率、缺陷汇总
-    generateSTRStatistics(outputPath, strData.getTestResults(), strData.getRequirements(), strData.getTestCases());
+    generateSTRStatistics(strData.getTestResults(), strData.getRequirements(), strData.getTestCases());
     
     return new GenerateResult(contentResult);
   }
@@ -134,7 +138,7 @@ public class STRGenerator extends AbstractDocumentGenerator {
    * 生成STR统计分析数据
    * 包括：测试统计概览、需求通过率、缺陷汇总
    */
-  private void generateSTRStatistics(String outputPath,
+  private void generateSTRStatistics(
       List<TestResult> testResults,
       List<Requirement> requirements,
       List<TestCase> testCases) throws Exception {
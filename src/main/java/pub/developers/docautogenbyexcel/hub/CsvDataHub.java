@@ -0,0 +1,144 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CSV 数据目录的 DataHub（每张逻辑表一个 .csv 文件，UTF-8 编码，首行为列名）。
+ * 按 RFC 4180 解析：字段可用双引号包裹，引号内可包含逗号、换行，两个双引号表示一个双引号；
+ * 首行开头的 BOM 会被忽略，便于直接使用 Excel 另存的 CSV。
+ */
+public class CsvDataHub extends TabularDataHub {
+
+  @Override
+  protected String extension() {
+    return ".csv";
+  }
+
+  @Override
+  protected void readRows(Path file, RowHandler handler) throws Exception {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      List<String> header = readRecord(reader);
+      if (header == null) {
+        return;
+      }
+      if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+        header.set(0, header.get(0).substring(1));
+      }
+      List<String> columns = Collections.unmodifiableList(trimAll(header));
+      List<String> values;
+      while ((values = readRecord(reader)) != null) {
+        if (values.size() == 1 && values.get(0).isEmpty()) {
+          continue;
+        }
+        while (values.size() < columns.size()) {
+          values.add("");
+        }
+        handler.row(columns, values);
+      }
+    }
+  }
+
+  @Override
+  protected void writeRows(Path file, List<String> columns, List<List<String>> rows, boolean append)
+      throws IOException {
+    boolean writeHeader = !append || !Files.exists(file) || Files.size(file) == 0;
+    if (!writeHeader && rows.isEmpty()) {
+      return;
+    }
+    StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+      if (writeHeader) {
+        writeRecord(writer, columns);
+      }
+      for (List<String> row : rows) {
+        writeRecord(writer, row);
+      }
+    }
+  }
+
+  /**
+   * 读取一条记录（可能跨多行），文件结束时返回null
+   */
+  static List<String> readRecord(Reader reader) throws IOException {
+    int c = reader.read();
+    if (c == -1) {
+      return null;
+    }
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    while (c != -1) {
+      if (quoted) {
+        if (c == '"') {
+          reader.mark(1);
+          int next = reader.read();
+          if (next == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            if (next != -1) {
+              reader.reset();
+            }
+          }
+        } else {
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n') {
+        break;
+      } else if (c == '\r') {
+        reader.mark(1);
+        if (reader.read() != '\n') {
+          reader.reset();
+        }
+        break;
+      } else {
+        field.append((char) c);
+      }
+      c = reader.read();
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  static void writeRecord(Writer writer, List<String> fields) throws IOException {
+    for (int i = 0; i < fields.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      String value = fields.get(i) == null ? "" : fields.get(i);
+      if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+          || value.indexOf('\r') >= 0) {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+      } else {
+        writer.write(value);
+      }
+    }
+    writer.write("\r\n");
+  }
+
+  private static List<String> trimAll(List<String> values) {
+    List<String> trimmed = new ArrayList<>(values.size());
+    for (String value : values) {
+      trimmed.add(value.trim());
+    }
+    return trimmed;
+  }
+}
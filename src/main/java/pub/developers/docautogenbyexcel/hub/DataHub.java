@@ -4,6 +4,8 @@ import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.Requirement;
 import pub.developers.docautogenbyexcel.model.TestCase;
 import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
 
@@ -18,6 +20,27 @@ public interface DataHub {
 
     Map<String, ModuleData> loadModuleData(String excelPath) throws Exception;
 
+    /**
+     * Loads test cases grouped by module, materializing only the columns the
+     * projection selects (plus identifier and trace columns).
+     * Callers must not rely on other columns being absent; the default
+     * implementation ignores the projection and loads every column.
+     */
+    default Map<String, ModuleData> loadModuleData(String excelPath, ColumnProjection projection) throws Exception {
+        return loadModuleData(excelPath);
+    }
+
+    /**
+     * Loads only the modules selected by the filter, with the same column
+     * projection semantics as {@link #loadModuleData(String, ColumnProjection)}.
+     * Implementations should skip non-matching rows while reading; the default
+     * implementation loads everything and filters afterwards.
+     */
+    default Map<String, ModuleData> loadModuleData(String excelPath, ColumnProjection projection,
+                                                   ModuleFilter moduleFilter) throws Exception {
+        return moduleFilter.apply(loadModuleData(excelPath, projection));
+    }
+
     Map<String, BasicInfoData> loadBasicInfo(String excelPath) throws Exception;
 
     Map<String, ListTableData> loadListTables(String excelPath) throws Exception;
@@ -26,6 +49,23 @@ public interface DataHub {
 
     List<TestCase> loadTestCases(String excelPath) throws Exception;
 
+    /**
+     * Loads all test cases with the same column projection semantics as
+     * {@link #loadModuleData(String, ColumnProjection)}.
+     */
+    default List<TestCase> loadTestCases(String excelPath, ColumnProjection projection) throws Exception {
+        return loadTestCases(excelPath);
+    }
+
+    /**
+     * Loads the test cases of the modules selected by the filter, see
+     * {@link #loadModuleData(String, ColumnProjection, ModuleFilter)}.
+     */
+    default List<TestCase> loadTestCases(String excelPath, ColumnProjection projection,
+                                         ModuleFilter moduleFilter) throws Exception {
+        return moduleFilter.apply(loadTestCases(excelPath, projection));
+    }
+
     List<TestResult> loadTestResults(String excelPath) throws Exception;
 
     Map<String, String> loadConfig(String excelPath) throws Exception;
@@ -35,4 +75,55 @@ public interface DataHub {
     ImportSummary writeTestCases(String excelPath, List<TestCase> testCases) throws Exception;
 
     ImportSummary appendTestResults(String excelPath, List<TestResult> testResults) throws Exception;
+
+    /**
+     * Folds any test results that were appended outside the main source
+     * (for example into a sidecar journal) back into it in a single write.
+     * The default implementation has nothing to fold.
+     *
+     * @return number of results folded
+     */
+    default int compactTestResults(String excelPath) throws Exception {
+        return 0;
+    }
+
+    /**
+     * Opens a read session on the given source.
+     * While the session is open, load* calls for the same path may be served
+     * from a single parsed model instead of re-reading the source each time.
+     * The default implementation keeps no state.
+     */
+    default Session openSession(String excelPath) throws Exception {
+        return () -> {
+        };
+    }
+
+    /**
+     * Opens a read session whose shared model only needs the test case
+     * columns selected by the projection. Projected loads made during the
+     * session may be served from that smaller model; unprojected loads still
+     * see every column. The default implementation ignores the projection.
+     */
+    default Session openSession(String excelPath, ColumnProjection projection) throws Exception {
+        return openSession(excelPath);
+    }
+
+    /**
+     * Opens a read session whose shared model only needs the projected
+     * columns of the modules selected by the filter. Loads that ask for other
+     * modules still see them. The default implementation ignores the filter.
+     */
+    default Session openSession(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        return openSession(excelPath, projection);
+    }
+
+    /**
+     * Handle of an open read session; closing it releases the shared model.
+     */
+    interface Session extends AutoCloseable {
+
+        @Override
+        void close();
+    }
 }
@@ -0,0 +1,54 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import java.util.Locale;
+
+/**
+ * 生成文档时的数据源类型
+ */
+public enum DataSourceType {
+  /** Excel 工作簿（默认） */
+  EXCEL,
+  /** 每张逻辑表一个 .csv 文件的数据目录 */
+  CSV,
+  /** 每张逻辑表一个 .jsonl 文件的数据目录 */
+  JSONL,
+  /** 由 Excel 等数据源导入的索引存储目录 */
+  STORE;
+
+  /**
+   * 按名称解析数据源类型，空值为 EXCEL
+   *
+   * @throws IllegalArgumentException 不支持的类型
+   */
+  public static DataSourceType of(String name) {
+    if (name == null || name.isBlank()) {
+      return EXCEL;
+    }
+    return switch (name.trim().toLowerCase(Locale.ROOT)) {
+      case "excel", "xlsx", "xlsb" -> EXCEL;
+      case "csv" -> CSV;
+      case "jsonl", "json-lines", "ndjson" -> JSONL;
+      case "store" -> STORE;
+      default -> throw new IllegalArgumentException("不支持的数据源类型: " + name + "（可选 excel、csv、jsonl、store）");
+    };
+  }
+
+  /**
+   * 数据源是否为数据目录（而不是单个工作簿文件）
+   */
+  public boolean isDirectory() {
+    return this != EXCEL;
+  }
+
+  /**
+   * 创建该类型的 DataHub
+   */
+  public DataHub createHub() {
+    return switch (this) {
+      case EXCEL -> new ExcelDataHub();
+      case CSV -> new CsvDataHub();
+      case JSONL -> new JsonLinesDataHub();
+      case STORE -> new IndexedStoreDataHub();
+    };
+  }
+}
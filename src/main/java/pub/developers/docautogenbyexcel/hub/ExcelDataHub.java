@@ -5,13 +5,28 @@ import org.apache.poi.ss.usermodel.CellType;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFName;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import pub.developers.docautogenbyexcel.config.TableConfig;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.Requirement;
 import pub.developers.docautogenbyexcel.model.TestCase;
 import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.CellValueContext;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
 import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+import pub.developers.docautogenbyexcel.reader.SheetIndex;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetInfo;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader.StreamedWorkbook;
 import pub.developers.docautogenbyexcel.reader.TableDataReader;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
 import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
@@ -20,287 +35,998 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Concrete DataHub implementation backed by Excel files.
+ * Access is guarded per workbook: loads of one file run in parallel, writes are exclusive,
+ * and different files never contend.
  */
 @Component
 public class ExcelDataHub implements DataHub {
 
+    private static final long DEFAULT_CACHE_MAX_MB = 256;
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 32;
+    /** 0表示按CPU核数自动确定，上限为可并行的Sheet类别数 */
+    private static final int DEFAULT_PARSE_THREADS = 0;
+    private static final int MAX_PARSE_TASKS = 7;
+    /** 解析后是否在工作簿旁保存 .dhub 快照文件 */
+    private static final boolean DEFAULT_SNAPSHOT_FILES = true;
+    /** 流式导出时新Sheet在内存中保留的行数，超出部分写入临时文件 */
+    private static final int EXPORT_ROW_WINDOW = 200;
+    /** 重建Sheet时新Sheet的临时名称，写完后改为目标名称 */
+    private static final String REBUILD_SHEET_NAME = "~rebuild";
+    /** 并发导入测试结果时，负责写入的调用方等待其他批次加入的时间 */
+    private static final long DEFAULT_RESULT_BATCH_WINDOW_MS = 10;
+
     private final ExcelReader excelReader;
+    private final StreamingExcelReader streamingExcelReader;
     private final TableDataReader tableDataReader;
+    private final SnapshotCache snapshotCache;
+    /** 并行解析各类Sheet的线程池，为null时顺序解析 */
+    private final ExecutorService parseExecutor;
+    private final Map<String, SessionEntry> sessions = new HashMap<>();
+    /** 规范路径 -> 测试结果追加日志和导入协调器，只保留正在使用的文件 */
+    private final Map<String, ResultChannel> resultChannels = new HashMap<>();
+    /** 规范路径 -> 读写锁：同一文件的读取并行，写入独占；不同文件互不阻塞 */
+    private final WorkbookLocks workbookLocks = new WorkbookLocks();
+    private final long resultBatchWindowMillis;
+    private final boolean snapshotFiles;
+    /** 后台保存完整快照文件的线程池，未启用快照文件时为null */
+    private final ExecutorService snapshotFileExecutor;
+    /** 正在后台保存快照文件的内容键 */
+    private final Set<String> pendingSnapshotFiles = ConcurrentHashMap.newKeySet();
+    /** 路径 -> 上次解析时的部件指纹和结果（弱引用），按LRU保留，条目上限与解析缓存相同 */
+    private final Map<String, ParseRecord> parseHistory;
 
     public ExcelDataHub() {
+        this(DEFAULT_CACHE_MAX_MB, DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    public ExcelDataHub(long cacheMaxMb, int cacheMaxEntries) {
+        this(cacheMaxMb, cacheMaxEntries, DEFAULT_PARSE_THREADS);
+    }
+
+    public ExcelDataHub(long cacheMaxMb, int cacheMaxEntries, int parseThreads) {
+        this(cacheMaxMb, cacheMaxEntries, parseThreads, DEFAULT_RESULT_BATCH_WINDOW_MS);
+    }
+
+    public ExcelDataHub(long cacheMaxMb, int cacheMaxEntries, int parseThreads, long resultBatchWindowMillis) {
+        this(cacheMaxMb, cacheMaxEntries, parseThreads, resultBatchWindowMillis, DEFAULT_SNAPSHOT_FILES);
+    }
+
+    @Autowired
+    public ExcelDataHub(@Value("${datahub.cache.max-mb:" + DEFAULT_CACHE_MAX_MB + "}") long cacheMaxMb,
+                        @Value("${datahub.cache.max-entries:" + DEFAULT_CACHE_MAX_ENTRIES + "}") int cacheMaxEntries,
+                        @Value("${datahub.parse.threads:" + DEFAULT_PARSE_THREADS + "}") int parseThreads,
+                        @Value("${datahub.results.batch-window-ms:" + DEFAULT_RESULT_BATCH_WINDOW_MS + "}")
+                        long resultBatchWindowMillis,
+                        @Value("${datahub.snapshot.files:" + DEFAULT_SNAPSHOT_FILES + "}") boolean snapshotFiles) {
         this.excelReader = new ExcelReader();
+        this.streamingExcelReader = new StreamingExcelReader();
         this.tableDataReader = new TableDataReader();
+        this.snapshotCache = new SnapshotCache(cacheMaxMb * 1024 * 1024, cacheMaxEntries);
+        this.parseExecutor = createParseExecutor(parseThreads);
+        this.resultBatchWindowMillis = resultBatchWindowMillis;
+        this.snapshotFiles = snapshotFiles;
+        this.snapshotFileExecutor = snapshotFiles ? createSnapshotFileExecutor() : null;
+        this.parseHistory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParseRecord> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
     }
 
     @Override
     public Map<String, ModuleData> loadModuleData(String excelPath) throws Exception {
-        return excelReader.readExcel(excelPath);
+        return loadModuleData(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 会话快照包含所需的列时从快照返回，否则按裁剪直接读取
+     */
+    @Override
+    public Map<String, ModuleData> loadModuleData(String excelPath, ColumnProjection projection) throws Exception {
+        return loadModuleData(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 会话快照包含所需的列和模块时从快照中筛选，否则按裁剪和模块筛选直接读取，不匹配的行不构建TestCase
+     */
+    @Override
+    public Map<String, ModuleData> loadModuleData(String excelPath, ColumnProjection projection,
+                                                  ModuleFilter moduleFilter) throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath, projection, moduleFilter);
+            if (snapshot != null) {
+                return moduleFilter.apply(snapshot.getModuleDataMap());
+            }
+            return excelReader.readExcel(excelPath, projection, moduleFilter);
+        }
     }
 
     @Override
     public Map<String, BasicInfoData> loadBasicInfo(String excelPath) throws Exception {
-        return tableDataReader.readBasicInfo(excelPath);
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath);
+            if (snapshot != null) {
+                return snapshot.getBasicInfoMap();
+            }
+            return tableDataReader.readBasicInfo(excelPath);
+        }
     }
 
     @Override
     public Map<String, ListTableData> loadListTables(String excelPath) throws Exception {
-        return tableDataReader.readAllListTableData(excelPath);
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath);
+            if (snapshot != null) {
+                return snapshot.getListTableMap();
+            }
+            return tableDataReader.readAllListTableData(excelPath);
+        }
     }
 
     @Override
     public List<Requirement> loadRequirements(String excelPath) throws Exception {
-        List<Requirement> requirements = new ArrayList<>();
-        try (Workbook workbook = openWorkbook(excelPath)) {
-            Sheet sheet = findSheetByHeaders(workbook, Set.of("ReqID", "需求ID"));
-            if (sheet == null) {
-                return requirements;
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath);
+            if (snapshot != null) {
+                return snapshot.getRequirements();
             }
-
-            Map<String, Integer> header = readHeaderMap(sheet);
-            int reqIdCol = findColumn(header, "ReqID", "需求ID", "RequirementId");
-            int reqTitleCol = findColumn(header, "ReqTitle", "需求标题", "需求名称");
-            int descCol = findColumn(header, "Description", "需求描述");
-            int priorityCol = findColumn(header, "Priority", "优先级");
-
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                Row row = sheet.getRow(r);
-                if (row == null) {
-                    continue;
-                }
-                String reqId = getCellValue(row.getCell(reqIdCol));
-                if (reqId == null || reqId.isBlank()) {
-                    continue;
-                }
-                Requirement req = new Requirement();
-                req.setRequirementId(reqId.trim());
-                req.setRequirementNumber(reqId.trim());
-                req.setRequirementName(safeCell(row, reqTitleCol));
-                req.setDescription(safeCell(row, descCol));
-                String priority = safeCell(row, priorityCol);
-                if ("高".equals(priority)) {
-                    req.setPriority(Requirement.Priority.HIGH);
-                } else if ("低".equals(priority)) {
-                    req.setPriority(Requirement.Priority.LOW);
-                } else {
-                    req.setPriority(Requirement.Priority.MEDIUM);
-                }
-                requirements.add(req);
+            try (Workbook workbook = openWorkbook(excelPath)) {
+                return readRequirements(SheetIndex.build(workbook));
             }
         }
-        return requirements;
     }
 
     @Override
     public List<TestCase> loadTestCases(String excelPath) throws Exception {
-        List<TestCase> result = new ArrayList<>();
-        Map<String, ModuleData> moduleDataMap = excelReader.readExcel(excelPath);
-        for (ModuleData moduleData : moduleDataMap.values()) {
-            result.addAll(moduleData.getTestCases());
+        return loadTestCases(excelPath, ColumnProjection.ALL);
+    }
+
+    @Override
+    public List<TestCase> loadTestCases(String excelPath, ColumnProjection projection) throws Exception {
+        return loadTestCases(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    @Override
+    public List<TestCase> loadTestCases(String excelPath, ColumnProjection projection,
+                                        ModuleFilter moduleFilter) throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath, projection, moduleFilter);
+            if (snapshot != null) {
+                return moduleFilter.apply(snapshot.getTestCases());
+            }
+            List<TestCase> result = new ArrayList<>();
+            Map<String, ModuleData> moduleDataMap = excelReader.readExcel(excelPath, projection, moduleFilter);
+            for (ModuleData moduleData : moduleDataMap.values()) {
+                result.addAll(moduleData.getTestCases());
+            }
+            return result;
         }
-        return result;
     }
 
     @Override
     public List<TestResult> loadTestResults(String excelPath) throws Exception {
-        List<TestResult> results = new ArrayList<>();
-        try (Workbook workbook = openWorkbook(excelPath)) {
-            Sheet sheet = findSheetByHeaders(workbook, Set.of("TCID", "测试用例标识", "标识"));
-            if (sheet == null) {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            List<TestResult> results;
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath);
+            if (snapshot != null) {
+                results = snapshot.getTestResults();
+            } else {
+                try (Workbook workbook = openWorkbook(excelPath)) {
+                    results = readTestResults(SheetIndex.build(workbook));
+                }
+            }
+            // 合并尚未压缩进工作簿的追加日志
+            List<TestResult> journaled = withResultChannel(excelPath, channel -> channel.journal.read());
+            if (journaled.isEmpty()) {
                 return results;
             }
+            List<TestResult> merged = new ArrayList<>(results.size() + journaled.size());
+            merged.addAll(results);
+            merged.addAll(journaled);
+            return merged;
+        }
+    }
 
-            Map<String, Integer> header = readHeaderMap(sheet);
-            int tcidCol = findColumn(header, "TCID", "测试用例标识", "标识");
-            int execDateCol = findColumn(header, "ExecDate", "执行日期", "Date");
-            int resultCol = findColumn(header, "Result", "测试结论", "结论");
-            int defectCol = findColumn(header, "DefectID", "缺陷标识", "缺陷ID");
-
-            if (resultCol < 0) {
-                return results;
+    @Override
+    public Map<String, String> loadConfig(String excelPath) throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            WorkbookSnapshot snapshot = sessionSnapshot(excelPath);
+            if (snapshot != null) {
+                return snapshot.getConfig();
+            }
+            try (Workbook workbook = openWorkbook(excelPath)) {
+                return readConfig(SheetIndex.build(workbook));
             }
+        }
+    }
 
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                Row row = sheet.getRow(r);
-                if (row == null) {
-                    continue;
+    /**
+     * 打开读取会话：工作簿只打开并解析一次，会话期间同一路径的 load* 调用都从该快照返回。
+     * 同一路径的会话可嵌套或并发打开，最后一个关闭时释放快照。
+     */
+    @Override
+    public Session openSession(String excelPath) throws Exception {
+        return openSession(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 打开只需要部分测试用例列的读取会话
+     * 同一路径上并发打开的会话按各自裁剪的并集共用一个快照；已加载的快照不包含新会话所需的列时重新读取。
+     * 会话期间不带裁剪的测试用例读取不使用裁剪后的快照，仍读取全部列。
+     */
+    @Override
+    public Session openSession(String excelPath, ColumnProjection projection) throws Exception {
+        return openSession(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 打开只需要部分模块、部分测试用例列的读取会话
+     * 快照中的测试用例按各会话模块筛选的并集读取，未选中模块的行在解析时跳过；
+     * 会话期间读取其他模块时不使用该快照，仍从工作簿读取。
+     */
+    @Override
+    public Session openSession(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        String key = sessionKey(excelPath);
+        SessionEntry entry;
+        synchronized (sessions) {
+            entry = sessions.computeIfAbsent(key, k -> new SessionEntry());
+            entry.refCount++;
+        }
+        // 先取读锁再进入会话条目，与持有写锁后读取会话快照的写入方保持相同的加锁顺序
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(key)) {
+            entry.request(projection, moduleFilter);
+            entry.snapshot(excelPath);
+        } catch (Exception e) {
+            releaseSession(key);
+            throw e;
+        }
+        return () -> releaseSession(key);
+    }
+
+    /**
+     * 获取工作簿快照：先按文件内容哈希和识别配置查缓存，再查工作簿旁的 .dhub 快照文件，
+     * 都未命中时解析，结果放入缓存并保存快照文件
+     */
+    public WorkbookSnapshot loadSnapshot(String excelPath) throws Exception {
+        return loadSnapshot(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 获取测试用例只包含裁剪后列的工作簿快照
+     * 完整快照（缓存中或 .dhub 快照文件）可直接使用；否则按裁剪解析，结果以内容哈希加裁剪指纹为键缓存。
+     * 快照文件只保存完整快照，避免不同模板的裁剪结果互相覆盖：启用快照文件且没有可用的快照文件时，
+     * 本次仍按裁剪解析，完整快照在后台解析后保存（见 {@link #scheduleSnapshotFile}）。
+     */
+    public WorkbookSnapshot loadSnapshot(String excelPath, ColumnProjection projection) throws Exception {
+        return loadSnapshot(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 获取测试用例只包含选中模块、裁剪后列的工作簿快照
+     * 缓存中不筛选模块的同一裁剪快照也可直接使用，由调用方按模块筛选。
+     */
+    public WorkbookSnapshot loadSnapshot(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            File file = new File(excelPath);
+            String key = contentKey(file);
+            String projectedKey = projection.isAll() ? key : key + "|" + projection.fingerprint();
+            String filteredKey = moduleFilter.isAll() ? projectedKey : projectedKey + "|" + moduleFilter.fingerprint();
+            boolean full = projection.isAll() && moduleFilter.isAll();
+            WorkbookSnapshot snapshot = full ? snapshotCache.get(key) : snapshotCache.getAny(key, projectedKey, filteredKey);
+            if (snapshot != null) {
+                System.out.println("命中解析缓存: " + file.getName());
+                return snapshot;
+            }
+            Path snapshotPath = SnapshotFile.pathFor(sessionKey(excelPath));
+            if (snapshotFiles) {
+                snapshot = SnapshotFile.read(snapshotPath, key);
+                if (snapshot != null) {
+                    System.out.println("从快照文件加载: " + snapshotPath.getFileName());
+                    snapshotCache.put(key, snapshot, file.length());
+                    return snapshot;
                 }
-                String tcid = safeCell(row, tcidCol);
-                String verdict = safeCell(row, resultCol);
-                if (tcid.isBlank() || verdict.isBlank()) {
-                    continue;
+            }
+            snapshot = readTrackingChanges(excelPath, projection, moduleFilter);
+            snapshotCache.put(filteredKey, snapshot, file.length());
+            if (snapshotFiles && full) {
+                try {
+                    SnapshotFile.write(snapshotPath, key, snapshot);
+                } catch (IOException e) {
+                    System.out.println("保存快照文件失败: " + snapshotPath.getFileName() + " (" + e.getMessage() + ")");
                 }
-
-                TestResult tr = new TestResult();
-                tr.setTestCaseId(tcid);
-                tr.setExecutionDate(safeCell(row, execDateCol));
-                tr.setVerdict(verdict);
-                tr.setDefectId(safeCell(row, defectCol));
-                results.add(tr);
+            } else if (snapshotFiles) {
+                // 裁剪后的结果不能作为快照文件，完整快照在后台另行解析保存，下次生成（如批量任务中的下一个进程）直接加载
+                scheduleSnapshotFile(excelPath, key, snapshotPath);
             }
+            return snapshot;
         }
-        return results;
     }
 
-    @Override
-    public Map<String, String> loadConfig(String excelPath) throws Exception {
-        Map<String, String> config = new LinkedHashMap<>();
-        try (Workbook workbook = openWorkbook(excelPath)) {
-            Sheet meta = workbook.getSheet("Meta");
-            if (meta == null) {
-                meta = findSheetByHeaders(workbook, Set.of("Key", "键"));
+    /**
+     * 在后台整本解析一次并保存快照文件，不占用本次读取的时间
+     * 同一内容同时只安排一次；解析期间源文件变化时放弃保存，旧指纹的快照文件也不会被读取方使用。
+     */
+    private void scheduleSnapshotFile(String excelPath, String key, Path snapshotPath) {
+        if (!pendingSnapshotFiles.add(key)) {
+            return;
+        }
+        snapshotFileExecutor.execute(() -> {
+            try {
+                WorkbookSnapshot snapshot = readSnapshot(excelPath);
+                File file = new File(excelPath);
+                if (key.equals(contentKey(file))) {
+                    snapshotCache.put(key, snapshot, file.length());
+                    SnapshotFile.write(snapshotPath, key, snapshot);
+                    System.out.println("已在后台保存快照文件: " + snapshotPath.getFileName());
+                }
+            } catch (Exception e) {
+                System.out.println("保存快照文件失败: " + snapshotPath.getFileName() + " (" + e.getMessage() + ")");
+            } finally {
+                pendingSnapshotFiles.remove(key);
             }
-            if (meta == null) {
-                return config;
+        });
+    }
+
+    /**
+     * 解析工作簿并记录各Sheet部件的指纹。
+     * 同一路径上次的解析结果还在时，只重读内容有变化的Sheet，其余数据直接复用上次的对象。
+     */
+    private WorkbookSnapshot readTrackingChanges(String excelPath, ColumnProjection projection,
+                                                 ModuleFilter moduleFilter) throws Exception {
+        String pathKey = sessionKey(excelPath);
+        String settings = TableConfig.getInstance().getSettingsFingerprint() + "|" + projection.fingerprint()
+                + "|" + moduleFilter.fingerprint();
+        ParseRecord previous;
+        synchronized (parseHistory) {
+            previous = parseHistory.get(pathKey);
+        }
+
+        WorkbookFingerprint fingerprint;
+        try {
+            fingerprint = WorkbookFingerprint.read(new File(excelPath), previous != null ? previous.fingerprint() : null);
+        } catch (Exception e) {
+            // 不是标准的xlsx包，交给完整解析报告错误
+            fingerprint = null;
+        }
+
+        WorkbookSnapshot snapshot = null;
+        WorkbookSnapshot previousSnapshot = previous != null ? previous.snapshot().get() : null;
+        if (fingerprint != null && previousSnapshot != null && previous.settings().equals(settings)) {
+            Set<String> changed = fingerprint.changedSheets(previous.fingerprint());
+            if (changed != null) {
+                snapshot = rereadChangedSheets(excelPath, previousSnapshot, changed, projection, moduleFilter);
             }
+        }
+        if (snapshot == null) {
+            snapshot = readSnapshot(excelPath, projection, moduleFilter);
+        }
 
-            Map<String, Integer> header = readHeaderMap(meta);
-            int keyCol = findColumn(header, "Key", "键");
-            int valueCol = findColumn(header, "Value", "值");
-            if (keyCol < 0 || valueCol < 0) {
-                return config;
+        synchronized (parseHistory) {
+            if (fingerprint != null) {
+                parseHistory.put(pathKey, new ParseRecord(fingerprint, settings, new WeakReference<>(snapshot)));
+            } else {
+                parseHistory.remove(pathKey);
             }
+        }
+        return snapshot;
+    }
 
-            for (int r = 1; r <= meta.getLastRowNum(); r++) {
-                Row row = meta.getRow(r);
-                if (row == null) {
-                    continue;
+    /**
+     * 只重读变化的Sheet，并与上次的快照合并
+     * 受影响的数据类别（测试用例与步骤、基本信息、列表、需求、结果、Meta）按该类别的全部Sheet重新解析，
+     * 未受影响的类别复用上次的对象。
+     *
+     * @return 合并后的快照；变化的Sheet改变了分类且涉及未读取的Sheet时返回null，由调用方整本重读
+     */
+    private WorkbookSnapshot rereadChangedSheets(String excelPath, WorkbookSnapshot previous, Set<String> changed,
+                                                 ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        if (changed.isEmpty()) {
+            System.out.println("工作表内容未变化，复用上次解析结果: " + excelPath);
+            return previous;
+        }
+
+        Map<String, SheetType> oldTypes = previous.getSheetTypes();
+        Set<SheetType> categories = EnumSet.noneOf(SheetType.class);
+        for (String sheetName : changed) {
+            addCategory(categories, oldTypes.get(sheetName));
+        }
+        Set<String> toRead = new LinkedHashSet<>(changed);
+        for (Map.Entry<String, SheetType> entry : oldTypes.entrySet()) {
+            if (categories.contains(categoryOf(entry.getValue()))) {
+                toRead.add(entry.getKey());
+            }
+        }
+
+        try (StreamedWorkbook partial = streamingExcelReader.read(excelPath, true, toRead::contains, projection,
+                moduleFilter)) {
+            SheetIndex index = SheetIndex.build(partial.getOtherSheets());
+            Map<String, SheetType> newTypes = sheetTypes(partial, index);
+            for (String sheetName : changed) {
+                addCategory(categories, newTypes.get(sheetName));
+            }
+            Map<String, SheetType> mergedTypes = new LinkedHashMap<>(oldTypes);
+            mergedTypes.putAll(newTypes);
+            for (Map.Entry<String, SheetType> entry : mergedTypes.entrySet()) {
+                if (categories.contains(categoryOf(entry.getValue())) && !toRead.contains(entry.getKey())) {
+                    return null;
                 }
-                String key = safeCell(row, keyCol);
-                if (key.isBlank()) {
-                    continue;
+            }
+
+            System.out.println("增量读取: 变化的Sheet " + changed + "，重新解析 " + toRead);
+            WorkbookSnapshot fresh = readSnapshot(partial.getModuleDataMap(), index, mergedTypes, projection,
+                    moduleFilter);
+            return new WorkbookSnapshot(
+                    categories.contains(SheetType.TEST_CASE) ? fresh.getModuleDataMap() : previous.getModuleDataMap(),
+                    categories.contains(SheetType.BASIC_INFO) ? fresh.getBasicInfoMap() : previous.getBasicInfoMap(),
+                    categories.contains(SheetType.LIST) ? fresh.getListTableMap() : previous.getListTableMap(),
+                    categories.contains(SheetType.REQUIREMENTS) ? fresh.getRequirements() : previous.getRequirements(),
+                    categories.contains(SheetType.RESULTS) ? fresh.getTestResults() : previous.getTestResults(),
+                    categories.contains(SheetType.META) ? fresh.getConfig() : previous.getConfig(),
+                    mergedTypes);
+        }
+    }
+
+    /**
+     * 数据类别：测试步骤与测试用例一起关联，归为同一类别；其余Sheet不产出数据
+     */
+    private static SheetType categoryOf(SheetType type) {
+        if (type == SheetType.STEPS) {
+            return SheetType.TEST_CASE;
+        }
+        return type == SheetType.OTHER ? null : type;
+    }
+
+    private static void addCategory(Set<SheetType> categories, SheetType type) {
+        SheetType category = categoryOf(type);
+        if (category != null) {
+            categories.add(category);
+        }
+    }
+
+    private static Map<String, SheetType> sheetTypes(StreamedWorkbook streamed, SheetIndex index) {
+        Map<String, SheetType> types = new LinkedHashMap<>();
+        if (streamed.getCaseSheetName() != null) {
+            types.put(streamed.getCaseSheetName(), SheetType.TEST_CASE);
+        }
+        if (streamed.getStepsSheetName() != null) {
+            types.put(streamed.getStepsSheetName(), SheetType.STEPS);
+        }
+        for (SheetInfo info : index.getSheets()) {
+            types.put(info.getSheetName(), info.getType());
+        }
+        return types;
+    }
+
+    /**
+     * 解析缓存的命中、未命中和淘汰统计
+     */
+    public SnapshotCache.Stats getCacheStats() {
+        return snapshotCache.stats();
+    }
+
+    public void clearCache() {
+        snapshotCache.clear();
+    }
+
+    /**
+     * 打开一次工作簿并解析出全部数据
+     * 文件超过流式阈值或为.xlsb时，测试用例和步骤走流式读取，其余Sheet从流式读取保留的副本中解析
+     */
+    public WorkbookSnapshot readSnapshot(String excelPath) throws Exception {
+        return readSnapshot(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 打开一次工作簿并解析出全部数据，测试用例只保存裁剪后的列
+     */
+    public WorkbookSnapshot readSnapshot(String excelPath, ColumnProjection projection) throws Exception {
+        return readSnapshot(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 打开一次工作簿并解析出全部数据，测试用例只读取选中模块的行，且只保存裁剪后的列
+     */
+    public WorkbookSnapshot readSnapshot(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            boolean binary = ExcelReader.isBinaryWorkbook(excelPath);
+            if (binary || excelReader.shouldStream(excelPath)) {
+                System.out.println((binary ? "二进制工作簿(.xlsb)" : "Excel文件较大") + "，使用流式模式读取: " + excelPath);
+                try (StreamedWorkbook streamed = streamingExcelReader.read(excelPath, true, sheetName -> true,
+                        projection, moduleFilter)) {
+                    SheetIndex index = SheetIndex.build(streamed.getOtherSheets());
+                    return readSnapshot(streamed.getModuleDataMap(), index, sheetTypes(streamed, index), projection,
+                            moduleFilter);
                 }
-                config.put(key, safeCell(row, valueCol));
+            }
+            try (Workbook workbook = excelReader.openWorkbook(excelPath)) {
+                SheetIndex index = SheetIndex.build(workbook);
+                Map<String, SheetType> sheetTypes = new LinkedHashMap<>();
+                for (SheetInfo info : index.getSheets()) {
+                    sheetTypes.put(info.getSheetName(), info.getType());
+                }
+                return readSnapshot(null, index, sheetTypes, projection, moduleFilter);
             }
         }
-        return config;
     }
 
-    @Override
-    public void writeRequirements(String excelPath, List<Requirement> requirements) throws Exception {
-        Workbook workbook = null;
+    /**
+     * 所有读取器共用同一个Sheet分类索引，每个Sheet的表头只读取一次。
+     * 各类Sheet之间互不依赖，在解析线程池上并行读取；最后按固定顺序汇合，
+     * 测试步骤在汇合时才关联到用例，因此结果与顺序解析完全一致。
+     *
+     * @param streamedModules 流式读取已得到的测试用例数据，为null时从索引中读取测试用例和步骤
+     * @param sheetTypes      各Sheet的分类，随快照保存供增量重读使用
+     * @param projection      测试用例列裁剪
+     * @param moduleFilter    测试用例模块筛选
+     */
+    private WorkbookSnapshot readSnapshot(Map<String, ModuleData> streamedModules, SheetIndex index,
+                                          Map<String, SheetType> sheetTypes, ColumnProjection projection,
+                                          ModuleFilter moduleFilter) {
+        CompletableFuture<Map<String, ModuleData>> caseTask = streamedModules != null
+                ? CompletableFuture.completedFuture(streamedModules)
+                : submitParse(() -> excelReader.readTestCases(index, projection, moduleFilter));
+        CompletableFuture<List<ExcelReader.TestStepRow>> stepTask = streamedModules != null
+                ? CompletableFuture.completedFuture(List.of())
+                : submitParse(() -> excelReader.readTestStepRows(index));
+        CompletableFuture<Map<String, BasicInfoData>> basicInfoTask = submitParse(() -> tableDataReader.readBasicInfo(index));
+        CompletableFuture<Map<String, ListTableData>> listTask = submitParse(() -> tableDataReader.readAllListTableData(index));
+        CompletableFuture<List<Requirement>> requirementTask = submitParse(() -> readRequirements(index));
+        CompletableFuture<List<TestResult>> resultTask = submitParse(() -> readTestResults(index));
+        CompletableFuture<Map<String, String>> configTask = submitParse(() -> readConfig(index));
+
+        Map<String, ModuleData> moduleDataMap = awaitParse(caseTask);
+        excelReader.attachTestSteps(awaitParse(stepTask), moduleDataMap);
+        return new WorkbookSnapshot(
+                moduleDataMap,
+                awaitParse(basicInfoTask),
+                awaitParse(listTask),
+                awaitParse(requirementTask),
+                awaitParse(resultTask),
+                awaitParse(configTask),
+                sheetTypes);
+    }
+
+    private <T> CompletableFuture<T> submitParse(Supplier<T> task) {
+        if (parseExecutor == null) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(task, parseExecutor);
+    }
+
+    private <T> T awaitParse(CompletableFuture<T> future) {
         try {
-            workbook = openOrCreateWorkbook(excelPath);
-            Sheet sheet = workbook.getSheet("Data_SRS_Requirements");
-            if (sheet == null) {
-                sheet = workbook.createSheet("Data_SRS_Requirements");
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw e;
+        }
+    }
+
+    /**
+     * 解析线程为守护线程，空闲后自动回收，无需随容器关闭
+     */
+    private static ExecutorService createParseExecutor(int parseThreads) {
+        int threads = parseThreads > 0
+                ? parseThreads
+                : Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARSE_TASKS);
+        if (threads <= 1) {
+            return null;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "datahub-parse-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-            clearSheet(sheet);
-            Row header = sheet.createRow(0);
-            header.createCell(0).setCellValue("ReqID");
-            header.createCell(1).setCellValue("ReqTitle");
-            header.createCell(2).setCellValue("Description");
-            header.createCell(3).setCellValue("Priority");
+    /**
+     * 单线程、空闲即退出；使用非守护线程，命令行生成结束后进程等快照文件写完再退出
+     */
+    private static ExecutorService createSnapshotFileExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> new Thread(r, "datahub-snapshot-file"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-            int rowNum = 1;
-            for (Requirement req : requirements) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(nullToEmpty(req.getRequirementId()));
-                row.createCell(1).setCellValue(nullToEmpty(req.getRequirementName()));
-                row.createCell(2).setCellValue(nullToEmpty(req.getDescription()));
-                row.createCell(3).setCellValue(req.getPriority() == null ? "中" : req.getPriority().getDescription());
+    private List<Requirement> readRequirements(SheetIndex index) {
+        List<Requirement> requirements = new ArrayList<>();
+        SheetInfo info = index.first(SheetType.REQUIREMENTS);
+        if (info == null) {
+            return requirements;
+        }
+
+        Sheet sheet = info.getSheet();
+        CellValueContext context = index.getCellContext();
+        int reqIdCol = info.findColumn("ReqID", "需求ID", "RequirementId");
+        int reqTitleCol = info.findColumn("ReqTitle", "需求标题", "需求名称");
+        int descCol = info.findColumn("Description", "需求描述");
+        int priorityCol = info.findColumn("Priority", "优先级");
+
+        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null) {
+                continue;
+            }
+            String reqId = getCellValue(row.getCell(reqIdCol), context);
+            if (reqId == null || reqId.isBlank()) {
+                continue;
             }
+            Requirement req = new Requirement();
+            req.setRequirementId(reqId.trim());
+            req.setRequirementNumber(reqId.trim());
+            req.setRequirementName(safeCell(row, reqTitleCol, context));
+            req.setDescription(safeCell(row, descCol, context));
+            String priority = safeCell(row, priorityCol, context);
+            if ("高".equals(priority)) {
+                req.setPriority(Requirement.Priority.HIGH);
+            } else if ("低".equals(priority)) {
+                req.setPriority(Requirement.Priority.LOW);
+            } else {
+                req.setPriority(Requirement.Priority.MEDIUM);
+            }
+            requirements.add(req);
+        }
+        return requirements;
+    }
 
-            persistWorkbook(workbook, excelPath);
-        } finally {
-            if (workbook != null) {
-                workbook.close();
+    private List<TestResult> readTestResults(SheetIndex index) {
+        List<TestResult> results = new ArrayList<>();
+        SheetInfo info = index.first(SheetType.RESULTS);
+        if (info == null) {
+            return results;
+        }
+
+        Sheet sheet = info.getSheet();
+        CellValueContext context = index.getCellContext();
+        int tcidCol = info.findColumn("TCID", "测试用例标识", "标识");
+        int execDateCol = info.findColumn("ExecDate", "执行日期", "Date");
+        int resultCol = info.findColumn("Result", "测试结论", "结论");
+        int defectCol = info.findColumn("DefectID", "缺陷标识", "缺陷ID");
+
+        for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+            Row row = sheet.getRow(r);
+            if (row == null) {
+                continue;
+            }
+            String tcid = safeCell(row, tcidCol, context);
+            String verdict = safeCell(row, resultCol, context);
+            if (tcid.isBlank() || verdict.isBlank()) {
+                continue;
+            }
+
+            TestResult tr = new TestResult();
+            tr.setTestCaseId(tcid);
+            tr.setExecutionDate(safeCell(row, execDateCol, context));
+            tr.setVerdict(verdict);
+            tr.setDefectId(safeCell(row, defectCol, context));
+            results.add(tr);
+        }
+        return results;
+    }
+
+    private Map<String, String> readConfig(SheetIndex index) {
+        Map<String, String> config = new LinkedHashMap<>();
+        SheetInfo info = index.first(SheetType.META);
+        if (info == null) {
+            return config;
+        }
+
+        Sheet meta = info.getSheet();
+        CellValueContext context = index.getCellContext();
+        int keyCol = info.findColumn("Key", "键");
+        int valueCol = info.findColumn("Value", "值");
+        if (keyCol < 0 || valueCol < 0) {
+            return config;
+        }
+
+        for (int r = 1; r <= meta.getLastRowNum(); r++) {
+            Row row = meta.getRow(r);
+            if (row == null) {
+                continue;
+            }
+            String key = safeCell(row, keyCol, context);
+            if (key.isBlank()) {
+                continue;
             }
+            config.put(key, safeCell(row, valueCol, context));
+        }
+        return config;
+    }
+
+    @Override
+    public void writeRequirements(String excelPath, List<Requirement> requirements) throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.write(sessionKey(excelPath))) {
+            rebuildSheet(excelPath, "Data_SRS_Requirements", (sheet, previous) -> {
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("ReqID");
+                header.createCell(1).setCellValue("ReqTitle");
+                header.createCell(2).setCellValue("Description");
+                header.createCell(3).setCellValue("Priority");
+                if (previous != null && previous.getRow(0) != null) {
+                    copyRowFormat(previous.getRow(0), header);
+                }
+
+                int rowNum = 1;
+                for (Requirement req : requirements) {
+                    Row row = sheet.createRow(rowNum++);
+                    row.createCell(0).setCellValue(nullToEmpty(req.getRequirementId()));
+                    row.createCell(1).setCellValue(nullToEmpty(req.getRequirementName()));
+                    row.createCell(2).setCellValue(nullToEmpty(req.getDescription()));
+                    row.createCell(3).setCellValue(req.getPriority() == null ? "中" : req.getPriority().getDescription());
+                }
+            });
         }
     }
 
     @Override
     public ImportSummary writeTestCases(String excelPath, List<TestCase> testCases) throws Exception {
-        ImportSummary summary = new ImportSummary();
-        List<Requirement> requirements = loadRequirements(excelPath);
-        Set<String> reqIds = new HashSet<>();
-        for (Requirement requirement : requirements) {
-            reqIds.add(requirement.getRequirementId());
+        try (WorkbookLocks.Handle ignored = workbookLocks.write(sessionKey(excelPath))) {
+            ImportSummary summary = new ImportSummary();
+            List<Requirement> requirements = loadRequirements(excelPath);
+            Set<String> reqIds = new HashSet<>();
+            for (Requirement requirement : requirements) {
+                reqIds.add(requirement.getRequirementId());
+            }
+
+            rebuildSheet(excelPath, "Data_STD_TestCases", (sheet, previous) -> {
+                int rowNum;
+                if (previous == null) {
+                    Row header = sheet.createRow(0);
+                    header.createCell(0).setCellValue("TCID");
+                    header.createCell(1).setCellValue("ReqID");
+                    header.createCell(2).setCellValue("Procedure");
+                    header.createCell(3).setCellValue("ExpectedResult");
+                    rowNum = 1;
+                } else {
+                    // 保留已有的用例行，新用例接在其后
+                    for (Row row : previous) {
+                        copyRow(row, sheet.createRow(row.getRowNum()));
+                    }
+                    rowNum = previous.getLastRowNum() + 1;
+                }
+
+                for (TestCase tc : testCases) {
+                    String tcid = choose(tc.getColumnValue("TCID"), tc.getColumnValue("测试用例标识"), tc.getId());
+                    String reqId = choose(tc.getColumnValue("ReqID"), tc.getColumnValue("需求ID"), tc.getColumnValue("需求标识"));
+                    if (tcid.isBlank()) {
+                        summary.addError("测试用例缺少TCID");
+                        summary.setFailedCount(summary.getFailedCount() + 1);
+                        continue;
+                    }
+                    if (!reqId.isBlank() && !reqIds.contains(reqId)) {
+                        summary.addWarning("测试用例 " + tcid + " 关联了不存在的需求 " + reqId);
+                    }
+
+                    Row row = sheet.createRow(rowNum++);
+                    row.createCell(0).setCellValue(tcid);
+                    row.createCell(1).setCellValue(reqId);
+                    row.createCell(2).setCellValue(
+                            choose(tc.getColumnValue("Procedure"), tc.getColumnValue("测试步骤"), tc.getContent()));
+                    row.createCell(3).setCellValue(
+                            choose(tc.getColumnValue("ExpectedResult"), tc.getColumnValue("预期结果"), tc.getCriteria()));
+                    summary.setSuccessCount(summary.getSuccessCount() + 1);
+                }
+            });
+            return summary;
         }
+    }
 
-        Workbook workbook = null;
-        try {
-            workbook = openOrCreateWorkbook(excelPath);
-            Sheet sheet = workbook.getSheet("Data_STD_TestCases");
-            if (sheet == null) {
-                sheet = workbook.createSheet("Data_STD_TestCases");
-                Row header = sheet.createRow(0);
-                header.createCell(0).setCellValue("TCID");
-                header.createCell(1).setCellValue("ReqID");
-                header.createCell(2).setCellValue("Procedure");
-                header.createCell(3).setCellValue("ExpectedResult");
+    /**
+     * 以流式方式整体重建一个Sheet：新Sheet通过SXSSF按行窗口写出，超出窗口的行刷到临时文件，
+     * 新写入的行数再多也不会额外占用内存；其他Sheet原样保留，重建后的Sheet放回原来的位置。
+     * 注意原工作簿（包括原Sheet）仍整体读入XSSF对象，这部分内存与已有数据量成正比，
+     * 从原Sheet复制的行也经由该对象读取。
+     * 原Sheet的版式（列宽、冻结窗格、合并区域、数据验证、打印区域等）由 {@link #copySheetLayout} 带到新Sheet上。
+     *
+     * @param sheetName 目标Sheet名称，不存在时新建在末尾
+     * @param writer    写入新Sheet的内容；previous为原Sheet（只读），不存在时为null
+     */
+    private void rebuildSheet(String excelPath, String sheetName, SheetWriter writer) throws Exception {
+        try (XSSFWorkbook template = (XSSFWorkbook) openOrCreateWorkbook(excelPath)) {
+            int position = template.getSheetIndex(sheetName);
+            XSSFSheet previous = position < 0 ? null : template.getSheetAt(position);
+            XSSFSheet rebuilt = template.createSheet(REBUILD_SHEET_NAME);
+            if (previous != null) {
+                copySheetLayout(template, previous, rebuilt);
             }
 
-            int rowNum = sheet.getLastRowNum() + 1;
-            for (TestCase tc : testCases) {
-                String tcid = choose(tc.getColumnValue("TCID"), tc.getColumnValue("测试用例标识"), tc.getId());
-                String reqId = choose(tc.getColumnValue("ReqID"), tc.getColumnValue("需求ID"), tc.getColumnValue("需求标识"));
-                if (tcid.isBlank()) {
-                    summary.addError("测试用例缺少TCID");
-                    summary.setFailedCount(summary.getFailedCount() + 1);
-                    continue;
+            SXSSFWorkbook workbook = new SXSSFWorkbook(template, EXPORT_ROW_WINDOW);
+            try {
+                writer.write(workbook.getSheet(REBUILD_SHEET_NAME), previous);
+                if (position >= 0) {
+                    workbook.removeSheetAt(position);
                 }
-                if (!reqId.isBlank() && !reqIds.contains(reqId)) {
-                    summary.addWarning("测试用例 " + tcid + " 关联了不存在的需求 " + reqId);
+                workbook.setSheetName(workbook.getSheetIndex(REBUILD_SHEET_NAME), sheetName);
+                if (position >= 0) {
+                    workbook.setSheetOrder(sheetName, position);
                 }
+                persistWorkbook(workbook, excelPath);
+            } finally {
+                workbook.dispose();
+            }
+        }
+    }
 
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(tcid);
-                row.createCell(1).setCellValue(reqId);
-                row.createCell(2).setCellValue(
-                        choose(tc.getColumnValue("Procedure"), tc.getColumnValue("测试步骤"), tc.getContent()));
-                row.createCell(3).setCellValue(
-                        choose(tc.getColumnValue("ExpectedResult"), tc.getColumnValue("预期结果"), tc.getCriteria()));
-                summary.setSuccessCount(summary.getSuccessCount() + 1);
+    /**
+     * 写入重建中的Sheet
+     */
+    private interface SheetWriter {
+        void write(Sheet sheet, Sheet previous) throws Exception;
+    }
+
+    /**
+     * 把原Sheet的版式复制到重建的Sheet：默认行高列宽、列宽和列样式、冻结窗格等视图设置、合并区域、
+     * 条件格式、数据验证、筛选、页面设置，以及隐藏状态；作用域为原Sheet的名称（包括打印区域和打印标题）
+     * 改为指向重建的Sheet，删除原Sheet时不会随之删除。
+     * 批注、超链接、图片和打印机设置等通过关系部件引用的内容不复制，重建后丢失。
+     */
+    private static void copySheetLayout(XSSFWorkbook workbook, XSSFSheet previous, XSSFSheet rebuilt) {
+        CTWorksheet source = previous.getCTWorksheet();
+        CTWorksheet target = rebuilt.getCTWorksheet();
+        if (source.isSetSheetPr()) {
+            target.setSheetPr(source.getSheetPr());
+        }
+        if (source.isSetSheetViews()) {
+            target.setSheetViews(source.getSheetViews());
+        }
+        if (source.isSetSheetFormatPr()) {
+            target.setSheetFormatPr(source.getSheetFormatPr());
+        }
+        target.setColsArray(source.getColsArray());
+        if (source.isSetAutoFilter()) {
+            target.setAutoFilter(source.getAutoFilter());
+        }
+        if (source.isSetMergeCells()) {
+            target.setMergeCells(source.getMergeCells());
+        }
+        target.setConditionalFormattingArray(source.getConditionalFormattingArray());
+        if (source.isSetDataValidations()) {
+            target.setDataValidations(source.getDataValidations());
+        }
+        if (source.isSetPrintOptions()) {
+            target.setPrintOptions(source.getPrintOptions());
+        }
+        if (source.isSetPageMargins()) {
+            target.setPageMargins(source.getPageMargins());
+        }
+        if (source.isSetPageSetup()) {
+            target.setPageSetup(source.getPageSetup());
+            if (target.getPageSetup().isSetId()) {
+                target.getPageSetup().unsetId();
             }
+        }
+        if (source.isSetHeaderFooter()) {
+            target.setHeaderFooter(source.getHeaderFooter());
+        }
 
-            persistWorkbook(workbook, excelPath);
-            return summary;
-        } finally {
-            if (workbook != null) {
-                workbook.close();
+        int previousIndex = workbook.getSheetIndex(previous);
+        int rebuiltIndex = workbook.getSheetIndex(rebuilt);
+        workbook.setSheetVisibility(rebuiltIndex, workbook.getSheetVisibility(previousIndex));
+        for (XSSFName name : workbook.getAllNames()) {
+            if (name.getSheetIndex() == previousIndex) {
+                name.setSheetIndex(rebuiltIndex);
+            }
+        }
+    }
+
+    /**
+     * 复制行高、行样式和各单元格的样式（不复制值），用于重写表头时保留原表头的格式
+     */
+    private static void copyRowFormat(Row source, Row target) {
+        if (source.getHeight() != source.getSheet().getDefaultRowHeight()) {
+            target.setHeight(source.getHeight());
+        }
+        if (source.isFormatted()) {
+            target.setRowStyle(source.getRowStyle());
+        }
+        for (Cell cell : source) {
+            Cell copy = target.getCell(cell.getColumnIndex());
+            if (copy == null) {
+                copy = target.createCell(cell.getColumnIndex());
+            }
+            copy.setCellStyle(cell.getCellStyle());
+        }
+    }
+
+    private static void copyRow(Row source, Row target) {
+        if (source.getHeight() != source.getSheet().getDefaultRowHeight()) {
+            target.setHeight(source.getHeight());
+        }
+        if (source.isFormatted()) {
+            target.setRowStyle(source.getRowStyle());
+        }
+        for (Cell cell : source) {
+            Cell copy = target.createCell(cell.getColumnIndex());
+            copy.setCellStyle(cell.getCellStyle());
+            switch (cell.getCellType()) {
+                case NUMERIC -> copy.setCellValue(cell.getNumericCellValue());
+                case BOOLEAN -> copy.setCellValue(cell.getBooleanCellValue());
+                case FORMULA -> copy.setCellFormula(cell.getCellFormula());
+                case STRING -> copy.setCellValue(cell.getStringCellValue());
+                default -> {
+                }
             }
         }
     }
 
+    /**
+     * 校验后把测试结果追加到工作簿旁的日志文件，不重写工作簿
+     * 用例标识从解析缓存（或当前会话）的快照中校验，工作簿未变化时不会重新解析
+     */
     @Override
     public ImportSummary appendTestResults(String excelPath, List<TestResult> testResults) throws Exception {
-        ImportSummary summary = new ImportSummary();
-        List<TestCase> cases = loadTestCases(excelPath);
+        return withResultChannel(excelPath, channel -> channel.coordinator.submit(testResults,
+                batches -> appendResultBatches(excelPath, channel.journal, batches)));
+    }
+
+    /**
+     * 合并写入同一文件的多批测试结果：用例标识只收集一次，所有通过校验的结果一次追加到日志，
+     * 每批的成功/失败计数和错误信息单独记录在各自的ImportSummary中
+     */
+    private void appendResultBatches(String excelPath, ResultJournal journal,
+                                     List<ResultImportCoordinator.Batch> batches) throws Exception {
+        WorkbookSnapshot snapshot;
+        try (WorkbookLocks.Handle ignored = workbookLocks.read(sessionKey(excelPath))) {
+            // 只需要用例标识列，但必须包含全部模块
+            snapshot = sessionSnapshot(excelPath, ColumnProjection.ofLabels(List.of()), ModuleFilter.ALL);
+            if (snapshot == null) {
+                snapshot = loadSnapshot(excelPath);
+            }
+        }
         Set<String> caseIds = new HashSet<>();
-        for (TestCase tc : cases) {
+        for (TestCase tc : snapshot.getTestCases()) {
             String tcid = choose(tc.getColumnValue("TCID"), tc.getColumnValue("测试用例标识"), tc.getId());
             if (!tcid.isBlank()) {
                 caseIds.add(tcid);
             }
         }
 
-        Workbook workbook = null;
-        try {
-            workbook = openOrCreateWorkbook(excelPath);
-            Sheet sheet = workbook.getSheet("Data_STR_TestResults");
-            if (sheet == null) {
-                sheet = workbook.createSheet("Data_STR_TestResults");
-                Row header = sheet.createRow(0);
-                header.createCell(0).setCellValue("TCID");
-                header.createCell(1).setCellValue("ExecDate");
-                header.createCell(2).setCellValue("Result");
-                header.createCell(3).setCellValue("DefectID");
-            }
-
-            int rowNum = sheet.getLastRowNum() + 1;
-            for (TestResult tr : testResults) {
+        List<TestResult> accepted = new ArrayList<>();
+        for (ResultImportCoordinator.Batch batch : batches) {
+            ImportSummary summary = new ImportSummary();
+            for (TestResult tr : batch.getResults()) {
                 String tcid = nullToEmpty(tr.getTestCaseId());
                 if (tcid.isBlank()) {
                     summary.addError("测试结果缺少TCID");
@@ -312,99 +1038,205 @@ public class ExcelDataHub implements DataHub {
                     summary.setFailedCount(summary.getFailedCount() + 1);
                     continue;
                 }
-
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(tcid);
-                row.createCell(1).setCellValue(nullToEmpty(tr.getExecutionDate()));
-                row.createCell(2).setCellValue(nullToEmpty(tr.getVerdict()));
-                row.createCell(3).setCellValue(nullToEmpty(tr.getDefectId()));
+                accepted.add(new TestResult(tcid, nullToEmpty(tr.getExecutionDate()),
+                        nullToEmpty(tr.getVerdict()), nullToEmpty(tr.getDefectId())));
                 summary.setSuccessCount(summary.getSuccessCount() + 1);
             }
+            batch.setSummary(summary);
+        }
+
+        journal.append(accepted);
+        if (batches.size() > 1) {
+            System.out.println("合并写入 " + batches.size() + " 批测试结果，共 " + accepted.size() + " 条: " + excelPath);
+        }
+    }
+
+    /**
+     * 把追加日志中的测试结果一次性写入 Data_STR_TestResults，并清空日志
+     */
+    @Override
+    public int compactTestResults(String excelPath) throws Exception {
+        try (WorkbookLocks.Handle ignored = workbookLocks.write(sessionKey(excelPath))) {
+            int folded = withResultChannel(excelPath,
+                    channel -> channel.journal.compact(results -> foldTestResults(excelPath, results)));
+            if (folded > 0) {
+                System.out.println("测试结果日志已压缩进工作簿: " + folded + " 条");
+            }
+            return folded;
+        }
+    }
+
+    /**
+     * 把日志中的结果追加到 Data_STR_TestResults 并写回工作簿
+     */
+    private void foldTestResults(String excelPath, List<TestResult> results) throws Exception {
+        try (Workbook workbook = openOrCreateWorkbook(excelPath)) {
+            Sheet sheet = workbook.getSheet("Data_STR_TestResults");
+            if (sheet == null) {
+                sheet = workbook.createSheet("Data_STR_TestResults");
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("TCID");
+                header.createCell(1).setCellValue("ExecDate");
+                header.createCell(2).setCellValue("Result");
+                header.createCell(3).setCellValue("DefectID");
+            }
 
+            int rowNum = sheet.getLastRowNum() + 1;
+            for (TestResult tr : results) {
+                Row row = sheet.createRow(rowNum++);
+                row.createCell(0).setCellValue(tr.getTestCaseId());
+                row.createCell(1).setCellValue(tr.getExecutionDate());
+                row.createCell(2).setCellValue(tr.getVerdict());
+                row.createCell(3).setCellValue(tr.getDefectId());
+            }
             persistWorkbook(workbook, excelPath);
-            return summary;
+        }
+    }
+
+    /**
+     * 在文件的测试结果通道上执行操作：并发使用同一文件的调用方共享同一个日志实例和导入协调器，
+     * 最后一个使用者结束后移除通道，注册表大小只与正在导入、读取或压缩结果的文件数有关
+     */
+    private <T> T withResultChannel(String excelPath, ResultChannelTask<T> task) throws Exception {
+        String key = sessionKey(excelPath);
+        ResultChannel channel;
+        synchronized (resultChannels) {
+            channel = resultChannels.computeIfAbsent(key, k -> new ResultChannel(
+                    new ResultJournal(ResultJournal.pathFor(k)), new ResultImportCoordinator(resultBatchWindowMillis)));
+            channel.users++;
+        }
+        try {
+            return task.run(channel);
         } finally {
-            if (workbook != null) {
-                workbook.close();
+            synchronized (resultChannels) {
+                if (--channel.users == 0) {
+                    resultChannels.remove(key, channel);
+                }
             }
         }
     }
 
-    private Workbook openWorkbook(String excelPath) throws IOException {
-        try (FileInputStream fis = new FileInputStream(excelPath)) {
-            return new XSSFWorkbook(fis);
+    /**
+     * 在测试结果通道上执行的操作
+     */
+    private interface ResultChannelTask<T> {
+        T run(ResultChannel channel) throws Exception;
+    }
+
+    /**
+     * 一个文件的测试结果追加日志、导入协调器及其当前使用者数量
+     */
+    private static final class ResultChannel {
+        private final ResultJournal journal;
+        private final ResultImportCoordinator coordinator;
+        private int users;
+
+        private ResultChannel(ResultJournal journal, ResultImportCoordinator coordinator) {
+            this.journal = journal;
+            this.coordinator = coordinator;
         }
     }
 
-    private Workbook openOrCreateWorkbook(String excelPath) throws IOException {
-        File file = new File(excelPath);
-        if (file.exists()) {
-            try (FileInputStream fis = new FileInputStream(file)) {
-                return new XSSFWorkbook(fis);
-            }
+    private WorkbookSnapshot sessionSnapshot(String excelPath) throws Exception {
+        SessionEntry entry;
+        synchronized (sessions) {
+            entry = sessions.get(sessionKey(excelPath));
         }
-        return new XSSFWorkbook();
+        return entry == null ? null : entry.snapshot(excelPath);
     }
 
-    private void persistWorkbook(Workbook workbook, String excelPath) throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(excelPath)) {
-            workbook.write(fos);
+    /**
+     * 会话快照的测试用例包含裁剪所需的列和筛选所需的模块时返回该快照，否则返回null
+     */
+    private WorkbookSnapshot sessionSnapshot(String excelPath, ColumnProjection projection,
+                                             ModuleFilter moduleFilter) throws Exception {
+        SessionEntry entry;
+        synchronized (sessions) {
+            entry = sessions.get(sessionKey(excelPath));
         }
+        return entry == null ? null : entry.snapshot(excelPath, projection, moduleFilter);
     }
 
-    private Sheet findSheetByHeaders(Workbook workbook, Set<String> mustHaveOneOf) {
-        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-            Sheet sheet = workbook.getSheetAt(i);
-            Row header = sheet.getRow(0);
-            if (header == null) {
-                continue;
-            }
-            Set<String> names = new LinkedHashSet<>();
-            for (int c = 0; c < header.getLastCellNum(); c++) {
-                String value = getCellValue(header.getCell(c));
-                if (!value.isBlank()) {
-                    names.add(value);
-                }
-            }
-            for (String candidate : mustHaveOneOf) {
-                if (names.contains(candidate)) {
-                    return sheet;
-                }
+    private void releaseSession(String key) {
+        synchronized (sessions) {
+            SessionEntry entry = sessions.get(key);
+            if (entry != null && --entry.refCount <= 0) {
+                sessions.remove(key);
             }
         }
-        return null;
     }
 
-    private Map<String, Integer> readHeaderMap(Sheet sheet) {
-        Map<String, Integer> map = new HashMap<>();
-        Row row = sheet.getRow(0);
-        if (row == null) {
-            return map;
+    /**
+     * 写入后让该路径上已打开会话的快照失效，下次读取时重新解析
+     */
+    private void invalidateSession(String excelPath) {
+        SessionEntry entry;
+        synchronized (sessions) {
+            entry = sessions.get(sessionKey(excelPath));
+        }
+        if (entry != null) {
+            entry.invalidate();
         }
-        for (int c = 0; c < row.getLastCellNum(); c++) {
-            String name = getCellValue(row.getCell(c));
-            if (!name.isBlank()) {
-                map.put(name, c);
+    }
+
+    private String contentKey(File file) throws Exception {
+        if (!file.isFile()) {
+            throw new Exception("Excel文件路径错误或文件损坏: " + file.getPath());
+        }
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
             }
         }
-        return map;
+        return HexFormat.of().formatHex(digest.digest()) + "|" + TableConfig.getInstance().getSettingsFingerprint();
+    }
+
+    private String sessionKey(String excelPath) {
+        File file = new File(excelPath);
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException e) {
+            return file.getAbsolutePath();
+        }
     }
 
-    private int findColumn(Map<String, Integer> header, String... names) {
-        for (String name : names) {
-            Integer idx = header.get(name);
-            if (idx != null) {
-                return idx;
+    private Workbook openWorkbook(String excelPath) throws Exception {
+        if (ExcelReader.isBinaryWorkbook(excelPath)) {
+            return excelReader.openWorkbook(excelPath);
+        }
+        try (FileInputStream fis = new FileInputStream(excelPath)) {
+            return new XSSFWorkbook(fis);
+        }
+    }
+
+    private Workbook openOrCreateWorkbook(String excelPath) throws IOException {
+        if (ExcelReader.isBinaryWorkbook(excelPath)) {
+            throw new IOException("不支持写入.xlsb工作簿，请先另存为.xlsx: " + new File(excelPath).getName());
+        }
+        File file = new File(excelPath);
+        if (file.exists()) {
+            try (FileInputStream fis = new FileInputStream(file)) {
+                return new XSSFWorkbook(fis);
             }
         }
-        return -1;
+        return new XSSFWorkbook();
+    }
+
+    private void persistWorkbook(Workbook workbook, String excelPath) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(excelPath)) {
+            workbook.write(fos);
+        }
+        invalidateSession(excelPath);
     }
 
-    private String safeCell(Row row, int index) {
+    private String safeCell(Row row, int index, CellValueContext context) {
         if (index < 0 || row == null) {
             return "";
         }
-        return nullToEmpty(getCellValue(row.getCell(index))).trim();
+        return nullToEmpty(getCellValue(row.getCell(index), context)).trim();
     }
 
     private String choose(String... candidates) {
@@ -420,34 +1252,37 @@ public class ExcelDataHub implements DataHub {
         return s == null ? "" : s;
     }
 
-    private String getCellValue(Cell cell) {
+    /**
+     * 单元格转字符串，重复取值经工作簿的驻留表归一
+     */
+    private String getCellValue(Cell cell, CellValueContext context) {
         if (cell == null) {
             return "";
         }
         CellType type = cell.getCellType();
         if (type == CellType.STRING) {
-            return cell.getStringCellValue();
+            return context.canonical(cell.getStringCellValue());
         }
         if (type == CellType.NUMERIC) {
             double v = cell.getNumericCellValue();
             if (v == Math.floor(v)) {
-                return String.valueOf((long) v);
+                return context.canonical(String.valueOf((long) v));
             }
-            return String.valueOf(v);
+            return context.canonical(String.valueOf(v));
         }
         if (type == CellType.BOOLEAN) {
             return String.valueOf(cell.getBooleanCellValue());
         }
         if (type == CellType.FORMULA) {
             try {
-                return cell.getStringCellValue();
+                return context.canonical(cell.getStringCellValue());
             } catch (Exception ignored) {
                 try {
                     double v = cell.getNumericCellValue();
                     if (v == Math.floor(v)) {
-                        return String.valueOf((long) v);
+                        return context.canonical(String.valueOf((long) v));
                     }
-                    return String.valueOf(v);
+                    return context.canonical(String.valueOf(v));
                 } catch (Exception ex) {
                     return "";
                 }
@@ -456,13 +1291,58 @@ public class ExcelDataHub implements DataHub {
         return "";
     }
 
-    private void clearSheet(Sheet sheet) {
-        int last = sheet.getLastRowNum();
-        for (int i = last; i >= 0; i--) {
-            Row row = sheet.getRow(i);
-            if (row != null) {
-                sheet.removeRow(row);
+    /**
+     * 一个路径上次解析时的部件指纹、识别配置和解析结果
+     * 解析结果只弱引用：仍在解析缓存、会话或调用方手中时可用于增量重读，被缓存按内存上限淘汰后即可回收，
+     * 历史记录本身不额外占用缓存预算之外的内存；已回收时退回完整解析。
+     */
+    private record ParseRecord(WorkbookFingerprint fingerprint, String settings,
+                               WeakReference<WorkbookSnapshot> snapshot) {
+    }
+
+    /**
+     * 一个路径上的会话状态：引用计数和懒加载的快照
+     */
+    private final class SessionEntry {
+        private int refCount;
+        /** 各会话所需测试用例列的并集，首个会话打开前为null */
+        private ColumnProjection projection;
+        /** 各会话所需模块的并集，首个会话打开前为null */
+        private ModuleFilter moduleFilter;
+        private WorkbookSnapshot snapshot;
+        private ColumnProjection snapshotProjection;
+        private ModuleFilter snapshotModuleFilter;
+
+        /**
+         * 登记一个会话所需的列和模块；已加载的快照不包含这些列或模块时丢弃，下次读取时按并集重新加载
+         */
+        synchronized void request(ColumnProjection required, ModuleFilter requiredModules) {
+            projection = projection == null ? required : projection.union(required);
+            moduleFilter = moduleFilter == null ? requiredModules : moduleFilter.union(requiredModules);
+            if (snapshot != null && !(snapshotProjection.covers(projection)
+                    && snapshotModuleFilter.covers(moduleFilter))) {
+                snapshot = null;
+            }
+        }
+
+        synchronized WorkbookSnapshot snapshot(String excelPath) throws Exception {
+            if (snapshot == null) {
+                snapshotProjection = projection != null ? projection : ColumnProjection.ALL;
+                snapshotModuleFilter = moduleFilter != null ? moduleFilter : ModuleFilter.ALL;
+                snapshot = loadSnapshot(excelPath, snapshotProjection, snapshotModuleFilter);
             }
+            return snapshot;
+        }
+
+        synchronized WorkbookSnapshot snapshot(String excelPath, ColumnProjection required,
+                                               ModuleFilter requiredModules) throws Exception {
+            WorkbookSnapshot current = snapshot(excelPath);
+            return snapshotProjection.covers(required) && snapshotModuleFilter.covers(requiredModules)
+                    ? current : null;
+        }
+
+        synchronized void invalidate() {
+            snapshot = null;
         }
     }
 }
@@ -0,0 +1,1008 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * 以本地索引存储目录为数据源的 DataHub，适用于测试用例达到数十万条的大型项目。
+ * 先用 {@link #importFrom} 从现有数据源（通常是 Excel 工作簿）导入一次，之后生成文档不再读取 Excel。
+ * 存储目录包含：
+ * <ul>
+ *   <li>store.idx：索引，测试用例按模块编号、TCID、ReqID 建立索引，需求按 ReqID 建立索引</li>
+ *   <li>cases.dat / requirements.dat：逐条存放的测试用例（含步骤）和需求，按索引中的偏移量随机读取</li>
+ *   <li>tables.dat：基本信息、列表表格和 Meta 配置</li>
+ *   <li>results.log / std_cases.log：只追加的测试结果和标准化测试用例</li>
+ * </ul>
+ * 各 load* 方法只读取自己需要的文件；{@link #loadModules}、{@link #findTestCase}、
+ * {@link #findTestCasesByRequirement}、{@link #findRequirement} 只读取索引命中的记录。
+ * 追加测试结果时只按索引校验 TCID 并在 results.log 末尾写入本批记录，开销与批大小成正比。
+ * 数据文件头记录写入时的代号，索引记录各数据文件的代号；导入或重写中断后索引与数据文件不一致时，
+ * 读取会报错提示重新导入，而不是按旧索引的偏移量解码新文件。
+ */
+public class IndexedStoreDataHub implements DataHub {
+
+  static final String INDEX_FILE = "store.idx";
+  static final String CASES_FILE = "cases.dat";
+  static final String REQUIREMENTS_FILE = "requirements.dat";
+  static final String TABLES_FILE = "tables.dat";
+  static final String RESULTS_FILE = "results.log";
+  static final String STD_CASES_FILE = "std_cases.log";
+
+  private static final int MAGIC = 0x44535452;
+  /** 格式变化时递增，旧版本的存储需要重新导入 */
+  static final int VERSION = 2;
+  /** 数据文件头：MAGIC、VERSION、代号 */
+  private static final int HEADER_SIZE = 16;
+
+  private static final String[] TCID_COLUMNS = {"TCID", "测试用例标识", "标识"};
+  /** 用例追踪需求的列，一个单元格中可用逗号、分号或空白分隔多个ReqID */
+  private static final String[] REQUIREMENT_REF_COLUMNS = {"ReqID", "需求ID", "需求标识", "追踪关系"};
+
+  private final Map<String, CachedIndex> indexes = new ConcurrentHashMap<>();
+  private final WorkbookLocks storeLocks = new WorkbookLocks();
+  private final SessionTableCache sessionTables = new SessionTableCache();
+
+  /**
+   * 测试用例在 cases.dat 中的位置及其索引键
+   */
+  private record CaseEntry(String moduleNumber, String tcid, List<String> reqIds, long offset, int length) {
+  }
+
+  /**
+   * 需求在 requirements.dat 中的位置
+   */
+  private record RequirementEntry(String reqId, long offset, int length) {
+  }
+
+  private record CachedIndex(FileTime modified, long size, Object fileKey, StoreIndex index) {
+  }
+
+  /**
+   * tables.dat 中的小表
+   */
+  private record StoreTables(Map<String, BasicInfoData> basicInfo, Map<String, ListTableData> listTables,
+                             Map<String, String> config) {
+  }
+
+  /**
+   * 内存中的索引
+   */
+  private static final class StoreIndex {
+    /** 数据文件名 -> 代号，读取时与数据文件头比对 */
+    private final Map<String, Long> generations;
+    private final List<ColumnSchema> schemas;
+    private final List<CaseEntry> cases;
+    private final List<RequirementEntry> requirements;
+    private final Map<String, List<CaseEntry>> casesByModule = new LinkedHashMap<>();
+    private final Map<String, CaseEntry> caseByTcid = new HashMap<>();
+    private final Map<String, List<CaseEntry>> casesByReqId = new HashMap<>();
+    private final Map<String, RequirementEntry> requirementById = new HashMap<>();
+
+    StoreIndex(Map<String, Long> generations, List<ColumnSchema> schemas, List<CaseEntry> cases,
+        List<RequirementEntry> requirements) {
+      this.generations = generations;
+      this.schemas = schemas;
+      this.cases = cases;
+      this.requirements = requirements;
+      for (CaseEntry entry : cases) {
+        casesByModule.computeIfAbsent(entry.moduleNumber(), k -> new ArrayList<>()).add(entry);
+        if (!entry.tcid().isEmpty()) {
+          caseByTcid.putIfAbsent(entry.tcid(), entry);
+        }
+        for (String reqId : entry.reqIds()) {
+          casesByReqId.computeIfAbsent(reqId, k -> new ArrayList<>()).add(entry);
+        }
+      }
+      for (RequirementEntry entry : requirements) {
+        requirementById.putIfAbsent(entry.reqId(), entry);
+      }
+    }
+
+    long generation(String file) {
+      return generations.getOrDefault(file, 0L);
+    }
+  }
+
+  // ==================== 导入 ====================
+
+  /**
+   * 从现有数据源导入索引存储，覆盖目标目录中已有的存储
+   *
+   * @param source     源数据的 DataHub，如 {@link ExcelDataHub}
+   * @param sourcePath 源数据路径
+   * @param storeDir   存储目录，不存在时自动创建
+   * @return 导入的测试用例数
+   */
+  public int importFrom(DataHub source, String sourcePath, String storeDir) throws Exception {
+    long start = System.currentTimeMillis();
+    Map<String, ModuleData> modules;
+    StoreTables tables;
+    List<Requirement> requirements;
+    List<TestResult> results;
+    try (Session ignored = source.openSession(sourcePath)) {
+      modules = source.loadModuleData(sourcePath);
+      tables = new StoreTables(source.loadBasicInfo(sourcePath), source.loadListTables(sourcePath),
+          source.loadConfig(sourcePath));
+      requirements = source.loadRequirements(sourcePath);
+      results = source.loadTestResults(sourcePath);
+    }
+
+    Path dir = Path.of(storeDir);
+    Files.createDirectories(dir);
+    List<ColumnSchema> schemas = new ArrayList<>();
+    List<CaseEntry> cases = new ArrayList<>();
+    List<RequirementEntry> requirementEntries = new ArrayList<>();
+    try (WorkbookLocks.Handle ignored = storeLocks.write(key(storeDir))) {
+      // 本次导入的数据文件共用一个代号，索引最后写入；中途失败时旧索引与新数据文件的代号不符
+      long generation = newGeneration();
+      Map<ColumnSchema, Integer> schemaIds = new IdentityHashMap<>();
+      replaceFile(dir.resolve(CASES_FILE), out -> {
+        writeHeader(out, generation);
+        long offset = HEADER_SIZE;
+        for (ModuleData moduleData : modules.values()) {
+          for (TestCase tc : moduleData.getTestCases()) {
+            int schemaId = -1;
+            if (tc.getSchema() != null) {
+              schemaId = schemaIds.computeIfAbsent(tc.getSchema(), schema -> {
+                schemas.add(schema);
+                return schemas.size() - 1;
+              });
+            }
+            byte[] record = encodeCase(tc, schemaId);
+            out.write(record);
+            cases.add(new CaseEntry(tc.getModuleNumber(), tcidOf(tc), reqIdsOf(tc), offset, record.length));
+            offset += record.length;
+          }
+        }
+      });
+      writeRequirementRecords(dir, generation, requirements, requirementEntries);
+      replaceFile(dir.resolve(TABLES_FILE), out -> {
+        writeHeader(out, generation);
+        writeTables(out, tables);
+      });
+      replaceFile(dir.resolve(RESULTS_FILE), out -> {
+        writeHeader(out, generation);
+        for (TestResult tr : results) {
+          writeFramed(out, encodeResult(tr));
+        }
+      });
+      Files.deleteIfExists(dir.resolve(STD_CASES_FILE));
+      // 数据文件都写完后再写索引
+      Map<String, Long> generations = new LinkedHashMap<>();
+      for (String file : List.of(CASES_FILE, REQUIREMENTS_FILE, TABLES_FILE, RESULTS_FILE)) {
+        generations.put(file, generation);
+      }
+      writeIndex(dir, new StoreIndex(generations, schemas, cases, requirementEntries));
+      indexes.remove(key(storeDir));
+      sessionTables.invalidate(storeDir);
+    }
+    System.out.println("导入索引存储完成: " + storeDir + "，模块 " + modules.size() + " 个，测试用例 " + cases.size()
+        + " 条，需求 " + requirements.size() + " 条，测试结果 " + results.size() + " 条，耗时 "
+        + (System.currentTimeMillis() - start) + "ms");
+    return cases.size();
+  }
+
+  // ==================== 读取 ====================
+
+  @Override
+  public Map<String, ModuleData> loadModuleData(String storeDir) throws Exception {
+    return sessionTables.get(storeDir, CASES_FILE, () -> readModules(storeDir, null));
+  }
+
+  /**
+   * 只读取指定模块的测试用例
+   *
+   * @param moduleNumbers 模块编号，存储中不存在的编号忽略
+   * @return 按存储中的模块顺序排列的模块数据
+   */
+  public Map<String, ModuleData> loadModules(String storeDir, Collection<String> moduleNumbers) throws Exception {
+    return readModules(storeDir, new HashSet<>(moduleNumbers)::contains);
+  }
+
+  /**
+   * 按模块索引只读取选中模块的记录，与 {@link #loadModules} 相同；列裁剪不适用，记录整条解码
+   */
+  @Override
+  public Map<String, ModuleData> loadModuleData(String storeDir, ColumnProjection projection,
+      ModuleFilter moduleFilter) throws Exception {
+    if (moduleFilter.isAll()) {
+      return loadModuleData(storeDir);
+    }
+    return readModules(storeDir, moduleFilter::matches);
+  }
+
+  @Override
+  public List<TestCase> loadTestCases(String storeDir, ColumnProjection projection, ModuleFilter moduleFilter)
+      throws Exception {
+    List<TestCase> result = new ArrayList<>();
+    for (ModuleData moduleData : loadModuleData(storeDir, projection, moduleFilter).values()) {
+      result.addAll(moduleData.getTestCases());
+    }
+    return result;
+  }
+
+  @Override
+  public List<TestCase> loadTestCases(String storeDir) throws Exception {
+    List<TestCase> result = new ArrayList<>();
+    for (ModuleData moduleData : loadModuleData(storeDir).values()) {
+      result.addAll(moduleData.getTestCases());
+    }
+    return result;
+  }
+
+  /**
+   * 按TCID查找测试用例
+   *
+   * @return 不存在时返回null
+   */
+  public TestCase findTestCase(String storeDir, String tcid) throws Exception {
+    try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      CaseEntry entry = index.caseByTcid.get(tcid);
+      if (entry == null) {
+        return null;
+      }
+      return readCases(storeDir, index, List.of(entry)).get(0);
+    }
+  }
+
+  /**
+   * 查找追踪到指定需求的测试用例
+   */
+  public List<TestCase> findTestCasesByRequirement(String storeDir, String reqId) throws Exception {
+    try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      return readCases(storeDir, index, index.casesByReqId.getOrDefault(reqId, List.of()));
+    }
+  }
+
+  @Override
+  public List<Requirement> loadRequirements(String storeDir) throws Exception {
+    return sessionTables.get(storeDir, REQUIREMENTS_FILE, () -> {
+      try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+        StoreIndex index = index(storeDir);
+        List<Requirement> requirements = new ArrayList<>(index.requirements.size());
+        Path file = Path.of(storeDir, REQUIREMENTS_FILE);
+        try (DataInputStream in = openData(file)) {
+          checkHeader(in, file, index.generation(REQUIREMENTS_FILE));
+          for (RequirementEntry entry : index.requirements) {
+            requirements.add(decodeRequirement(readBytes(in, entry.length())));
+          }
+        }
+        return requirements;
+      }
+    });
+  }
+
+  /**
+   * 按ReqID查找需求
+   *
+   * @return 不存在时返回null
+   */
+  public Requirement findRequirement(String storeDir, String reqId) throws Exception {
+    try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      RequirementEntry entry = index.requirementById.get(reqId);
+      if (entry == null) {
+        return null;
+      }
+      Path file = Path.of(storeDir, REQUIREMENTS_FILE);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        checkHeader(channel, file, index.generation(REQUIREMENTS_FILE));
+        return decodeRequirement(readAt(channel, entry.offset(), entry.length()));
+      }
+    }
+  }
+
+  @Override
+  public List<TestResult> loadTestResults(String storeDir) throws Exception {
+    return sessionTables.get(storeDir, RESULTS_FILE, () -> {
+      try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+        StoreIndex index = index(storeDir);
+        List<TestResult> results = new ArrayList<>();
+        readFramed(Path.of(storeDir, RESULTS_FILE), index.generation(RESULTS_FILE),
+            record -> results.add(decodeResult(record)));
+        return results;
+      }
+    });
+  }
+
+  @Override
+  public Map<String, BasicInfoData> loadBasicInfo(String storeDir) throws Exception {
+    return tables(storeDir).basicInfo();
+  }
+
+  @Override
+  public Map<String, ListTableData> loadListTables(String storeDir) throws Exception {
+    return tables(storeDir).listTables();
+  }
+
+  @Override
+  public Map<String, String> loadConfig(String storeDir) throws Exception {
+    return tables(storeDir).config();
+  }
+
+  /**
+   * 打开读取会话：会话期间同一存储的每个文件只读取一次，写入会清空已读取的数据
+   */
+  @Override
+  public Session openSession(String storeDir) {
+    return sessionTables.open(storeDir);
+  }
+
+  // ==================== 写入 ====================
+
+  /**
+   * 重写需求记录和索引（测试用例记录不变）
+   */
+  @Override
+  public void writeRequirements(String storeDir, List<Requirement> requirements) throws Exception {
+    try (WorkbookLocks.Handle ignored = storeLocks.write(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      List<RequirementEntry> entries = new ArrayList<>();
+      Path dir = Path.of(storeDir);
+      long generation = newGeneration();
+      writeRequirementRecords(dir, generation, requirements, entries);
+      Map<String, Long> generations = new LinkedHashMap<>(index.generations);
+      generations.put(REQUIREMENTS_FILE, generation);
+      writeIndex(dir, new StoreIndex(generations, index.schemas, index.cases, entries));
+      indexes.remove(key(storeDir));
+      sessionTables.invalidate(storeDir);
+    }
+  }
+
+  /**
+   * 把标准化测试用例追加到 std_cases.log，关联的需求按索引校验
+   */
+  @Override
+  public ImportSummary writeTestCases(String storeDir, List<TestCase> testCases) throws Exception {
+    ImportSummary summary = new ImportSummary();
+    try (WorkbookLocks.Handle ignored = storeLocks.write(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      ByteArrayOutputStream batch = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(batch);
+      for (TestCase tc : testCases) {
+        String tcid = tcidOf(tc);
+        if (tcid.isEmpty()) {
+          tcid = Objects.toString(tc.getId(), "").trim();
+        }
+        String reqId = first(tc, "ReqID", "需求ID", "需求标识");
+        if (tcid.isEmpty()) {
+          summary.addError("测试用例缺少TCID");
+          summary.setFailedCount(summary.getFailedCount() + 1);
+          continue;
+        }
+        if (!reqId.isEmpty() && !index.requirementById.containsKey(reqId)) {
+          summary.addWarning("测试用例 " + tcid + " 关联了不存在的需求 " + reqId);
+        }
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(record);
+        writeString(data, tcid);
+        writeString(data, reqId);
+        writeString(data, choose(first(tc, "Procedure", "测试步骤"), tc.getContent()));
+        writeString(data, choose(first(tc, "ExpectedResult", "预期结果"), tc.getCriteria()));
+        writeFramed(out, record.toByteArray());
+        summary.setSuccessCount(summary.getSuccessCount() + 1);
+      }
+      appendBytes(Path.of(storeDir, STD_CASES_FILE), batch.toByteArray());
+    }
+    return summary;
+  }
+
+  /**
+   * 按索引校验TCID后把本批结果追加到 results.log 末尾，不读取也不改写已有数据
+   */
+  @Override
+  public ImportSummary appendTestResults(String storeDir, List<TestResult> testResults) throws Exception {
+    ImportSummary summary = new ImportSummary();
+    try (WorkbookLocks.Handle ignored = storeLocks.write(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      ByteArrayOutputStream batch = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(batch);
+      for (TestResult tr : testResults) {
+        String tcid = tr.getTestCaseId() == null ? "" : tr.getTestCaseId().trim();
+        if (tcid.isEmpty()) {
+          summary.addError("测试结果缺少TCID");
+          summary.setFailedCount(summary.getFailedCount() + 1);
+          continue;
+        }
+        if (!index.caseByTcid.containsKey(tcid)) {
+          summary.addError("测试结果TCID不存在: " + tcid);
+          summary.setFailedCount(summary.getFailedCount() + 1);
+          continue;
+        }
+        writeFramed(out, encodeResult(tr));
+        summary.setSuccessCount(summary.getSuccessCount() + 1);
+      }
+      Path file = Path.of(storeDir, RESULTS_FILE);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        checkHeader(channel, file, index.generation(RESULTS_FILE));
+      }
+      appendBytes(file, batch.toByteArray());
+      sessionTables.invalidate(storeDir);
+    }
+    return summary;
+  }
+
+  // ==================== 测试用例读取 ====================
+
+  private Map<String, ModuleData> readModules(String storeDir, Predicate<String> moduleFilter) throws Exception {
+    try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+      StoreIndex index = index(storeDir);
+      Map<String, ModuleData> modules = new LinkedHashMap<>();
+      if (moduleFilter == null) {
+        // 全量读取时顺序扫描 cases.dat
+        Path file = Path.of(storeDir, CASES_FILE);
+        try (DataInputStream in = openData(file)) {
+          checkHeader(in, file, index.generation(CASES_FILE));
+          for (CaseEntry entry : index.cases) {
+            TestCase tc = decodeCase(readBytes(in, entry.length()), entry.moduleNumber(), index.schemas);
+            modules.computeIfAbsent(entry.moduleNumber(), ModuleData::new).addTestCase(tc);
+          }
+        }
+        return modules;
+      }
+      List<CaseEntry> entries = new ArrayList<>();
+      for (Map.Entry<String, List<CaseEntry>> module : index.casesByModule.entrySet()) {
+        if (moduleFilter.test(module.getKey())) {
+          entries.addAll(module.getValue());
+        }
+      }
+      List<TestCase> cases = readCases(storeDir, index, entries);
+      for (TestCase tc : cases) {
+        modules.computeIfAbsent(tc.getModuleNumber(), ModuleData::new).addTestCase(tc);
+      }
+      return modules;
+    }
+  }
+
+  /**
+   * 按偏移量读取指定的测试用例记录，结果顺序与entries一致
+   */
+  private static List<TestCase> readCases(String storeDir, StoreIndex index, List<CaseEntry> entries)
+      throws IOException {
+    if (entries.isEmpty()) {
+      return new ArrayList<>();
+    }
+    // 按文件位置顺序读取，减少随机寻址
+    List<CaseEntry> ordered = new ArrayList<>(entries);
+    ordered.sort(Comparator.comparingLong(CaseEntry::offset));
+    Map<CaseEntry, TestCase> loaded = new IdentityHashMap<>();
+    Path file = Path.of(storeDir, CASES_FILE);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      checkHeader(channel, file, index.generation(CASES_FILE));
+      for (CaseEntry entry : ordered) {
+        byte[] record = readAt(channel, entry.offset(), entry.length());
+        loaded.put(entry, decodeCase(record, entry.moduleNumber(), index.schemas));
+      }
+    }
+    List<TestCase> result = new ArrayList<>(entries.size());
+    for (CaseEntry entry : entries) {
+      result.add(loaded.get(entry));
+    }
+    return result;
+  }
+
+  private StoreTables tables(String storeDir) throws Exception {
+    return sessionTables.get(storeDir, TABLES_FILE, () -> {
+      try (WorkbookLocks.Handle ignored = storeLocks.read(key(storeDir))) {
+        StoreIndex index = index(storeDir);
+        Path file = Path.of(storeDir, TABLES_FILE);
+        try (DataInputStream in = openData(file)) {
+          checkHeader(in, file, index.generation(TABLES_FILE));
+          return readTables(in);
+        }
+      }
+    });
+  }
+
+  // ==================== 索引 ====================
+
+  private StoreIndex index(String storeDir) throws IOException {
+    Path file = Path.of(storeDir, INDEX_FILE);
+    if (!Files.isRegularFile(file)) {
+      throw new FileNotFoundException("索引存储不存在，请先导入: " + storeDir);
+    }
+    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+    String key = key(storeDir);
+    CachedIndex cached = indexes.get(key);
+    if (cached != null && cached.modified().equals(attrs.lastModifiedTime()) && cached.size() == attrs.size()
+        && Objects.equals(cached.fileKey(), attrs.fileKey())) {
+      return cached.index();
+    }
+    StoreIndex index = readIndex(file);
+    indexes.put(key, new CachedIndex(attrs.lastModifiedTime(), attrs.size(), attrs.fileKey(), index));
+    return index;
+  }
+
+  private static StoreIndex readIndex(Path file) throws IOException {
+    try (DataInputStream in = openData(file)) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("索引存储格式版本不符，请重新导入: " + file.getParent());
+      }
+      Map<String, Long> generations = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        generations.put(readString(in), in.readLong());
+      }
+      List<ColumnSchema> schemas = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        List<String> names = new ArrayList<>();
+        for (int c = in.readInt(); c > 0; c--) {
+          names.add(readString(in));
+        }
+        schemas.add(new ColumnSchema(names));
+      }
+      // 模块编号大量重复，读取时共用同一个实例
+      Map<String, String> moduleNumbers = new HashMap<>();
+      List<CaseEntry> cases = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        String moduleNumber = moduleNumbers.computeIfAbsent(readString(in), k -> k);
+        String tcid = readString(in);
+        List<String> reqIds = new ArrayList<>();
+        for (int r = in.readInt(); r > 0; r--) {
+          reqIds.add(readString(in));
+        }
+        cases.add(new CaseEntry(moduleNumber, tcid, reqIds, in.readLong(), in.readInt()));
+      }
+      List<RequirementEntry> requirements = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        requirements.add(new RequirementEntry(readString(in), in.readLong(), in.readInt()));
+      }
+      return new StoreIndex(generations, schemas, cases, requirements);
+    }
+  }
+
+  private static void writeIndex(Path dir, StoreIndex index) throws IOException {
+    replaceFile(dir.resolve(INDEX_FILE), out -> {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(index.generations.size());
+      for (Map.Entry<String, Long> entry : index.generations.entrySet()) {
+        writeString(out, entry.getKey());
+        out.writeLong(entry.getValue());
+      }
+      out.writeInt(index.schemas.size());
+      for (ColumnSchema schema : index.schemas) {
+        out.writeInt(schema.size());
+        for (String name : schema.getColumnNames()) {
+          writeString(out, name);
+        }
+      }
+      out.writeInt(index.cases.size());
+      for (CaseEntry entry : index.cases) {
+        writeString(out, entry.moduleNumber());
+        writeString(out, entry.tcid());
+        out.writeInt(entry.reqIds().size());
+        for (String reqId : entry.reqIds()) {
+          writeString(out, reqId);
+        }
+        out.writeLong(entry.offset());
+        out.writeInt(entry.length());
+      }
+      out.writeInt(index.requirements.size());
+      for (RequirementEntry entry : index.requirements) {
+        writeString(out, entry.reqId());
+        out.writeLong(entry.offset());
+        out.writeInt(entry.length());
+      }
+    });
+  }
+
+  private static String tcidOf(TestCase tc) {
+    return first(tc, TCID_COLUMNS);
+  }
+
+  private static List<String> reqIdsOf(TestCase tc) {
+    Set<String> reqIds = new LinkedHashSet<>();
+    for (String column : REQUIREMENT_REF_COLUMNS) {
+      String value = tc.getColumnValue(column);
+      if (value == null || value.isBlank()) {
+        continue;
+      }
+      for (String reqId : value.split("[,，;；\\s]+")) {
+        if (!reqId.isEmpty()) {
+          reqIds.add(reqId);
+        }
+      }
+    }
+    return new ArrayList<>(reqIds);
+  }
+
+  private static String first(TestCase tc, String... columns) {
+    for (String column : columns) {
+      String value = tc.getColumnValue(column);
+      if (value != null && !value.isBlank()) {
+        return value.trim();
+      }
+    }
+    return "";
+  }
+
+  private static String choose(String value, String fallback) {
+    return !value.isEmpty() ? value : fallback == null ? "" : fallback;
+  }
+
+  // ==================== 记录编码 ====================
+
+  private static byte[] encodeCase(TestCase tc, int schemaId) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    DataOutputStream out = new DataOutputStream(bytes);
+    Map<String, String> columns = tc.getColumnData();
+    Map<String, String> extras = new LinkedHashMap<>(columns);
+    out.writeInt(schemaId);
+    if (tc.getSchema() != null) {
+      for (String name : tc.getSchema().getColumnNames()) {
+        writeString(out, columns.get(name));
+        extras.remove(name);
+      }
+    }
+    writeMap(out, extras);
+    out.writeInt(tc.getTestSteps().size());
+    for (TestCase.TestStep step : tc.getTestSteps()) {
+      out.writeInt(step.stepNo);
+      writeString(out, step.action);
+      writeString(out, step.expected);
+      writeString(out, step.result);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static TestCase decodeCase(byte[] record, String moduleNumber, List<ColumnSchema> schemas)
+      throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    int schemaId = in.readInt();
+    TestCase tc;
+    if (schemaId < 0) {
+      tc = new TestCase(moduleNumber);
+    } else {
+      ColumnSchema schema = schemas.get(schemaId);
+      tc = new TestCase(moduleNumber, schema);
+      for (String name : schema.getColumnNames()) {
+        String value = readString(in);
+        if (value != null) {
+          tc.addColumnData(name, value);
+        }
+      }
+    }
+    Map<String, String> extras = readMap(in);
+    if (extras != null) {
+      for (Map.Entry<String, String> entry : extras.entrySet()) {
+        tc.addColumnData(entry.getKey(), entry.getValue());
+      }
+    }
+    for (int s = in.readInt(); s > 0; s--) {
+      tc.addTestStep(in.readInt(), readString(in), readString(in), readString(in));
+    }
+    return tc;
+  }
+
+  private static void writeRequirementRecords(Path dir, long generation, List<Requirement> requirements,
+      List<RequirementEntry> entries) throws IOException {
+    replaceFile(dir.resolve(REQUIREMENTS_FILE), out -> {
+      writeHeader(out, generation);
+      long offset = HEADER_SIZE;
+      for (Requirement req : requirements) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(bytes);
+        writeString(data, req.getRequirementId());
+        writeString(data, req.getRequirementNumber());
+        writeString(data, req.getRequirementName());
+        writeString(data, req.getDescription());
+        writeString(data, req.getType() == null ? null : req.getType().name());
+        writeString(data, req.getPriority() == null ? null : req.getPriority().name());
+        writeString(data, req.getParentRequirementId());
+        writeString(data, req.getStatus() == null ? null : req.getStatus().name());
+        writeMap(data, req.getAttributes());
+        byte[] record = bytes.toByteArray();
+        out.write(record);
+        entries.add(new RequirementEntry(Objects.toString(req.getRequirementId(), ""), offset, record.length));
+        offset += record.length;
+      }
+    });
+  }
+
+  private static Requirement decodeRequirement(byte[] record) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    Requirement req = new Requirement();
+    req.setRequirementId(readString(in));
+    req.setRequirementNumber(readString(in));
+    req.setRequirementName(readString(in));
+    req.setDescription(readString(in));
+    String type = readString(in);
+    req.setType(type == null ? null : Requirement.RequirementType.valueOf(type));
+    String priority = readString(in);
+    req.setPriority(priority == null ? null : Requirement.Priority.valueOf(priority));
+    req.setParentRequirementId(readString(in));
+    String status = readString(in);
+    req.setStatus(status == null ? null : Requirement.RequirementStatus.valueOf(status));
+    req.setAttributes(readMap(in));
+    return req;
+  }
+
+  private static byte[] encodeResult(TestResult tr) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+    DataOutputStream out = new DataOutputStream(bytes);
+    writeString(out, tr.getTestCaseId());
+    writeString(out, tr.getExecutionDate());
+    writeString(out, tr.getVerdict());
+    writeString(out, tr.getDefectId());
+    writeMap(out, tr.getAttributes());
+    return bytes.toByteArray();
+  }
+
+  private static TestResult decodeResult(byte[] record) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+    TestResult tr = new TestResult(readString(in), readString(in), readString(in), readString(in));
+    tr.setAttributes(readMap(in));
+    return tr;
+  }
+
+  private static void writeTables(DataOutputStream out, StoreTables tables) throws IOException {
+    out.writeInt(tables.basicInfo().size());
+    for (Map.Entry<String, BasicInfoData> entry : tables.basicInfo().entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue().getTableName());
+      writeMap(out, entry.getValue().getAllFields());
+    }
+    out.writeInt(tables.listTables().size());
+    for (Map.Entry<String, ListTableData> entry : tables.listTables().entrySet()) {
+      ListTableData table = entry.getValue();
+      writeString(out, entry.getKey());
+      writeString(out, table.getTableName());
+      out.writeInt(table.getColumnNames().size());
+      for (String name : table.getColumnNames()) {
+        writeString(out, name);
+      }
+      out.writeInt(table.getRows().size());
+      for (Map<String, String> row : table.getRows()) {
+        writeMap(out, row);
+      }
+    }
+    writeMap(out, tables.config());
+  }
+
+  private static StoreTables readTables(DataInputStream in) throws IOException {
+    Map<String, BasicInfoData> basicInfo = new LinkedHashMap<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      String key = readString(in);
+      BasicInfoData data = new BasicInfoData(readString(in));
+      Map<String, String> fields = readMap(in);
+      if (fields != null) {
+        data.getAllFields().putAll(fields);
+      }
+      basicInfo.put(key, data);
+    }
+    Map<String, ListTableData> listTables = new LinkedHashMap<>();
+    for (int i = in.readInt(); i > 0; i--) {
+      String key = readString(in);
+      ListTableData table = new ListTableData(readString(in));
+      List<String> columnNames = new ArrayList<>();
+      for (int c = in.readInt(); c > 0; c--) {
+        columnNames.add(readString(in));
+      }
+      table.setColumnNames(columnNames);
+      for (int r = in.readInt(); r > 0; r--) {
+        table.addRow(readMap(in));
+      }
+      listTables.put(key, table);
+    }
+    Map<String, String> config = readMap(in);
+    return new StoreTables(basicInfo, listTables, config != null ? config : new LinkedHashMap<>());
+  }
+
+  // ==================== 文件读写 ====================
+
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private interface RecordHandler {
+    void record(byte[] record) throws IOException;
+  }
+
+  /**
+   * 先写临时文件再替换，读取方不会看到写了一半的文件
+   */
+  private static void replaceFile(Path file, RecordWriter writer) throws IOException {
+    Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+        DataOutputStream data = new DataOutputStream(out);
+        writer.write(data);
+        data.flush();
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * 整批一次追加到文件末尾并刷盘
+   */
+  private static void appendBytes(Path file, byte[] bytes) throws IOException {
+    if (bytes.length == 0) {
+      return;
+    }
+    try (FileChannel channel = FileChannel.open(file,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+  }
+
+  private static void writeFramed(DataOutputStream out, byte[] record) throws IOException {
+    out.writeInt(record.length);
+    out.write(record);
+  }
+
+  /**
+   * 校验文件头后逐条读取带长度前缀的记录；写入中断留下的不完整记录忽略
+   */
+  private static void readFramed(Path file, long generation, RecordHandler handler) throws IOException {
+    if (!Files.exists(file)) {
+      return;
+    }
+    try (DataInputStream in = openData(file)) {
+      checkHeader(in, file, generation);
+      while (true) {
+        int length;
+        try {
+          length = in.readInt();
+        } catch (EOFException e) {
+          return;
+        }
+        byte[] record = new byte[length];
+        try {
+          in.readFully(record);
+        } catch (EOFException e) {
+          System.out.println("忽略不完整的记录: " + file.getFileName());
+          return;
+        }
+        handler.record(record);
+      }
+    }
+  }
+
+  private static long newGeneration() {
+    return ThreadLocalRandom.current().nextLong();
+  }
+
+  private static void writeHeader(DataOutputStream out, long generation) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(generation);
+  }
+
+  /**
+   * 校验数据文件头：格式版本不符或代号与索引记录的不同（导入或重写中断）时报错
+   */
+  private static void checkHeader(DataInputStream in, Path file, long generation) throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+      throw new IOException("索引存储格式版本不符，请重新导入: " + file.getParent());
+    }
+    if (in.readLong() != generation) {
+      throw new IOException("数据文件与索引不一致，上次导入或写入可能中断，请重新导入: " + file);
+    }
+  }
+
+  private static void checkHeader(FileChannel channel, Path file, long generation) throws IOException {
+    checkHeader(new DataInputStream(new ByteArrayInputStream(readAt(channel, 0, HEADER_SIZE))), file, generation);
+  }
+
+  private static DataInputStream openData(Path file) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+    return new DataInputStream(in);
+  }
+
+  private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static byte[] readAt(FileChannel channel, long offset, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("记录超出文件末尾，存储可能已损坏");
+      }
+    }
+    return buffer.array();
+  }
+
+  /**
+   * -1表示null，否则为UTF-8长度和内容
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    return new String(readBytes(in, length), StandardCharsets.UTF_8);
+  }
+
+  private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+    if (map == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(map.size());
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  private static Map<String, String> readMap(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    Map<String, String> map = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      map.put(readString(in), readString(in));
+    }
+    return map;
+  }
+
+  private static String key(String storeDir) {
+    return Path.of(storeDir).toAbsolutePath().normalize().toString();
+  }
+}
@@ -0,0 +1,78 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON-Lines 数据目录的 DataHub（每张逻辑表一个 .jsonl 文件，UTF-8 编码，每行一个JSON对象）。
+ * 对象的键即列名，值按文本读取（数字、布尔值取其文本形式，null 视为空串）；空行和以 # 开头的行忽略。
+ * 各行的键可以不同，列名以各行自身的键为准。
+ */
+public class JsonLinesDataHub extends TabularDataHub {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Override
+  protected String extension() {
+    return ".jsonl";
+  }
+
+  @Override
+  protected void readRows(Path file, RowHandler handler) throws Exception {
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      int lineNo = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNo++;
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+          continue;
+        }
+        JsonNode node = mapper.readTree(trimmed);
+        if (!node.isObject()) {
+          throw new IOException(file.getFileName() + " 第" + lineNo + "行不是JSON对象");
+        }
+        List<String> columns = new ArrayList<>(node.size());
+        List<String> values = new ArrayList<>(node.size());
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+          Map.Entry<String, JsonNode> field = fields.next();
+          columns.add(field.getKey().trim());
+          JsonNode value = field.getValue();
+          values.add(value.isNull() ? "" : value.isValueNode() ? value.asText() : value.toString());
+        }
+        handler.row(columns, values);
+      }
+    }
+  }
+
+  @Override
+  protected void writeRows(Path file, List<String> columns, List<List<String>> rows, boolean append)
+      throws IOException {
+    StandardOpenOption mode = append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING;
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, mode)) {
+      for (List<String> row : rows) {
+        ObjectNode node = mapper.createObjectNode();
+        for (int c = 0; c < columns.size(); c++) {
+          node.put(columns.get(c), c < row.size() ? row.get(c) : "");
+        }
+        writer.write(mapper.writeValueAsString(node));
+        writer.write('\n');
+      }
+    }
+  }
+}
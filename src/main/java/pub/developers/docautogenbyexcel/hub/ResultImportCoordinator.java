@@ -0,0 +1,140 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个枢纽文件的测试结果导入协调器（组提交）。
+ * 并发调用方提交的各批结果先排队；同一时刻只有一个调用方负责写入，
+ * 它在可选的等待窗口后取走队列中的全部批次，一次校验、一次写入，再把各自的 ImportSummary 交还给每个调用方。
+ * 写入进行期间到达的批次会合并进下一次写入，因此负载越高合并越多。
+ */
+final class ResultImportCoordinator {
+
+  /**
+   * 一个调用方提交的一批结果
+   */
+  static final class Batch {
+    private final List<TestResult> results;
+    private ImportSummary summary;
+    private Exception failure;
+    private boolean done;
+
+    Batch(List<TestResult> results) {
+      this.results = results;
+    }
+
+    List<TestResult> getResults() {
+      return results;
+    }
+
+    void setSummary(ImportSummary summary) {
+      this.summary = summary;
+    }
+  }
+
+  /**
+   * 把一组批次合并写入，并为每个批次设置 ImportSummary
+   */
+  interface BatchWriter {
+    void write(List<Batch> batches) throws Exception;
+  }
+
+  private final long windowMillis;
+  private final List<Batch> queue = new ArrayList<>();
+  private boolean writing;
+  private long commits;
+
+  ResultImportCoordinator(long windowMillis) {
+    this.windowMillis = windowMillis;
+  }
+
+  /**
+   * 提交一批结果并等待其写入完成。
+   * 排队等待时被中断：本批尚未被取走则撤回（不会写入）并抛出 InterruptedException；
+   * 已被写入方取走则等写入结束后照常返回结果。负责写入时等待窗口被中断，则立即写入已排队的批次。
+   * 两种情况下返回前都会恢复线程的中断标志。
+   */
+  ImportSummary submit(List<TestResult> results, BatchWriter writer) throws Exception {
+    Batch batch = new Batch(results);
+    boolean interrupted = false;
+    synchronized (this) {
+      queue.add(batch);
+      while (writing && !batch.done) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          if (queue.remove(batch)) {
+            throw e;
+          }
+          interrupted = true;
+        }
+      }
+      if (batch.done) {
+        restoreInterrupt(interrupted);
+        return resultOf(batch);
+      }
+      writing = true;
+    }
+
+    List<Batch> group = List.of();
+    try {
+      if (windowMillis > 0) {
+        try {
+          Thread.sleep(windowMillis);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      synchronized (this) {
+        group = new ArrayList<>(queue);
+        queue.clear();
+      }
+      writer.write(group);
+    } catch (Exception e) {
+      fail(group, e);
+    } catch (Error e) {
+      fail(group, new IllegalStateException("合并写入测试结果失败", e));
+      throw e;
+    } finally {
+      synchronized (this) {
+        for (Batch b : group) {
+          b.done = true;
+        }
+        commits++;
+        writing = false;
+        notifyAll();
+      }
+      restoreInterrupt(interrupted);
+    }
+    return resultOf(batch);
+  }
+
+  /**
+   * 已完成的合并写入次数
+   */
+  synchronized long getCommitCount() {
+    return commits;
+  }
+
+  private static void fail(List<Batch> group, Exception e) {
+    for (Batch b : group) {
+      b.failure = e;
+    }
+  }
+
+  private static void restoreInterrupt(boolean interrupted) {
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static ImportSummary resultOf(Batch batch) throws Exception {
+    if (batch.failure != null) {
+      throw batch.failure;
+    }
+    return batch.summary;
+  }
+}
@@ -0,0 +1,168 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试结果追加日志。
+ * 导入的测试结果先追加到枢纽工作簿旁的 {@code <工作簿文件名>.results.journal} 中，不重写工作簿；
+ * 读取时与 Data_STR_TestResults 合并，压缩时一次性写回工作簿并清空日志。
+ *
+ * 每行一条结果，字段以制表符分隔（TCID、ExecDate、Result、DefectID），字段内的反斜杠、制表符和换行转义。
+ * 同一进程内通过实例锁互斥，跨进程（如多个CI任务）通过文件锁互斥。
+ */
+final class ResultJournal {
+
+  static final String SUFFIX = ".results.journal";
+  private static final String HEADER = "# TCID\tExecDate\tResult\tDefectID\n";
+
+  private final Path path;
+
+  ResultJournal(Path path) {
+    this.path = path;
+  }
+
+  static Path pathFor(String excelPath) {
+    return Path.of(excelPath + SUFFIX);
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /**
+   * 追加一批结果，整批一次写入并刷盘
+   */
+  synchronized void append(List<TestResult> results) throws IOException {
+    if (results.isEmpty()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    for (TestResult tr : results) {
+      sb.append(escape(tr.getTestCaseId())).append('\t')
+          .append(escape(tr.getExecutionDate())).append('\t')
+          .append(escape(tr.getVerdict())).append('\t')
+          .append(escape(tr.getDefectId())).append('\n');
+    }
+    try (FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+         FileLock ignored = channel.lock()) {
+      if (channel.size() == 0) {
+        sb.insert(0, HEADER);
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    }
+  }
+
+  /**
+   * 读取日志中尚未压缩的全部结果（按追加顺序）
+   */
+  synchronized List<TestResult> read() throws IOException {
+    if (!Files.exists(path)) {
+      return List.of();
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+         FileLock ignored = channel.lock(0, Long.MAX_VALUE, true)) {
+      return parse(readAll(channel));
+    }
+  }
+
+  /**
+   * 把日志中的结果交给folder写回工作簿，成功后清空日志
+   *
+   * @return 写回的结果条数
+   */
+  synchronized int compact(Folder folder) throws Exception {
+    if (!Files.exists(path)) {
+      return 0;
+    }
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+         FileLock ignored = channel.lock()) {
+      List<TestResult> results = parse(readAll(channel));
+      if (!results.isEmpty()) {
+        folder.fold(results);
+      }
+      channel.truncate(0);
+      channel.force(true);
+      return results.size();
+    }
+  }
+
+  /**
+   * 压缩时把日志内容写回工作簿的操作
+   */
+  interface Folder {
+    void fold(List<TestResult> results) throws Exception;
+  }
+
+  private static String readAll(FileChannel channel) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(channel.size(), Integer.MAX_VALUE));
+    ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    channel.position(0);
+    while (channel.read(buffer) > 0) {
+      out.write(buffer.array(), 0, buffer.position());
+      buffer.clear();
+    }
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private static List<TestResult> parse(String content) {
+    List<TestResult> results = new ArrayList<>();
+    for (String line : content.split("\n")) {
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split("\t", -1);
+      if (fields.length < 4) {
+        // 写入中断留下的半行，跳过
+        continue;
+      }
+      results.add(new TestResult(unescape(fields[0]), unescape(fields[1]), unescape(fields[2]), unescape(fields[3])));
+    }
+    return results;
+  }
+
+  private static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\r", "\\r").replace("\n", "\\n");
+  }
+
+  private static String unescape(String value) {
+    if (value.indexOf('\\') < 0) {
+      return value;
+    }
+    StringBuilder sb = new StringBuilder(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '\\' && i + 1 < value.length()) {
+        char next = value.charAt(++i);
+        switch (next) {
+          case 't' -> sb.append('\t');
+          case 'n' -> sb.append('\n');
+          case 'r' -> sb.append('\r');
+          default -> sb.append(next);
+        }
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,79 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 读取会话期间按数据源路径缓存已读取的表，供没有整体快照、按表读取的 DataHub 使用
+ * （如STR生成时测试用例会被多次加载，会话内只读取一次）。
+ * 同一路径的会话可嵌套或并发打开，最后一个关闭时释放；写入数据后调用 {@link #invalidate} 清空该路径已读取的表。
+ */
+final class SessionTableCache {
+
+  /**
+   * 加载一张表
+   */
+  interface TableLoader<T> {
+    T load() throws Exception;
+  }
+
+  /**
+   * 一个路径上的会话：引用计数和已读取的表
+   */
+  private static final class Tables {
+    private int refCount;
+    private final Map<String, Object> tables = new ConcurrentHashMap<>();
+  }
+
+  private final Map<String, Tables> sessions = new HashMap<>();
+
+  DataHub.Session open(String path) {
+    String key = key(path);
+    synchronized (sessions) {
+      sessions.computeIfAbsent(key, k -> new Tables()).refCount++;
+    }
+    return () -> {
+      synchronized (sessions) {
+        Tables tables = sessions.get(key);
+        if (tables != null && --tables.refCount <= 0) {
+          sessions.remove(key);
+        }
+      }
+    };
+  }
+
+  /**
+   * 有会话时返回会话内已读取的表（首次读取后缓存），没有会话时直接读取
+   */
+  @SuppressWarnings("unchecked")
+  <T> T get(String path, String table, TableLoader<T> loader) throws Exception {
+    Tables session;
+    synchronized (sessions) {
+      session = sessions.get(key(path));
+    }
+    if (session == null) {
+      return loader.load();
+    }
+    T value = (T) session.tables.get(table);
+    if (value == null) {
+      value = loader.load();
+      session.tables.put(table, value);
+    }
+    return value;
+  }
+
+  void invalidate(String path) {
+    synchronized (sessions) {
+      Tables session = sessions.get(key(path));
+      if (session != null) {
+        session.tables.clear();
+      }
+    }
+  }
+
+  private static String key(String path) {
+    return Path.of(path).toAbsolutePath().normalize().toString();
+  }
+}
@@ -0,0 +1,91 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工作簿解析结果的LRU缓存。
+ * 以源文件内容哈希和表格识别配置为键，按源文件大小计量容量；
+ * 超过总容量或条目上限时淘汰最久未使用的条目。
+ */
+public class SnapshotCache {
+
+  /**
+   * 缓存统计
+   */
+  public record Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+  }
+
+  private final long maxBytes;
+  private final int maxEntries;
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long currentBytes;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  SnapshotCache(long maxBytes, int maxEntries) {
+    this.maxBytes = maxBytes;
+    this.maxEntries = maxEntries;
+  }
+
+  synchronized WorkbookSnapshot get(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    return entry.snapshot;
+  }
+
+  /**
+   * 按顺序查找第一个存在的键，只计一次命中或未命中
+   */
+  synchronized WorkbookSnapshot getAny(String... keys) {
+    for (String key : keys) {
+      Entry entry = entries.get(key);
+      if (entry != null) {
+        hits++;
+        return entry.snapshot;
+      }
+    }
+    misses++;
+    return null;
+  }
+
+  synchronized void put(String key, WorkbookSnapshot snapshot, long weight) {
+    if (maxEntries <= 0 || weight > maxBytes) {
+      return;
+    }
+    Entry previous = entries.put(key, new Entry(snapshot, weight));
+    if (previous != null) {
+      currentBytes -= previous.weight;
+    }
+    currentBytes += weight;
+
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while ((currentBytes > maxBytes || entries.size() > maxEntries) && it.hasNext()) {
+      Map.Entry<String, Entry> eldest = it.next();
+      if (eldest.getKey().equals(key)) {
+        continue;
+      }
+      currentBytes -= eldest.getValue().weight;
+      it.remove();
+      evictions++;
+    }
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    currentBytes = 0;
+  }
+
+  synchronized Stats stats() {
+    return new Stats(hits, misses, evictions, entries.size(), currentBytes, maxBytes);
+  }
+
+  private record Entry(WorkbookSnapshot snapshot, long weight) {
+  }
+}
@@ -0,0 +1,382 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作簿快照的二进制文件（{@code <工作簿文件名>.dhub}）。
+ * 解析后保存在工作簿旁，下次加载时源文件指纹一致则直接解码，不再解析 .xlsx；
+ * 格式版本或指纹不一致、文件损坏时返回null，由调用方重新解析。
+ *
+ * 文件结构：魔数 "DHUB"、格式版本、源文件指纹，之后依次是Sheet分类、模块与测试用例（含步骤）、
+ * 基本信息、列表表格、需求、测试结果和Meta配置。
+ * 字符串首次出现时写入内容，再次出现时只写序号，解码后相同取值共享同一个实例；
+ * 测试用例的列结构同样只写一次，解码后同一Sheet的用例仍共用一个 {@link ColumnSchema}。
+ */
+final class SnapshotFile {
+
+  static final String SUFFIX = ".dhub";
+  private static final int MAGIC = 0x44485542;
+  /** 格式变化时递增，旧版本文件读取时视为不匹配 */
+  static final int VERSION = 1;
+
+  private SnapshotFile() {
+  }
+
+  static Path pathFor(String excelPath) {
+    return Path.of(excelPath + SUFFIX);
+  }
+
+  /**
+   * 保存快照；先写临时文件再替换，读取方不会看到写了一半的文件
+   */
+  static void write(Path path, String fingerprint, WorkbookSnapshot snapshot) throws IOException {
+    Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+      Encoder encoder = new Encoder(new DataOutputStream(out));
+      encoder.out.writeInt(MAGIC);
+      encoder.out.writeInt(VERSION);
+      encoder.out.writeUTF(fingerprint);
+      encoder.snapshot(snapshot);
+      encoder.out.flush();
+    } catch (IOException e) {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * 读取快照
+   *
+   * @return 版本和指纹都与预期一致时返回快照，否则返回null
+   */
+  static WorkbookSnapshot read(Path path, String fingerprint) {
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024)) {
+      DataInputStream data = new DataInputStream(in);
+      if (data.readInt() != MAGIC || data.readInt() != VERSION || !fingerprint.equals(data.readUTF())) {
+        return null;
+      }
+      return new Decoder(data).snapshot();
+    } catch (Exception e) {
+      System.out.println("快照文件无法读取，将重新解析: " + path.getFileName() + " (" + e.getMessage() + ")");
+      return null;
+    }
+  }
+
+  private static final class Encoder {
+    private final DataOutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final Map<ColumnSchema, Integer> schemas = new IdentityHashMap<>();
+
+    Encoder(DataOutputStream out) {
+      this.out = out;
+    }
+
+    void snapshot(WorkbookSnapshot snapshot) throws IOException {
+      out.writeInt(snapshot.getSheetTypes().size());
+      for (Map.Entry<String, SheetType> entry : snapshot.getSheetTypes().entrySet()) {
+        string(entry.getKey());
+        string(entry.getValue().name());
+      }
+
+      out.writeInt(snapshot.getModuleDataMap().size());
+      for (Map.Entry<String, ModuleData> entry : snapshot.getModuleDataMap().entrySet()) {
+        string(entry.getKey());
+        string(entry.getValue().getModuleNumber());
+        out.writeInt(entry.getValue().getTestCases().size());
+        for (TestCase tc : entry.getValue().getTestCases()) {
+          testCase(tc);
+        }
+      }
+
+      out.writeInt(snapshot.getBasicInfoMap().size());
+      for (Map.Entry<String, BasicInfoData> entry : snapshot.getBasicInfoMap().entrySet()) {
+        string(entry.getKey());
+        string(entry.getValue().getTableName());
+        map(entry.getValue().getAllFields());
+      }
+
+      out.writeInt(snapshot.getListTableMap().size());
+      for (Map.Entry<String, ListTableData> entry : snapshot.getListTableMap().entrySet()) {
+        ListTableData table = entry.getValue();
+        string(entry.getKey());
+        string(table.getTableName());
+        out.writeInt(table.getColumnNames().size());
+        for (String name : table.getColumnNames()) {
+          string(name);
+        }
+        out.writeInt(table.getRows().size());
+        for (Map<String, String> row : table.getRows()) {
+          map(row);
+        }
+      }
+
+      out.writeInt(snapshot.getRequirements().size());
+      for (Requirement req : snapshot.getRequirements()) {
+        string(req.getRequirementId());
+        string(req.getRequirementNumber());
+        string(req.getRequirementName());
+        string(req.getDescription());
+        string(req.getType() == null ? null : req.getType().name());
+        string(req.getPriority() == null ? null : req.getPriority().name());
+        string(req.getParentRequirementId());
+        string(req.getStatus() == null ? null : req.getStatus().name());
+        map(req.getAttributes());
+      }
+
+      out.writeInt(snapshot.getTestResults().size());
+      for (TestResult tr : snapshot.getTestResults()) {
+        string(tr.getTestCaseId());
+        string(tr.getExecutionDate());
+        string(tr.getVerdict());
+        string(tr.getDefectId());
+        map(tr.getAttributes());
+      }
+
+      map(snapshot.getConfig());
+    }
+
+    private void testCase(TestCase tc) throws IOException {
+      string(tc.getModuleNumber());
+      ColumnSchema schema = tc.getSchema();
+      Map<String, String> columns = tc.getColumnData();
+      Map<String, String> extras = new LinkedHashMap<>(columns);
+      if (schema == null) {
+        out.writeInt(0);
+      } else {
+        Integer id = schemas.get(schema);
+        if (id != null) {
+          out.writeInt(id + 2);
+        } else {
+          schemas.put(schema, schemas.size());
+          out.writeInt(1);
+          out.writeInt(schema.size());
+          for (String name : schema.getColumnNames()) {
+            string(name);
+          }
+        }
+        for (String name : schema.getColumnNames()) {
+          string(columns.get(name));
+          extras.remove(name);
+        }
+      }
+      map(extras);
+
+      out.writeInt(tc.getTestSteps().size());
+      for (TestCase.TestStep step : tc.getTestSteps()) {
+        out.writeInt(step.stepNo);
+        string(step.action);
+        string(step.expected);
+        string(step.result);
+      }
+    }
+
+    private void map(Map<String, String> map) throws IOException {
+      if (map == null) {
+        out.writeInt(-1);
+        return;
+      }
+      out.writeInt(map.size());
+      for (Map.Entry<String, String> entry : map.entrySet()) {
+        string(entry.getKey());
+        string(entry.getValue());
+      }
+    }
+
+    /**
+     * 0表示null，1表示新字符串（随后是UTF-8长度和内容），n≥2表示第n-2个已写出的字符串
+     */
+    private void string(String value) throws IOException {
+      if (value == null) {
+        out.writeInt(0);
+        return;
+      }
+      Integer id = strings.get(value);
+      if (id != null) {
+        out.writeInt(id + 2);
+        return;
+      }
+      strings.put(value, strings.size());
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(1);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static final class Decoder {
+    private final DataInputStream in;
+    private final List<String> strings = new ArrayList<>();
+    private final List<ColumnSchema> schemas = new ArrayList<>();
+
+    Decoder(DataInputStream in) {
+      this.in = in;
+    }
+
+    WorkbookSnapshot snapshot() throws IOException {
+      Map<String, SheetType> sheetTypes = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        sheetTypes.put(string(), SheetType.valueOf(string()));
+      }
+
+      Map<String, ModuleData> modules = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        String key = string();
+        ModuleData moduleData = new ModuleData(string());
+        for (int c = in.readInt(); c > 0; c--) {
+          moduleData.addTestCase(testCase());
+        }
+        modules.put(key, moduleData);
+      }
+
+      Map<String, BasicInfoData> basicInfo = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        String key = string();
+        BasicInfoData data = new BasicInfoData(string());
+        Map<String, String> fields = map();
+        if (fields != null) {
+          data.getAllFields().putAll(fields);
+        }
+        basicInfo.put(key, data);
+      }
+
+      Map<String, ListTableData> listTables = new LinkedHashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        String key = string();
+        ListTableData table = new ListTableData(string());
+        List<String> columnNames = new ArrayList<>();
+        for (int c = in.readInt(); c > 0; c--) {
+          columnNames.add(string());
+        }
+        table.setColumnNames(columnNames);
+        for (int r = in.readInt(); r > 0; r--) {
+          table.addRow(map());
+        }
+        listTables.put(key, table);
+      }
+
+      List<Requirement> requirements = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        Requirement req = new Requirement();
+        req.setRequirementId(string());
+        req.setRequirementNumber(string());
+        req.setRequirementName(string());
+        req.setDescription(string());
+        String type = string();
+        req.setType(type == null ? null : Requirement.RequirementType.valueOf(type));
+        String priority = string();
+        req.setPriority(priority == null ? null : Requirement.Priority.valueOf(priority));
+        req.setParentRequirementId(string());
+        String status = string();
+        req.setStatus(status == null ? null : Requirement.RequirementStatus.valueOf(status));
+        req.setAttributes(map());
+        requirements.add(req);
+      }
+
+      List<TestResult> results = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        TestResult tr = new TestResult(string(), string(), string(), string());
+        tr.setAttributes(map());
+        results.add(tr);
+      }
+
+      Map<String, String> config = map();
+      return new WorkbookSnapshot(modules, basicInfo, listTables, requirements, results,
+          config != null ? config : new LinkedHashMap<>(), sheetTypes);
+    }
+
+    private TestCase testCase() throws IOException {
+      String moduleNumber = string();
+      int schemaRef = in.readInt();
+      TestCase tc;
+      if (schemaRef == 0) {
+        tc = new TestCase(moduleNumber);
+      } else {
+        ColumnSchema schema;
+        if (schemaRef == 1) {
+          List<String> names = new ArrayList<>();
+          for (int c = in.readInt(); c > 0; c--) {
+            names.add(string());
+          }
+          schema = new ColumnSchema(names);
+          schemas.add(schema);
+        } else {
+          schema = schemas.get(schemaRef - 2);
+        }
+        tc = new TestCase(moduleNumber, schema);
+        for (String name : schema.getColumnNames()) {
+          String value = string();
+          if (value != null) {
+            tc.addColumnData(name, value);
+          }
+        }
+      }
+      Map<String, String> extras = map();
+      if (extras != null) {
+        for (Map.Entry<String, String> entry : extras.entrySet()) {
+          tc.addColumnData(entry.getKey(), entry.getValue());
+        }
+      }
+
+      for (int s = in.readInt(); s > 0; s--) {
+        tc.addTestStep(in.readInt(), string(), string(), string());
+      }
+      return tc;
+    }
+
+    private Map<String, String> map() throws IOException {
+      int size = in.readInt();
+      if (size < 0) {
+        return null;
+      }
+      Map<String, String> map = new LinkedHashMap<>();
+      for (int i = 0; i < size; i++) {
+        map.put(string(), string());
+      }
+      return map;
+    }
+
+    private String string() throws IOException {
+      int ref = in.readInt();
+      if (ref == 0) {
+        return null;
+      }
+      if (ref > 1) {
+        return strings.get(ref - 2);
+      }
+      byte[] bytes = new byte[in.readInt()];
+      in.readFully(bytes);
+      String value = new String(bytes, StandardCharsets.UTF_8);
+      strings.add(value);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,396 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.config.TableConfig;
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.ExcelReader.TestStepRow;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 以"每张逻辑表一个文件"的目录为数据源的 DataHub。
+ * load* 方法的路径参数指向数据目录，目录中按文件名（不含扩展名）识别各类表：
+ * <ul>
+ *   <li>test_cases：测试用例，必须包含模块编号列，其余列与测试用例Sheet相同</li>
+ *   <li>test_steps：测试步骤（测试用例标识、步骤序号、测试步骤、预期结果、实测结果）</li>
+ *   <li>basic_info：基本信息（表格名称、字段名、字段值）</li>
+ *   <li>list_*：列表型表格，第一列为表格名称，每个文件一种表格结构</li>
+ *   <li>requirements：需求（ReqID、ReqTitle、Description、Priority）</li>
+ *   <li>test_results：测试结果（TCID、ExecDate、Result、DefectID）</li>
+ *   <li>config：Meta配置（Key、Value）</li>
+ * </ul>
+ * 缺少的文件按空表处理。文件逐行流式读取，不经过任何电子表格解析；
+ * 追加测试结果时只在 test_results 文件末尾追加本批数据。
+ *
+ * 子类只负责具体文件格式的逐行读写。
+ */
+public abstract class TabularDataHub implements DataHub {
+
+  static final String TEST_CASES = "test_cases";
+  static final String TEST_STEPS = "test_steps";
+  static final String BASIC_INFO = "basic_info";
+  static final String LIST_PREFIX = "list_";
+  static final String REQUIREMENTS = "requirements";
+  static final String TEST_RESULTS = "test_results";
+  static final String STD_TEST_CASES = "std_test_cases";
+  static final String CONFIG = "config";
+
+  private static final List<String> REQUIREMENT_COLUMNS = List.of("ReqID", "ReqTitle", "Description", "Priority");
+  private static final List<String> RESULT_COLUMNS = List.of("TCID", "ExecDate", "Result", "DefectID");
+  private static final List<String> STD_CASE_COLUMNS = List.of("TCID", "ReqID", "Procedure", "ExpectedResult");
+
+  private final SessionTableCache sessionTables = new SessionTableCache();
+
+  /**
+   * 逐行处理表数据
+   */
+  protected interface RowHandler {
+    /**
+     * @param columns 本行的列名（同一文件的各行可能共用同一个列表实例）
+     * @param values  与columns一一对应的值，缺失的值为空串
+     */
+    void row(List<String> columns, List<String> values) throws Exception;
+  }
+
+  /**
+   * 数据文件扩展名（含点号）
+   */
+  protected abstract String extension();
+
+  /**
+   * 逐行读取数据文件
+   */
+  protected abstract void readRows(Path file, RowHandler handler) throws Exception;
+
+  /**
+   * 写入数据文件
+   *
+   * @param append true时追加到已有文件末尾（文件不存在时新建并写表头）
+   */
+  protected abstract void writeRows(Path file, List<String> columns, List<List<String>> rows, boolean append)
+      throws IOException;
+
+  private Map<String, ModuleData> readModuleData(String dataDir) throws Exception {
+    Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+    String requiredColumn = TableConfig.getInstance().getTestCaseRequiredColumn();
+    // 列名相同的行共用一个列结构（CSV整个文件一个，JSON-Lines按行的键集合）
+    Map<List<String>, ColumnSchema> schemas = new LinkedHashMap<>();
+    readTable(dataDir, TEST_CASES, (columns, values) -> {
+      int moduleCol = columns.indexOf(requiredColumn);
+      String moduleNumber = moduleCol >= 0 ? values.get(moduleCol).trim() : "";
+      if (moduleNumber.isEmpty()) {
+        return;
+      }
+      ColumnSchema schema = schemas.computeIfAbsent(columns, key -> {
+        List<String> dataColumns = new ArrayList<>(key);
+        dataColumns.remove(requiredColumn);
+        return new ColumnSchema(dataColumns);
+      });
+      TestCase testCase = new TestCase(moduleNumber, schema);
+      for (int c = 0; c < columns.size(); c++) {
+        if (c != moduleCol) {
+          testCase.addColumnData(columns.get(c), values.get(c).trim());
+        }
+      }
+      moduleDataMap.computeIfAbsent(moduleNumber, ModuleData::new).addTestCase(testCase);
+    });
+
+    List<TestStepRow> steps = new ArrayList<>();
+    readTable(dataDir, TEST_STEPS, (columns, values) -> {
+      String caseId = value(columns, values, ExcelReader.STEP_CASE_ID_COLUMNS).trim();
+      if (caseId.isEmpty()) {
+        return;
+      }
+      String stepNo = value(columns, values, ExcelReader.STEP_NO_COLUMNS);
+      steps.add(new TestStepRow(caseId, stepNo.isEmpty() ? null : stepNo,
+          value(columns, values, ExcelReader.STEP_ACTION_COLUMNS),
+          value(columns, values, ExcelReader.STEP_EXPECTED_COLUMNS),
+          value(columns, values, ExcelReader.STEP_RESULT_COLUMNS)));
+    });
+    new ExcelReader().attachTestSteps(steps, moduleDataMap);
+    return moduleDataMap;
+  }
+
+  private Map<String, BasicInfoData> readBasicInfo(String dataDir) throws Exception {
+    TableConfig config = TableConfig.getInstance();
+    Map<String, BasicInfoData> result = new LinkedHashMap<>();
+    readTable(dataDir, BASIC_INFO, (columns, values) -> {
+      String tableName = value(columns, values, config.getBasicInfoTableNameColumn()).trim();
+      String fieldName = value(columns, values, config.getBasicInfoFieldNameColumn()).trim();
+      if (tableName.isEmpty() || fieldName.isEmpty()) {
+        return;
+      }
+      result.computeIfAbsent(tableName, BasicInfoData::new)
+          .addField(fieldName, value(columns, values, config.getBasicInfoFieldValueColumn()).trim());
+    });
+    return result;
+  }
+
+  private Map<String, ListTableData> readListTables(String dataDir) throws Exception {
+    Map<String, ListTableData> result = new LinkedHashMap<>();
+    List<Path> files;
+    try (Stream<Path> stream = Files.list(Path.of(dataDir))) {
+      files = stream
+          .filter(p -> {
+            String name = p.getFileName().toString();
+            return name.startsWith(LIST_PREFIX) && name.endsWith(extension());
+          })
+          .sorted()
+          .toList();
+    }
+    for (Path file : files) {
+      readRows(file, (columns, values) -> {
+        String tableName = values.isEmpty() ? "" : values.get(0).trim();
+        if (tableName.isEmpty() || columns.size() < 2) {
+          return;
+        }
+        ListTableData data = result.get(tableName);
+        if (data == null) {
+          data = new ListTableData(tableName);
+          data.setColumnNames(new ArrayList<>(columns.subList(1, columns.size())));
+          result.put(tableName, data);
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (String column : data.getColumnNames()) {
+          row.put(column, value(columns, values, column).trim());
+        }
+        data.addRow(row);
+      });
+    }
+    return result;
+  }
+
+  private List<Requirement> readRequirements(String dataDir) throws Exception {
+    List<Requirement> requirements = new ArrayList<>();
+    readTable(dataDir, REQUIREMENTS, (columns, values) -> {
+      String reqId = value(columns, values, "ReqID", "需求ID", "RequirementId").trim();
+      if (reqId.isEmpty()) {
+        return;
+      }
+      Requirement req = new Requirement();
+      req.setRequirementId(reqId);
+      req.setRequirementNumber(reqId);
+      req.setRequirementName(value(columns, values, "ReqTitle", "需求标题", "需求名称").trim());
+      req.setDescription(value(columns, values, "Description", "需求描述").trim());
+      String priority = value(columns, values, "Priority", "优先级").trim();
+      if ("高".equals(priority)) {
+        req.setPriority(Requirement.Priority.HIGH);
+      } else if ("低".equals(priority)) {
+        req.setPriority(Requirement.Priority.LOW);
+      } else {
+        req.setPriority(Requirement.Priority.MEDIUM);
+      }
+      requirements.add(req);
+    });
+    return requirements;
+  }
+
+  @Override
+  public Map<String, ModuleData> loadModuleData(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, TEST_CASES, () -> readModuleData(dataDir));
+  }
+
+  @Override
+  public Map<String, BasicInfoData> loadBasicInfo(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, BASIC_INFO, () -> readBasicInfo(dataDir));
+  }
+
+  @Override
+  public Map<String, ListTableData> loadListTables(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, LIST_PREFIX, () -> readListTables(dataDir));
+  }
+
+  @Override
+  public List<Requirement> loadRequirements(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, REQUIREMENTS, () -> readRequirements(dataDir));
+  }
+
+  @Override
+  public List<TestResult> loadTestResults(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, TEST_RESULTS, () -> readTestResults(dataDir));
+  }
+
+  @Override
+  public Map<String, String> loadConfig(String dataDir) throws Exception {
+    return sessionTables.get(dataDir, CONFIG, () -> readConfig(dataDir));
+  }
+
+  @Override
+  public List<TestCase> loadTestCases(String dataDir) throws Exception {
+    List<TestCase> result = new ArrayList<>();
+    for (ModuleData moduleData : loadModuleData(dataDir).values()) {
+      result.addAll(moduleData.getTestCases());
+    }
+    return result;
+  }
+
+  private List<TestResult> readTestResults(String dataDir) throws Exception {
+    List<TestResult> results = new ArrayList<>();
+    readTable(dataDir, TEST_RESULTS, (columns, values) -> {
+      String tcid = value(columns, values, "TCID", "测试用例标识", "标识").trim();
+      String verdict = value(columns, values, "Result", "测试结论", "结论").trim();
+      if (tcid.isEmpty() || verdict.isEmpty()) {
+        return;
+      }
+      results.add(new TestResult(tcid, value(columns, values, "ExecDate", "执行日期", "Date").trim(),
+          verdict, value(columns, values, "DefectID", "缺陷标识", "缺陷ID").trim()));
+    });
+    return results;
+  }
+
+  private Map<String, String> readConfig(String dataDir) throws Exception {
+    Map<String, String> config = new LinkedHashMap<>();
+    readTable(dataDir, CONFIG, (columns, values) -> {
+      String key = value(columns, values, "Key", "键").trim();
+      if (!key.isEmpty()) {
+        config.put(key, value(columns, values, "Value", "值").trim());
+      }
+    });
+    return config;
+  }
+
+  @Override
+  public synchronized void writeRequirements(String dataDir, List<Requirement> requirements) throws Exception {
+    List<List<String>> rows = new ArrayList<>();
+    for (Requirement req : requirements) {
+      rows.add(List.of(nullToEmpty(req.getRequirementId()), nullToEmpty(req.getRequirementName()),
+          nullToEmpty(req.getDescription()), req.getPriority() == null ? "中" : req.getPriority().getDescription()));
+    }
+    Path file = tableFile(dataDir, REQUIREMENTS);
+    Files.createDirectories(file.toAbsolutePath().getParent());
+    Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), REQUIREMENTS, ".tmp");
+    try {
+      writeRows(tmp, REQUIREMENT_COLUMNS, rows, false);
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    sessionTables.invalidate(dataDir);
+  }
+
+  @Override
+  public synchronized ImportSummary writeTestCases(String dataDir, List<TestCase> testCases) throws Exception {
+    ImportSummary summary = new ImportSummary();
+    Set<String> reqIds = new HashSet<>();
+    for (Requirement requirement : loadRequirements(dataDir)) {
+      reqIds.add(requirement.getRequirementId());
+    }
+
+    List<List<String>> rows = new ArrayList<>();
+    for (TestCase tc : testCases) {
+      String tcid = choose(tc.getColumnValue("TCID"), tc.getColumnValue("测试用例标识"), tc.getId());
+      String reqId = choose(tc.getColumnValue("ReqID"), tc.getColumnValue("需求ID"), tc.getColumnValue("需求标识"));
+      if (tcid.isBlank()) {
+        summary.addError("测试用例缺少TCID");
+        summary.setFailedCount(summary.getFailedCount() + 1);
+        continue;
+      }
+      if (!reqId.isBlank() && !reqIds.contains(reqId)) {
+        summary.addWarning("测试用例 " + tcid + " 关联了不存在的需求 " + reqId);
+      }
+      rows.add(List.of(tcid, reqId,
+          choose(tc.getColumnValue("Procedure"), tc.getColumnValue("测试步骤"), tc.getContent()),
+          choose(tc.getColumnValue("ExpectedResult"), tc.getColumnValue("预期结果"), tc.getCriteria())));
+      summary.setSuccessCount(summary.getSuccessCount() + 1);
+    }
+    writeRows(tableFile(dataDir, STD_TEST_CASES), STD_CASE_COLUMNS, rows, true);
+    return summary;
+  }
+
+  /**
+   * 校验用例标识后把本批结果追加到 test_results 文件末尾，不改写已有数据
+   */
+  @Override
+  public synchronized ImportSummary appendTestResults(String dataDir, List<TestResult> testResults) throws Exception {
+    ImportSummary summary = new ImportSummary();
+    Set<String> caseIds = new HashSet<>();
+    for (TestCase tc : loadTestCases(dataDir)) {
+      String tcid = choose(tc.getColumnValue("TCID"), tc.getColumnValue("测试用例标识"), tc.getId());
+      if (!tcid.isBlank()) {
+        caseIds.add(tcid);
+      }
+    }
+
+    List<List<String>> rows = new ArrayList<>();
+    for (TestResult tr : testResults) {
+      String tcid = nullToEmpty(tr.getTestCaseId());
+      if (tcid.isBlank()) {
+        summary.addError("测试结果缺少TCID");
+        summary.setFailedCount(summary.getFailedCount() + 1);
+        continue;
+      }
+      if (!caseIds.contains(tcid)) {
+        summary.addError("测试结果TCID不存在: " + tcid);
+        summary.setFailedCount(summary.getFailedCount() + 1);
+        continue;
+      }
+      rows.add(List.of(tcid, nullToEmpty(tr.getExecutionDate()), nullToEmpty(tr.getVerdict()),
+          nullToEmpty(tr.getDefectId())));
+      summary.setSuccessCount(summary.getSuccessCount() + 1);
+    }
+    writeRows(tableFile(dataDir, TEST_RESULTS), RESULT_COLUMNS, rows, true);
+    sessionTables.invalidate(dataDir);
+    return summary;
+  }
+
+  /**
+   * 打开读取会话：会话期间同一目录的每张表只读取一次，写入会清空该目录已读取的表
+   */
+  @Override
+  public Session openSession(String dataDir) {
+    return sessionTables.open(dataDir);
+  }
+
+  Path tableFile(String dataDir, String table) {
+    return Path.of(dataDir, table + extension());
+  }
+
+  private void readTable(String dataDir, String table, RowHandler handler) throws Exception {
+    Path file = tableFile(dataDir, table);
+    if (Files.isRegularFile(file)) {
+      readRows(file, handler);
+    }
+  }
+
+  /**
+   * 在多个候选列名中取第一个存在的列的值，都不存在时返回空串
+   */
+  private static String value(List<String> columns, List<String> values, String... names) {
+    for (String name : names) {
+      int index = columns.indexOf(name);
+      if (index >= 0 && index < values.size()) {
+        return values.get(index);
+      }
+    }
+    return "";
+  }
+
+  private static String choose(String... candidates) {
+    for (String candidate : candidates) {
+      if (candidate != null && !candidate.isBlank()) {
+        return candidate.trim();
+      }
+    }
+    return "";
+  }
+
+  private static String nullToEmpty(String s) {
+    return s == null ? "" : s;
+  }
+}
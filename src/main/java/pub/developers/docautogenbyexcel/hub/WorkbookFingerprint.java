@@ -0,0 +1,158 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * .xlsx 各部件的指纹。
+ * 工作表部件取 zip 中央目录里的 CRC 和大小，不解压内容；
+ * 共享字符串表额外记录条目数和内容摘要，用于判断旧的字符串索引是否仍然有效。
+ */
+public final class WorkbookFingerprint {
+
+  /**
+   * 单个zip部件的CRC和大小
+   */
+  record PartStamp(String partName, long crc, long size) {
+  }
+
+  private final Map<String, PartStamp> sheets;
+  private final PartStamp styles;
+  private final PartStamp sharedStrings;
+  private final int sharedStringCount;
+  private final byte[] sharedStringDigest;
+  private final boolean sharedStringsExtendPrevious;
+
+  private WorkbookFingerprint(Map<String, PartStamp> sheets, PartStamp styles, PartStamp sharedStrings,
+      int sharedStringCount, byte[] sharedStringDigest, boolean sharedStringsExtendPrevious) {
+    this.sheets = sheets;
+    this.styles = styles;
+    this.sharedStrings = sharedStrings;
+    this.sharedStringCount = sharedStringCount;
+    this.sharedStringDigest = sharedStringDigest;
+    this.sharedStringsExtendPrevious = sharedStringsExtendPrevious;
+  }
+
+  /**
+   * 读取工作簿指纹
+   *
+   * @param file     .xlsx 文件
+   * @param previous 同一路径上次解析时的指纹，可为null；用于判断共享字符串表是否只在末尾追加
+   */
+  public static WorkbookFingerprint read(File file, WorkbookFingerprint previous) throws Exception {
+    Map<String, PartStamp> zipParts = new HashMap<>();
+    try (ZipFile zip = new ZipFile(file)) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        zipParts.put(entry.getName(), new PartStamp(entry.getName(), entry.getCrc(), entry.getSize()));
+      }
+    }
+
+    try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+      Map<String, PartStamp> sheets = new LinkedHashMap<>();
+      XSSFReader reader = new XSSFReader(pkg);
+      XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (it.hasNext()) {
+        try (InputStream ignored = it.next()) {
+          sheets.put(it.getSheetName(), stampOf(zipParts, it.getSheetPart()));
+        }
+      }
+
+      PartStamp styles = stampOf(zipParts, firstPart(pkg, XSSFRelation.STYLES.getContentType()));
+      PartStamp sharedStrings = stampOf(zipParts, firstPart(pkg, XSSFRelation.SHARED_STRINGS.getContentType()));
+
+      if (previous != null && Objects.equals(sharedStrings, previous.sharedStrings)) {
+        return new WorkbookFingerprint(sheets, styles, sharedStrings,
+            previous.sharedStringCount, previous.sharedStringDigest, true);
+      }
+
+      int count = 0;
+      byte[] digest = new byte[0];
+      boolean extendsPrevious = previous != null && previous.sharedStringCount == 0;
+      if (sharedStrings != null) {
+        ReadOnlySharedStringsTable table = new ReadOnlySharedStringsTable(pkg);
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        count = table.getUniqueCount();
+        for (int i = 0; i < count; i++) {
+          if (previous != null && i == previous.sharedStringCount) {
+            extendsPrevious = Arrays.equals(((MessageDigest) md.clone()).digest(), previous.sharedStringDigest);
+          }
+          byte[] bytes = table.getItemAt(i).getString().getBytes(StandardCharsets.UTF_8);
+          md.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+          md.update((byte) ':');
+          md.update(bytes);
+        }
+        digest = md.digest();
+        if (previous != null && previous.sharedStringCount == count) {
+          extendsPrevious = Arrays.equals(digest, previous.sharedStringDigest);
+        }
+      }
+      return new WorkbookFingerprint(sheets, styles, sharedStrings, count, digest, extendsPrevious);
+    }
+  }
+
+  /**
+   * 与上次解析相比内容有变化的Sheet名称
+   *
+   * @return 变化的Sheet（按工作簿顺序）；Sheet增删、改名、换序，样式表变化，
+   *     或共享字符串表不是在原有条目之后追加时返回null，表示必须整本重读
+   */
+  public Set<String> changedSheets(WorkbookFingerprint previous) {
+    if (!sharedStringsExtendPrevious || !Objects.equals(styles, previous.styles)) {
+      return null;
+    }
+    if (!partNames(sheets).equals(partNames(previous.sheets))) {
+      return null;
+    }
+    Set<String> changed = new LinkedHashSet<>();
+    for (Map.Entry<String, PartStamp> entry : sheets.entrySet()) {
+      if (!entry.getValue().equals(previous.sheets.get(entry.getKey()))) {
+        changed.add(entry.getKey());
+      }
+    }
+    return changed;
+  }
+
+  private static List<String> partNames(Map<String, PartStamp> sheets) {
+    List<String> names = new ArrayList<>();
+    for (Map.Entry<String, PartStamp> entry : sheets.entrySet()) {
+      names.add(entry.getKey() + "=" + entry.getValue().partName());
+    }
+    return names;
+  }
+
+  private static PackagePart firstPart(OPCPackage pkg, String contentType) {
+    List<PackagePart> parts = pkg.getPartsByContentType(contentType);
+    return parts.isEmpty() ? null : parts.get(0);
+  }
+
+  private static PartStamp stampOf(Map<String, PartStamp> zipParts, PackagePart part) {
+    if (part == null) {
+      return null;
+    }
+    String name = part.getPartName().getName();
+    return zipParts.get(name.startsWith("/") ? name.substring(1) : name);
+  }
+}
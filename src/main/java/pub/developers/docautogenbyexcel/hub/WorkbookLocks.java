@@ -0,0 +1,71 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 按规范路径划分的工作簿读写锁。
+ * 同一文件的读取可以并行，写入（读-改-重写整本工作簿）与该文件的其他读写互斥；
+ * 不同文件各用各的锁，互不阻塞。没有持有者的锁会被移除，注册表大小只与正在访问的文件数有关。
+ *
+ * 锁可重入，持有写锁时可以再获取同一文件的读锁（如写入前读取需求列表做校验）。
+ */
+final class WorkbookLocks {
+
+  /**
+   * 已获取的锁，close时释放
+   */
+  interface Handle extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private static final class Entry {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int holders;
+  }
+
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  Handle read(String key) {
+    return acquire(key, false);
+  }
+
+  Handle write(String key) {
+    return acquire(key, true);
+  }
+
+  /**
+   * 当前注册的锁数量（有持有者或等待者的文件数）
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private Handle acquire(String key, boolean exclusive) {
+    Entry entry;
+    synchronized (this) {
+      entry = entries.computeIfAbsent(key, k -> new Entry());
+      entry.holders++;
+    }
+    Lock lock = exclusive ? entry.lock.writeLock() : entry.lock.readLock();
+    try {
+      lock.lock();
+    } catch (RuntimeException e) {
+      release(key, entry);
+      throw e;
+    }
+    return () -> {
+      lock.unlock();
+      release(key, entry);
+    };
+  }
+
+  private synchronized void release(String key, Entry entry) {
+    if (--entry.holders == 0) {
+      entries.remove(key, entry);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package pub.developers.docautogenbyexcel.hub;
+
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.BasicInfoData;
+import pub.developers.docautogenbyexcel.reader.TableDataReader.ListTableData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作簿解析快照。
+ * 一次打开工作簿即解析出全部数据，供同一会话中的所有 load* 调用共享。
+ */
+public class WorkbookSnapshot {
+  private final Map<String, ModuleData> moduleDataMap;
+  private final Map<String, BasicInfoData> basicInfoMap;
+  private final Map<String, ListTableData> listTableMap;
+  private final List<Requirement> requirements;
+  private final List<TestResult> testResults;
+  private final Map<String, String> config;
+  private final Map<String, SheetType> sheetTypes;
+
+  public WorkbookSnapshot(
+      Map<String, ModuleData> moduleDataMap,
+      Map<String, BasicInfoData> basicInfoMap,
+      Map<String, ListTableData> listTableMap,
+      List<Requirement> requirements,
+      List<TestResult> testResults,
+      Map<String, String> config,
+      Map<String, SheetType> sheetTypes) {
+    this.moduleDataMap = moduleDataMap;
+    this.basicInfoMap = basicInfoMap;
+    this.listTableMap = listTableMap;
+    this.requirements = requirements;
+    this.testResults = testResults;
+    this.config = config;
+    this.sheetTypes = sheetTypes;
+  }
+
+  public Map<String, ModuleData> getModuleDataMap() {
+    return moduleDataMap;
+  }
+
+  public Map<String, BasicInfoData> getBasicInfoMap() {
+    return basicInfoMap;
+  }
+
+  public Map<String, ListTableData> getListTableMap() {
+    return listTableMap;
+  }
+
+  public List<Requirement> getRequirements() {
+    return requirements;
+  }
+
+  public List<TestResult> getTestResults() {
+    return testResults;
+  }
+
+  public Map<String, String> getConfig() {
+    return config;
+  }
+
+  /**
+   * 解析时各Sheet的分类（Sheet名称 -> 类型），用于增量重读时判断哪些数据受影响
+   */
+  public Map<String, SheetType> getSheetTypes() {
+    return sheetTypes;
+  }
+
+  /**
+   * 按模块顺序展开的全部测试用例（与模块数据共享同一批对象）
+   */
+  public List<TestCase> getTestCases() {
+    List<TestCase> result = new ArrayList<>();
+    for (ModuleData moduleData : moduleDataMap.values()) {
+      result.addAll(moduleData.getTestCases());
+    }
+    return result;
+  }
+}
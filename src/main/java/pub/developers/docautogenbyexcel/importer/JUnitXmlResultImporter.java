@@ -0,0 +1,297 @@
+package pub.developers.docautogenbyexcel.importer;
+
+import org.springframework.stereotype.Service;
+import pub.developers.docautogenbyexcel.config.TableConfig;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.ImportSummary;
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JUnit/TestNG XML 报告导入组件。
+ * 用 StAX 逐个元素读取报告，不构建 DOM；testcase 名称按配置的规则映射为用例标识，
+ * 同一用例只保留最近一次执行的结论，全部报告读完后一次通过 DataHub 追加。
+ *
+ * <p>支持 JUnit 格式（testsuite/testcase，含 failure、error、skipped 子元素）
+ * 和 TestNG 原生格式（testng-results.xml 中的 class/test-method，配置方法忽略）。
+ */
+@Service
+public class JUnitXmlResultImporter {
+
+  static final String PASSED = "通过";
+  static final String FAILED = "失败";
+  static final String SKIPPED = "未执行";
+
+  /** 未匹配的 testcase 名称在警告中最多列出的条数 */
+  private static final int MAX_UNMATCHED_EXAMPLES = 5;
+
+  private static final Pattern ISO_TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}");
+
+  private final DataHub dataHub;
+
+  public JUnitXmlResultImporter(DataHub dataHub) {
+    this.dataHub = dataHub;
+  }
+
+  /**
+   * 导入一组报告文件，按列表顺序读取；没有时间戳时后面的报告视为更近的执行
+   *
+   * @param excelPath 枢纽工作簿
+   * @param reports   JUnit/TestNG XML 报告
+   */
+  public ImportSummary importReports(String excelPath, List<Path> reports) throws Exception {
+    Aggregator aggregator = newAggregator();
+    for (Path report : reports) {
+      try (InputStream in = new BufferedInputStream(Files.newInputStream(report))) {
+        aggregator.read(in);
+      } catch (XMLStreamException e) {
+        throw new Exception("解析测试报告失败: " + report.getFileName() + " (" + e.getMessage() + ")", e);
+      }
+    }
+    return push(excelPath, aggregator);
+  }
+
+  /**
+   * 导入单个报告流，调用方负责关闭
+   */
+  public ImportSummary importReport(String excelPath, InputStream report) throws Exception {
+    Aggregator aggregator = newAggregator();
+    aggregator.read(report);
+    return push(excelPath, aggregator);
+  }
+
+  private Aggregator newAggregator() {
+    TableConfig config = TableConfig.getInstance();
+    return new Aggregator(Pattern.compile(config.getResultTcidPattern()), config.getResultTcidReplacement());
+  }
+
+  private ImportSummary push(String excelPath, Aggregator aggregator) throws Exception {
+    List<TestResult> results = aggregator.results();
+    System.out.println("读取测试报告: " + aggregator.testCaseCount + " 个testcase，汇总为 " + results.size()
+        + " 条用例结果" + (aggregator.unmatchedCount > 0 ? "，未匹配用例标识 " + aggregator.unmatchedCount + " 个" : ""));
+    ImportSummary summary = results.isEmpty() ? new ImportSummary() : dataHub.appendTestResults(excelPath, results);
+    if (aggregator.unmatchedCount > 0) {
+      summary.addWarning(aggregator.unmatchedCount + " 个testcase未匹配到用例标识，已跳过，例如: "
+          + String.join("、", aggregator.unmatchedExamples));
+    }
+    return summary;
+  }
+
+  /**
+   * 单次遍历中按用例标识汇总结论：执行时间更近的结果覆盖较早的结果，
+   * 同一次执行中映射到同一用例的多个 testcase（如参数化用例）取最差结论；跳过的结果不覆盖已有的通过或失败。
+   */
+  static final class Aggregator {
+    private final Pattern tcidPattern;
+    private final String tcidReplacement;
+    private final Map<String, Verdict> latest = new LinkedHashMap<>();
+    private final List<String> unmatchedExamples = new ArrayList<>();
+    private int reportIndex = -1;
+    private int testCaseCount;
+    private int unmatchedCount;
+
+    Aggregator(Pattern tcidPattern, String tcidReplacement) {
+      this.tcidPattern = tcidPattern;
+      this.tcidReplacement = tcidReplacement;
+    }
+
+    void read(InputStream in) throws XMLStreamException {
+      reportIndex++;
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      XMLStreamReader reader = factory.createXMLStreamReader(in);
+      try {
+        Deque<String> suiteTimestamps = new ArrayDeque<>();
+        String className = "";
+        String caseName = null;
+        String caseClass = null;
+        String caseStatus = null;
+        while (reader.hasNext()) {
+          int event = reader.next();
+          if (event == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+              case "testsuite", "suite" -> {
+                String timestamp = timestamp(attribute(reader, "timestamp", "started-at"));
+                suiteTimestamps.push(timestamp.isEmpty() && !suiteTimestamps.isEmpty()
+                    ? suiteTimestamps.peek() : timestamp);
+              }
+              case "testcase" -> {
+                caseName = reader.getAttributeValue(null, "name");
+                caseClass = reader.getAttributeValue(null, "classname");
+                caseStatus = PASSED;
+              }
+              case "failure", "error" -> {
+                if (caseName != null) {
+                  caseStatus = FAILED;
+                }
+              }
+              case "skipped" -> {
+                if (caseName != null && !FAILED.equals(caseStatus)) {
+                  caseStatus = SKIPPED;
+                }
+              }
+              case "class" -> className = nonNull(reader.getAttributeValue(null, "name"));
+              case "test-method" -> {
+                if (!"true".equalsIgnoreCase(reader.getAttributeValue(null, "is-config"))) {
+                  String started = timestamp(reader.getAttributeValue(null, "started-at"));
+                  record(reader.getAttributeValue(null, "name"), className,
+                      testNgStatus(reader.getAttributeValue(null, "status")),
+                      started.isEmpty() ? currentTimestamp(suiteTimestamps) : started);
+                }
+              }
+              default -> {
+              }
+            }
+          } else if (event == XMLStreamConstants.END_ELEMENT) {
+            switch (reader.getLocalName()) {
+              case "testsuite", "suite" -> suiteTimestamps.poll();
+              case "testcase" -> {
+                record(caseName, caseClass, caseStatus, currentTimestamp(suiteTimestamps));
+                caseName = null;
+              }
+              case "class" -> className = "";
+              default -> {
+              }
+            }
+          }
+        }
+      } finally {
+        reader.close();
+      }
+    }
+
+    private void record(String name, String className, String status, String timestamp) {
+      testCaseCount++;
+      String tcid = tcidOf(name);
+      if (tcid == null) {
+        tcid = tcidOf(className);
+      }
+      if (tcid == null) {
+        unmatchedCount++;
+        if (unmatchedExamples.size() < MAX_UNMATCHED_EXAMPLES) {
+          unmatchedExamples.add(nonNull(className).isEmpty() ? nonNull(name) : className + "." + nonNull(name));
+        }
+        return;
+      }
+
+      Verdict verdict = new Verdict(timestamp, reportIndex, status);
+      Verdict previous = latest.get(tcid);
+      if (previous == null) {
+        latest.put(tcid, verdict);
+        return;
+      }
+      int order = verdict.compareRun(previous);
+      if (order > 0) {
+        // 跳过不算一次执行，不覆盖之前的实际结论
+        if (!SKIPPED.equals(status) || SKIPPED.equals(previous.status)) {
+          latest.put(tcid, verdict);
+        }
+      } else if (order == 0 && severity(status) > severity(previous.status)) {
+        latest.put(tcid, verdict);
+      }
+    }
+
+    private String tcidOf(String text) {
+      if (text == null || text.isEmpty()) {
+        return null;
+      }
+      Matcher matcher = tcidPattern.matcher(text);
+      if (!matcher.find()) {
+        return null;
+      }
+      StringBuilder tcid = new StringBuilder();
+      matcher.appendReplacement(tcid, tcidReplacement);
+      // appendReplacement 会带上匹配之前的文本，只保留替换结果
+      return tcid.substring(matcher.start()).trim();
+    }
+
+    List<TestResult> results() {
+      List<TestResult> results = new ArrayList<>(latest.size());
+      for (Map.Entry<String, Verdict> entry : latest.entrySet()) {
+        Verdict verdict = entry.getValue();
+        String date = verdict.timestamp.length() >= 10 ? verdict.timestamp.substring(0, 10) : "";
+        results.add(new TestResult(entry.getKey(), date, verdict.status, ""));
+      }
+      return results;
+    }
+
+    private static String currentTimestamp(Deque<String> suiteTimestamps) {
+      return suiteTimestamps.isEmpty() ? "" : suiteTimestamps.peek();
+    }
+  }
+
+  /**
+   * 一次执行的结论；执行先后按时间戳比较，时间戳相同（或都没有）时按报告顺序比较
+   */
+  private record Verdict(String timestamp, int reportIndex, String status) {
+    int compareRun(Verdict other) {
+      if (!timestamp.isEmpty() && !other.timestamp.isEmpty()) {
+        int byTime = timestamp.compareTo(other.timestamp);
+        if (byTime != 0) {
+          return byTime;
+        }
+      }
+      return Integer.compare(reportIndex, other.reportIndex);
+    }
+  }
+
+  private static int severity(String status) {
+    return switch (status) {
+      case FAILED -> 2;
+      case PASSED -> 1;
+      default -> 0;
+    };
+  }
+
+  private static String testNgStatus(String status) {
+    if ("PASS".equalsIgnoreCase(status)) {
+      return PASSED;
+    }
+    if ("SKIP".equalsIgnoreCase(status)) {
+      return SKIPPED;
+    }
+    return FAILED;
+  }
+
+  /**
+   * 取到秒的 ISO 时间（yyyy-MM-ddTHH:mm:ss），无法识别时为空
+   */
+  private static String timestamp(String text) {
+    if (text == null) {
+      return "";
+    }
+    Matcher matcher = ISO_TIMESTAMP.matcher(text);
+    return matcher.find() ? matcher.group() : "";
+  }
+
+  private static String attribute(XMLStreamReader reader, String... names) {
+    for (String name : names) {
+      String value = reader.getAttributeValue(null, name);
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+
+  private static String nonNull(String text) {
+    return text == null ? "" : text;
+  }
+}
@@ -34,6 +34,13 @@ public class TestResultImporter {
     return dataHub.appendTestResults(excelPath, results);
   }
 
+  /**
+   * 把已导入但仍在追加日志中的结果写回枢纽工作簿
+   */
+  public int compact(String excelPath) throws Exception {
+    return dataHub.compactTestResults(excelPath);
+  }
+
   private String nonNull(String text) {
     return text == null ? "" : text;
   }
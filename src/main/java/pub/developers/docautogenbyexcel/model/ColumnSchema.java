@@ -0,0 +1,49 @@
+package pub.developers.docautogenbyexcel.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列结构（享元）
+ * 同一个Sheet读出的所有TestCase共用一个列结构，每个TestCase只保存按列位置排列的值数组，
+ * 不再为每一行重复保存列名和Map条目。
+ */
+public class ColumnSchema {
+    private final List<String> columnNames;
+    private final Map<String, Integer> positions;
+
+    /**
+     * @param columnNames 列名（按Sheet中的顺序，重复的列名只保留第一次出现的位置）
+     */
+    public ColumnSchema(List<String> columnNames) {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        for (String name : columnNames) {
+            if (!index.containsKey(name)) {
+                index.put(name, names.size());
+                names.add(name);
+            }
+        }
+        this.columnNames = Collections.unmodifiableList(names);
+        this.positions = index;
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public int size() {
+        return columnNames.size();
+    }
+
+    /**
+     * 列名对应的位置，不存在返回-1
+     */
+    public int indexOf(String columnName) {
+        Integer position = positions.get(columnName);
+        return position != null ? position : -1;
+    }
+}
@@ -1,16 +1,26 @@
 package pub.developers.docautogenbyexcel.model;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * 测试用例数据模型
+ * 从Excel读取的用例共用同一个 {@link ColumnSchema}，列值按列位置保存在数组中；
+ * 列结构之外的列（如手动设置的兼容字段）保存在额外的Map中，排在结构列之后。
  */
 public class TestCase {
     private String moduleNumber;  // 模块编号，如"5.3"
-    private Map<String, String> columnData; // 动态列数据，key为列名，value为列值
+    private ColumnSchema schema;  // 共享的列结构，可为null
+    private String[] values;      // 按列结构位置保存的列值，null表示该列未设置
+    private Map<String, String> extraColumns; // 列结构之外的动态列数据，key为列名，value为列值
     private List<TestStep> testSteps; // 测试步骤列表
 
     /** 测试步骤 */
@@ -29,13 +39,24 @@ public class TestCase {
     }
 
     public TestCase() {
-        this.columnData = new LinkedHashMap<>();
         this.testSteps = new ArrayList<>();
     }
 
     public TestCase(String moduleNumber) {
         this.moduleNumber = moduleNumber;
-        this.columnData = new LinkedHashMap<>();
+        this.testSteps = new ArrayList<>();
+    }
+
+    /**
+     * 按共享列结构创建测试用例
+     *
+     * @param moduleNumber 模块编号
+     * @param schema       同一Sheet所有用例共用的列结构
+     */
+    public TestCase(String moduleNumber, ColumnSchema schema) {
+        this.moduleNumber = moduleNumber;
+        this.schema = schema;
+        this.values = new String[schema.size()];
         this.testSteps = new ArrayList<>();
     }
     
@@ -53,35 +74,159 @@ public class TestCase {
         this.moduleNumber = moduleNumber;
     }
 
+    /**
+     * 共享的列结构；通过 {@link #setColumnData(Map)} 改为Map存储后为null
+     */
+    public ColumnSchema getSchema() {
+        return schema;
+    }
+
     /**
      * 获取所有列数据
+     * 返回的是列数据的视图：先按列结构顺序列出已设置的列，再列出额外的列
      */
     public Map<String, String> getColumnData() {
-        return columnData;
+        return new ColumnDataView();
     }
 
     /**
-     * 设置列数据
+     * 设置列数据（替换列结构，之后全部列数据保存在传入的Map中）
      */
     public void setColumnData(Map<String, String> columnData) {
-        this.columnData = columnData;
+        this.schema = null;
+        this.values = null;
+        this.extraColumns = columnData;
     }
 
     /**
      * 添加列数据
      */
     public void addColumnData(String columnName, String value) {
-        if (columnData == null) {
-            columnData = new LinkedHashMap<>();
-        }
-        columnData.put(columnName, value != null ? value : "");
+        putColumn(columnName, value != null ? value : "");
     }
 
     /**
      * 获取指定列的值
      */
     public String getColumnValue(String columnName) {
-        return columnData != null ? columnData.getOrDefault(columnName, "") : "";
+        String value = findColumn(columnName);
+        return value != null ? value : "";
+    }
+
+    private String findColumn(Object columnName) {
+        if (schema != null && columnName instanceof String) {
+            int position = schema.indexOf((String) columnName);
+            if (position >= 0 && values[position] != null) {
+                return values[position];
+            }
+        }
+        return extraColumns != null ? extraColumns.get(columnName) : null;
+    }
+
+    private String putColumn(String columnName, String value) {
+        if (schema != null) {
+            int position = schema.indexOf(columnName);
+            if (position >= 0) {
+                String previous = values[position];
+                values[position] = value;
+                return previous;
+            }
+        }
+        if (extraColumns == null) {
+            extraColumns = new LinkedHashMap<>();
+        }
+        return extraColumns.put(columnName, value);
+    }
+
+    /**
+     * 列数据的Map视图，读写都落到列值数组和额外列上
+     */
+    private final class ColumnDataView extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            return findColumn(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return findColumn(key) != null;
+        }
+
+        @Override
+        public String put(String key, String value) {
+            return putColumn(key, value);
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new ColumnIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = extraColumns != null ? extraColumns.size() : 0;
+                    if (values != null) {
+                        for (String value : values) {
+                            if (value != null) {
+                                size++;
+                            }
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    private final class ColumnIterator implements Iterator<Map.Entry<String, String>> {
+        private int position = -1;
+        private Iterator<Map.Entry<String, String>> extraIterator;
+
+        ColumnIterator() {
+            advance();
+        }
+
+        private void advance() {
+            position++;
+            while (values != null && position < values.length && values[position] == null) {
+                position++;
+            }
+        }
+
+        private boolean inSchema() {
+            return values != null && position < values.length;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (inSchema()) {
+                return true;
+            }
+            if (extraIterator == null) {
+                extraIterator = extraColumns != null
+                        ? extraColumns.entrySet().iterator()
+                        : Collections.emptyIterator();
+            }
+            return extraIterator.hasNext();
+        }
+
+        @Override
+        public Map.Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (inSchema()) {
+                Map.Entry<String, String> entry =
+                        new AbstractMap.SimpleImmutableEntry<>(schema.getColumnNames().get(position), values[position]);
+                advance();
+                return entry;
+            }
+            return extraIterator.next();
+        }
     }
 
     // 兼容旧的方法（为了向后兼容）
@@ -155,7 +300,7 @@ public class TestCase {
     public String toString() {
         return "TestCase{" +
                 "moduleNumber='" + moduleNumber + '\'' +
-                ", columnData=" + columnData +
+                ", columnData=" + getColumnData() +
                 '}';
     }
 }
@@ -0,0 +1,234 @@
+package pub.developers.docautogenbyexcel.processor;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlObject;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTBody;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTbl;
+
+import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 正文元素位置索引
+ * 按文档顺序记录CTBody的直接子元素（段落、表格、sdt等），每个元素对应一个位置序号，
+ * 前后元素导航和先后比较都是O(1)，不再用getPArray逐个扫描或用XmlCursor两两比较位置。
+ *
+ * <p>插入、删除正文元素必须通过本索引进行，索引同步更新；位置序号之间留有间隔，
+ * 插入时取前后元素序号的中间值，间隔用完时整体重新编号。
+ * 每个段落只对应一个XWPFParagraph（文档加载时已有的沿用文档中的对象），避免多个包装对象的Run列表互相失效。
+ */
+final class BodyIndex {
+
+    private static final String NS_WORD = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final QName P = new QName(NS_WORD, "p", "w");
+    private static final QName TBL = new QName(NS_WORD, "tbl", "w");
+
+    private final XWPFDocument document;
+    private final CTBody body;
+    private final Map<XmlObject, Node> nodes = new IdentityHashMap<>();
+    /** 链表首尾哨兵，序号分别为0和Long.MAX_VALUE */
+    private final Node head = new Node(null);
+    private final Node tail = new Node(null);
+
+    private static final class Node {
+        final XmlObject element;
+        Node prev;
+        Node next;
+        long order;
+        XWPFParagraph paragraph;
+
+        Node(XmlObject element) {
+            this.element = element;
+        }
+    }
+
+    private BodyIndex(XWPFDocument document) {
+        this.document = document;
+        this.body = document.getDocument().getBody();
+        head.next = tail;
+        tail.prev = head;
+        tail.order = Long.MAX_VALUE;
+    }
+
+    /**
+     * 按文档顺序遍历一次CTBody建立索引
+     */
+    static BodyIndex build(XWPFDocument document) {
+        BodyIndex index = new BodyIndex(document);
+        List<XmlObject> elements = new ArrayList<>();
+        try (XmlCursor cursor = index.body.newCursor()) {
+            if (cursor.toFirstChild()) {
+                do {
+                    elements.add(cursor.getObject());
+                } while (cursor.toNextSibling());
+            }
+        }
+        for (XmlObject element : elements) {
+            index.linkBefore(index.tail, element, false);
+        }
+        index.renumber();
+        for (XWPFParagraph paragraph : document.getParagraphs()) {
+            Node n = index.nodes.get(paragraph.getCTP());
+            if (n != null) {
+                n.paragraph = paragraph;
+            }
+        }
+        return index;
+    }
+
+    /** 元素是否是正文的直接子元素 */
+    boolean contains(XmlObject element) {
+        return element != null && nodes.containsKey(element);
+    }
+
+    /**
+     * 比较两个正文元素的先后，a在b之前时返回负数
+     */
+    int compare(XmlObject a, XmlObject b) {
+        return Long.compare(node(a).order, node(b).order);
+    }
+
+    /** 下一个正文元素，没有时返回null */
+    XmlObject next(XmlObject element) {
+        return node(element).next.element;
+    }
+
+    /** 上一个正文元素，没有时返回null */
+    XmlObject previous(XmlObject element) {
+        return node(element).prev.element;
+    }
+
+    /** 之后的第一个段落（跳过表格等其他元素），没有时返回null */
+    CTP nextParagraph(XmlObject element) {
+        for (Node n = node(element).next; n != tail; n = n.next) {
+            if (n.element instanceof CTP ctp) {
+                return ctp;
+            }
+        }
+        return null;
+    }
+
+    /** 段落对应的XWPFParagraph，同一段落每次返回同一个对象 */
+    XWPFParagraph paragraph(CTP ctp) {
+        Node n = node(ctp);
+        if (n.paragraph == null) {
+            n.paragraph = new XWPFParagraph(ctp, document);
+        }
+        return n.paragraph;
+    }
+
+    /** 按文档顺序列出正文的所有段落 */
+    List<CTP> paragraphs() {
+        List<CTP> paragraphs = new ArrayList<>();
+        for (Node n = head.next; n != tail; n = n.next) {
+            if (n.element instanceof CTP ctp) {
+                paragraphs.add(ctp);
+            }
+        }
+        return paragraphs;
+    }
+
+    /** 在元素前插入空段落 */
+    CTP insertParagraphBefore(XmlObject anchor) {
+        Node at = node(anchor);
+        XmlObject created;
+        try (XmlCursor cursor = anchor.newCursor()) {
+            cursor.beginElement(P);
+            cursor.toParent();
+            created = cursor.getObject();
+        }
+        linkBefore(at, created, true);
+        return (CTP) created;
+    }
+
+    /** 紧接在元素后插入空段落 */
+    CTP insertParagraphAfter(XmlObject anchor) {
+        return (CTP) insertAfter(anchor, P);
+    }
+
+    /** 紧接在元素后插入空表格 */
+    CTTbl insertTableAfter(XmlObject anchor) {
+        return (CTTbl) insertAfter(anchor, TBL);
+    }
+
+    /** 在正文末尾（sectPr之前）追加段落，与 CTBody.addNewP() 相同 */
+    CTP appendParagraph() {
+        CTP created = body.addNewP();
+        Node successor = tail;
+        try (XmlCursor cursor = created.newCursor()) {
+            if (cursor.toNextSibling()) {
+                successor = node(cursor.getObject());
+            }
+        }
+        linkBefore(successor, created, true);
+        return created;
+    }
+
+    /** 从正文中删除元素 */
+    void remove(XmlObject element) {
+        Node n = nodes.remove(element);
+        if (n == null) {
+            throw new IllegalArgumentException("元素不在正文索引中");
+        }
+        n.prev.next = n.next;
+        n.next.prev = n.prev;
+        try (XmlCursor cursor = element.newCursor()) {
+            cursor.removeXml();
+        }
+    }
+
+    private XmlObject insertAfter(XmlObject anchor, QName name) {
+        Node at = node(anchor);
+        XmlObject created;
+        try (XmlCursor cursor = anchor.newCursor()) {
+            cursor.toEndToken();
+            cursor.toNextToken();
+            cursor.beginElement(name);
+            cursor.toParent();
+            created = cursor.getObject();
+        }
+        linkBefore(at.next, created, true);
+        return created;
+    }
+
+    private Node node(XmlObject element) {
+        Node n = element == null ? null : nodes.get(element);
+        if (n == null) {
+            throw new IllegalArgumentException("元素不在正文索引中");
+        }
+        return n;
+    }
+
+    private void linkBefore(Node successor, XmlObject element, boolean assignOrder) {
+        Node n = new Node(element);
+        Node predecessor = successor.prev;
+        n.prev = predecessor;
+        n.next = successor;
+        predecessor.next = n;
+        successor.prev = n;
+        nodes.put(element, n);
+        if (assignOrder) {
+            if (successor.order - predecessor.order < 2) {
+                renumber();
+            } else {
+                n.order = predecessor.order + (successor.order - predecessor.order) / 2;
+            }
+        }
+    }
+
+    /** 按当前顺序均匀重新分配位置序号 */
+    private void renumber() {
+        long step = Long.MAX_VALUE / (nodes.size() + 1);
+        long order = 0;
+        for (Node n = head.next; n != tail; n = n.next) {
+            order += step;
+            n.order = order;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package pub.developers.docautogenbyexcel.processor;
+
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+
+/**
+ * 章节索引
+ * 遍历一次正文建立：章节编号 → 目录条目、正文标题段落，以及按文档顺序排列的大纲（有编号或标题样式的非空段落），
+ * 下一个同级章节边界、章节下已有的子章节都从大纲中就近查找，不再逐段扫描全文。
+ *
+ * <p>WordProcessor新建子章节标题、修改标题文本、删除占位符时同步更新索引，后续查找能看到这些变化。
+ * 模板原样时的索引内容可以导出为 {@link Snapshot}（段落以序号表示），在同一模板的其他副本上直接还原，不再逐段读取文本和样式。
+ */
+final class SectionIndex {
+
+    /** 段落样式判断，由WordProcessor按模板样式表提供 */
+    record Styles(Predicate<String> toc, Predicate<String> heading,
+                  Predicate<String> mainSection, Predicate<String> subSection) {
+    }
+
+    /** 目录条目：章节编号、目录中的章节名称（不含页码） */
+    record TocEntry(String number, String name, XWPFParagraph paragraph) {
+    }
+
+    /**
+     * 模板原样时的索引内容，段落用其在正文段落中的序号表示
+     */
+    record Snapshot(int paragraphCount, List<TocItem> toc, List<Integer> placeholders, List<OutlineItem> outline) {
+    }
+
+    record TocItem(String number, String name, int paragraph) {
+    }
+
+    record OutlineItem(int paragraph, String text, String number,
+                       boolean heading, boolean mainSection, boolean subSection) {
+    }
+
+    /** 大纲中的正文段落 */
+    private static final class Heading {
+        final XWPFParagraph paragraph;
+        final String text;
+        final String number;
+        final boolean heading;
+        final boolean mainSection;
+        final boolean subSection;
+
+        Heading(XWPFParagraph paragraph, String text, String number,
+                boolean heading, boolean mainSection, boolean subSection) {
+            this.paragraph = paragraph;
+            this.text = text;
+            this.number = number;
+            this.heading = heading;
+            this.mainSection = mainSection;
+            this.subSection = subSection;
+        }
+    }
+
+    private final BodyIndex bodyIndex;
+    private final Styles styles;
+    private final Map<String, TocEntry> toc = new LinkedHashMap<>();
+    private final List<XWPFParagraph> placeholders = new ArrayList<>();
+    /** 按文档顺序排列的大纲 */
+    private final List<Heading> outline = new ArrayList<>();
+    private final Map<CTP, Heading> byParagraph = new IdentityHashMap<>();
+    /** 编号 → 以该编号开头的段落（任意样式），按文档顺序 */
+    private final Map<String, List<Heading>> byNumber = new HashMap<>();
+    /** 文本 → 该文本的标题样式段落，按文档顺序 */
+    private final Map<String, List<Heading>> byText = new HashMap<>();
+
+    private SectionIndex(BodyIndex bodyIndex, Styles styles) {
+        this.bodyIndex = bodyIndex;
+        this.styles = styles;
+    }
+
+    /**
+     * 按文档顺序遍历一次正文段落建立索引
+     */
+    static SectionIndex build(BodyIndex bodyIndex, Styles styles) {
+        SectionIndex index = new SectionIndex(bodyIndex, styles);
+        for (CTP ctp : bodyIndex.paragraphs()) {
+            XWPFParagraph para = bodyIndex.paragraph(ctp);
+            String text;
+            String style;
+            try {
+                text = para.getText();
+                style = para.getStyle();
+            } catch (Exception e) {
+                continue;
+            }
+            if (text == null || text.trim().isEmpty()) continue;
+            String trimmed = text.trim();
+            if (WordProcessor.PLACEHOLDER_PATTERN.matcher(trimmed).matches()) {
+                index.placeholders.add(para);
+            }
+            if (styles.toc().test(style)) {
+                Matcher m = WordProcessor.SECTION_PATTERN.matcher(trimmed);
+                if (m.matches() && !index.toc.containsKey(m.group(1))) {
+                    index.toc.put(m.group(1), new TocEntry(m.group(1), m.group(2).split("\t")[0].trim(), para));
+                }
+                continue;
+            }
+            Heading heading = index.classify(para, trimmed, style);
+            if (heading != null) {
+                index.outline.add(heading);
+                index.link(heading);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 在同一模板的未修改副本上还原索引；段落数与快照不一致时重新遍历建立
+     */
+    static SectionIndex restore(BodyIndex bodyIndex, Styles styles, Snapshot snapshot) {
+        List<CTP> paragraphs = bodyIndex.paragraphs();
+        if (paragraphs.size() != snapshot.paragraphCount()) {
+            return build(bodyIndex, styles);
+        }
+        SectionIndex index = new SectionIndex(bodyIndex, styles);
+        for (TocItem item : snapshot.toc()) {
+            XWPFParagraph para = bodyIndex.paragraph(paragraphs.get(item.paragraph()));
+            index.toc.put(item.number(), new TocEntry(item.number(), item.name(), para));
+        }
+        for (int placeholder : snapshot.placeholders()) {
+            index.placeholders.add(bodyIndex.paragraph(paragraphs.get(placeholder)));
+        }
+        for (OutlineItem item : snapshot.outline()) {
+            Heading heading = new Heading(bodyIndex.paragraph(paragraphs.get(item.paragraph())), item.text(),
+                    item.number(), item.heading(), item.mainSection(), item.subSection());
+            index.outline.add(heading);
+            index.link(heading);
+        }
+        return index;
+    }
+
+    /**
+     * 导出当前索引内容，应在文档修改前调用
+     */
+    Snapshot snapshot() {
+        List<CTP> paragraphs = bodyIndex.paragraphs();
+        Map<CTP, Integer> ordinals = new IdentityHashMap<>();
+        for (int i = 0; i < paragraphs.size(); i++) {
+            ordinals.put(paragraphs.get(i), i);
+        }
+        List<TocItem> tocItems = new ArrayList<>();
+        for (TocEntry entry : toc.values()) {
+            tocItems.add(new TocItem(entry.number(), entry.name(), ordinals.get(entry.paragraph().getCTP())));
+        }
+        List<Integer> placeholderItems = new ArrayList<>();
+        for (XWPFParagraph para : placeholders) {
+            placeholderItems.add(ordinals.get(para.getCTP()));
+        }
+        List<OutlineItem> outlineItems = new ArrayList<>();
+        for (Heading h : outline) {
+            outlineItems.add(new OutlineItem(ordinals.get(h.paragraph.getCTP()), h.text, h.number,
+                    h.heading, h.mainSection, h.subSection));
+        }
+        return new Snapshot(paragraphs.size(), List.copyOf(tocItems), List.copyOf(placeholderItems),
+                List.copyOf(outlineItems));
+    }
+
+    /** 目录中的章节编号，按目录顺序 */
+    List<String> sectionNumbers() {
+        return new ArrayList<>(toc.keySet());
+    }
+
+    /** 目录条目，按目录顺序 */
+    List<TocEntry> tocEntries() {
+        return new ArrayList<>(toc.values());
+    }
+
+    /** 目录中的章节名称，目录中没有时返回null */
+    String tocName(String number) {
+        TocEntry entry = toc.get(number);
+        return entry == null ? null : entry.name();
+    }
+
+    /** 文本为占位符（如 5.x）的段落，按文档顺序 */
+    List<XWPFParagraph> placeholders() {
+        return new ArrayList<>(placeholders);
+    }
+
+    /**
+     * 章节在正文中的段落：文本以该编号开头的段落，或文本等于目录名称的标题样式段落，取文档中靠前的一个
+     */
+    XWPFParagraph section(String number) {
+        Heading byNum = first(byNumber.get(number), null);
+        String name = tocName(number);
+        Heading byName = name == null ? null : first(byText.get(name), null);
+        Heading found = earlier(byNum, byName);
+        return found == null ? null : found.paragraph;
+    }
+
+    /**
+     * 标题样式的章节段落：文本为"编号 名称"或等于给定名称，取文档中靠前的一个
+     */
+    XWPFParagraph heading(String number, String name) {
+        Heading byNum = first(byNumber.get(number), h -> h.heading && h.text.startsWith(number + " "));
+        Heading byName = first(byText.get(name), null);
+        Heading found = earlier(byNum, byName);
+        return found == null ? null : found.paragraph;
+    }
+
+    /**
+     * 章节的边界：之后第一个编号同级且更大的段落，或主章节样式的段落；没有时返回null
+     */
+    XWPFParagraph nextSibling(XWPFParagraph sectionPara, String number) {
+        if (!bodyIndex.contains(sectionPara.getCTP())) return null;
+        int level = WordProcessor.getSectionLevel(number);
+        for (int i = indexAfter(sectionPara.getCTP()); i < outline.size(); i++) {
+            Heading h = outline.get(i);
+            if (h.number != null && WordProcessor.getSectionLevel(h.number) == level
+                    && WordProcessor.compareSectionNumbers(h.number, number) > 0) {
+                return h.paragraph;
+            }
+            if (h.mainSection) {
+                return h.paragraph;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 章节下已有的子章节段落：之后到下一个主章节样式段落之前的子章节样式段落
+     */
+    List<XWPFParagraph> subSections(XWPFParagraph sectionPara) {
+        List<XWPFParagraph> result = new ArrayList<>();
+        if (!bodyIndex.contains(sectionPara.getCTP())) return result;
+        for (int i = indexAfter(sectionPara.getCTP()); i < outline.size(); i++) {
+            Heading h = outline.get(i);
+            if (h.mainSection) break;
+            if (h.subSection) result.add(h.paragraph);
+        }
+        return result;
+    }
+
+    /** 登记新建的正文段落（如生成的子章节标题） */
+    void add(XWPFParagraph para) {
+        if (!bodyIndex.contains(para.getCTP())) return;
+        String text;
+        String style;
+        try {
+            text = para.getText();
+            style = para.getStyle();
+        } catch (Exception e) {
+            return;
+        }
+        if (text == null || text.trim().isEmpty() || styles.toc().test(style)) return;
+        Heading heading = classify(para, text.trim(), style);
+        if (heading != null) {
+            outline.add(indexAfter(para.getCTP()), heading);
+            link(heading);
+        }
+    }
+
+    /** 段落文本或样式修改后重新登记 */
+    void refresh(XWPFParagraph para) {
+        remove(para);
+        add(para);
+    }
+
+    /** 段落从正文删除前注销 */
+    void remove(XWPFParagraph para) {
+        placeholders.remove(para);
+        Heading heading = byParagraph.remove(para.getCTP());
+        if (heading == null) return;
+        outline.remove(heading);
+        if (heading.number != null) {
+            byNumber.get(heading.number).remove(heading);
+        }
+        if (heading.heading) {
+            byText.get(heading.text).remove(heading);
+        }
+    }
+
+    private Heading classify(XWPFParagraph para, String text, String style) {
+        Matcher m = WordProcessor.SECTION_PATTERN.matcher(text);
+        String number = m.matches() ? m.group(1) : null;
+        boolean heading = styles.heading().test(style);
+        boolean main = styles.mainSection().test(style);
+        boolean sub = styles.subSection().test(style);
+        if (number == null && !heading && !main && !sub) return null;
+        return new Heading(para, text, number, heading, main, sub);
+    }
+
+    private void link(Heading heading) {
+        byParagraph.put(heading.paragraph.getCTP(), heading);
+        if (heading.number != null) {
+            insertOrdered(byNumber.computeIfAbsent(heading.number, k -> new ArrayList<>()), heading);
+        }
+        if (heading.heading) {
+            insertOrdered(byText.computeIfAbsent(heading.text, k -> new ArrayList<>()), heading);
+        }
+    }
+
+    private void insertOrdered(List<Heading> list, Heading heading) {
+        int i = list.size();
+        while (i > 0 && bodyIndex.compare(list.get(i - 1).paragraph.getCTP(), heading.paragraph.getCTP()) > 0) {
+            i--;
+        }
+        list.add(i, heading);
+    }
+
+    /** 大纲中位于段落之后的第一个位置（二分查找） */
+    private int indexAfter(CTP ctp) {
+        int low = 0;
+        int high = outline.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bodyIndex.compare(outline.get(mid).paragraph.getCTP(), ctp) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Heading first(List<Heading> list, Predicate<Heading> filter) {
+        if (list == null) return null;
+        for (Heading h : list) {
+            if (filter == null || filter.test(h)) return h;
+        }
+        return null;
+    }
+
+    private Heading earlier(Heading a, Heading b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return bodyIndex.compare(a.paragraph.getCTP(), b.paragraph.getCTP()) <= 0 ? a : b;
+    }
+}
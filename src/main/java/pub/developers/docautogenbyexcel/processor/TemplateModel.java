@@ -0,0 +1,97 @@
+package pub.developers.docautogenbyexcel.processor;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyle;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyles;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * 模板分析结果
+ * 同一份模板内容只读取、分析一次：保留模板原始字节，以及样式ID→样式名映射、测试用例表格用到的列、
+ * 章节索引快照（目录条目、占位符、正文标题）。每次生成从内存中的字节得到独立的文档副本，
+ * 在副本上按快照还原章节索引，不再重新读文件和逐段分析。
+ *
+ * <p>子章节标题和题注格式不在此缓存：它们取自本次生成最先处理到的已有子章节，
+ * 与数据和同一次生成中之前的修改有关，仍在每次生成时提取。
+ */
+final class TemplateModel {
+
+    private final String hash;
+    private final byte[] content;
+    private final Map<String, String> styleNames;
+    private final ColumnProjection columnProjection;
+    private final SectionIndex.Snapshot sections;
+
+    TemplateModel(String hash, byte[] content, Map<String, String> styleNames,
+                  ColumnProjection columnProjection, SectionIndex.Snapshot sections) {
+        this.hash = hash;
+        this.content = content;
+        this.styleNames = Collections.unmodifiableMap(styleNames);
+        this.columnProjection = columnProjection;
+        this.sections = sections;
+    }
+
+    /** 模板内容的SHA-256 */
+    static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 读取文档中所有样式的ID→样式名（只收录有名称的样式，同一ID取第一个）
+     */
+    static Map<String, String> styleNames(XWPFDocument document) {
+        Map<String, String> names = new HashMap<>();
+        CTStyles styles;
+        try {
+            styles = document.getStyle();
+        } catch (Exception e) {
+            return names;
+        }
+        for (CTStyle style : styles.getStyleArray()) {
+            String name = style.isSetName() ? style.getName().getVal() : null;
+            if (style.getStyleId() != null && name != null && !name.isEmpty()) {
+                names.putIfAbsent(style.getStyleId(), name);
+            }
+        }
+        return names;
+    }
+
+    /** 从内存中的模板字节得到一个新的文档副本，调用方负责关闭 */
+    XWPFDocument open() throws IOException {
+        return new XWPFDocument(new ByteArrayInputStream(content));
+    }
+
+    String hash() {
+        return hash;
+    }
+
+    /** 缓存计量：模板文件大小 */
+    long weight() {
+        return content.length;
+    }
+
+    Map<String, String> styleNames() {
+        return styleNames;
+    }
+
+    ColumnProjection columnProjection() {
+        return columnProjection;
+    }
+
+    SectionIndex.Snapshot sections() {
+        return sections;
+    }
+}
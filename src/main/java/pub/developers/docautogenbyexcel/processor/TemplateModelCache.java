@@ -0,0 +1,74 @@
+package pub.developers.docautogenbyexcel.processor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Word模板分析结果的LRU缓存。
+ * 以模板内容哈希为键，按模板文件大小计量容量；
+ * 超过总容量或条目上限时淘汰最久未使用的条目。
+ */
+public class TemplateModelCache {
+
+    /**
+     * 缓存统计
+     */
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+    }
+
+    private final long maxBytes;
+    private final int maxEntries;
+    private final LinkedHashMap<String, TemplateModel> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    TemplateModelCache(long maxBytes, int maxEntries) {
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+    }
+
+    synchronized TemplateModel get(String hash) {
+        TemplateModel model = entries.get(hash);
+        if (model == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return model;
+    }
+
+    synchronized void put(TemplateModel model) {
+        long weight = model.weight();
+        if (maxEntries <= 0 || weight > maxBytes) {
+            return;
+        }
+        TemplateModel previous = entries.put(model.hash(), model);
+        if (previous != null) {
+            currentBytes -= previous.weight();
+        }
+        currentBytes += weight;
+
+        Iterator<Map.Entry<String, TemplateModel>> it = entries.entrySet().iterator();
+        while ((currentBytes > maxBytes || entries.size() > maxEntries) && it.hasNext()) {
+            Map.Entry<String, TemplateModel> eldest = it.next();
+            if (eldest.getKey().equals(model.hash())) {
+                continue;
+            }
+            currentBytes -= eldest.getValue().weight();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), currentBytes, maxBytes);
+    }
+}
@@ -5,13 +5,14 @@ import org.apache.poi.openxml4j.exceptions.OLE2NotOfficeXmlFileException;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.*;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+import pub.developers.docautogenbyexcel.util.ColumnMatcher;
 
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.List;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,9 +23,17 @@ import java.util.regex.Pattern;
 public class WordProcessor {
     
     // 通用章节编号模式：匹配任意层级，如 1, 1.1, 1.1.1 等
-    private static final Pattern SECTION_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)*)\\s+(.+)$");
+    public static final Pattern SECTION_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)*)\\s+(.+)$");
     // 占位符匹配模式：X.x 或 X.X.x 等
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)*)\\.x\\s*(.+)?$", Pattern.CASE_INSENSITIVE);
+    public static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("^(\\d+(?:\\.\\d+)*)\\.x\\s*(.+)?$", Pattern.CASE_INSENSITIVE);
+
+    private static final String LEGACY_DOC_MESSAGE = """
+            不支持旧版Word格式(.doc文件)。请将文件转换为.docx格式后再使用。
+            转换方法：
+            1. 使用Microsoft Word打开.doc文件
+            2. 选择'文件' -> '另存为'
+            3. 在'文件类型'中选择'Word文档(*.docx)'
+            4. 保存后使用新的.docx文件""";
     
     // 目录样式 ID（不同Word模板可能使用不同ID）
     private static final java.util.Set<String> TOC_STYLES = java.util.Set.of(
@@ -34,6 +43,9 @@ public class WordProcessor {
     );
     // 正文标题样式 ID: 2=Heading1, 3=Heading2, 4=Heading3, 5=Heading4...
     private static final java.util.Set<String> HEADING_STYLES = java.util.Set.of("2", "3", "4", "5", "6", "7", "8", "9", "10");
+    // 没有模板表格时新建测试用例表格的标签：首行为 测试项名称、标识，其余每行一个标签
+    private static final List<String> DEFAULT_TABLE_LABELS = List.of(
+        "测试项名称", "标识", "测试内容", "测试策略与方法", "判定准则", "测试终止条件", "追踪关系");
     
     /**
      * 内部类：保存Run的格式信息
@@ -84,16 +96,29 @@ public class WordProcessor {
     private SubSectionFormat templateSubSectionFormat = null;
     private CaptionFormat templateCaptionFormat = null;
 
-    // 样式ID → 样式名 映射缓存（每次 processWord 调用前刷新）
+    // 当前文档的样式ID → 样式名 映射（每次 processDocument 调用时取自模板分析结果）
     // Word模板可能使用非MSOffice默认的styleId（例如20代表heading 2），
     // 直接按数字集匹配会漏判；这里改为以样式名为权威依据。
-    private final java.util.Map<String, String> styleIdToName = new java.util.HashMap<>();
-    private transient XWPFDocument currentDoc = null;
+    private transient java.util.Map<String, String> styleIdToName = java.util.Map.of();
+    // 模板分析结果缓存，按模板内容哈希共享给所有实例
+    private static final TemplateModelCache TEMPLATE_MODELS = new TemplateModelCache(64L * 1024 * 1024, 16);
+    // openTemplate 返回的文档 → 其模板分析结果，processDocument 时用于还原章节索引
+    private final java.util.Map<XWPFDocument, TemplateModel> openedTemplates = new java.util.WeakHashMap<>();
+    // 按模块筛选处理时记录填充过的表格，保存前只修正这些表格的字体；不筛选时为null，修正全部表格
+    private transient java.util.Set<CTTbl> filledTables = null;
+    // 当前文档的正文元素位置索引，正文的定位、插入和删除都通过它进行（每次 processWord 调用时重建）
+    private transient BodyIndex bodyIndex = null;
+    /** 当前处理文档的章节索引（目录条目、正文标题），随新建子章节同步更新 */
+    private transient SectionIndex sectionIndex = null;
+    // 模板表格 → 按列结构编译的填充计划（模板表格本身被填充后作废，之后复制出的表格重新编译）
+    private transient java.util.Map<CTTbl, java.util.Map<java.util.List<String>, TableFillPlan>> fillPlans = null;
+    // 复制出、尚未填充的表格 → 复制时其模板表格的填充计划
+    private transient java.util.Map<CTTbl, java.util.Map<java.util.List<String>, TableFillPlan>> clonePlans = null;
     
     // ==================== 目录编号辅助方法 ====================
     
     /** 获取章节编号的层级数（如 "5.3.1" 返回 3） */
-    private static int getSectionLevel(String sectionNumber) {
+    static int getSectionLevel(String sectionNumber) {
         if (sectionNumber == null || sectionNumber.isEmpty()) return 0;
         return sectionNumber.split("\\.").length;
     }
@@ -107,7 +132,7 @@ public class WordProcessor {
     }
     
     /** 比较两个章节编号的大小（支持任意层级），如 "1.2" < "1.10" < "2.1" */
-    private static int compareSectionNumbers(String a, String b) {
+    static int compareSectionNumbers(String a, String b) {
         if (a == null || b == null) return (a == null) ? (b == null ? 0 : -1) : 1;
         String[] partsA = a.split("\\."), partsB = b.split("\\.");
         for (int i = 0; i < Math.min(partsA.length, partsB.length); i++) {
@@ -121,21 +146,34 @@ public class WordProcessor {
     
     /** 判断是否为目录样式 */
     private boolean isTocStyle(String styleId) {
+        return styleId != null && isTocStyle(styleId, resolveStyleName(styleId));
+    }
+
+    /** 判断是否为标题样式（包括Heading 1-4） */
+    private boolean isHeadingStyle(String styleId) {
+        return styleId != null && isHeadingStyle(styleId, resolveStyleName(styleId));
+    }
+
+    /** 按样式ID和样式名判断是否为目录样式（styleName可为null），供不构建XWPFDocument的扫描复用 */
+    public static boolean isTocStyle(String styleId, String styleName) {
         if (styleId == null) return false;
         if (TOC_STYLES.contains(styleId)) return true;
-        String name = resolveStyleName(styleId);
-        String lower = (name != null ? name : styleId).toLowerCase();
+        String lower = (styleName != null ? styleName : styleId).toLowerCase();
         return lower.startsWith("toc");
     }
 
-    /** 判断是否为标题样式（包括Heading 1-4） */
-    private boolean isHeadingStyle(String styleId) {
+    /** 按样式ID和样式名判断是否为标题样式（styleName可为null），供不构建XWPFDocument的扫描复用 */
+    public static boolean isHeadingStyle(String styleId, String styleName) {
         if (styleId == null) return false;
         if (HEADING_STYLES.contains(styleId)) return true;
-        String name = resolveStyleName(styleId);
-        if (name == null) return false;
-        String lower = name.toLowerCase();
-        return lower.contains("heading") || name.contains("标题") || name.contains("程序标题");
+        if (styleName == null) return false;
+        String lower = styleName.toLowerCase();
+        return lower.contains("heading") || styleName.contains("标题") || styleName.contains("程序标题");
+    }
+
+    /** 判断 childNumber 是否是 parentNumber 的直接子节点（占位符 parentNumber.x 展开时使用） */
+    public static boolean isDirectChildSection(String parentNumber, String childNumber) {
+        return isDirectChild(parentNumber, childNumber);
     }
 
     /** 判断是否为主章节样式（Heading 1 或 Heading 2） */
@@ -162,24 +200,13 @@ public class WordProcessor {
     
     // ==================== 通用辅助方法 ====================
     
-    /** 在段落列表中查找段落的索引 */
-    private static int findParagraphIndex(List<XWPFParagraph> paragraphs, XWPFParagraph target) {
-        for (int i = 0; i < paragraphs.size(); i++) {
-            if (paragraphs.get(i).getCTP() == target.getCTP()) {
-                return i;
-            }
-        }
-        return -1;
-    }
-    
-    /** 在CTBody中查找段落的索引 */
-    private static int findParagraphIndexInBody(CTBody body, CTP paragraph) {
-        for (int i = 0; i < body.sizeOfPArray(); i++) {
-            if (body.getPArray(i) == paragraph) {
-                return i;
-            }
-        }
-        return -1;
+    /**
+     * 在段落后插入新段落：与 body.insertNewP(段落序号+1) 一致，插在下一个段落之前，
+     * 段落后紧跟的表格保留在新段落前面；段落不在正文中或之后没有段落时追加到末尾
+     */
+    private CTP insertParagraphAfter(CTP paragraph) {
+        CTP next = bodyIndex.contains(paragraph) ? bodyIndex.nextParagraph(paragraph) : null;
+        return next != null ? bodyIndex.insertParagraphBefore(next) : bodyIndex.appendParagraph();
     }
     
     /** 禁用段落的编号（设置 numId=0） */
@@ -210,366 +237,399 @@ public class WordProcessor {
      */
     public int processWord(String templatePath, String outputPath, 
                           java.util.Map<String, ModuleData> moduleDataMap) throws Exception {
+        try (XWPFDocument document = openTemplate(templatePath)) {
+            int successCount = processDocument(document, moduleDataMap, ModuleFilter.ALL);
+
+            // 保存文档
+            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
+                document.write(fos);
+            }
+            return successCount;
+        } catch (IOException e) {
+            throw new Exception("处理Word文档失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取Word模板到内存，调用方负责关闭
+     *
+     * @param templatePath Word模板路径（.docx）
+     * @return 模板文档
+     * @throws Exception 旧版.doc格式或读取失败时抛出
+     */
+    public XWPFDocument openTemplate(String templatePath) throws Exception {
+        TemplateModel model = loadTemplateModel(templatePath);
+        XWPFDocument document = model.open();
+        openedTemplates.put(document, model);
+        return document;
+    }
+
+    /** 模板分析结果缓存的统计 */
+    public static TemplateModelCache.Stats getTemplateCacheStats() {
+        return TEMPLATE_MODELS.stats();
+    }
+
+    /**
+     * 读取模板并按内容哈希取分析结果，缓存中没有时解析一次模板并分析
+     */
+    private TemplateModel loadTemplateModel(String templatePath) throws Exception {
         // 检查文件格式
         String lowerPath = templatePath.toLowerCase();
         if (lowerPath.endsWith(".doc") && !lowerPath.endsWith(".docx")) {
-            throw new Exception("""
-                    不支持旧版Word格式(.doc文件)。请将文件转换为.docx格式后再使用。
-                    转换方法：
-                    1. 使用Microsoft Word打开.doc文件
-                    2. 选择'文件' -> '另存为'
-                    3. 在'文件类型'中选择'Word文档(*.docx)'
-                    4. 保存后使用新的.docx文件""");
+            throw new Exception(LEGACY_DOC_MESSAGE);
         }
-        
-        try (FileInputStream fis = new FileInputStream(templatePath);
-             XWPFDocument document = new XWPFDocument(fis)) {
+        byte[] content;
+        try {
+            content = java.nio.file.Files.readAllBytes(java.nio.file.Path.of(templatePath));
+        } catch (IOException e) {
+            throw new Exception("处理Word文档失败: " + e.getMessage(), e);
+        }
+        String hash = TemplateModel.hash(content);
+        TemplateModel model = TEMPLATE_MODELS.get(hash);
+        if (model != null) {
+            return model;
+        }
+
+        try (XWPFDocument document = new XWPFDocument(new java.io.ByteArrayInputStream(content))) {
+            java.util.Map<String, String> styleNames = TemplateModel.styleNames(document);
+            styleIdToName = styleNames;
+            SectionIndex sections = SectionIndex.build(BodyIndex.build(document), sectionStyles());
+            model = new TemplateModel(hash, content, styleNames, columnProjection(document), sections.snapshot());
+        } catch (OLE2NotOfficeXmlFileException e) {
+            throw new Exception(LEGACY_DOC_MESSAGE, e);
+        } catch (IOException e) {
+            throw new Exception("处理Word文档失败: " + e.getMessage(), e);
+        } finally {
+            styleIdToName = java.util.Map.of();
+        }
+        TEMPLATE_MODELS.put(model);
+        return model;
+    }
+
+    private SectionIndex.Styles sectionStyles() {
+        return new SectionIndex.Styles(
+                this::isTocStyle, this::isHeadingStyle, this::isMainSectionStyle, this::isSubSectionStyle);
+    }
 
-            // 刷新样式ID→样式名映射，用于后续章节/题注样式识别
-            populateStyleIdToName(document);
+    /**
+     * 在内存中的文档上生成章节和测试表格，不读写文件；文档由调用方写出
+     * 文档是 {@link #openTemplate} 返回且尚未修改时，直接使用模板分析结果，否则在文档上重新分析。
+     * 只重新生成筛选选中的章节，其余章节、占位符和目录条目保持模板原样；占位符（如 5.x）只在其上级章节被选中时展开
+     *
+     * @param document      已读取的模板文档，处理后即为输出内容
+     * @param moduleDataMap 模块数据Map
+     * @param moduleFilter  模块筛选
+     * @return 处理成功的模块数量
+     * @throws Exception 处理异常
+     */
+    public int processDocument(XWPFDocument document, java.util.Map<String, ModuleData> moduleDataMap,
+                               ModuleFilter moduleFilter) throws Exception {
+        // 样式ID→样式名映射，用于后续章节/题注样式识别
+        TemplateModel model = openedTemplates.remove(document);
+        styleIdToName = model != null ? model.styleNames() : TemplateModel.styleNames(document);
+        filledTables = moduleFilter.isAll() ? null : java.util.Collections.newSetFromMap(new java.util.IdentityHashMap<>());
+        bodyIndex = BodyIndex.build(document);
+        fillPlans = new java.util.IdentityHashMap<>();
+        clonePlans = new java.util.IdentityHashMap<>();
+        sectionIndex = model != null
+                ? SectionIndex.restore(bodyIndex, sectionStyles(), model.sections())
+                : SectionIndex.build(bodyIndex, sectionStyles());
+        if (!moduleFilter.isAll()) {
+            System.out.println("按模块筛选生成: " + moduleFilter);
+        }
 
-            // 先扫描Word文档中的所有章节编号、占位符和已存在的子章节
-            List<String> wordSectionNumbers = scanWordSections(document);
-            List<PlaceholderInfo> placeholders = scanPlaceholders(document);
-            List<SubSectionInfo> existingSubSections = scanExistingSubSections(document);
+        // 从章节索引读取Word文档中的所有章节编号、占位符和已存在的子章节
+        List<String> wordSectionNumbers = sectionIndex.sectionNumbers();
+        List<PlaceholderInfo> placeholders = scanPlaceholders();
+        List<SubSectionInfo> existingSubSections = scanExistingSubSections();
+        
+        System.out.println("Word文档中找到的章节编号: " + wordSectionNumbers);
+        System.out.println("Word文档中找到的占位符: " + placeholders);
+        System.out.println("Word文档中找到的已存在子章节: " + existingSubSections);
+        
+        // 获取Excel的列名列表（从第一个测试用例获取）
+        if (!moduleDataMap.isEmpty()) {
+            ModuleData firstModule = moduleDataMap.values().iterator().next();
+            if (!firstModule.getTestCases().isEmpty()) {
+                TestCase firstCase = firstModule.getTestCases().get(0);
+                List<String> excelColumnNames = new java.util.ArrayList<>(firstCase.getColumnData().keySet());
+                excelColumnNames.remove("模块编号"); // 排除模块编号列
+                System.out.println("Excel列名: " + excelColumnNames);
+            }
+        }
+        
+        // 保存全局模板表格（用于没有模板的章节）
+        XWPFTable globalTemplateTable = null;
+        
+        // 查找并处理每个模块
+        int successCount = 0;
+        
+        // 1. 处理已存在的子章节：填充表格并更新章节名称
+        for (SubSectionInfo subSection : existingSubSections) {
+            String moduleNumber = subSection.moduleNumber; // 如 "5.3.1"
+            if (!moduleFilter.matches(moduleNumber)) {
+                continue;
+            }
+            ModuleData moduleData = moduleDataMap.get(moduleNumber);
             
-            System.out.println("Word文档中找到的章节编号: " + wordSectionNumbers);
-            System.out.println("Word文档中找到的占位符: " + placeholders);
-            System.out.println("Word文档中找到的已存在子章节: " + existingSubSections);
+            if (moduleData == null) {
+                System.out.println("Excel中未找到模块: " + moduleNumber);
+                continue;
+            }
+            
+            // 更新章节名称（如果Excel中的testName与Word中的不一致）
+            String excelTestName = moduleData.getTestCases().get(0).getTestName();
+            String expectedTitle = moduleNumber + " " + excelTestName + "测试";
+            String currentTitle = subSection.paragraph.getText().trim();
+            
+            if (!currentTitle.equals(expectedTitle)) {
+                // 更新章节名称
+                updateParagraphText(subSection.paragraph, expectedTitle);
+                System.out.println("更新章节名称: " + currentTitle + " -> " + expectedTitle);
+            }
+            
+            // 填充表格
+            CTTbl existingTable = findTableCttblAfterParagraph(subSection.paragraph.getCTP());
+            if (existingTable != null) {
+                XWPFTable table = new XWPFTable(existingTable, document);
+                fillTableData(table, moduleData.getTestCases().get(0));
+                System.out.println("模块" + moduleNumber + "表格填充完成");
+            } else {
+                // 如果没有表格，创建新表格（使用全局模板）
+                insertTestCaseTableAfterParagraph(document, subSection.paragraph.getCTP(), moduleData.getTestCases().get(0), globalTemplateTable);
+                System.out.println("模块" + moduleNumber + "创建新表格完成");
+            }
+            
+            successCount++;
+        }
+        
+        // 2. 处理占位符：自动创建子章节
+        for (PlaceholderInfo placeholder : placeholders) {
+            String parentNumber = placeholder.parentNumber; // 如 "5" 或 "5.3"
+            String placeholderText = placeholder.text; // 如 "5.x" 或 "5.3.x 功能测试"
+            if (!moduleFilter.matches(parentNumber)) {
+                System.out.println("占位符 " + placeholderText + " 所在章节不在模块筛选范围内，保持不变");
+                continue;
+            }
             
-            // 获取Excel的列名列表（从第一个测试用例获取）
-            if (!moduleDataMap.isEmpty()) {
-                ModuleData firstModule = moduleDataMap.values().iterator().next();
-                if (!firstModule.getTestCases().isEmpty()) {
-                    TestCase firstCase = firstModule.getTestCases().get(0);
-                    List<String> excelColumnNames = new java.util.ArrayList<>(firstCase.getColumnData().keySet());
-                    excelColumnNames.remove("模块编号"); // 排除模块编号列
-                    System.out.println("Excel列名: " + excelColumnNames);
+            // 在Excel中查找所有匹配的直接子模块（使用通用方法）
+            List<String> matchedModules = new java.util.ArrayList<>();
+            for (String moduleNumber : moduleDataMap.keySet()) {
+                // 使用通用方法判断是否是直接子节点
+                if (isDirectChild(parentNumber, moduleNumber) && moduleFilter.matches(moduleNumber)) {
+                    matchedModules.add(moduleNumber);
                 }
             }
             
-            CTBody body = document.getDocument().getBody();
+            // 按编号排序（支持任意层级）
+            matchedModules.sort(WordProcessor::compareSectionNumbers);
             
-            // 保存全局模板表格（用于没有模板的章节）
-            XWPFTable globalTemplateTable = null;
+            if (matchedModules.isEmpty()) {
+                System.out.println("占位符 " + placeholderText + " 在Excel中未找到匹配的子模块");
+                continue;
+            }
             
-            // 查找并处理每个模块
-            int successCount = 0;
+            System.out.println("占位符 " + placeholderText + " 匹配到 " + matchedModules.size() + " 个子模块: " + matchedModules);
             
-            // 1. 处理已存在的子章节：填充表格并更新章节名称
-            for (SubSectionInfo subSection : existingSubSections) {
-                String moduleNumber = subSection.moduleNumber; // 如 "5.3.1"
+            // 在占位符位置创建子章节：第一个在占位符后，后续接在前一个子章节的内容之后
+            XWPFParagraph insertAfterPara = placeholder.paragraph;
+            for (String moduleNumber : matchedModules) {
                 ModuleData moduleData = moduleDataMap.get(moduleNumber);
                 
-                if (moduleData == null) {
-                    System.out.println("Excel中未找到模块: " + moduleNumber);
-                    continue;
-                }
-                
-                // 更新章节名称（如果Excel中的testName与Word中的不一致）
-                String excelTestName = moduleData.getTestCases().get(0).getTestName();
-                String expectedTitle = moduleNumber + " " + excelTestName + "测试";
-                String currentTitle = subSection.paragraph.getText().trim();
-                
-                if (!currentTitle.equals(expectedTitle)) {
-                    // 更新章节名称
-                    updateParagraphText(subSection.paragraph, expectedTitle);
-                    System.out.println("更新章节名称: " + currentTitle + " -> " + expectedTitle);
-                }
-                
-                // 填充表格
-                CTTbl existingTable = findTableCttblAfterParagraph(body, subSection.paragraph.getCTP());
-                if (existingTable != null) {
-                    XWPFTable table = new XWPFTable(existingTable, document);
-                    fillTableData(table, moduleData.getTestCases().get(0));
-                    System.out.println("模块" + moduleNumber + "表格填充完成");
-                } else {
-                    // 如果没有表格，创建新表格（使用全局模板）
-                    insertTestCaseTableAfterParagraph(document, subSection.paragraph.getCTP(), moduleData.getTestCases().get(0), globalTemplateTable);
-                    System.out.println("模块" + moduleNumber + "创建新表格完成");
-                }
+                // 创建子章节标题段落
+                XWPFParagraph subSectionPara = createSubSectionParagraph(
+                    document, insertAfterPara, moduleNumber, moduleData.getTestCases().get(0).getTestName());
                 
+                // 在子章节后插入内容（使用全局模板）
+                insertAfterPara = insertModuleContent(document, subSectionPara, moduleNumber, moduleData, globalTemplateTable);
                 successCount++;
+                System.out.println("模块" + moduleNumber + "处理完成（生成" + 
+                                 moduleData.getTestCaseCount() + "个表格）");
             }
             
-            // 2. 处理占位符：自动创建子章节
+            // 删除占位符段落（在所有子章节创建完成后）
+            CTP placeholderCTP = placeholder.paragraph.getCTP();
+            if (bodyIndex.contains(placeholderCTP)) {
+                sectionIndex.remove(placeholder.paragraph);
+                bodyIndex.remove(placeholderCTP);
+            }
+        }
+        
+        // 2. 处理占位符：自动创建子章节
+        for (String sectionNumber : wordSectionNumbers) {
+            // 跳过已经被占位符处理的章节
+            boolean isPlaceholderChild = false;
             for (PlaceholderInfo placeholder : placeholders) {
-                String parentNumber = placeholder.parentNumber; // 如 "5" 或 "5.3"
-                String placeholderText = placeholder.text; // 如 "5.x" 或 "5.3.x 功能测试"
-                
-                // 在Excel中查找所有匹配的直接子模块（使用通用方法）
-                List<String> matchedModules = new java.util.ArrayList<>();
-                for (String moduleNumber : moduleDataMap.keySet()) {
-                    // 使用通用方法判断是否是直接子节点
-                    if (isDirectChild(parentNumber, moduleNumber)) {
-                        matchedModules.add(moduleNumber);
-                    }
-                }
-                
-                // 按编号排序（支持任意层级）
-                matchedModules.sort(WordProcessor::compareSectionNumbers);
-                
-                if (matchedModules.isEmpty()) {
-                    System.out.println("占位符 " + placeholderText + " 在Excel中未找到匹配的子模块");
-                    continue;
-                }
-                
-                System.out.println("占位符 " + placeholderText + " 匹配到 " + matchedModules.size() + " 个子模块: " + matchedModules);
-                
-                // 在占位符位置创建子章节
-                for (int i = 0; i < matchedModules.size(); i++) {
-                    String moduleNumber = matchedModules.get(i);
-                    ModuleData moduleData = moduleDataMap.get(moduleNumber);
-                    
-                    // 获取当前插入位置（第一次在占位符后，后续在前一个子章节后）
-                    XWPFParagraph insertAfterPara;
-                    if (i == 0) {
-                        insertAfterPara = placeholder.paragraph;
-                    } else {
-                        // 需要找到前一个子章节的段落
-                        // 由于我们已经创建了前一个子章节，需要重新查找
-                        String prevModuleNumber = matchedModules.get(i - 1);
-                        insertAfterPara = findSectionParagraph(document, prevModuleNumber);
-                        if (insertAfterPara == null) {
-                            // 如果找不到，使用占位符段落
-                            insertAfterPara = placeholder.paragraph;
-                        }
-                    }
-                    
-                    // 创建子章节标题段落
-                    XWPFParagraph subSectionPara = createSubSectionParagraph(
-                        document, insertAfterPara, moduleNumber, moduleData.getTestCases().get(0).getTestName());
-                    
-                    // 在子章节后插入内容（使用全局模板）
-                    insertModuleContent(document, subSectionPara, moduleNumber, moduleData, globalTemplateTable);
-                    successCount++;
-                    System.out.println("模块" + moduleNumber + "处理完成（生成" + 
-                                     moduleData.getTestCaseCount() + "个表格）");
-                }
-                
-                // 删除占位符段落（在所有子章节创建完成后）
-                int pIndex = -1;
-                CTP placeholderCTP = placeholder.paragraph.getCTP();
-                for (int i = 0; i < body.sizeOfPArray(); i++) {
-                    if (body.getPArray(i) == placeholderCTP) {
-                        pIndex = i;
-                        break;
-                    }
-                }
-                if (pIndex != -1) {
-                    body.removeP(pIndex);
+                if (sectionNumber.startsWith(placeholder.parentNumber + ".")) {
+                    isPlaceholderChild = true;
+                    break;
                 }
             }
+            if (isPlaceholderChild || !moduleFilter.matches(sectionNumber)) {
+                continue;
+            }
             
-            // 2. 处理占位符：自动创建子章节
-            wordSectionNumbers = scanWordSections(document);
-            for (String sectionNumber : wordSectionNumbers) {
-                // 跳过已经被占位符处理的章节
-                boolean isPlaceholderChild = false;
-                for (PlaceholderInfo placeholder : placeholders) {
-                    if (sectionNumber.startsWith(placeholder.parentNumber + ".")) {
-                        isPlaceholderChild = true;
-                        break;
-                    }
-                }
-                if (isPlaceholderChild) {
-                    continue;
-                }
-                
-                ModuleData moduleData = moduleDataMap.get(sectionNumber);
-                if (moduleData == null) {
-                    System.out.println("Excel中未找到模块: " + sectionNumber);
-                    continue;
-                }
-                
-                // 查找章节标题位置
-                XWPFParagraph sectionPara = findSectionParagraph(document, sectionNumber);
-                if (sectionPara == null) {
-                    System.out.println("Word模板中未找到模块: " + sectionNumber);
-                    continue;
-                }
+            ModuleData moduleData = moduleDataMap.get(sectionNumber);
+            if (moduleData == null) {
+                System.out.println("Excel中未找到模块: " + sectionNumber);
+                continue;
+            }
+            
+            // 查找章节标题位置
+            XWPFParagraph sectionPara = sectionIndex.section(sectionNumber);
+            if (sectionPara == null) {
+                System.out.println("Word模板中未找到模块: " + sectionNumber);
+                continue;
+            }
 
-                // 检查章节后是否已有表格
-                CTTbl existingTable = findTableCttblAfterParagraph(body, sectionPara.getCTP());
-                
-                // 找到该章节的结束位置（用于插入子章节）
-                XWPFParagraph lastElementInSection = findLastElementInSection(document, sectionPara, sectionNumber);
-                System.out.println("模块" + sectionNumber + "的最后元素: " + (lastElementInSection != null ? lastElementInSection.getText() : "null"));
-                
-                // 保存第一个表格作为模板（如果存在）
-                XWPFTable templateTable = null;
-                if (existingTable != null) {
-                    templateTable = new XWPFTable(existingTable, document);
-                    if (globalTemplateTable == null) {
-                        globalTemplateTable = templateTable;
-                        System.out.println("保存模块" + sectionNumber + "的表格作为全局模板");
-                    }
+            // 检查章节后是否已有表格
+            CTTbl existingTable = findTableCttblAfterParagraph(sectionPara.getCTP());
+            
+            // 找到该章节下已存在的子章节（模板子章节，如 XX测试），最后一个子章节为章节的结束位置（用于插入子章节）
+            List<XWPFParagraph> existingSubSectionParas = sectionIndex.subSections(sectionPara);
+            XWPFParagraph lastElementInSection = existingSubSectionParas.isEmpty()
+                    ? sectionPara : existingSubSectionParas.get(existingSubSectionParas.size() - 1);
+            System.out.println("模块" + sectionNumber + "的最后元素: " + (lastElementInSection != null ? lastElementInSection.getText() : "null"));
+            
+            // 保存第一个表格作为模板（如果存在）
+            XWPFTable templateTable = null;
+            if (existingTable != null) {
+                templateTable = new XWPFTable(existingTable, document);
+                if (globalTemplateTable == null) {
+                    globalTemplateTable = templateTable;
+                    System.out.println("保存模块" + sectionNumber + "的表格作为全局模板");
                 }
+            }
+            
+            // 处理所有测试用例，按顺序创建子章节和表格
+            List<TestCase> testCases = moduleData.getTestCases();
+            
+            System.out.println("模块" + sectionNumber + "下已有" + existingSubSectionParas.size() + "个子章节");
+            
+            // 找到下一个主章节的位置作为边界（不在其后面插入）
+            XWPFParagraph nextSectionPara = sectionIndex.nextSibling(sectionPara, sectionNumber);
+            CTP sectionBoundary = null;
+            if (nextSectionPara != null && bodyIndex.contains(nextSectionPara.getCTP())) {
+                sectionBoundary = nextSectionPara.getCTP();
+                System.out.println("模块" + sectionNumber + "的边界（下一个主章节）: " + nextSectionPara.getText());
+            }
+            
+            // 从第一个已存在的子章节提取格式（只提取一次）
+            if (templateSubSectionFormat == null && !existingSubSectionParas.isEmpty()) {
+                XWPFParagraph firstSubSection = existingSubSectionParas.get(0);
+                templateSubSectionFormat = extractSubSectionFormat(firstSubSection);
+                System.out.println("已从模板子章节提取格式");
                 
-                // 处理所有测试用例，按顺序创建子章节和表格
-                List<TestCase> testCases = moduleData.getTestCases();
-                
-                // 找到该章节下已存在的子章节（模板子章节，如 XX测试）
-                List<XWPFParagraph> existingSubSectionParas = findExistingSubSectionsInSection(
-                    document, sectionPara, sectionNumber);
-                System.out.println("模块" + sectionNumber + "下已有" + existingSubSectionParas.size() + "个子章节");
-                
-                // 找到下一个主章节的位置作为边界（不在其后面插入）
-                XWPFParagraph nextSectionPara = findNextMainSection(document, sectionPara, sectionNumber);
-                int initialSectionBoundaryIndex = -1;
-                if (nextSectionPara != null) {
-                    initialSectionBoundaryIndex = findParagraphIndexInBody(body, nextSectionPara.getCTP());
-                    System.out.println("模块" + sectionNumber + "的初始边界（下一个主章节）位置: " + initialSectionBoundaryIndex + " (" + nextSectionPara.getText() + ")");
+                // 同时提取Caption格式
+                XWPFParagraph captionPara = findCaptionAfterSubSection(document, firstSubSection);
+                if (captionPara != null) {
+                    templateCaptionFormat = extractCaptionFormat(captionPara);
+                    System.out.println("已从模板Caption提取格式");
                 }
+            }
+            
+            XWPFParagraph currentInsertPoint = lastElementInSection != null ? lastElementInSection : sectionPara;
+            System.out.println("初始插入点: " + currentInsertPoint.getText());
+            
+            for (int i = 0; i < testCases.size(); i++) {
+                TestCase testCase = testCases.get(i);
+                int sequenceNumber = i + 1;
+                String subSectionNumber = sectionNumber + "." + sequenceNumber;
                 
-                // 从第一个已存在的子章节提取格式（只提取一次）
-                if (templateSubSectionFormat == null && !existingSubSectionParas.isEmpty()) {
-                    XWPFParagraph firstSubSection = existingSubSectionParas.get(0);
-                    templateSubSectionFormat = extractSubSectionFormat(firstSubSection);
-                    System.out.println("已从模板子章节提取格式");
+                // 检查是否有可复用的已存在子章节（按顺序复用）
+                if (i < existingSubSectionParas.size()) {
+                    // 复用已存在的子章节：修改标题和填充表格
+                    XWPFParagraph existingSubSection = existingSubSectionParas.get(i);
+                    System.out.println("替换已存在的子章节为: " + subSectionNumber + " " + testCase.getTestName() + "测试");
                     
-                    // 同时提取Caption格式
-                    XWPFParagraph captionPara = findCaptionAfterSubSection(document, firstSubSection);
-                    if (captionPara != null) {
-                        templateCaptionFormat = extractCaptionFormat(captionPara);
-                        System.out.println("已从模板Caption提取格式");
-                    }
-                }
-                
-                XWPFParagraph currentInsertPoint = lastElementInSection != null ? lastElementInSection : sectionPara;
-                System.out.println("初始插入点: " + currentInsertPoint.getText());
-                
-                for (int i = 0; i < testCases.size(); i++) {
-                    TestCase testCase = testCases.get(i);
-                    int sequenceNumber = i + 1;
-                    String subSectionNumber = sectionNumber + "." + sequenceNumber;
+                    // 修改子章节标题
+                    updateParagraphText(existingSubSection, subSectionNumber + " " + testCase.getTestName() + "测试");
                     
-                    // 检查是否有可复用的已存在子章节（按顺序复用）
-                    if (i < existingSubSectionParas.size()) {
-                        // 复用已存在的子章节：修改标题和填充表格
-                        XWPFParagraph existingSubSection = existingSubSectionParas.get(i);
-                        System.out.println("替换已存在的子章节为: " + subSectionNumber + " " + testCase.getTestName() + "测试");
-                        
-                        // 修改子章节标题
-                        updateParagraphText(existingSubSection, subSectionNumber + " " + testCase.getTestName() + "测试");
-                        
-                        // 填充表格
-                        CTTbl tableAfterSub = findTableCttblAfterParagraph(body, existingSubSection.getCTP());
-                        if (tableAfterSub != null) {
-                            XWPFTable table = new XWPFTable(tableAfterSub, document);
-                            // 不再调用 clearTableDataColumns：避免清掉模板占位默认值（如 XX、2021.08.15）。
-                            // Excel 缺失数据时由 fillCellByLabel 跳过覆盖，保留模板默认值。
-                            fillTableData(table, testCase);
-                            System.out.println("子章节" + subSectionNumber + "表格填充完成");
-                            
-                            // 更新表格前的Caption（如果有的话）
-                            updateTableCaption(document, existingSubSection, subSectionNumber, testCase.getTestName());
-                        }
-                        // 更新插入点为表格后面（确保新子章节在表格后面创建）
-                        currentInsertPoint = findInsertPointAfterTable(document, existingSubSection);
-                    } else {
-                        // 没有更多已存在的子章节，创建新的
-                        System.out.println("创建子章节: " + subSectionNumber + " " + testCase.getTestName() + "测试");
-                        System.out.println("当前插入点: " + currentInsertPoint.getText());
-                        
-                        // 检查当前插入点是否超过了章节边界（每次动态重算，避免边界漂移）
-                        int sectionBoundaryIndex = nextSectionPara != null
-                            ? findParagraphIndexInBody(body, nextSectionPara.getCTP())
-                            : -1;
-                        XWPFParagraph actualInsertPoint = currentInsertPoint;
-                        if (sectionBoundaryIndex > 0) {
-                            int currentIndex = -1;
-                            for (int idx = 0; idx < body.sizeOfPArray(); idx++) {
-                                if (body.getPArray(idx) == currentInsertPoint.getCTP()) {
-                                    currentIndex = idx;
-                                    break;
-                                }
-                            }
-                            if (currentIndex >= sectionBoundaryIndex) {
-                                // 当前插入点已经超过边界，使用边界前一个位置
-                                System.out.println("警告: 插入点(" + currentIndex + ")超过边界(" + sectionBoundaryIndex + ")，调整到边界前");
-                                // 在边界之前插入，使用下一个主章节的前一个段落
-                                    CTP prevPara = body.getPArray(sectionBoundaryIndex - 1);
-                                    actualInsertPoint = new XWPFParagraph(prevPara, document);
-                            }
-                        }
-                        
-                        XWPFParagraph subSectionPara = createSubSectionParagraphBeforeBoundary(
-                            document, actualInsertPoint, subSectionNumber, testCase.getTestName(), 
-                            sectionBoundaryIndex);
-                        
-                        // 创建表格标题（Caption）
-                        XWPFParagraph captionPara = createTableCaption(document, subSectionPara, 
-                            subSectionNumber, testCase.getTestName());
+                    // 填充表格
+                    CTTbl tableAfterSub = findTableCttblAfterParagraph(existingSubSection.getCTP());
+                    if (tableAfterSub != null) {
+                        XWPFTable table = new XWPFTable(tableAfterSub, document);
+                        // 不再调用 clearTableDataColumns：避免清掉模板占位默认值（如 XX、2021.08.15）。
+                        // Excel 缺失数据时由 fillTableData 跳过覆盖，保留模板默认值。
+                        fillTableData(table, testCase);
+                        System.out.println("子章节" + subSectionNumber + "表格填充完成");
                         
-                        // 始终为新创建的子章节创建新表格（不复用已存在的表格）
-                        if (templateTable != null) {
-                            // 如果有模板，复制模板表格（在Caption后面）
-                            System.out.println("复制模板表格到子章节" + subSectionNumber + "后");
-                            CTTbl newCttbl = copyTable(document, captionPara.getCTP(), templateTable.getCTTbl());
-                            if (newCttbl != null) {
-                                XWPFTable newTable = new XWPFTable(newCttbl, document);
-                                System.out.println("模板表格复制成功，行数: " + newTable.getNumberOfRows());
-                                // 不再预清空数据列：fillCellByLabel会在Excel空值时跳过覆盖，保留模板默认值
-                                fillTableData(newTable, testCase);
-                                System.out.println("表格数据填充完成");
-                            } else {
-                                System.err.println("复制模板表格失败");
-                            }
+                        // 更新表格前的Caption（如果有的话）
+                        updateTableCaption(document, existingSubSection, subSectionNumber, testCase.getTestName());
+                    }
+                    // 更新插入点为表格后面（确保新子章节在表格后面创建）
+                    currentInsertPoint = findInsertPointAfterTable(document, existingSubSection);
+                } else {
+                    // 没有更多已存在的子章节，创建新的
+                    System.out.println("创建子章节: " + subSectionNumber + " " + testCase.getTestName() + "测试");
+                    System.out.println("当前插入点: " + currentInsertPoint.getText());
+                    
+                    // 插入点超过章节边界时由索引比较先后并调整到边界前（边界段落随插入移动，无需重算位置）
+                    XWPFParagraph subSectionPara = createSubSectionParagraphBeforeBoundary(
+                        document, currentInsertPoint, subSectionNumber, testCase.getTestName(), 
+                        sectionBoundary);
+                    
+                    // 创建表格标题（Caption）
+                    XWPFParagraph captionPara = createTableCaption(document, subSectionPara, 
+                        subSectionNumber, testCase.getTestName());
+                    
+                    // 始终为新创建的子章节创建新表格（不复用已存在的表格）
+                    if (templateTable != null) {
+                        // 如果有模板，复制模板表格（在Caption后面）
+                        System.out.println("复制模板表格到子章节" + subSectionNumber + "后");
+                        CTTbl newCttbl = copyTable(document, captionPara.getCTP(), templateTable.getCTTbl());
+                        if (newCttbl != null) {
+                            XWPFTable newTable = new XWPFTable(newCttbl, document);
+                            System.out.println("模板表格复制成功，行数: " + newTable.getNumberOfRows());
+                            // 不再预清空数据列：fillTableData会在Excel空值时跳过覆盖，保留模板默认值
+                            fillTableData(newTable, testCase);
+                            System.out.println("表格数据填充完成");
                         } else {
-                            // 如果没有模板，创建新表格
-                            insertNewTableAfterParagraph(document, subSectionPara.getCTP(), testCase);
+                            System.err.println("复制模板表格失败");
                         }
-                        
-                        // 更新插入点为表格后面（确保下一个子章节在表格后面创建）
-                        currentInsertPoint = findInsertPointAfterTable(document, subSectionPara);
-                        System.out.println("更新插入点到表格后面: " + currentInsertPoint.getText());
+                    } else {
+                        // 如果没有模板，创建新表格
+                        insertNewTableAfterParagraph(document, subSectionPara.getCTP(), testCase);
                     }
+                    
+                    // 更新插入点为表格后面（确保下一个子章节在表格后面创建）
+                    currentInsertPoint = findInsertPointAfterTable(document, subSectionPara);
+                    System.out.println("更新插入点到表格后面: " + currentInsertPoint.getText());
                 }
-                
-                System.out.println("模块" + sectionNumber + "处理完成（生成" + testCases.size() + "个表格）");
-                successCount++;
             }
             
-            // 3. 处理Excel中有但Word中没有的模块（可选）
-            for (java.util.Map.Entry<String, ModuleData> entry : moduleDataMap.entrySet()) {
-                String moduleNumber = entry.getKey();
-                boolean found = wordSectionNumbers.contains(moduleNumber);
-                for (PlaceholderInfo placeholder : placeholders) {
-                    if (moduleNumber.startsWith(placeholder.parentNumber + ".")) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    System.out.println("警告：Word文档中未找到章节 " + moduleNumber + "，跳过处理");
+            System.out.println("模块" + sectionNumber + "处理完成（生成" + testCases.size() + "个表格）");
+            successCount++;
+        }
+        
+        // 3. 处理Excel中有但Word中没有的模块（可选）
+        for (java.util.Map.Entry<String, ModuleData> entry : moduleDataMap.entrySet()) {
+            String moduleNumber = entry.getKey();
+            boolean found = wordSectionNumbers.contains(moduleNumber);
+            for (PlaceholderInfo placeholder : placeholders) {
+                if (moduleNumber.startsWith(placeholder.parentNumber + ".")) {
+                    found = true;
+                    break;
                 }
             }
-
-            // 更新目录（TOC）：同步正文标题变化到目录
-            updateTableOfContents(document);
-
-            // 最后修正：强制非中文数据的字体为Times New Roman
-            fixNonChineseFonts(document);
-
-            // 保存文档
-            try (FileOutputStream fos = new FileOutputStream(outputPath)) {
-                document.write(fos);
+            if (!found) {
+                System.out.println("警告：Word文档中未找到章节 " + moduleNumber + "，跳过处理");
             }
+        }
 
-            return successCount;
+        // 更新目录（TOC）：同步正文标题变化到目录
+        updateTableOfContents(document, moduleFilter);
 
-        } catch (OLE2NotOfficeXmlFileException e) {
-            throw new Exception("""
-                    不支持旧版Word格式(.doc文件)。请将文件转换为.docx格式后再使用。
-                    转换方法：
-                    1. 使用Microsoft Word打开.doc文件
-                    2. 选择'文件' -> '另存为'
-                    3. 在'文件类型'中选择'Word文档(*.docx)'
-                    4. 保存后使用新的.docx文件""", e);
-        } catch (IOException e) {
-            throw new Exception("处理Word文档失败: " + e.getMessage(), e);
-        }
+        // 最后修正：强制非中文数据的字体为Times New Roman
+        fixNonChineseFonts(document);
+        filledTables = null;
+        bodyIndex = null;
+        sectionIndex = null;
+        fillPlans = null;
+        clonePlans = null;
+        styleIdToName = java.util.Map.of();
+
+        return successCount;
     }
 
     /** 子章节信息 */
@@ -577,44 +637,32 @@ public class WordProcessor {
         @Override public String toString() { return moduleNumber; }
     }
 
+    /**
+     * 表格填充计划：普通行数据单元格的坐标（rows/cells）及对应的Excel列、子表格起始行和测试步骤布局。
+     * 同一模板表格复制出的表格填充前结构相同，相同列结构的用例复用计划，填充时不再逐个标签匹配列名。
+     */
+    private record TableFillPlan(int[] rows, int[] cells, String[] columns, int subTableStart, StepLayout steps) {
+    }
+
+    /** 测试步骤子表格布局：数据起始行、已有步骤行，以及序号/操作/预期/实测列位置（-1表示无此列） */
+    private record StepLayout(int dataRow, int[] stepRows, int stepNoCol, int actionCol, int expectedCol, int resultCol) {
+    }
+
     /** 占位符信息 */
     private record PlaceholderInfo(String parentNumber, String text, XWPFParagraph paragraph) {
         @Override public String toString() { return text; }
     }
     
     /** 扫描Word文档中已存在的子章节（从目录读取，再在正文中查找） */
-    private List<SubSectionInfo> scanExistingSubSections(XWPFDocument document) {
+    private List<SubSectionInfo> scanExistingSubSections() {
         List<SubSectionInfo> result = new java.util.ArrayList<>();
-        List<XWPFParagraph> paragraphs = document.getParagraphs();
-        java.util.Map<String, String> tocSubs = new java.util.LinkedHashMap<>();
-        
-        // 从目录中读取子章节（层级>2）
-        for (XWPFParagraph para : paragraphs) {
-            try {
-                String text = para.getText();
-                if (text == null || text.trim().isEmpty() || !isTocStyle(para.getStyle())) continue;
-                Matcher m = SECTION_PATTERN.matcher(text.trim());
-                if (m.matches() && getSectionLevel(m.group(1)) > 2) {
-                    String name = m.group(2).split("\t")[0].trim();
-                    tocSubs.put(m.group(1), name);
-                }
-            } catch (Exception ignored) {}
-        }
-        
-        // 在正文中查找对应段落
-        for (var entry : tocSubs.entrySet()) {
-            for (XWPFParagraph para : paragraphs) {
-                try {
-                    String text = para.getText();
-                    String style = para.getStyle();
-                    if (text == null || isTocStyle(style)) continue;
-                    String t = text.trim();
-                    if ((t.startsWith(entry.getKey() + " ") || t.equals(entry.getValue())) && isHeadingStyle(style)) {
-                        result.add(new SubSectionInfo(entry.getKey(), para));
-                        System.out.println("找到正文中的子章节: " + entry.getKey() + " -> " + t);
-                        break;
-                    }
-                } catch (Exception ignored) {}
+        // 目录中的子章节（层级>2）
+        for (SectionIndex.TocEntry entry : sectionIndex.tocEntries()) {
+            if (getSectionLevel(entry.number()) <= 2) continue;
+            XWPFParagraph para = sectionIndex.heading(entry.number(), entry.name());
+            if (para != null) {
+                result.add(new SubSectionInfo(entry.number(), para));
+                System.out.println("找到正文中的子章节: " + entry.number() + " -> " + para.getText().trim());
             }
         }
         return result;
@@ -639,6 +687,7 @@ public class WordProcessor {
             run.setText(newText);
             applyRunFormat(run, fmt.contentFormat);
         }
+        sectionIndex.refresh(para);
     }
     
     /** 更新Caption文本 */
@@ -652,13 +701,12 @@ public class WordProcessor {
     
     /** 更新表格标题（查找子章节后的Caption） */
     private void updateTableCaption(XWPFDocument document, XWPFParagraph subPara, String subNum, String testName) {
-        List<XWPFParagraph> paragraphs = document.getParagraphs();
-        int idx = findParagraphIndex(paragraphs, subPara);
-        if (idx == -1) return;
+        if (!bodyIndex.contains(subPara.getCTP())) return;
         boolean updated = false;
         
-        for (int i = idx + 1; i < paragraphs.size() && i < idx + 5; i++) {
-            XWPFParagraph para = paragraphs.get(i);
+        CTP next = subPara.getCTP();
+        for (int i = 0; i < 4 && (next = bodyIndex.nextParagraph(next)) != null; i++) {
+            XWPFParagraph para = bodyIndex.paragraph(next);
             String style = para.getStyle();
             String text = para.getText();
             String trimmedText = text == null ? "" : text.trim();
@@ -683,15 +731,13 @@ public class WordProcessor {
 
         if (!updated) {
             // 兜底：按“子章节后的第一个表格”回溯，定位表格前最近的非空段落作为题注。
-            CTBody body = document.getDocument().getBody();
-            CTTbl tableAfterSub = findTableCttblAfterParagraph(body, subPara.getCTP());
+            CTTbl tableAfterSub = findTableCttblAfterParagraph(subPara.getCTP());
             if (tableAfterSub != null) {
-                org.apache.xmlbeans.XmlCursor cursor = tableAfterSub.newCursor();
+                org.apache.xmlbeans.XmlObject obj = tableAfterSub;
                 int scanned = 0;
-                while (scanned < 8 && cursor.toPrevSibling()) {
-                    org.apache.xmlbeans.XmlObject obj = cursor.getObject();
+                while (scanned < 8 && (obj = bodyIndex.previous(obj)) != null) {
                     if (obj instanceof CTP ctp) {
-                        XWPFParagraph para = new XWPFParagraph(ctp, document);
+                        XWPFParagraph para = bodyIndex.paragraph(ctp);
                         String text = para.getText();
                         String trimmedText = text == null ? "" : text.trim();
                         if (trimmedText.isEmpty()) {
@@ -708,7 +754,6 @@ public class WordProcessor {
                     }
                     scanned++;
                 }
-                cursor.close();
             }
         }
 
@@ -778,16 +823,14 @@ public class WordProcessor {
      * 在子章节段落后查找Caption段落（用于提取格式）
      */
     private XWPFParagraph findCaptionAfterSubSection(XWPFDocument document, XWPFParagraph subSectionPara) {
-        List<XWPFParagraph> paragraphs = document.getParagraphs();
-        
-        int subIndex = findParagraphIndex(paragraphs, subSectionPara);
-        if (subIndex == -1) {
+        if (!bodyIndex.contains(subSectionPara.getCTP())) {
             return null;
         }
         
         // 在子章节后找Caption（通常在2-3个段落内）
-        for (int i = subIndex + 1; i < paragraphs.size() && i < subIndex + 5; i++) {
-            XWPFParagraph para = paragraphs.get(i);
+        CTP next = subSectionPara.getCTP();
+        for (int i = 0; i < 4 && (next = bodyIndex.nextParagraph(next)) != null; i++) {
+            XWPFParagraph para = bodyIndex.paragraph(next);
             String styleName = para.getStyle();
             String text = para.getText();
             
@@ -812,30 +855,10 @@ public class WordProcessor {
         return name.equalsIgnoreCase("Caption") || name.contains("题注") || name.toLowerCase().contains("caption");
     }
 
-    /** 记录当前正在处理的文档并清空样式映射缓存（后续resolveStyleName会惰性解析） */
-    private void populateStyleIdToName(XWPFDocument document) {
-        this.currentDoc = document;
-        this.styleIdToName.clear();
-    }
-
-    /** 根据styleId解析样式名（兼容20=heading 2等非默认模板编号方案） */
+    /** 根据styleId解析样式名（兼容20=heading 2等非默认模板编号方案），模板中没有该样式或样式没有名称时返回styleId */
     private String resolveStyleName(String styleId) {
         if (styleId == null || styleId.isEmpty()) return null;
-        return styleIdToName.computeIfAbsent(styleId, k -> {
-            try {
-                if (currentDoc != null) {
-                    org.apache.poi.xwpf.usermodel.XWPFStyles styles = currentDoc.getStyles();
-                    if (styles != null) {
-                        org.apache.poi.xwpf.usermodel.XWPFStyle s = styles.getStyle(k);
-                        if (s != null) {
-                            String name = s.getName();
-                            if (name != null && !name.isEmpty()) return name;
-                        }
-                    }
-                }
-            } catch (Exception ignored) {}
-            return k;
-        });
+        return styleIdToName.getOrDefault(styleId, styleId);
     }
 
     /**
@@ -843,16 +866,9 @@ public class WordProcessor {
      */
     private XWPFParagraph createTableCaption(XWPFDocument document, XWPFParagraph afterPara,
                                               String subSectionNumber, String testName) {
-        CTBody body = document.getDocument().getBody();
-        
-        int afterIndex = findParagraphIndexInBody(body, afterPara.getCTP());
-        if (afterIndex == -1) {
-            afterIndex = body.sizeOfPArray() - 1;
-        }
-        
-        // 在afterIndex+1位置插入Caption段落
-        CTP ctp = body.insertNewP(afterIndex + 1);
-        XWPFParagraph para = new XWPFParagraph(ctp, document);
+        // 在afterPara后插入Caption段落
+        CTP ctp = insertParagraphAfter(afterPara.getCTP());
+        XWPFParagraph para = bodyIndex.paragraph(ctp);
         
         // 使用模板格式或默认格式
         CaptionFormat captionFmt = templateCaptionFormat != null ? templateCaptionFormat : new CaptionFormat();
@@ -879,13 +895,12 @@ public class WordProcessor {
     }
 
     /** 扫描占位符（如 "5.x"） */
-    private List<PlaceholderInfo> scanPlaceholders(XWPFDocument document) {
+    private List<PlaceholderInfo> scanPlaceholders() {
         List<PlaceholderInfo> result = new java.util.ArrayList<>();
-        for (XWPFParagraph para : document.getParagraphs()) {
-            String text = para.getText();
-            if (text == null || text.trim().isEmpty()) continue;
-            Matcher m = PLACEHOLDER_PATTERN.matcher(text.trim());
-            if (m.matches()) result.add(new PlaceholderInfo(m.group(1), text.trim(), para));
+        for (XWPFParagraph para : sectionIndex.placeholders()) {
+            String text = para.getText().trim();
+            Matcher m = PLACEHOLDER_PATTERN.matcher(text);
+            if (m.matches()) result.add(new PlaceholderInfo(m.group(1), text, para));
         }
         return result;
     }
@@ -893,24 +908,21 @@ public class WordProcessor {
     /** 创建子章节标题段落 */
     private XWPFParagraph createSubSectionParagraph(XWPFDocument doc, XWPFParagraph afterPara, 
                                                      String moduleNum, String testName) {
-        return createSubSectionParagraphBeforeBoundary(doc, afterPara, moduleNum, testName, -1);
+        return createSubSectionParagraphBeforeBoundary(doc, afterPara, moduleNum, testName, null);
     }
     
-    /** 创建子章节标题段落（带边界检查） */
+    /** 创建子章节标题段落（带边界检查：插入点已到达边界段落或在其之后时，插在边界段落之前） */
     private XWPFParagraph createSubSectionParagraphBeforeBoundary(XWPFDocument doc, XWPFParagraph afterPara, 
-                                                     String moduleNum, String testName, int boundary) {
-        CTBody body = doc.getDocument().getBody();
-        int afterIdx = findParagraphIndexInBody(body, afterPara.getCTP());
-        if (afterIdx == -1) afterIdx = body.sizeOfPArray() - 1;
-        
-        int insertIdx = afterIdx + 1;
-        if (boundary > 0 && insertIdx >= boundary) {
-            insertIdx = boundary;
-            System.out.println("调整插入位置到边界: " + insertIdx);
+                                                     String moduleNum, String testName, CTP boundary) {
+        CTP afterCtp = afterPara.getCTP();
+        CTP ctp;
+        if (boundary != null && (!bodyIndex.contains(afterCtp) || bodyIndex.compare(afterCtp, boundary) >= 0)) {
+            System.out.println("警告: 插入点超过边界，调整到边界前: " + bodyIndex.paragraph(boundary).getText());
+            ctp = bodyIndex.insertParagraphBefore(boundary);
+        } else {
+            ctp = insertParagraphAfter(afterCtp);
         }
-        
-        CTP ctp = body.insertNewP(insertIdx);
-        XWPFParagraph para = new XWPFParagraph(ctp, doc);
+        XWPFParagraph para = bodyIndex.paragraph(ctp);
         SubSectionFormat fmt = templateSubSectionFormat != null ? templateSubSectionFormat : new SubSectionFormat();
         
         try { para.setStyle(fmt.styleId); } catch (Exception ignored) {}
@@ -929,68 +941,11 @@ public class WordProcessor {
         CTSpacing spacing = ppr.isSetSpacing() ? ppr.getSpacing() : ppr.addNewSpacing();
         spacing.setAfter(BigInteger.valueOf(120));
         
-        System.out.println("在位置 " + insertIdx + " 插入子章节: " + moduleNum + " " + testName + "测试");
+        sectionIndex.add(para);
+        System.out.println("插入子章节: " + moduleNum + " " + testName + "测试");
         return para;
     }
 
-    /** 扫描Word文档中的所有章节编号（从目录TOC读取） */
-    private List<String> scanWordSections(XWPFDocument document) {
-        List<String> sections = new java.util.ArrayList<>();
-        for (XWPFParagraph para : document.getParagraphs()) {
-            try {
-                String text = para.getText();
-                if (text == null || text.trim().isEmpty() || !isTocStyle(para.getStyle())) continue;
-                Matcher m = SECTION_PATTERN.matcher(text.trim());
-                if (m.matches() && !sections.contains(m.group(1))) {
-                    sections.add(m.group(1));
-                }
-            } catch (Exception e) { /* ignore */ }
-        }
-        return sections;
-    }
-
-    /** 查找章节标题段落（先从目录获取名称，再在正文中查找） */
-    private XWPFParagraph findSectionParagraph(XWPFDocument document, String moduleNumber) {
-        List<XWPFParagraph> paragraphs = document.getParagraphs();
-        String tocName = null;
-        
-        // 第一遍：从目录中提取章节名称
-        for (XWPFParagraph para : paragraphs) {
-            try {
-                String text = para.getText();
-                if (text == null || !isTocStyle(para.getStyle())) continue;
-                Matcher m = SECTION_PATTERN.matcher(text.trim());
-                if (m.matches() && moduleNumber.equals(m.group(1))) {
-                    tocName = m.group(2).split("\t")[0].trim();
-                    System.out.println("从目录提取章节名称: " + moduleNumber + " -> " + tocName);
-                            break;
-                        }
-            } catch (Exception e) { /* ignore */ }
-        }
-        
-        // 第二遍：在正文中查找
-        for (XWPFParagraph para : paragraphs) {
-            try {
-                String text = para.getText();
-                String style = para.getStyle();
-                if (text == null || isTocStyle(style)) continue;
-                String trimmed = text.trim();
-                Matcher m = SECTION_PATTERN.matcher(trimmed);
-                // 通过编号匹配
-                if (m.matches() && moduleNumber.equals(m.group(1))) {
-                    System.out.println("在正文中找到章节(通过编号): " + trimmed + " [" + style + "]");
-                        return para;
-                    }
-                // 通过名称+样式匹配
-                if (trimmed.equals(tocName) && isHeadingStyle(style)) {
-                    System.out.println("在正文中找到章节(通过名称+样式): " + trimmed + " [" + style + "]");
-                    return para;
-                }
-            } catch (Exception e) { /* ignore */ }
-            }
-        return null;
-    }
-
     /**
      * 在指定章节段落后插入模块内容（子标题和表格）
      *
@@ -998,18 +953,16 @@ public class WordProcessor {
      * @param sectionPara 章节段落
      * @param moduleNumber 模块编号
      * @param moduleData   模块数据
+     * @return 插入内容的最后一个段落（后续内容接在其后）
      */
-    private void insertModuleContent(XWPFDocument document, XWPFParagraph sectionPara,
-                                     String moduleNumber, ModuleData moduleData, XWPFTable templateTable) {
+    private XWPFParagraph insertModuleContent(XWPFDocument document, XWPFParagraph sectionPara,
+                                              String moduleNumber, ModuleData moduleData, XWPFTable templateTable) {
         List<TestCase> testCases = moduleData.getTestCases();
 
         if (testCases.isEmpty()) {
-            return;
+            return sectionPara;
         }
 
-        // 获取body和sectionPara的CTP
-        CTBody body = document.getDocument().getBody();
-        
         // 使用顺序插入，而不是倒序
         XWPFParagraph lastInsertPara = sectionPara;
         
@@ -1025,62 +978,23 @@ public class WordProcessor {
             // 2. 然后在子标题后插入表格（使用模板复制）
             insertTestCaseTableAfterParagraph(document, subSectionPara.getCTP(), testCase, templateTable);
             
-            // 3. 找到表格后的位置作为下次插入点
-            CTTbl tableAfterSub = findTableCttblAfterParagraph(body, subSectionPara.getCTP());
-            if (tableAfterSub != null) {
+            // 3. 找到表格后的位置作为下次插入点（只认紧跟子标题的表格，没有生成表格时不越过后续章节）
+            if (bodyIndex.next(subSectionPara.getCTP()) instanceof CTTbl tableAfterSub) {
                 // 在表格后创建空段落作为下次插入点
-                org.apache.xmlbeans.XmlCursor tableCursor = tableAfterSub.newCursor();
-                tableCursor.toEndToken();
-                tableCursor.toNextToken();
-                
-                tableCursor.beginElement(
-                    new javax.xml.namespace.QName("http://schemas.openxmlformats.org/wordprocessingml/2006/main", "p", "w"));
-                tableCursor.toParent();
-                
-                CTP newEmptyPara = null;
-                if (tableCursor.getObject() instanceof CTP) {
-                    newEmptyPara = (CTP) tableCursor.getObject();
-                }
-                
-                tableCursor.close();
-                
-                if (newEmptyPara != null) {
-                    lastInsertPara = new XWPFParagraph(newEmptyPara, document);
-                } else {
-                    lastInsertPara = subSectionPara;
-                }
+                lastInsertPara = bodyIndex.paragraph(bodyIndex.insertParagraphAfter(tableAfterSub));
             } else {
                 lastInsertPara = subSectionPara;
             }
         }
+        return lastInsertPara;
     }
 
     /**
      * 在段落后强制创建新表格（不查找已存在的表格）
      */
     private void insertNewTableAfterParagraph(XWPFDocument document, CTP paragraph, TestCase testCase) {
-        // 使用XmlCursor在段落后直接插入表格元素
-        org.apache.xmlbeans.XmlCursor paraCursor = paragraph.newCursor();
-        paraCursor.toEndToken();
-        paraCursor.toNextToken();
-        
-        // 在cursor位置插入新的表格元素
-        paraCursor.beginElement(
-            new javax.xml.namespace.QName("http://schemas.openxmlformats.org/wordprocessingml/2006/main", "tbl", "w"));
-        paraCursor.toParent();
-        
-        // 获取刚插入的CTTbl对象
-        CTTbl cttbl = null;
-        if (paraCursor.getObject() instanceof CTTbl) {
-            cttbl = (CTTbl) paraCursor.getObject();
-        }
-        
-        paraCursor.close();
-        
-        if (cttbl == null) {
-            System.err.println("创建表格失败");
-            return;
-        }
+        // 在段落后直接插入表格元素
+        CTTbl cttbl = bodyIndex.insertTableAfter(paragraph);
         
         // 创建XWPFTable对象
         XWPFTable table = new XWPFTable(cttbl, document);
@@ -1097,14 +1011,7 @@ public class WordProcessor {
         // testName和id的值会在fillTableData中填充
         
         // 后续行：2列（标签、数据，数据列需要合并3列）
-        List<String> labels = new java.util.ArrayList<>();
-        labels.add("测试内容");
-        labels.add("测试策略与方法");
-        labels.add("判定准则");
-        labels.add("测试终止条件");
-        labels.add("追踪关系");
-        
-        for (String label : labels) {
+        for (String label : DEFAULT_TABLE_LABELS.subList(2, DEFAULT_TABLE_LABELS.size())) {
             XWPFTableRow row = table.createRow();
             // 创建第1列（标签列）
             XWPFTableCell labelCell = row.createCell();
@@ -1145,10 +1052,8 @@ public class WordProcessor {
      * 在段落后插入测试用例表格（会查找已存在的表格，或复制模板表格）
      */
     private void insertTestCaseTableAfterParagraph(XWPFDocument document, CTP paragraph, TestCase testCase, XWPFTable templateTable) {
-        CTBody body = document.getDocument().getBody();
-        
         // 检查段落后是否已经存在表格
-        CTTbl existingCttbl = findTableCttblAfterParagraph(body, paragraph);
+        CTTbl existingCttbl = findTableCttblAfterParagraph(paragraph);
         
         if (existingCttbl != null) {
             // 如果已存在表格，直接填充数据
@@ -1177,7 +1082,7 @@ public class WordProcessor {
             if (newCttbl != null) {
                 XWPFTable newTable = new XWPFTable(newCttbl, document);
                 System.out.println("模板表格复制成功，行数: " + newTable.getNumberOfRows());
-                // 不再预清空数据列：fillCellByLabel会在Excel空值时跳过覆盖，保留模板默认值
+                // 不再预清空数据列：fillTableData会在Excel空值时跳过覆盖，保留模板默认值
                 fillTableData(newTable, testCase);
                 System.out.println("表格数据填充完成");
             } else {
@@ -1197,15 +1102,7 @@ public class WordProcessor {
     /** 复制表格到指定段落后 */
     private CTTbl copyTable(XWPFDocument document, CTP afterParagraph, CTTbl source) {
         try {
-            org.apache.xmlbeans.XmlCursor cursor = afterParagraph.newCursor();
-            cursor.toEndToken();
-            cursor.toNextToken();
-            cursor.beginElement(new javax.xml.namespace.QName("http://schemas.openxmlformats.org/wordprocessingml/2006/main", "tbl", "w"));
-            cursor.toParent();
-            
-            CTTbl target = (cursor.getObject() instanceof CTTbl) ? (CTTbl) cursor.getObject() : null;
-            cursor.close();
-            if (target == null) return null;
+            CTTbl target = bodyIndex.insertTableAfter(afterParagraph);
             
             // 复制表格行和单元格
             for (int i = 0; i < source.sizeOfTrArray(); i++) {
@@ -1227,13 +1124,14 @@ public class WordProcessor {
                     CTTc newCell = newRow.addNewTc();
                     if (srcCell.getTcPr() != null) newCell.setTcPr((CTTcPr) srcCell.getTcPr().copy());
                     
-                    // 完整复制所有单元格内容：fillCellByLabel会在Excel空值时跳过覆盖，保留模板默认值
+                    // 完整复制所有单元格内容：fillTableData会在Excel空值时跳过覆盖，保留模板默认值
                     copyCellContent(srcCell, newCell);
                 }
             }
             
             if (source.getTblPr() != null) target.setTblPr((CTTblPr) source.getTblPr().copy());
             if (source.getTblGrid() != null) target.setTblGrid((CTTblGrid) source.getTblGrid().copy());
+            clonePlans.put(target, fillPlans.computeIfAbsent(source, k -> new java.util.HashMap<>()));
             return target;
         } catch (Exception e) {
             System.err.println("复制表格失败: " + e.getMessage());
@@ -1276,152 +1174,83 @@ public class WordProcessor {
         }
     }
     
-    /** 查找段落后紧邻的表格（跳过最多1个空行段落） */
-    private CTTbl findTableCttblAfterParagraph(CTBody body, CTP paragraph) {
-        int pIndex = findParagraphIndexInBody(body, paragraph);
-        if (pIndex == -1) return null;
-        
-        // 使用XML cursor查找紧邻的表格
-        org.apache.xmlbeans.XmlCursor cursor = paragraph.newCursor();
-        cursor.toEndToken();
-        int emptyParaCount = 0;
-        
-        while (cursor.toNextSibling()) {
-            org.apache.xmlbeans.XmlObject obj = cursor.getObject();
-            if (obj instanceof CTTbl) { cursor.close(); return (CTTbl) obj; }
-            if (obj instanceof CTP nextPara) {
-                String text = "";
-                try { text = new XWPFParagraph(nextPara, null).getText(); } catch (Exception ignored) {}
-                if (text != null && !text.trim().isEmpty()) break;
-                if (++emptyParaCount > 1) break;
-            } else break;
-        }
-        cursor.close();
-        
-        // 备用方法：在表格数组中查找紧邻的表格
-        org.apache.xmlbeans.XmlCursor paraEndCursor = paragraph.newCursor();
-        paraEndCursor.toEndToken();
-        CTTbl closestTable = null;
-        
-        for (int i = 0; i < body.sizeOfTblArray(); i++) {
-            CTTbl tbl = body.getTblArray(i);
-            org.apache.xmlbeans.XmlCursor tblCursor = tbl.newCursor();
-            if (tblCursor.comparePosition(paraEndCursor) > 0) {
-                boolean hasNonEmpty = false;
-                for (int j = pIndex + 1; j < body.sizeOfPArray(); j++) {
-                    CTP cp = body.getPArray(j);
-                    org.apache.xmlbeans.XmlCursor cc = cp.newCursor();
-                    if (cc.comparePosition(tblCursor) < 0) {
-                        String t = "";
-                        try { t = new XWPFParagraph(cp, null).getText(); } catch (Exception ignored) {}
-                        if (t != null && !t.trim().isEmpty()) { hasNonEmpty = true; cc.close(); break; }
-                        cc.close();
-                    } else { cc.close(); break; }
-                }
-                if (!hasNonEmpty && (closestTable == null || tblCursor.comparePosition(closestTable.newCursor()) < 0)) {
-                            closestTable = tbl;
-                        }
-                    }
-            tblCursor.close();
-        }
-        paraEndCursor.close();
-            return closestTable;
-        }
+    /** 查找段落之后最近的表格（表格前的子标题、题注、空行等段落都跳过） */
+    private CTTbl findTableCttblAfterParagraph(CTP paragraph) {
+        if (!bodyIndex.contains(paragraph)) return null;
         
-    /** 找到下一个主章节（用于确定当前章节的边界） */
-    private XWPFParagraph findNextMainSection(XWPFDocument document, XWPFParagraph currentPara, String currentNumber) {
-        boolean found = false;
-        int currentLevel = getSectionLevel(currentNumber);
-
-        for (XWPFParagraph para : document.getParagraphs()) {
-            if (para.getCTP() == currentPara.getCTP()) { found = true; continue; }
-            if (!found) continue;
-
-            String text = para.getText();
-            String style = para.getStyle();
-
-            if (text == null || text.trim().isEmpty() || isTocStyle(style)) {
-                continue;
-            }
-
-            String trimmed = text.trim();
-            Matcher matcher = SECTION_PATTERN.matcher(trimmed);
-
-            // Prefer number-based boundary detection: same level and greater section number.
-            if (matcher.matches()) {
-                String candidateNumber = matcher.group(1);
-                if (getSectionLevel(candidateNumber) == currentLevel
-                    && compareSectionNumbers(candidateNumber, currentNumber) > 0) {
-                    System.out.println("找到下一个主章节(编号匹配): " + trimmed);
-                    return para;
-                }
-            }
-
-            // Fallback to style-based detection for templates where heading text has no leading number.
-            if (isMainSectionStyle(style)) {
-                System.out.println("找到下一个主章节(样式匹配): " + trimmed);
-                return para;
-            }
+        for (org.apache.xmlbeans.XmlObject obj = bodyIndex.next(paragraph); obj != null; obj = bodyIndex.next(obj)) {
+            if (obj instanceof CTTbl tbl) return tbl;
         }
         return null;
     }
-    
-    /** 找到章节的最后一个子章节（用于确定插入点） */
-    private XWPFParagraph findLastElementInSection(XWPFDocument document, XWPFParagraph sectionPara, String sectionNumber) {
-        List<XWPFParagraph> subs = findExistingSubSectionsInSection(document, sectionPara, sectionNumber);
-        return subs.isEmpty() ? sectionPara : subs.get(subs.size() - 1);
-    }
-    
-    /** 找到章节下所有已存在的子章节段落 */
-    private List<XWPFParagraph> findExistingSubSectionsInSection(XWPFDocument document, 
-                                                                   XWPFParagraph sectionPara, String sectionNumber) {
-        List<XWPFParagraph> subSections = new java.util.ArrayList<>();
-        List<XWPFParagraph> paragraphs = document.getParagraphs();
-        int sectionIndex = findParagraphIndex(paragraphs, sectionPara);
-        if (sectionIndex == -1) return subSections;
-        
-        for (int i = sectionIndex + 1; i < paragraphs.size(); i++) {
-            XWPFParagraph para = paragraphs.get(i);
-            String text = para.getText();
-            String style = para.getStyle();
-            if (text == null || text.trim().isEmpty() || isTocStyle(style)) continue;
-            if (isMainSectionStyle(style)) break;
-            if (isSubSectionStyle(style)) subSections.add(para);
-        }
-        return subSections;
-    }
-    
-    /** 找到表格后的插入点 */
+        
+    /**
+     * 找到表格后的插入点：紧邻表格的段落跳过（保留表格后的空行或后续标题），
+     * 其后的第一个段落为空时直接使用，否则在其前面插入空段落
+     */
     private XWPFParagraph findInsertPointAfterTable(XWPFDocument document, XWPFParagraph beforeTablePara) {
-        CTBody body = document.getDocument().getBody();
-        CTTbl table = findTableCttblAfterParagraph(body, beforeTablePara.getCTP());
+        CTTbl table = findTableCttblAfterParagraph(beforeTablePara.getCTP());
         if (table == null) return beforeTablePara;
         
-        org.apache.xmlbeans.XmlCursor tblCursor = table.newCursor();
-        tblCursor.toEndToken();
-        tblCursor.toNextToken();
-        
-        for (int i = 0; i < body.sizeOfPArray(); i++) {
-            org.apache.xmlbeans.XmlCursor pCursor = body.getPArray(i).newCursor();
-            boolean isAfter = pCursor.comparePosition(tblCursor) > 0;
-            pCursor.close();
-            if (isAfter) {
-                tblCursor.close();
-                XWPFParagraph p = new XWPFParagraph(body.getPArray(i), document);
-                String text = p.getText();
-                return (text == null || text.trim().isEmpty()) ? p : new XWPFParagraph(body.insertNewP(i), document);
-            }
+        org.apache.xmlbeans.XmlObject following = bodyIndex.next(table);
+        CTP next = bodyIndex.nextParagraph(following instanceof CTP ? following : table);
+        if (next == null) {
+            return bodyIndex.paragraph(bodyIndex.appendParagraph());
         }
-        tblCursor.close();
-        return new XWPFParagraph(body.addNewP(), document);
+        XWPFParagraph p = bodyIndex.paragraph(next);
+        String text = p.getText();
+        return (text == null || text.trim().isEmpty()) ? p : bodyIndex.paragraph(bodyIndex.insertParagraphBefore(next));
     }
     
-    /** 填充表格数据（通用方法，自动匹配任意表格结构） */
+    /**
+     * 填充表格数据（通用方法，自动匹配任意表格结构）
+     * 复制出的表格按模板表格和测试用例的列结构复用填充计划，其他表格每次编译
+     */
     private void fillTableData(XWPFTable table, TestCase testCase) {
+        if (filledTables != null) {
+            filledTables.add(table.getCTTbl());
+        }
         int rowCount = table.getNumberOfRows();
         if (rowCount == 0) { System.err.println("警告：表格为空"); return; }
         
-        java.util.Set<String> cols = testCase.getColumnData().keySet();
+        java.util.List<String> cols = java.util.List.copyOf(testCase.getColumnData().keySet());
+        java.util.Map<java.util.List<String>, TableFillPlan> plans = clonePlans.remove(table.getCTTbl());
+        TableFillPlan plan;
+        if (plans != null) {
+            // 复制出的表格填充前与模板表格结构相同，相同列结构的用例共用一份计划
+            plan = plans.get(cols);
+            if (plan == null) {
+                plan = compileFillPlan(table, cols);
+                plans.put(cols, plan);
+            }
+        } else {
+            // 表格本身被填充后内容变化，之后由它复制出的表格需重新编译
+            fillPlans.remove(table.getCTTbl());
+            plan = compileFillPlan(table, cols);
+        }
+        
+        // 普通行：Excel 缺失数据时跳过覆盖，保留模板单元格中的默认占位值（如 XX、2021.08.15）
+        for (int k = 0; k < plan.rows().length; k++) {
+            String value = testCase.getColumnValue(plan.columns()[k]);
+            if (value == null || value.trim().isEmpty()) {
+                continue;  // Excel 未提供数据，保留模板默认值
+            }
+            setCellValue(table.getRow(plan.rows()[k]).getCell(plan.cells()[k]), value);
+        }
+        
+        // 填充子表格（测试步骤等）
+        if (plan.subTableStart() >= 0 && !testCase.getTestSteps().isEmpty()) {
+            StepLayout layout = plan.steps() != null ? plan.steps() : stepLayout(table, plan.subTableStart());
+            fillSubTable(table, layout, testCase);
+        }
+    }
+    
+    /** 编译表格的填充计划：识别子表格区域，按标签为普通行的数据单元格匹配Excel列 */
+    private TableFillPlan compileFillPlan(XWPFTable table, java.util.List<String> cols) {
+        int rowCount = table.getNumberOfRows();
+        java.util.Set<String> colSet = new java.util.LinkedHashSet<>(cols);
+        java.util.List<int[]> cells = new java.util.ArrayList<>();
+        java.util.List<String> columns = new java.util.ArrayList<>();
         int subTableStart = -1, subTableEnd = -1;
         
         // 遍历所有行，识别子表格区域（如测试步骤）
@@ -1449,18 +1278,40 @@ public class WordProcessor {
                 continue;
             }
             
-            // 如果已经离开子表格区域，重置标记
-            if (subTableStart >= 0 && subTableEnd >= 0 && !firstCellText.matches("\\d+") && !firstCellText.isEmpty()) {
-                // 子表格结束，继续处理普通行
-            }
-            
             // 普通行：根据列数自动匹配
-            fillRowCells(row, cellCount, testCase, cols);
+            if (cellCount >= 4) {
+                // 4列格式：标签1 | 数据1 | 标签2 | 数据2
+                planCellByLabel(row, i, 0, 1, colSet, cells, columns);
+                planCellByLabel(row, i, 2, 3, colSet, cells, columns);
+            } else if (cellCount >= 2) {
+                // 2列格式：标签 | 数据（数据可能跨多列）
+                planCellByLabel(row, i, 0, cellCount - 1, colSet, cells, columns);
+            }
         }
         
-        // 填充子表格（测试步骤等）
-        if (subTableStart >= 0 && !testCase.getTestSteps().isEmpty()) {
-            fillSubTable(table, subTableStart, testCase);
+        int[] rows = new int[cells.size()];
+        int[] dataCells = new int[cells.size()];
+        boolean headerFilled = false;
+        int colHeaderRow = subTableStart >= 0 && isSubTableHeader(getCellText(table.getRow(subTableStart).getCell(0)).trim())
+                ? subTableStart + 1 : subTableStart;
+        for (int k = 0; k < cells.size(); k++) {
+            rows[k] = cells.get(k)[0];
+            dataCells[k] = cells.get(k)[1];
+            headerFilled |= rows[k] == colHeaderRow;
+        }
+        // 列头行本身是普通行时，其内容随用例数据变化，子表格布局留到填充时计算
+        StepLayout steps = subTableStart >= 0 && !headerFilled ? stepLayout(table, subTableStart) : null;
+        return new TableFillPlan(rows, dataCells, columns.toArray(new String[0]), subTableStart, steps);
+    }
+    
+    /** 根据标签单元格匹配Excel列，匹配到时记录数据单元格坐标 */
+    private void planCellByLabel(XWPFTableRow row, int rowIdx, int labelIdx, int dataIdx, java.util.Set<String> cols,
+                                 java.util.List<int[]> cells, java.util.List<String> columns) {
+        String label = getCellText(row.getCell(labelIdx)).trim();
+        String match = findMatchingColumn(label, cols);
+        if (match != null) {
+            cells.add(new int[]{rowIdx, dataIdx});
+            columns.add(match);
         }
     }
     
@@ -1488,23 +1339,45 @@ public class WordProcessor {
         return false;
     }
     
-    /** 填充普通行的单元格 */
-    private void fillRowCells(XWPFTableRow row, int cellCount, TestCase testCase, java.util.Set<String> cols) {
-        if (cellCount >= 4) {
-            // 4列格式：标签1 | 数据1 | 标签2 | 数据2
-            fillCellByLabel(row, 0, 1, testCase, cols);
-            fillCellByLabel(row, 2, 3, testCase, cols);
-        } else if (cellCount >= 2) {
-            // 2列格式：标签 | 数据（数据可能跨多列）
-            fillCellByLabel(row, 0, cellCount - 1, testCase, cols);
+    /**
+     * 模板中测试用例表格用到的标签，作为读取测试用例时的列裁剪
+     * 标签取法与 compileFillPlan 一致：4列及以上的行取第1、3个单元格，2～3列的行取第1个单元格；
+     * 另加没有模板表格时新建表格的标签。模板无法读取时不裁剪，由 processWord 报告错误。
+     *
+     * @param templatePath Word模板路径
+     * @return 列裁剪
+     */
+    public ColumnProjection templateColumnProjection(String templatePath) {
+        try {
+            return loadTemplateModel(templatePath).columnProjection();
+        } catch (Exception e) {
+            return ColumnProjection.ALL;
+        }
+    }
+
+    /** 按模板表格的标签计算列裁剪 */
+    private ColumnProjection columnProjection(XWPFDocument document) {
+        try {
+            java.util.Set<String> labels = new java.util.LinkedHashSet<>(DEFAULT_TABLE_LABELS);
+            for (XWPFTable table : document.getTables()) {
+                for (XWPFTableRow row : table.getRows()) {
+                    List<XWPFTableCell> cells = row.getTableCells();
+                    if (cells.size() >= 4) {
+                        labels.add(getCellText(cells.get(0)).trim());
+                        labels.add(getCellText(cells.get(2)).trim());
+                    } else if (cells.size() >= 2) {
+                        labels.add(getCellText(cells.get(0)).trim());
+                    }
+                }
+            }
+            return ColumnProjection.ofLabels(labels);
+        } catch (Exception e) {
+            return ColumnProjection.ALL;
         }
     }
     
-    /** 填充子表格（测试步骤等） */
-    private void fillSubTable(XWPFTable table, int startRow, TestCase testCase) {
-        List<TestCase.TestStep> steps = testCase.getTestSteps();
-        if (steps.isEmpty()) return;
-        
+    /** 计算测试步骤子表格布局：列头行的列位置、数据起始行和已有的步骤行 */
+    private StepLayout stepLayout(XWPFTable table, int startRow) {
         // 找到列头行和列映射
         int colHeaderRow = startRow;
         String firstText = getCellText(table.getRow(startRow).getCell(0)).trim();
@@ -1538,36 +1411,43 @@ public class WordProcessor {
         
         // 找到测试步骤区域的所有行
         java.util.List<Integer> stepRows = new java.util.ArrayList<>();
-        int nextSectionRow = -1;
         for (int i = dataRow; i < table.getNumberOfRows(); i++) {
             String firstCell = getCellText(table.getRow(i).getCell(0)).trim();
             if (firstCell.matches("\\d+")) {
                 stepRows.add(i);
             } else if (!firstCell.isEmpty()) {
-                nextSectionRow = i;
-                    break;
-                }
+                break;
+            }
         }
+        return new StepLayout(dataRow, stepRows.stream().mapToInt(Integer::intValue).toArray(),
+                stepNoCol, actionCol, expectedCol, resultCol);
+    }
+    
+    /** 填充子表格（测试步骤等） */
+    private void fillSubTable(XWPFTable table, StepLayout layout, TestCase testCase) {
+        List<TestCase.TestStep> steps = testCase.getTestSteps();
+        if (steps.isEmpty()) return;
         
-        int existingRows = stepRows.size();
-        int neededRows = steps.size();
+        int[] stepRows = layout.stepRows();
+        int dataRow = layout.dataRow();
+        int stepNoCol = layout.stepNoCol();
+        int actionCol = layout.actionCol();
+        int expectedCol = layout.expectedCol();
+        int resultCol = layout.resultCol();
         
-        // 保存第一个数据行作为模板（用于添加新行）
-        CTRow templateCtRow = null;
-        if (!stepRows.isEmpty()) {
-            templateCtRow = (CTRow) table.getRow(stepRows.get(0)).getCtRow().copy();
-        }
+        int existingRows = stepRows.length;
+        int neededRows = steps.size();
         
         // 调整行数：删除多余的行或添加不足的行
         if (existingRows > neededRows) {
             // 删除多余的行（从后往前删）
             for (int i = existingRows - 1; i >= neededRows; i--) {
-                table.removeRow(stepRows.get(i));
+                table.removeRow(stepRows[i]);
             }
-        } else if (existingRows < neededRows && !stepRows.isEmpty()) {
+        } else if (existingRows < neededRows && existingRows > 0) {
             // 添加不足的行：在正确位置插入并复制格式
-            int insertAt = stepRows.get(stepRows.size() - 1) + 1;
-            XWPFTableRow templateRow = table.getRow(stepRows.get(0));
+            int insertAt = stepRows[existingRows - 1] + 1;
+            XWPFTableRow templateRow = table.getRow(stepRows[0]);
             
             for (int i = 0; i < neededRows - existingRows; i++) {
                 // 在指定位置插入新行
@@ -1638,21 +1518,6 @@ public class WordProcessor {
         return -1;
     }
     
-    /** 根据标签单元格查找并填充数据单元格。
-     *  注意：Excel 缺失数据时跳过覆盖，保留模板单元格中的默认占位值（如 XX、2021.08.15）。
-     *  TestCase.getColumnValue 对缺失列返回空串 ""，此处据此判断而非覆盖。 */
-    private void fillCellByLabel(XWPFTableRow row, int labelIdx, int dataIdx, TestCase testCase, java.util.Set<String> cols) {
-        String label = getCellText(row.getCell(labelIdx)).trim();
-        String match = findMatchingColumn(label, cols);
-        if (match != null) {
-            String value = testCase.getColumnValue(match);
-            if (value == null || value.trim().isEmpty()) {
-                return;  // Excel 未提供数据，保留模板默认值
-            }
-            setCellValue(row.getCell(dataIdx), value);
-        }
-    }
-    
     /** 清空表格的数据列（保留标签列和列头行，通用方法） */
     private void clearTableDataColumnsExceptFirstRow(XWPFTable table) {
         for (int i = 0; i < table.getNumberOfRows(); i++) {
@@ -1690,66 +1555,7 @@ public class WordProcessor {
     
     /** 在Excel列名集合中查找匹配的列名（通用模糊匹配） */
     private String findMatchingColumn(String label, java.util.Set<String> cols) {
-        if (label == null || label.isEmpty()) return null;
-        
-        // 1. 精确匹配
-        if (cols.contains(label)) return label;
-        
-        // 2. 去除空格后精确匹配
-        String cleanLabel = label.replace(" ", "").replace("　", "").replace("\t", "");
-        for (String col : cols) {
-            String cleanCol = col.replace(" ", "").replace("　", "").replace("\t", "");
-            if (cleanLabel.equals(cleanCol)) return col;
-        }
-        
-        // 3. 包含匹配（双向）
-        for (String col : cols) {
-            if (label.contains(col) || col.contains(label)) return col;
-            if (cleanLabel.contains(col.replace(" ", "")) || col.replace(" ", "").contains(cleanLabel)) return col;
-        }
-        
-        // 4. 常见别名映射
-        java.util.Map<String, String[]> aliases = new java.util.LinkedHashMap<>();
-        aliases.put("测试用例标识", new String[]{"用例标识", "标识", "ID", "编号", "用例编号"});
-        aliases.put("测试项名称", new String[]{"测试项", "名称", "用例名称", "测试名称"});
-        aliases.put("设计人员", new String[]{"设计者", "编写人", "作者", "创建人"});
-        aliases.put("设计日期", new String[]{"创建日期", "编写日期", "日期", "测试日期"});
-        aliases.put("需求追踪", new String[]{"追溯", "追踪", "需求", "关联需求", "追溯合同"});
-        aliases.put("测试用例综述", new String[]{"综述", "描述", "说明", "概述", "用例描述"});
-        aliases.put("前提和约束", new String[]{"前提", "约束", "前置条件", "先决条件"});
-        aliases.put("测试用例终止条件", new String[]{"终止条件", "结束条件", "退出条件"});
-        aliases.put("测试用例通过准则", new String[]{"通过准则", "通过条件", "成功标准"});
-        aliases.put("测试结果示图", new String[]{"结果示图", "截图", "示图"});
-        aliases.put("测试人员", new String[]{"执行人", "执行者", "测试员"});
-        aliases.put("测试时间", new String[]{"执行时间", "执行日期", "时间"});
-        aliases.put("测试结论", new String[]{"结论", "结果", "判定"});
-        
-        for (var entry : aliases.entrySet()) {
-            String colName = entry.getKey();
-            if (cols.contains(colName)) {
-                // 正向：标签包含别名 → 返回规范列名
-                for (String alias : entry.getValue()) {
-                    if (cleanLabel.contains(alias.replace(" ", "")) || 
-                        alias.replace(" ", "").contains(cleanLabel)) {
-                        return colName;
-                    }
-                }
-            } else {
-                // 反向：Excel列名可能是别名，尝试将cols中的每一列与规范名匹配
-                for (String col : cols) {
-                    String cleanCol = col.replace(" ", "").replace("　", "").replace("\t", "");
-                    if (colName.equals(cleanCol)) return col;
-                    for (String alias : entry.getValue()) {
-                        String cleanAlias = alias.replace(" ", "").replace("　", "").replace("\t", "");
-                        if (cleanCol.equals(cleanAlias) || cleanCol.contains(cleanAlias) || cleanAlias.contains(cleanCol)) {
-                            return col;
-                        }
-                    }
-                }
-            }
-        }
-        
-        return null;
+        return ColumnMatcher.findMatchingColumn(label, cols);
     }
     
     /** 获取单元格文本内容 */
@@ -1926,11 +1732,12 @@ public class WordProcessor {
         }
     }
 
-    /** 在保存前统一修正：遍历所有表格单元格，统一字号为5号(10.5pt=21)，非中文设Times New Roman */
+    /** 在保存前统一修正：遍历所有表格单元格（按模块筛选时只处理本次填充的表格），统一字号为5号(10.5pt=21)，非中文设Times New Roman */
     private void fixNonChineseFonts(XWPFDocument document) {
         try {
             CTBody body = document.getDocument().getBody();
             for (CTTbl cttbl : body.getTblArray()) {
+                if (filledTables != null && !filledTables.contains(cttbl)) continue;
                 for (CTRow row : cttbl.getTrArray()) {
                     for (CTTc cell : row.getTcArray()) {
                         for (CTP ctp : cell.getPArray()) {
@@ -2050,17 +1857,16 @@ public class WordProcessor {
      * 4. 删除占位符目录条目（目录中有但正文中没有）
      * 5. 设置文档在打开时自动更新页码
      */
-    private void updateTableOfContents(XWPFDocument document) {
+    private void updateTableOfContents(XWPFDocument document, ModuleFilter moduleFilter) {
         System.out.println("========== 开始更新目录 ==========");
-        CTBody body = document.getDocument().getBody();
+        // 正文段落按当前顺序从索引读取（包含新创建的子章节）
+        List<CTP> bodyParagraphs = bodyIndex.paragraphs();
 
         // 1. 收集正文中所有标题（编号 -> 完整标题文本）
-        // 直接从CTBody读取，避免使用XWPFParagraph缓存
         java.util.LinkedHashMap<String, String> bodyHeadings = new java.util.LinkedHashMap<>();
-        for (int i = 0; i < body.sizeOfPArray(); i++) {
+        for (CTP ctp : bodyParagraphs) {
             try {
-                CTP ctp = body.getPArray(i);
-                XWPFParagraph para = new XWPFParagraph(ctp, document);
+                XWPFParagraph para = bodyIndex.paragraph(ctp);
                 String style = para.getStyle();
                 
                 // 跳过目录段落，只收集正文标题
@@ -2071,22 +1877,22 @@ public class WordProcessor {
                 if (text == null || text.trim().isEmpty()) continue;
                 
                 Matcher m = SECTION_PATTERN.matcher(text.trim());
-                if (m.matches()) {
+                // 按模块筛选时只同步选中章节的目录条目
+                if (m.matches() && moduleFilter.matches(m.group(1))) {
                     bodyHeadings.put(m.group(1), text.trim());
                 }
             } catch (Exception ignored) {}
         }
         System.out.println("正文中找到 " + bodyHeadings.size() + " 个标题: " + bodyHeadings.keySet());
 
-        // 2. 收集目录中已有的条目信息（使用CTP而非XWPFParagraph，避免引用失效）
-        java.util.LinkedHashMap<String, Integer> tocPositions = new java.util.LinkedHashMap<>(); // 编号 -> body位置
+        // 2. 收集目录中已有的条目信息（记录CTP，插入、删除后仍然有效）
+        java.util.LinkedHashMap<String, CTP> tocEntries = new java.util.LinkedHashMap<>(); // 编号 -> 目录段落
         java.util.LinkedHashMap<String, String> tocTexts = new java.util.LinkedHashMap<>(); // 编号 -> 原始文本
-        int tocEndPosition = -1;
+        CTP tocEnd = null;
         
-        for (int i = 0; i < body.sizeOfPArray(); i++) {
+        for (CTP ctp : bodyParagraphs) {
             try {
-                CTP ctp = body.getPArray(i);
-                XWPFParagraph para = new XWPFParagraph(ctp, document);
+                XWPFParagraph para = bodyIndex.paragraph(ctp);
                 String style = para.getStyle();
                 
                 if (!isTocStyle(style)) continue;
@@ -2097,28 +1903,23 @@ public class WordProcessor {
                 Matcher m = SECTION_PATTERN.matcher(text.trim());
                 if (m.matches()) {
                     String number = m.group(1);
-                    tocPositions.put(number, i);
+                    tocEntries.put(number, ctp);
                     tocTexts.put(number, text);
-                    if (i > tocEndPosition) {
-                        tocEndPosition = i;
-                    }
+                    tocEnd = ctp;
                 }
             } catch (Exception ignored) {}
         }
-        System.out.println("目录中已有 " + tocPositions.size() + " 个条目");
+        System.out.println("目录中已有 " + tocEntries.size() + " 个条目");
 
-        // 3. 更新已存在的目录条目（直接操作CTP）
+        // 3. 更新已存在的目录条目
         int updatedCount = 0;
-        for (String number : tocPositions.keySet()) {
+        for (String number : tocEntries.keySet()) {
             String newTitle = bodyHeadings.get(number);
             if (newTitle == null) continue;
             
             String oldText = tocTexts.get(number);
             if (oldText != null && !oldText.trim().startsWith(newTitle)) {
-                int pos = tocPositions.get(number);
-                CTP ctp = body.getPArray(pos);
-                XWPFParagraph tocPara = new XWPFParagraph(ctp, document);
-                updateTocEntryText(tocPara, newTitle);
+                updateTocEntryText(bodyIndex.paragraph(tocEntries.get(number)), newTitle);
                 updatedCount++;
             }
         }
@@ -2127,7 +1928,7 @@ public class WordProcessor {
         // 4. 找出需要添加的新条目（正文有，目录没有）
         java.util.List<String> newEntries = new java.util.ArrayList<>();
         for (String number : bodyHeadings.keySet()) {
-            if (!tocPositions.containsKey(number)) {
+            if (!tocEntries.containsKey(number)) {
                 newEntries.add(number);
             }
         }
@@ -2144,13 +1945,13 @@ public class WordProcessor {
                 int level = getSectionLevel(newNumber);
                 String tocStyleId = getTocStyleForLevel(level);
                 
-                // 找到应该插入的位置
-                int insertPos = findTocInsertPosition(body, newNumber, tocPositions, tocEndPosition);
+                // 找到应该插在其后的目录段落
+                CTP insertAfter = findTocInsertPosition(newNumber, tocEntries, tocEnd);
                 
-                if (insertPos > 0) {
-                    // 在指定位置插入新段落
-                    CTP newCtp = body.insertNewP(insertPos);
-                    XWPFParagraph newPara = new XWPFParagraph(newCtp, document);
+                if (insertAfter != null) {
+                    // 在该目录段落后插入新段落
+                    CTP newCtp = insertParagraphAfter(insertAfter);
+                    XWPFParagraph newPara = bodyIndex.paragraph(newCtp);
                     
                     // 设置样式
                     try {
@@ -2163,16 +1964,12 @@ public class WordProcessor {
                     XWPFRun run = newPara.createRun();
                     run.setText(title);
                     
-                    // 更新位置映射（后续条目位置都+1）
-                    for (Map.Entry<String, Integer> posEntry : tocPositions.entrySet()) {
-                        if (posEntry.getValue() >= insertPos) {
-                            tocPositions.put(posEntry.getKey(), posEntry.getValue() + 1);
-                        }
+                    tocEntries.put(newNumber, newCtp);
+                    if (insertAfter == tocEnd) {
+                        tocEnd = newCtp;
                     }
-                    tocPositions.put(newNumber, insertPos);
-                    tocEndPosition++;
                     
-                    System.out.println("添加目录条目: " + title + " [位置:" + insertPos + ", 样式:" + tocStyleId + "]");
+                    System.out.println("添加目录条目: " + title + " [样式:" + tocStyleId + "]");
                 }
             }
         }
@@ -2180,7 +1977,7 @@ public class WordProcessor {
         // 5. 找出并删除占位符条目（目录有，正文没有，且包含"XX"）
         java.util.List<String> toRemove = new java.util.ArrayList<>();
         for (String number : tocTexts.keySet()) {
-            if (!bodyHeadings.containsKey(number)) {
+            if (!bodyHeadings.containsKey(number) && moduleFilter.matches(number)) {
                 String text = tocTexts.get(number);
                 if (text != null && text.contains("XX")) {
                     toRemove.add(number);
@@ -2188,26 +1985,12 @@ public class WordProcessor {
             }
         }
         
-        // 删除占位符条目（从后往前删，避免索引变化问题）
-        toRemove.sort((a, b) -> {
-            Integer posA = tocPositions.get(a);
-            Integer posB = tocPositions.get(b);
-            if (posA == null) posA = 0;
-            if (posB == null) posB = 0;
-            return posB.compareTo(posA); // 降序
-        });
-        
+        // 删除占位符条目
         for (String number : toRemove) {
-            Integer pos = tocPositions.get(number);
-            if (pos != null && pos >= 0 && pos < body.sizeOfPArray()) {
-                body.removeP(pos);
+            CTP ctp = tocEntries.get(number);
+            if (bodyIndex.contains(ctp)) {
+                bodyIndex.remove(ctp);
                 System.out.println("删除目录占位符: " + number);
-                // 更新后续位置
-                for (Map.Entry<String, Integer> entry : tocPositions.entrySet()) {
-                    if (entry.getValue() > pos) {
-                        tocPositions.put(entry.getKey(), entry.getValue() - 1);
-                    }
-                }
             }
         }
 
@@ -2260,15 +2043,15 @@ public class WordProcessor {
     }
 
     /**
-     * 找到新目录条目应该插入的位置
-     * 策略：找到比当前编号小的最大编号，插入其后面；如果没有，找父章节后面
+     * 找到新目录条目应该插在其后的目录段落
+     * 策略：找到比当前编号小的最大编号，插入其后面；如果没有，找父章节后面；目录为空时返回null
      */
-    private int findTocInsertPosition(CTBody body, String newNumber, 
-            java.util.LinkedHashMap<String, Integer> tocPositions, int tocEndPosition) {
+    private CTP findTocInsertPosition(String newNumber,
+            java.util.LinkedHashMap<String, CTP> tocEntries, CTP tocEnd) {
         
         // 方法1：找前一个编号（比newNumber小的最大编号）
         String prevNumber = null;
-        for (String number : tocPositions.keySet()) {
+        for (String number : tocEntries.keySet()) {
             if (compareSectionNumbers(number, newNumber) < 0) {
                 if (prevNumber == null || compareSectionNumbers(number, prevNumber) > 0) {
                     prevNumber = number;
@@ -2277,23 +2060,20 @@ public class WordProcessor {
         }
         
         if (prevNumber != null) {
-            Integer prevPos = tocPositions.get(prevNumber);
-            if (prevPos != null) {
-                return prevPos + 1;
-            }
+            return tocEntries.get(prevNumber);
         }
         
         // 方法2：找父章节
         if (newNumber.contains(".")) {
             String parentNumber = newNumber.substring(0, newNumber.lastIndexOf('.'));
-            Integer parentPos = tocPositions.get(parentNumber);
-            if (parentPos != null) {
-                return parentPos + 1;
+            CTP parent = tocEntries.get(parentNumber);
+            if (parent != null) {
+                return parent;
             }
         }
         
         // 方法3：在目录末尾
-        return tocEndPosition + 1;
+        return tocEnd;
     }
 
     /**
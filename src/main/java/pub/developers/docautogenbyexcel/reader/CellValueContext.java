@@ -0,0 +1,78 @@
+package pub.developers.docautogenbyexcel.reader;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个工作簿的单元格转换上下文
+ * 1. 日期判定按单元格样式索引缓存，同一样式只解析一次数字格式
+ * 2. 重复出现的短文本（如"自动化"、"通过"、"高"）经有界驻留表归一，解析结果共享同一个String实例
+ *
+ * 同一工作簿的各类Sheet可能在不同线程中并行读取，因此内部使用并发Map。
+ */
+public class CellValueContext {
+
+    /** 驻留表最多保存的不同取值个数，超出后新值不再驻留 */
+    static final int DEFAULT_MAX_INTERNED = 8192;
+    /** 只驻留不超过该长度的文本，长文本（如测试步骤描述）很少重复 */
+    static final int MAX_INTERNED_LENGTH = 64;
+
+    private final Map<Short, Boolean> dateStyles = new ConcurrentHashMap<>();
+    private final Map<String, String> interned = new ConcurrentHashMap<>();
+    private final int maxInterned;
+
+    public CellValueContext() {
+        this(DEFAULT_MAX_INTERNED);
+    }
+
+    public CellValueContext(int maxInterned) {
+        this.maxInterned = maxInterned;
+    }
+
+    /**
+     * 与 DateUtil#isCellDateFormatted 判定结果一致，但数字格式是否为日期按样式索引只计算一次
+     *
+     * @param cell  数值单元格
+     * @param value 单元格的数值
+     */
+    public boolean isDateFormatted(Cell cell, double value) {
+        if (!DateUtil.isValidExcelDate(value)) {
+            return false;
+        }
+        CellStyle style = cell.getCellStyle();
+        if (style == null) {
+            return false;
+        }
+        return dateStyles.computeIfAbsent(style.getIndex(),
+                index -> DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString()));
+    }
+
+    /**
+     * 返回与value相等的共享实例；驻留表已满或文本过长时原样返回
+     */
+    public String canonical(String value) {
+        if (value == null || value.length() > MAX_INTERNED_LENGTH) {
+            return value;
+        }
+        String existing = interned.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        if (interned.size() >= maxInterned) {
+            return value;
+        }
+        existing = interned.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * 当前驻留表中的不同取值个数
+     */
+    public int internedCount() {
+        return interned.size();
+    }
+}
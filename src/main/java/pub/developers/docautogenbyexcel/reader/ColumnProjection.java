@@ -0,0 +1,129 @@
+package pub.developers.docautogenbyexcel.reader;
+
+import pub.developers.docautogenbyexcel.util.ColumnMatcher;
+
+import java.util.*;
+
+/**
+ * 测试用例列裁剪
+ * 由Word模板中表格的标签得到，读取测试用例Sheet时只保存与这些标签匹配的列，
+ * 以及标识、追踪关系等生成流程按列名直接读取的列；其余列不放入TestCase。
+ *
+ * 标签按 {@link ColumnMatcher#findMatchingColumn} 与表头匹配，并保留别名表中的规范列名，
+ * 因此对裁剪后的列再做匹配，得到的列与对完整表头匹配时相同。
+ */
+public final class ColumnProjection {
+
+    /** 不裁剪，读取全部列 */
+    public static final ColumnProjection ALL = new ColumnProjection(null);
+
+    /**
+     * 生成流程按列名直接读取的列：用例标识、名称、追踪关系（STD/STR统计、步骤关联、追溯表格填充）
+     */
+    private static final Set<String> KEY_COLUMNS = Set.of(
+            "TCID", "测试用例标识", "标识", "id", "ID",
+            "测试项名称", "测试项", "testName",
+            "追踪关系", "追踪", "trace", "需求标识", "需求ID", "ReqID",
+            "合同指标编号", "合同指标编号（合同）", "合同指标编号(合同)",
+            "合同指标内容", "合同指标内容（合同）", "合同指标内容(合同)");
+
+    /** 模板中的表格标签，按字典序排列；为null表示不裁剪 */
+    private final SortedSet<String> labels;
+
+    private ColumnProjection(SortedSet<String> labels) {
+        this.labels = labels;
+    }
+
+    /**
+     * 按模板表格标签裁剪
+     *
+     * @param labels 表格中的标签文本，空白标签忽略
+     */
+    public static ColumnProjection ofLabels(Collection<String> labels) {
+        SortedSet<String> sorted = new TreeSet<>();
+        for (String label : labels) {
+            if (label != null && !label.trim().isEmpty()) {
+                sorted.add(label.trim());
+            }
+        }
+        return new ColumnProjection(Collections.unmodifiableSortedSet(sorted));
+    }
+
+    public boolean isAll() {
+        return labels == null;
+    }
+
+    /**
+     * 两个裁剪的并集：同一份数据被多个使用方共享时，按并集读取可满足所有使用方
+     */
+    public ColumnProjection union(ColumnProjection other) {
+        if (isAll() || other.isAll()) {
+            return ALL;
+        }
+        if (labels.containsAll(other.labels)) {
+            return this;
+        }
+        Set<String> merged = new TreeSet<>(labels);
+        merged.addAll(other.labels);
+        return ofLabels(merged);
+    }
+
+    /**
+     * 是否包含另一个裁剪需要的全部列
+     */
+    public boolean covers(ColumnProjection other) {
+        return isAll() || (!other.isAll() && labels.containsAll(other.labels));
+    }
+
+    /**
+     * 从测试用例的数据列中选出需要读取的列
+     *
+     * @param columnNames 数据列名（按Sheet中的顺序，不含模块编号列）
+     * @return 需要读取的列，保持原顺序
+     */
+    public List<String> select(List<String> columnNames) {
+        if (isAll()) {
+            return columnNames;
+        }
+        Set<String> cols = new LinkedHashSet<>(columnNames);
+        Set<String> keep = new HashSet<>();
+        for (String label : labels) {
+            String match = ColumnMatcher.findMatchingColumn(label, cols);
+            if (match != null) {
+                keep.add(match);
+            }
+        }
+        List<String> selected = new ArrayList<>();
+        for (String columnName : columnNames) {
+            if (keep.contains(columnName) || KEY_COLUMNS.contains(columnName)
+                    || ColumnMatcher.isCanonicalColumn(columnName)) {
+                selected.add(columnName);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 裁剪的指纹，用于区分按不同裁剪得到的解析结果
+     */
+    public String fingerprint() {
+        return isAll() ? "*" : String.join("\u001F", labels);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ColumnProjection other)) return false;
+        return Objects.equals(labels, other.labels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(labels);
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "ColumnProjection[*]" : "ColumnProjection" + labels;
+    }
+}
@@ -3,8 +3,11 @@ package pub.developers.docautogenbyexcel.reader;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import pub.developers.docautogenbyexcel.config.TableConfig;
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
 import pub.developers.docautogenbyexcel.model.ModuleData;
 import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetInfo;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -17,6 +20,13 @@ import java.util.*;
  * 自动搜索包含"模块编号"列的Sheet作为测试用例数据源
  */
 public class ExcelReader {
+
+    /** 测试步骤Sheet各列的候选列名 */
+    public static final String[] STEP_CASE_ID_COLUMNS = {"测试用例标识", "用例标识", "标识", "ID"};
+    public static final String[] STEP_NO_COLUMNS = {"步骤序号", "序号", "StepNo"};
+    public static final String[] STEP_ACTION_COLUMNS = {"测试步骤", "步骤", "操作", "输入及操作", "Action"};
+    public static final String[] STEP_EXPECTED_COLUMNS = {"预期结果", "期望结果", "期望结果与评估标准", "Expected"};
+    public static final String[] STEP_RESULT_COLUMNS = {"实测结果", "测试结果", "Result"};
     
     private final TableConfig config = TableConfig.getInstance();
 
@@ -28,146 +38,279 @@ public class ExcelReader {
      * @throws Exception 读取异常
      */
     public Map<String, ModuleData> readExcel(String excelPath) throws Exception {
+        return readExcel(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 读取Excel文件，测试用例只保存裁剪后的列
+     *
+     * @param excelPath  Excel文件路径
+     * @param projection 测试用例列裁剪
+     * @return Map<模块编号, ModuleData>
+     * @throws Exception 读取异常
+     */
+    public Map<String, ModuleData> readExcel(String excelPath, ColumnProjection projection) throws Exception {
+        return readExcel(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 读取Excel文件，只读取选中模块的测试用例，且只保存裁剪后的列
+     *
+     * @param excelPath    Excel文件路径
+     * @param projection   测试用例列裁剪
+     * @param moduleFilter 模块筛选，不匹配的行不构建TestCase
+     * @return Map<模块编号, ModuleData>
+     * @throws Exception 读取异常
+     */
+    public Map<String, ModuleData> readExcel(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        if (isBinaryWorkbook(excelPath)) {
+            System.out.println("二进制工作簿(.xlsb)，使用流式模式读取: " + excelPath);
+            return new StreamingExcelReader().readExcel(excelPath, projection, moduleFilter);
+        }
+        if (shouldStream(excelPath)) {
+            System.out.println("Excel文件较大，使用流式模式读取: " + excelPath);
+            return new StreamingExcelReader().readExcel(excelPath, projection, moduleFilter);
+        }
+        try (Workbook workbook = openWorkbook(excelPath)) {
+            return readExcel(SheetIndex.build(workbook), projection, moduleFilter);
+        }
+    }
+
+    /**
+     * 判断文件是否达到流式读取阈值
+     */
+    public boolean shouldStream(String excelPath) {
+        File file = new File(excelPath);
+        return file.isFile() && file.length() >= config.getStreamingThresholdBytes();
+    }
+
+    /**
+     * 是否为二进制工作簿（.xlsb）
+     * .xlsb 没有DOM模型，测试用例和步骤总是流式读取
+     */
+    public static boolean isBinaryWorkbook(String excelPath) {
+        return excelPath != null && excelPath.toLowerCase().endsWith(".xlsb");
+    }
+
+    /**
+     * 校验并打开Excel工作簿，调用方负责关闭
+     * .xlsb 按单元格显示值流式复制为内存中的工作簿（单元格均为字符串）
+     *
+     * @param excelPath Excel文件路径
+     * @return 已打开的工作簿
+     * @throws Exception 文件不存在、格式不支持或读取失败
+     */
+    public Workbook openWorkbook(String excelPath) throws Exception {
         File file = new File(excelPath);
         if (!file.exists() || !file.canRead()) {
             throw new Exception("Excel文件路径错误或文件损坏: " + excelPath);
         }
 
+        if (isBinaryWorkbook(excelPath)) {
+            return new StreamingExcelReader().copyWorkbook(excelPath);
+        }
+
         // 检查文件格式
         if (!excelPath.toLowerCase().endsWith(".xlsx")) {
-            throw new Exception("仅支持.xlsx格式的Excel文件，不支持.xls格式");
+            throw new Exception("仅支持.xlsx和.xlsb格式的Excel文件，不支持.xls格式");
         }
 
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return new XSSFWorkbook(fis);
+        } catch (IOException e) {
+            throw new Exception("读取Excel文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从已打开的工作簿读取按模块分组的测试用例数据
+     * 供同一工作簿需要被多个读取器共享时使用，调用方负责关闭工作簿
+     *
+     * @param workbook 已打开的工作簿
+     * @return Map<模块编号, ModuleData>
+     */
+    public Map<String, ModuleData> readExcel(Workbook workbook) {
+        return readExcel(SheetIndex.build(workbook));
+    }
+
+    /**
+     * 按Sheet分类索引读取测试用例Sheet及测试步骤Sheet
+     *
+     * @param index 工作簿的Sheet分类索引
+     * @return Map<模块编号, ModuleData>
+     */
+    public Map<String, ModuleData> readExcel(SheetIndex index) {
+        return readExcel(index, ColumnProjection.ALL);
+    }
+
+    /**
+     * 按Sheet分类索引读取测试用例Sheet及测试步骤Sheet，测试用例只保存裁剪后的列
+     */
+    public Map<String, ModuleData> readExcel(SheetIndex index, ColumnProjection projection) {
+        return readExcel(index, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 按Sheet分类索引读取选中模块的测试用例及其测试步骤，测试用例只保存裁剪后的列
+     */
+    public Map<String, ModuleData> readExcel(SheetIndex index, ColumnProjection projection, ModuleFilter moduleFilter) {
+        Map<String, ModuleData> moduleDataMap = readTestCases(index, projection, moduleFilter);
+        attachTestSteps(readTestStepRows(index), moduleDataMap);
+        return moduleDataMap;
+    }
+
+    /**
+     * 只读取测试用例Sheet，不关联测试步骤
+     * 与 {@link #readTestStepRows(SheetIndex)} 互不依赖，可在不同线程中并行执行
+     *
+     * @param index 工作簿的Sheet分类索引
+     * @return Map<模块编号, ModuleData>
+     */
+    public Map<String, ModuleData> readTestCases(SheetIndex index) {
+        return readTestCases(index, ColumnProjection.ALL);
+    }
+
+    /**
+     * 只读取测试用例Sheet，测试用例只保存裁剪后的列
+     *
+     * @param index      工作簿的Sheet分类索引
+     * @param projection 测试用例列裁剪
+     * @return Map<模块编号, ModuleData>
+     */
+    public Map<String, ModuleData> readTestCases(SheetIndex index, ColumnProjection projection) {
+        return readTestCases(index, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 只读取测试用例Sheet中选中模块的行
+     * 每行先只读模块编号列，不匹配的行跳过，不读取其余单元格
+     *
+     * @param index        工作簿的Sheet分类索引
+     * @param projection   测试用例列裁剪
+     * @param moduleFilter 模块筛选
+     * @return Map<模块编号, ModuleData>
+     */
+    public Map<String, ModuleData> readTestCases(SheetIndex index, ColumnProjection projection,
+                                                 ModuleFilter moduleFilter) {
         Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
         String requiredColumn = config.getTestCaseRequiredColumn();
-        
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            
-            // 自动搜索包含必填列的Sheet
-            Sheet sheet = null;
-            String foundSheetName = null;
-            List<String> columnNames = new ArrayList<>();
-            Map<String, Integer> columnIndexMap = new HashMap<>();
-            
-            for (int sheetIdx = 0; sheetIdx < workbook.getNumberOfSheets(); sheetIdx++) {
-                Sheet candidateSheet = workbook.getSheetAt(sheetIdx);
-                if (candidateSheet == null || candidateSheet.getPhysicalNumberOfRows() == 0) {
-                    continue;
-                }
-                
-                Row headerRow = candidateSheet.getRow(0);
-                if (headerRow == null) {
-                    continue;
-                }
-                
-                // 读取列名
-                List<String> candidateColumns = new ArrayList<>();
-                Map<String, Integer> candidateColumnIndex = new HashMap<>();
-                
-                for (int i = 0; i < headerRow.getLastCellNum(); i++) {
-                    Cell cell = headerRow.getCell(i);
-                    String cellValue = getCellValueAsString(cell);
-                    if (cellValue != null && !cellValue.trim().isEmpty()) {
-                        String columnName = cellValue.trim();
-                        candidateColumns.add(columnName);
-                        candidateColumnIndex.put(columnName, i);
-                    }
-                }
-                
-                // 检查是否包含必填列
-                if (candidateColumnIndex.containsKey(requiredColumn)) {
-                    sheet = candidateSheet;
-                    foundSheetName = candidateSheet.getSheetName();
-                    columnNames = candidateColumns;
-                    columnIndexMap = candidateColumnIndex;
-                    System.out.println("找到测试用例Sheet: " + foundSheetName + " (包含'" + requiredColumn + "'列)");
-                    break;
-                }
-            }
-            
-            if (sheet == null) {
-                System.out.println("未找到包含'" + requiredColumn + "'列的Sheet，跳过测试用例处理（将只处理基本信息、列表型表格等）");
-                return moduleDataMap; // 返回空的Map，继续处理其他类型的表格
-            }
-            
-            Row headerRow = sheet.getRow(0);
 
-            // 读取数据行
-            int totalRows = sheet.getPhysicalNumberOfRows();
-            int dataCount = 0;
-            
-            for (int i = 1; i < totalRows; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) {
-                    continue;
-                }
+        SheetInfo caseSheet = index.first(SheetType.TEST_CASE);
+        if (caseSheet == null) {
+            System.out.println("未找到包含'" + requiredColumn + "'列的Sheet，跳过测试用例处理（将只处理基本信息、列表型表格等）");
+            return moduleDataMap; // 返回空的Map，继续处理其他类型的表格
+        }
+        System.out.println("找到测试用例Sheet: " + caseSheet.getSheetName() + " (包含'" + requiredColumn + "'列)");
 
-                // 检查是否为空行
-                if (isRowEmpty(row)) {
-                    continue;
-                }
+        Sheet sheet = caseSheet.getSheet();
+        List<String> columnNames = new ArrayList<>();
+        for (String columnName : caseSheet.getHeader()) {
+            if (!columnName.isEmpty()) {
+                columnNames.add(columnName);
+            }
+        }
+        Map<String, Integer> columnIndexMap = caseSheet.getColumnIndex();
+        ColumnSchema schema = buildSchema(columnNames, requiredColumn, projection);
+        CellValueContext context = index.getCellContext();
 
-                // 读取测试用例数据（包含所有列）
-                TestCase testCase = readTestCase(row, columnIndexMap, columnNames);
-                if (testCase == null) {
-                    continue;
-                }
+        // 读取数据行
+        int totalRows = sheet.getPhysicalNumberOfRows();
+        int dataCount = 0;
+        int skippedCount = 0;
+        Integer moduleColumn = columnIndexMap.get(requiredColumn);
+        
+        for (int i = 1; i < totalRows; i++) {
+            Row row = sheet.getRow(i);
+            if (row == null) {
+                continue;
+            }
 
-                // 按模块分组
-                String moduleNumber = testCase.getModuleNumber();
-                if (moduleNumber == null || moduleNumber.trim().isEmpty()) {
+            // 按模块筛选：不匹配的行不再读取其余单元格
+            if (!moduleFilter.isAll()) {
+                String moduleNumber = getCellValue(row, moduleColumn, context);
+                if (!moduleFilter.matches(moduleNumber)) {
+                    if (moduleNumber != null && !moduleNumber.trim().isEmpty()) {
+                        skippedCount++;
+                    }
                     continue;
                 }
+            }
 
-                moduleDataMap.computeIfAbsent(moduleNumber, ModuleData::new)
-                        .addTestCase(testCase);
-                dataCount++;
+            // 检查是否为空行
+            if (isRowEmpty(row, context)) {
+                continue;
             }
 
-            // 读取测试步骤Sheet并关联到TestCase
-            readTestSteps(workbook, moduleDataMap);
-            
-            System.out.println("读取完成（共" + dataCount + "条数据，" + moduleDataMap.size() + "个模块，共" + columnNames.size() + "列）");
-            return moduleDataMap;
+            // 读取测试用例数据（包含所有列）
+            TestCase testCase = readTestCase(row, columnIndexMap, schema, context);
+            if (testCase == null) {
+                continue;
+            }
 
-        } catch (IOException e) {
-            throw new Exception("读取Excel文件失败: " + e.getMessage(), e);
+            // 按模块分组
+            String moduleNumber = testCase.getModuleNumber();
+            if (moduleNumber == null || moduleNumber.trim().isEmpty()) {
+                continue;
+            }
+
+            moduleDataMap.computeIfAbsent(moduleNumber, ModuleData::new)
+                    .addTestCase(testCase);
+            dataCount++;
         }
+
+        System.out.println("读取完成（共" + dataCount + "条数据，" + moduleDataMap.size() + "个模块，共" + columnNames.size() + "列"
+                + (projection.isAll() ? "" : "，按模板读取" + schema.size() + "列")
+                + (moduleFilter.isAll() ? "" : "，按模块筛选跳过" + skippedCount + "条") + "）");
+        return moduleDataMap;
     }
     
-    /** 读取测试步骤Sheet并关联到TestCase */
-    private void readTestSteps(Workbook workbook, Map<String, ModuleData> moduleDataMap) {
-        // 查找测试步骤Sheet
-        Sheet stepsSheet = null;
-        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-            String name = workbook.getSheetName(i);
-            if (name.contains("测试步骤") || name.toLowerCase().contains("step")) {
-                stepsSheet = workbook.getSheetAt(i);
-                break;
-            }
-        }
-        if (stepsSheet == null || stepsSheet.getPhysicalNumberOfRows() < 2) return;
-        
-        // 读取表头
-        Row header = stepsSheet.getRow(0);
-        Map<String, Integer> colMap = new HashMap<>();
-        for (int i = 0; i < header.getLastCellNum(); i++) {
-            String val = getCellValueAsString(header.getCell(i));
-            if (val != null) colMap.put(val.trim(), i);
-        }
+    /**
+     * 读取测试步骤Sheet的原始行，按Sheet中的顺序返回
+     *
+     * @param index 工作簿的Sheet分类索引
+     * @return 测试步骤行，无步骤Sheet或缺少必要列时返回空列表
+     */
+    public List<TestStepRow> readTestStepRows(SheetIndex index) {
+        List<TestStepRow> rows = new ArrayList<>();
+        SheetInfo stepsInfo = index.first(SheetType.STEPS);
+        if (stepsInfo == null) return rows;
+        Sheet stepsSheet = stepsInfo.getSheet();
+        if (stepsSheet.getPhysicalNumberOfRows() < 2) return rows;
         
         // 必须包含这些列
-        Integer idCol = findColumn(colMap, "测试用例标识", "用例标识", "标识", "ID");
-        Integer stepNoCol = findColumn(colMap, "步骤序号", "序号", "StepNo");
-        Integer actionCol = findColumn(colMap, "测试步骤", "步骤", "操作", "输入及操作", "Action");
-        Integer expectedCol = findColumn(colMap, "预期结果", "期望结果", "期望结果与评估标准", "Expected");
-        Integer resultCol = findColumn(colMap, "实测结果", "测试结果", "Result");
+        Map<String, Integer> colMap = stepsInfo.getColumnIndex();
+        Integer idCol = findColumn(colMap, STEP_CASE_ID_COLUMNS);
+        Integer stepNoCol = findColumn(colMap, STEP_NO_COLUMNS);
+        Integer actionCol = findColumn(colMap, STEP_ACTION_COLUMNS);
+        Integer expectedCol = findColumn(colMap, STEP_EXPECTED_COLUMNS);
+        Integer resultCol = findColumn(colMap, STEP_RESULT_COLUMNS);
         
         if (idCol == null || actionCol == null) {
             System.out.println("测试步骤Sheet缺少必要列（测试用例标识、测试步骤），跳过");
-            return;
+            return rows;
         }
+        CellValueContext context = index.getCellContext();
+        
+        for (int i = 1; i < stepsSheet.getPhysicalNumberOfRows(); i++) {
+            Row row = stepsSheet.getRow(i);
+            if (row == null || isRowEmpty(row, context)) continue;
+            
+            String caseId = getCellValueAsString(row.getCell(idCol), context);
+            if (caseId == null || caseId.isEmpty()) continue;
+            
+            rows.add(new TestStepRow(caseId.trim(),
+                    stepNoCol != null ? getCellValueAsString(row.getCell(stepNoCol), context) : null,
+                    getCellValueAsString(row.getCell(actionCol), context),
+                    expectedCol != null ? getCellValueAsString(row.getCell(expectedCol), context) : "",
+                    resultCol != null ? getCellValueAsString(row.getCell(resultCol), context) : ""));
+        }
+        return rows;
+    }
+    
+    /** 把测试步骤行按测试用例标识关联到TestCase */
+    public void attachTestSteps(List<TestStepRow> stepRows, Map<String, ModuleData> moduleDataMap) {
+        if (stepRows.isEmpty()) return;
         
         // 建立测试用例标识 -> TestCase 的映射
         Map<String, TestCase> caseMap = new HashMap<>();
@@ -179,31 +322,20 @@ public class ExcelReader {
             }
         }
         
-        // 读取测试步骤数据
         int stepCount = 0;
-        for (int i = 1; i < stepsSheet.getPhysicalNumberOfRows(); i++) {
-            Row row = stepsSheet.getRow(i);
-            if (row == null || isRowEmpty(row)) continue;
-            
-            String caseId = getCellValueAsString(row.getCell(idCol));
-            if (caseId == null || caseId.isEmpty()) continue;
-            
-            TestCase tc = caseMap.get(caseId.trim());
+        for (TestStepRow step : stepRows) {
+            TestCase tc = caseMap.get(step.caseId);
             if (tc == null) continue;
             
-            int stepNo = 0;
-            if (stepNoCol != null) {
-                String stepNoStr = getCellValueAsString(row.getCell(stepNoCol));
-                try { stepNo = Integer.parseInt(stepNoStr); } catch (Exception e) { stepNo = tc.getTestSteps().size() + 1; }
+            int stepNo;
+            if (step.stepNo != null) {
+                try { stepNo = Integer.parseInt(step.stepNo); } catch (Exception e) { stepNo = tc.getTestSteps().size() + 1; }
             } else {
                 stepNo = tc.getTestSteps().size() + 1;
             }
             
-            String action = getCellValueAsString(row.getCell(actionCol));
-            String expected = expectedCol != null ? getCellValueAsString(row.getCell(expectedCol)) : "";
-            String result = resultCol != null ? getCellValueAsString(row.getCell(resultCol)) : "";
-            
-            tc.addTestStep(stepNo, action != null ? action : "", expected != null ? expected : "", result != null ? result : "");
+            tc.addTestStep(stepNo, step.action != null ? step.action : "", step.expected != null ? step.expected : "",
+                    step.result != null ? step.result : "");
             stepCount++;
         }
         
@@ -212,8 +344,32 @@ public class ExcelReader {
         }
     }
     
+    /**
+     * 测试步骤Sheet中的一行（尚未关联到TestCase）
+     */
+    public static final class TestStepRow {
+        final String caseId;
+        final String stepNo;
+        final String action;
+        final String expected;
+        final String result;
+
+        public TestStepRow(String caseId, String stepNo, String action, String expected, String result) {
+            this.caseId = caseId;
+            this.stepNo = stepNo;
+            this.action = action;
+            this.expected = expected;
+            this.result = result;
+        }
+    }
+    
+    /** 按名称判断是否为测试步骤Sheet */
+    static boolean isStepsSheetName(String sheetName) {
+        return sheetName.contains("测试步骤") || sheetName.toLowerCase().contains("step");
+    }
+    
     /** 在多个可能的列名中查找 */
-    private Integer findColumn(Map<String, Integer> colMap, String... names) {
+    static Integer findColumn(Map<String, Integer> colMap, String... names) {
         for (String name : names) {
             if (colMap.containsKey(name)) return colMap.get(name);
         }
@@ -223,72 +379,82 @@ public class ExcelReader {
     /**
      * 读取一行数据，转换为TestCase对象（包含所有列）
      */
-    private TestCase readTestCase(Row row, Map<String, Integer> columnIndexMap, List<String> columnNames) {
+    private TestCase readTestCase(Row row, Map<String, Integer> columnIndexMap, ColumnSchema schema,
+                                  CellValueContext context) {
         String requiredColumn = config.getTestCaseRequiredColumn();
-        String moduleNumber = getCellValue(row, columnIndexMap.get(requiredColumn));
+        String moduleNumber = getCellValue(row, columnIndexMap.get(requiredColumn), context);
         
         // 验证必填字段
         if (moduleNumber == null || moduleNumber.trim().isEmpty()) {
             return null;
         }
 
-        TestCase testCase = new TestCase(moduleNumber.trim());
+        TestCase testCase = new TestCase(moduleNumber.trim(), schema);
         
         // 读取所有列的数据
-        for (String columnName : columnNames) {
-            // 跳过模块编号列（已经设置）
-            if (requiredColumn.equals(columnName)) {
-                continue;
-            }
-            
-            String value = getCellValue(row, columnIndexMap.get(columnName));
+        for (String columnName : schema.getColumnNames()) {
+            String value = getCellValue(row, columnIndexMap.get(columnName), context);
             testCase.addColumnData(columnName, value != null ? value.trim() : "");
         }
 
         return testCase;
     }
 
+    /**
+     * 构建同一Sheet所有用例共用的列结构（模块编号列单独保存，不计入列结构；裁剪掉的列不计入列结构）
+     */
+    static ColumnSchema buildSchema(List<String> columnNames, String requiredColumn, ColumnProjection projection) {
+        List<String> dataColumns = new ArrayList<>();
+        for (String columnName : columnNames) {
+            if (!requiredColumn.equals(columnName)) {
+                dataColumns.add(columnName);
+            }
+        }
+        return new ColumnSchema(projection.select(dataColumns));
+    }
+
     /**
      * 获取单元格值（字符串格式）
      */
-    private String getCellValue(Row row, Integer columnIndex) {
+    private String getCellValue(Row row, Integer columnIndex, CellValueContext context) {
         if (columnIndex == null || row == null) {
             return null;
         }
         Cell cell = row.getCell(columnIndex);
-        return getCellValueAsString(cell);
+        return getCellValueAsString(cell, context);
     }
 
     /**
      * 将单元格值转换为字符串
+     * 日期判定按样式缓存，结果经工作簿的驻留表归一
      */
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(Cell cell, CellValueContext context) {
         if (cell == null) {
             return null;
         }
 
         switch (cell.getCellType()) {
             case STRING:
-                return cell.getStringCellValue();
+                return context.canonical(cell.getStringCellValue());
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
+                double numericValue = cell.getNumericCellValue();
+                if (context.isDateFormatted(cell, numericValue)) {
+                    return context.canonical(cell.getDateCellValue().toString());
                 } else {
                     // 避免科学计数法，保留原始格式
-                    double numericValue = cell.getNumericCellValue();
                     if (numericValue == (long) numericValue) {
-                        return String.valueOf((long) numericValue);
+                        return context.canonical(String.valueOf((long) numericValue));
                     } else {
-                        return String.valueOf(numericValue);
+                        return context.canonical(String.valueOf(numericValue));
                     }
                 }
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
                 try {
-                    return cell.getStringCellValue();
+                    return context.canonical(cell.getStringCellValue());
                 } catch (Exception e) {
-                    return String.valueOf(cell.getNumericCellValue());
+                    return context.canonical(String.valueOf(cell.getNumericCellValue()));
                 }
             case BLANK:
                 return null;
@@ -300,14 +466,14 @@ public class ExcelReader {
     /**
      * 判断行是否为空
      */
-    private boolean isRowEmpty(Row row) {
+    private boolean isRowEmpty(Row row, CellValueContext context) {
         if (row == null) {
             return true;
         }
         for (int i = 0; i < row.getLastCellNum(); i++) {
             Cell cell = row.getCell(i);
             if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String value = getCellValueAsString(cell);
+                String value = getCellValueAsString(cell, context);
                 if (value != null && !value.trim().isEmpty()) {
                     return false;
                 }
@@ -0,0 +1,209 @@
+package pub.developers.docautogenbyexcel.reader;
+
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * 按模块编号筛选测试用例
+ * 用于只重新生成部分章节：读取测试用例Sheet时不匹配的行直接跳过，Word中只处理匹配的章节。
+ *
+ * 每个模式可以是：
+ * <ul>
+ *   <li>章节前缀，如 {@code 5.3}：匹配 5.3 及其下级 5.3.1、5.3.1.2 等，不匹配 5.30</li>
+ *   <li>通配符，{@code *} 匹配任意字符，{@code ?} 匹配一个字符，如 {@code 5.3.*}、{@code 6.?}；
+ *       以 {@code .*} 结尾的模式同时匹配上级章节本身（{@code 5.3.*} 也匹配 5.3）</li>
+ * </ul>
+ * 多个模式之间为"或"的关系。
+ */
+public final class ModuleFilter {
+
+    /** 不筛选，处理全部模块 */
+    public static final ModuleFilter ALL = new ModuleFilter(null);
+
+    /** 模式之间的分隔符：逗号、分号（含中文）及空白 */
+    private static final Pattern SEPARATOR = Pattern.compile("[,，;；\\s]+");
+
+    /** 模式文本，按字典序排列；为null表示不筛选 */
+    private final SortedSet<String> patterns;
+    private final List<Pattern> globs = new ArrayList<>();
+    private final List<String> prefixes = new ArrayList<>();
+    /** 以 .* 结尾的通配符模式对应的上级章节 */
+    private final Set<String> parents = new HashSet<>();
+
+    private ModuleFilter(SortedSet<String> patterns) {
+        this.patterns = patterns;
+        if (patterns == null) {
+            return;
+        }
+        for (String pattern : patterns) {
+            if (pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0) {
+                globs.add(toRegex(pattern));
+                if (pattern.endsWith(".*")) {
+                    parents.add(pattern.substring(0, pattern.length() - 2));
+                }
+            } else {
+                prefixes.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * 解析以逗号、分号或空白分隔的模式列表
+     *
+     * @param spec 如 "5.3.*, 6.1"；为空时不筛选
+     */
+    public static ModuleFilter parse(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return ALL;
+        }
+        return of(Arrays.asList(SEPARATOR.split(spec.trim())));
+    }
+
+    /**
+     * 按模式集合筛选，空白模式忽略；没有有效模式时不筛选
+     */
+    public static ModuleFilter of(Collection<String> patterns) {
+        SortedSet<String> sorted = new TreeSet<>();
+        for (String pattern : patterns) {
+            if (pattern != null && !pattern.trim().isEmpty()) {
+                sorted.add(pattern.trim());
+            }
+        }
+        if (sorted.isEmpty()) {
+            return ALL;
+        }
+        return new ModuleFilter(Collections.unmodifiableSortedSet(sorted));
+    }
+
+    public boolean isAll() {
+        return patterns == null;
+    }
+
+    /**
+     * 模块编号（或Word章节编号）是否被选中
+     */
+    public boolean matches(String moduleNumber) {
+        if (isAll()) {
+            return true;
+        }
+        if (moduleNumber == null) {
+            return false;
+        }
+        String number = moduleNumber.trim();
+        if (parents.contains(number)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (number.equals(prefix) || number.startsWith(prefix + ".")) {
+                return true;
+            }
+        }
+        for (Pattern glob : globs) {
+            if (glob.matcher(number).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 两个筛选的并集：同一份数据被多个使用方共享时，按并集读取可满足所有使用方
+     */
+    public ModuleFilter union(ModuleFilter other) {
+        if (isAll() || other.isAll()) {
+            return ALL;
+        }
+        if (patterns.containsAll(other.patterns)) {
+            return this;
+        }
+        Set<String> merged = new TreeSet<>(patterns);
+        merged.addAll(other.patterns);
+        return of(merged);
+    }
+
+    /**
+     * 是否选中另一个筛选选中的全部模块（按模式文本判断，偏保守）
+     */
+    public boolean covers(ModuleFilter other) {
+        return isAll() || (!other.isAll() && patterns.containsAll(other.patterns));
+    }
+
+    /**
+     * 从已读取的数据中选出匹配的模块，保持原顺序
+     */
+    public Map<String, ModuleData> apply(Map<String, ModuleData> moduleDataMap) {
+        if (isAll()) {
+            return moduleDataMap;
+        }
+        Map<String, ModuleData> selected = new LinkedHashMap<>();
+        for (Map.Entry<String, ModuleData> entry : moduleDataMap.entrySet()) {
+            if (matches(entry.getKey())) {
+                selected.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 从已读取的测试用例中选出匹配模块的用例，保持原顺序
+     */
+    public List<TestCase> apply(List<TestCase> testCases) {
+        if (isAll()) {
+            return testCases;
+        }
+        List<TestCase> selected = new ArrayList<>();
+        for (TestCase testCase : testCases) {
+            if (matches(testCase.getModuleNumber())) {
+                selected.add(testCase);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 筛选的指纹，用于区分按不同筛选得到的解析结果
+     */
+    public String fingerprint() {
+        return isAll() ? "*" : String.join("\u001F", patterns);
+    }
+
+    private static Pattern toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ModuleFilter other)) return false;
+        return Objects.equals(patterns, other.patterns);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(patterns);
+    }
+
+    @Override
+    public String toString() {
+        return isAll() ? "ModuleFilter[*]" : "ModuleFilter" + patterns;
+    }
+}
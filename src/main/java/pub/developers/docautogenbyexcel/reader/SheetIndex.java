@@ -0,0 +1,254 @@
+package pub.developers.docautogenbyexcel.reader;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import pub.developers.docautogenbyexcel.config.TableConfig;
+
+import java.util.*;
+
+/**
+ * Sheet分类索引
+ * 对工作簿做一次遍历，每个Sheet只读取一次表头行并判定类型，
+ * 测试用例、基本信息、列表型、需求、结果、步骤、Meta等读取器都从该索引取Sheet和列位置，
+ * 不再各自遍历全部Sheet重新读表头。
+ *
+ * 判定优先级（一个Sheet只归入一种类型）：
+ * 测试用例 > 基本信息 > 测试步骤 > Meta > 列表型 > 需求 > 测试结果
+ */
+public class SheetIndex {
+
+    /** 需求Sheet的需求标识列候选名 */
+    static final String[] REQUIREMENT_ID_COLUMNS = {"ReqID", "需求ID"};
+    /** 测试结果Sheet的用例标识列候选名 */
+    static final String[] RESULT_CASE_ID_COLUMNS = {"TCID", "测试用例标识", "标识"};
+    /** 测试结果Sheet的结论列候选名 */
+    static final String[] RESULT_VERDICT_COLUMNS = {"Result", "测试结论", "结论"};
+    /** Meta配置Sheet的键列候选名 */
+    static final String[] META_KEY_COLUMNS = {"Key", "键"};
+    private static final String META_SHEET_NAME = "Meta";
+
+    /**
+     * Sheet类型
+     */
+    public enum SheetType {
+        TEST_CASE,
+        STEPS,
+        BASIC_INFO,
+        LIST,
+        REQUIREMENTS,
+        RESULTS,
+        META,
+        OTHER
+    }
+
+    /**
+     * 单个Sheet的分类结果及表头信息
+     */
+    public static class SheetInfo {
+        private final String sheetName;
+        private final Sheet sheet;
+        private final SheetType type;
+        private final List<String> header;
+        private final Map<String, Integer> columnIndex;
+
+        SheetInfo(String sheetName, Sheet sheet, SheetType type, List<String> header) {
+            this.sheetName = sheetName;
+            this.sheet = sheet;
+            this.type = type;
+            this.header = header;
+            this.columnIndex = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                if (!header.get(i).isEmpty()) {
+                    columnIndex.put(header.get(i), i);
+                }
+            }
+        }
+
+        public String getSheetName() {
+            return sheetName;
+        }
+
+        /**
+         * 对应的POI Sheet，流式读取时为null
+         */
+        public Sheet getSheet() {
+            return sheet;
+        }
+
+        public SheetType getType() {
+            return type;
+        }
+
+        /**
+         * 表头各列的值（已去除首尾空白，空单元格为空字符串，与列位置一一对应）
+         */
+        public List<String> getHeader() {
+            return header;
+        }
+
+        /**
+         * 列名 -> 列位置（同名列取最后一次出现的位置）
+         */
+        public Map<String, Integer> getColumnIndex() {
+            return columnIndex;
+        }
+
+        /**
+         * 在多个候选列名中查找第一个存在的列，不存在返回-1
+         */
+        public int findColumn(String... names) {
+            for (String name : names) {
+                Integer idx = columnIndex.get(name);
+                if (idx != null) {
+                    return idx;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final List<SheetInfo> sheets;
+    private final CellValueContext cellContext = new CellValueContext();
+
+    private SheetIndex(List<SheetInfo> sheets) {
+        this.sheets = sheets;
+    }
+
+    /**
+     * 遍历一次工作簿，读取每个Sheet的表头并分类
+     */
+    public static SheetIndex build(Workbook workbook) {
+        TableConfig config = TableConfig.getInstance();
+        List<SheetInfo> infos = new ArrayList<>();
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            Sheet sheet = workbook.getSheetAt(i);
+            Row headerRow = sheet.getPhysicalNumberOfRows() == 0 ? null : sheet.getRow(0);
+            List<String> header = readHeader(headerRow);
+            SheetType type = headerRow == null ? SheetType.OTHER : classify(config, sheet.getSheetName(), header);
+            infos.add(new SheetInfo(sheet.getSheetName(), sheet, type, header));
+        }
+        SheetIndex index = new SheetIndex(infos);
+        if (config.isDebugEnabled()) {
+            for (SheetInfo info : infos) {
+                System.out.println("Sheet分类: " + info.getSheetName() + " -> " + info.getType());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 根据Sheet名称和表头判定类型
+     *
+     * @param sheetName Sheet名称
+     * @param header    表头各列的值（已去除首尾空白）
+     */
+    public static SheetType classify(String sheetName, List<String> header) {
+        return classify(TableConfig.getInstance(), sheetName, header);
+    }
+
+    private static SheetType classify(TableConfig config, String sheetName, List<String> header) {
+        if (header.contains(config.getTestCaseRequiredColumn())) {
+            return SheetType.TEST_CASE;
+        }
+        if (config.isBasicInfoSheet(header)) {
+            return SheetType.BASIC_INFO;
+        }
+        if (ExcelReader.isStepsSheetName(sheetName)) {
+            return SheetType.STEPS;
+        }
+        if (META_SHEET_NAME.equals(sheetName) || containsAny(header, META_KEY_COLUMNS)) {
+            return SheetType.META;
+        }
+        if (config.isListDataSheet(header)) {
+            return SheetType.LIST;
+        }
+        if (containsAny(header, REQUIREMENT_ID_COLUMNS)) {
+            return SheetType.REQUIREMENTS;
+        }
+        if (containsAny(header, RESULT_CASE_ID_COLUMNS) && containsAny(header, RESULT_VERDICT_COLUMNS)) {
+            return SheetType.RESULTS;
+        }
+        return SheetType.OTHER;
+    }
+
+    /**
+     * 指定类型的第一个Sheet，不存在返回null
+     */
+    public SheetInfo first(SheetType type) {
+        for (SheetInfo info : sheets) {
+            if (info.getType() == type) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 指定类型的全部Sheet（按工作簿顺序）
+     */
+    public List<SheetInfo> all(SheetType type) {
+        List<SheetInfo> result = new ArrayList<>();
+        for (SheetInfo info : sheets) {
+            if (info.getType() == type) {
+                result.add(info);
+            }
+        }
+        return result;
+    }
+
+    public List<SheetInfo> getSheets() {
+        return sheets;
+    }
+
+    /**
+     * 该工作簿共用的单元格转换上下文
+     */
+    public CellValueContext getCellContext() {
+        return cellContext;
+    }
+
+    private static boolean containsAny(List<String> header, String[] names) {
+        for (String name : names) {
+            if (header.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<String> readHeader(Row headerRow) {
+        List<String> header = new ArrayList<>();
+        if (headerRow == null) {
+            return header;
+        }
+        for (int c = 0; c < headerRow.getLastCellNum(); c++) {
+            header.add(headerValue(headerRow.getCell(c)));
+        }
+        return header;
+    }
+
+    private static String headerValue(Cell cell) {
+        if (cell == null) {
+            return "";
+        }
+        switch (cell.getCellType()) {
+            case STRING:
+                return cell.getStringCellValue().trim();
+            case NUMERIC:
+                double v = cell.getNumericCellValue();
+                return v == Math.floor(v) ? String.valueOf((long) v) : String.valueOf(v);
+            case BOOLEAN:
+                return String.valueOf(cell.getBooleanCellValue());
+            case FORMULA:
+                try {
+                    return cell.getStringCellValue().trim();
+                } catch (Exception e) {
+                    return "";
+                }
+            default:
+                return "";
+        }
+    }
+}
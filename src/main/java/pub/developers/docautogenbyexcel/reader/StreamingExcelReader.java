@@ -0,0 +1,555 @@
+package pub.developers.docautogenbyexcel.reader;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.binary.XSSFBSharedStringsTable;
+import org.apache.poi.xssf.binary.XSSFBSheetHandler;
+import org.apache.poi.xssf.binary.XSSFBStylesTable;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFBReader;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import pub.developers.docautogenbyexcel.config.TableConfig;
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 流式Excel读取器
+ * 基于XSSFReader + SAX事件逐行解析工作表，不构建整本工作簿的DOM模型，
+ * 适用于十万行级别的测试用例和测试步骤Sheet。
+ * 二进制工作簿（.xlsb）改用XSSFBReader逐条解析记录，行事件与.xlsx相同。
+ * 输出与 ExcelReader#readExcel 相同的 Map<模块编号, ModuleData>（含测试步骤关联）。
+ */
+public class StreamingExcelReader {
+
+    private final TableConfig config = TableConfig.getInstance();
+
+    /**
+     * 流式读取结果
+     * 包含按模块分组的测试用例，以及（可选）其余Sheet的轻量副本，供基本信息、列表型等读取器继续使用
+     */
+    public static class StreamedWorkbook implements AutoCloseable {
+        private final Map<String, ModuleData> moduleDataMap;
+        private final Workbook otherSheets;
+        private final String caseSheetName;
+        private final String stepsSheetName;
+
+        StreamedWorkbook(Map<String, ModuleData> moduleDataMap, Workbook otherSheets,
+                         String caseSheetName, String stepsSheetName) {
+            this.moduleDataMap = moduleDataMap;
+            this.otherSheets = otherSheets;
+            this.caseSheetName = caseSheetName;
+            this.stepsSheetName = stepsSheetName;
+        }
+
+        public Map<String, ModuleData> getModuleDataMap() {
+            return moduleDataMap;
+        }
+
+        /**
+         * 读取测试用例的Sheet名称，未找到时为null
+         */
+        public String getCaseSheetName() {
+            return caseSheetName;
+        }
+
+        /**
+         * 读取测试步骤的Sheet名称，未找到时为null
+         */
+        public String getStepsSheetName() {
+            return stepsSheetName;
+        }
+
+        /**
+         * 除测试用例和测试步骤之外的Sheet（单元格均为字符串），未保留时为null
+         */
+        public Workbook getOtherSheets() {
+            return otherSheets;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (otherSheets != null) {
+                otherSheets.close();
+            }
+        }
+    }
+
+    /**
+     * 流式读取Excel文件并返回按模块分组的数据
+     *
+     * @param excelPath Excel文件路径
+     * @return Map<模块编号, ModuleData>
+     * @throws Exception 读取异常
+     */
+    public Map<String, ModuleData> readExcel(String excelPath) throws Exception {
+        return readExcel(excelPath, ColumnProjection.ALL);
+    }
+
+    /**
+     * 流式读取Excel文件，测试用例只保存裁剪后的列
+     */
+    public Map<String, ModuleData> readExcel(String excelPath, ColumnProjection projection) throws Exception {
+        return readExcel(excelPath, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 流式读取Excel文件中选中模块的测试用例，测试用例只保存裁剪后的列
+     */
+    public Map<String, ModuleData> readExcel(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+            throws Exception {
+        try (StreamedWorkbook streamed = read(excelPath, false, sheetName -> true, projection, moduleFilter)) {
+            return streamed.getModuleDataMap();
+        }
+    }
+
+    /**
+     * 流式读取Excel文件
+     *
+     * @param excelPath       Excel文件路径
+     * @param keepOtherSheets 是否把其余Sheet复制到一个小工作簿中返回
+     * @return 流式读取结果，调用方负责关闭
+     * @throws Exception 读取异常
+     */
+    public StreamedWorkbook read(String excelPath, boolean keepOtherSheets) throws Exception {
+        return read(excelPath, keepOtherSheets, sheetName -> true);
+    }
+
+    /**
+     * 流式读取Excel文件中的部分Sheet，未被选中的Sheet不解析
+     *
+     * @param excelPath       Excel文件路径
+     * @param keepOtherSheets 是否把其余Sheet复制到一个小工作簿中返回
+     * @param sheetFilter     按Sheet名称选择要读取的Sheet
+     * @return 流式读取结果，调用方负责关闭
+     * @throws Exception 读取异常
+     */
+    public StreamedWorkbook read(String excelPath, boolean keepOtherSheets, Predicate<String> sheetFilter)
+            throws Exception {
+        return read(excelPath, keepOtherSheets, sheetFilter, ColumnProjection.ALL);
+    }
+
+    /**
+     * 流式读取Excel文件中的部分Sheet，测试用例只保存裁剪后的列
+     *
+     * @param projection 测试用例列裁剪
+     */
+    public StreamedWorkbook read(String excelPath, boolean keepOtherSheets, Predicate<String> sheetFilter,
+                                 ColumnProjection projection) throws Exception {
+        return read(excelPath, keepOtherSheets, sheetFilter, projection, ModuleFilter.ALL);
+    }
+
+    /**
+     * 流式读取Excel文件中的部分Sheet，测试用例只读取选中模块的行，且只保存裁剪后的列
+     * 测试用例行读到模块编号单元格后即判断是否选中，不匹配时该行其余单元格不再缓存
+     *
+     * @param projection   测试用例列裁剪
+     * @param moduleFilter 模块筛选
+     */
+    public StreamedWorkbook read(String excelPath, boolean keepOtherSheets, Predicate<String> sheetFilter,
+                                 ColumnProjection projection, ModuleFilter moduleFilter) throws Exception {
+        return read(excelPath, keepOtherSheets, sheetFilter, projection, moduleFilter, true);
+    }
+
+    /**
+     * 把工作簿中的全部Sheet按单元格显示值复制到一个内存工作簿（单元格均为字符串）
+     * 用于.xlsb等没有DOM模型的格式，供基本信息、列表型、需求等基于Workbook的读取器使用
+     *
+     * @param excelPath Excel文件路径
+     * @return 复制得到的工作簿，调用方负责关闭
+     * @throws Exception 读取异常
+     */
+    public Workbook copyWorkbook(String excelPath) throws Exception {
+        return read(excelPath, true, sheetName -> true, ColumnProjection.ALL, ModuleFilter.ALL, false)
+                .getOtherSheets();
+    }
+
+    /**
+     * @param collectCases 是否把测试用例和测试步骤Sheet解析为模型；为false时所有Sheet都按普通Sheet复制
+     */
+    private StreamedWorkbook read(String excelPath, boolean keepOtherSheets, Predicate<String> sheetFilter,
+                                  ColumnProjection projection, ModuleFilter moduleFilter, boolean collectCases)
+            throws Exception {
+        File file = new File(excelPath);
+        if (!file.exists() || !file.canRead()) {
+            throw new Exception("Excel文件路径错误或文件损坏: " + excelPath);
+        }
+
+        String requiredColumn = config.getTestCaseRequiredColumn();
+        Workbook otherSheets = keepOtherSheets ? new XSSFWorkbook() : null;
+        TestCaseCollector caseCollector = null;
+        StepCollector stepCollector = null;
+        String caseSheetName = null;
+        String stepsSheetName = null;
+
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader.SheetIterator sheets;
+            SheetParser parser;
+            if (ExcelReader.isBinaryWorkbook(excelPath)) {
+                XSSFBReader reader = new XSSFBReader(pkg);
+                XSSFBSharedStringsTable strings = new XSSFBSharedStringsTable(pkg);
+                XSSFBStylesTable styles = reader.getXSSFBStylesTable();
+                XSSFBReader.SheetIterator binarySheets = (XSSFBReader.SheetIterator) reader.getSheetsData();
+                sheets = binarySheets;
+                parser = (sheetStream, handler) -> new XSSFBSheetHandler(sheetStream, styles,
+                        binarySheets.getXSSFBSheetComments(), strings, handler, new PlainDataFormatter(), false).parse();
+            } else {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+                sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                parser = (sheetStream, handler) -> parseSheet(styles, strings, sheetStream, handler);
+            }
+
+            while (sheets.hasNext()) {
+                try (InputStream sheetStream = sheets.next()) {
+                    String sheetName = sheets.getSheetName();
+                    if (!sheetFilter.test(sheetName)) {
+                        continue;
+                    }
+                    SheetDispatcher dispatcher = new SheetDispatcher(sheetName, requiredColumn, projection,
+                            moduleFilter, collectCases && caseCollector == null,
+                            collectCases && stepCollector == null, otherSheets);
+                    parser.parse(sheetStream, dispatcher);
+                    if (dispatcher.caseCollector != null) {
+                        caseCollector = dispatcher.caseCollector;
+                        caseSheetName = sheetName;
+                    }
+                    if (dispatcher.stepCollector != null) {
+                        stepCollector = dispatcher.stepCollector;
+                        stepsSheetName = sheetName;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (otherSheets != null) {
+                otherSheets.close();
+            }
+            throw new Exception("流式读取Excel文件失败: " + e.getMessage(), e);
+        }
+
+        Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        if (!collectCases) {
+            return new StreamedWorkbook(moduleDataMap, otherSheets, null, null);
+        }
+        if (caseCollector == null) {
+            System.out.println("未找到包含'" + requiredColumn + "'列的Sheet，跳过测试用例处理（将只处理基本信息、列表型表格等）");
+        } else {
+            moduleDataMap = caseCollector.moduleDataMap;
+            if (stepCollector != null) {
+                stepCollector.attachTo(moduleDataMap);
+            }
+            System.out.println("流式读取完成（共" + caseCollector.dataCount + "条数据，" + moduleDataMap.size()
+                    + "个模块，共" + caseCollector.columnNames.size() + "列"
+                    + (projection.isAll() ? "" : "，按模板读取" + caseCollector.schema.size() + "列")
+                    + (moduleFilter.isAll() ? "" : "，按模块筛选跳过" + caseCollector.skippedCount + "条") + "）");
+        }
+        return new StreamedWorkbook(moduleDataMap, otherSheets, caseSheetName, stepsSheetName);
+    }
+
+    /**
+     * 解析单个Sheet的数据流，把行和单元格事件交给handler
+     */
+    @FunctionalInterface
+    private interface SheetParser {
+        void parse(InputStream sheetStream, SheetContentsHandler handler) throws Exception;
+    }
+
+    private void parseSheet(StylesTable styles, ReadOnlySharedStringsTable strings,
+                            InputStream sheetStream, SheetContentsHandler handler) throws Exception {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new PlainDataFormatter(), false));
+        parser.parse(new InputSource(sheetStream));
+    }
+
+    /**
+     * 单个Sheet的行事件分发：读到表头后决定该Sheet的用途
+     */
+    private final class SheetDispatcher implements SheetContentsHandler {
+        private final String sheetName;
+        private final String requiredColumn;
+        private final ColumnProjection projection;
+        private final ModuleFilter moduleFilter;
+        private final boolean acceptCases;
+        private final boolean acceptSteps;
+        private final Workbook otherSheets;
+        private final List<String> current = new ArrayList<>();
+        private int currentCol;
+        /** 当前测试用例行的模块不在筛选范围内，其余单元格不再缓存 */
+        private boolean skipRow;
+
+        private TestCaseCollector caseCollector;
+        private StepCollector stepCollector;
+        private Sheet copySheet;
+        private boolean decided;
+
+        SheetDispatcher(String sheetName, String requiredColumn, ColumnProjection projection,
+                        ModuleFilter moduleFilter, boolean acceptCases, boolean acceptSteps, Workbook otherSheets) {
+            this.sheetName = sheetName;
+            this.requiredColumn = requiredColumn;
+            this.projection = projection;
+            this.moduleFilter = moduleFilter;
+            this.acceptCases = acceptCases;
+            this.acceptSteps = acceptSteps;
+            this.otherSheets = otherSheets;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current.clear();
+            currentCol = -1;
+            skipRow = false;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (skipRow) {
+                return;
+            }
+            int col = cellReference != null ? new CellReference(cellReference).getCol() : currentCol + 1;
+            if (caseCollector != null && col == caseCollector.moduleColumn && !moduleFilter.isAll()
+                    && !moduleFilter.matches(formattedValue)) {
+                if (formattedValue != null && !formattedValue.trim().isEmpty()) {
+                    caseCollector.skippedCount++;
+                }
+                skipRow = true;
+                return;
+            }
+            while (current.size() < col) {
+                current.add(null);
+            }
+            current.add(formattedValue);
+            currentCol = col;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!decided) {
+                decide(rowNum);
+            }
+            if (caseCollector != null) {
+                if (rowNum > 0 && !skipRow) {
+                    caseCollector.accept(current);
+                }
+            } else if (stepCollector != null) {
+                if (rowNum > 0) {
+                    stepCollector.accept(current);
+                }
+            } else if (copySheet != null) {
+                Row row = copySheet.createRow(rowNum);
+                for (int c = 0; c < current.size(); c++) {
+                    String value = current.get(c);
+                    if (value != null) {
+                        row.createCell(c).setCellValue(value);
+                    }
+                }
+            }
+        }
+
+        private void decide(int firstRowNum) {
+            decided = true;
+            List<String> header = firstRowNum == 0 ? new ArrayList<>(current) : List.of();
+            SheetType type = SheetIndex.classify(sheetName, trimmed(header));
+            if (acceptCases && type == SheetType.TEST_CASE) {
+                System.out.println("找到测试用例Sheet: " + sheetName + " (包含'" + requiredColumn + "'列)");
+                caseCollector = new TestCaseCollector(requiredColumn, header, projection);
+            } else if (acceptSteps && type == SheetType.STEPS) {
+                stepCollector = new StepCollector(header);
+            } else if (otherSheets != null) {
+                copySheet = otherSheets.createSheet(sheetName);
+            }
+        }
+    }
+
+    /**
+     * 测试用例Sheet：逐行构建TestCase并按模块分组
+     */
+    private static final class TestCaseCollector {
+        private final String requiredColumn;
+        private final List<String> columnNames = new ArrayList<>();
+        private final Map<String, Integer> columnIndexMap = new HashMap<>();
+        private final Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        private final ColumnSchema schema;
+        private final CellValueContext context = new CellValueContext();
+        /** 模块编号列的下标，没有该列时为-1 */
+        private final int moduleColumn;
+        private int dataCount;
+        private int skippedCount;
+
+        TestCaseCollector(String requiredColumn, List<String> header, ColumnProjection projection) {
+            this.requiredColumn = requiredColumn;
+            for (int i = 0; i < header.size(); i++) {
+                String value = header.get(i);
+                if (value != null && !value.trim().isEmpty()) {
+                    String columnName = value.trim();
+                    columnNames.add(columnName);
+                    columnIndexMap.put(columnName, i);
+                }
+            }
+            this.schema = ExcelReader.buildSchema(columnNames, requiredColumn, projection);
+            this.moduleColumn = columnIndexMap.getOrDefault(requiredColumn, -1);
+        }
+
+        void accept(List<String> row) {
+            if (isRowEmpty(row)) {
+                return;
+            }
+            String moduleNumber = valueAt(row, columnIndexMap.get(requiredColumn));
+            if (moduleNumber == null || moduleNumber.trim().isEmpty()) {
+                return;
+            }
+
+            TestCase testCase = new TestCase(moduleNumber.trim(), schema);
+            for (String columnName : schema.getColumnNames()) {
+                String value = valueAt(row, columnIndexMap.get(columnName));
+                testCase.addColumnData(columnName, value != null ? context.canonical(value.trim()) : "");
+            }
+
+            moduleDataMap.computeIfAbsent(testCase.getModuleNumber(), ModuleData::new).addTestCase(testCase);
+            dataCount++;
+        }
+    }
+
+    /**
+     * 测试步骤Sheet：先缓存步骤行，所有Sheet读完后再按测试用例标识关联
+     */
+    private static final class StepCollector {
+        private final Integer idCol;
+        private final Integer stepNoCol;
+        private final Integer actionCol;
+        private final Integer expectedCol;
+        private final Integer resultCol;
+        private final List<String[]> steps = new ArrayList<>();
+
+        StepCollector(List<String> header) {
+            Map<String, Integer> colMap = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String value = header.get(i);
+                if (value != null) {
+                    colMap.put(value.trim(), i);
+                }
+            }
+            idCol = ExcelReader.findColumn(colMap, ExcelReader.STEP_CASE_ID_COLUMNS);
+            stepNoCol = ExcelReader.findColumn(colMap, ExcelReader.STEP_NO_COLUMNS);
+            actionCol = ExcelReader.findColumn(colMap, ExcelReader.STEP_ACTION_COLUMNS);
+            expectedCol = ExcelReader.findColumn(colMap, ExcelReader.STEP_EXPECTED_COLUMNS);
+            resultCol = ExcelReader.findColumn(colMap, ExcelReader.STEP_RESULT_COLUMNS);
+        }
+
+        void accept(List<String> row) {
+            if (idCol == null || actionCol == null || isRowEmpty(row)) {
+                return;
+            }
+            String caseId = valueAt(row, idCol);
+            if (caseId == null || caseId.isEmpty()) {
+                return;
+            }
+            steps.add(new String[]{
+                    caseId.trim(),
+                    valueAt(row, stepNoCol),
+                    valueAt(row, actionCol),
+                    valueAt(row, expectedCol),
+                    valueAt(row, resultCol)});
+        }
+
+        void attachTo(Map<String, ModuleData> moduleDataMap) {
+            if (idCol == null || actionCol == null) {
+                System.out.println("测试步骤Sheet缺少必要列（测试用例标识、测试步骤），跳过");
+                return;
+            }
+
+            Map<String, TestCase> caseMap = new HashMap<>();
+            for (ModuleData module : moduleDataMap.values()) {
+                for (TestCase tc : module.getTestCases()) {
+                    String caseId = tc.getColumnValue("测试用例标识");
+                    if (caseId == null || caseId.isEmpty()) caseId = tc.getColumnValue("标识");
+                    if (caseId != null && !caseId.isEmpty()) caseMap.put(caseId, tc);
+                }
+            }
+
+            int stepCount = 0;
+            for (String[] step : steps) {
+                TestCase tc = caseMap.get(step[0]);
+                if (tc == null) continue;
+
+                int stepNo;
+                if (stepNoCol != null) {
+                    try { stepNo = Integer.parseInt(step[1]); } catch (Exception e) { stepNo = tc.getTestSteps().size() + 1; }
+                } else {
+                    stepNo = tc.getTestSteps().size() + 1;
+                }
+
+                tc.addTestStep(stepNo, step[2] != null ? step[2] : "", step[3] != null ? step[3] : "",
+                        step[4] != null ? step[4] : "");
+                stepCount++;
+            }
+
+            if (stepCount > 0) {
+                System.out.println("读取测试步骤: " + stepCount + " 条");
+            }
+        }
+    }
+
+    private static String valueAt(List<String> row, Integer index) {
+        if (index == null || index >= row.size()) {
+            return null;
+        }
+        return row.get(index);
+    }
+
+    private static boolean isRowEmpty(List<String> row) {
+        for (String value : row) {
+            if (value != null && !value.trim().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> trimmed(List<String> header) {
+        List<String> result = new ArrayList<>(header.size());
+        for (String value : header) {
+            result.add(value == null ? "" : value.trim());
+        }
+        return result;
+    }
+
+
+    /**
+     * 数值格式化与 ExcelReader#getCellValueAsString 保持一致：
+     * 日期格式输出 Date#toString，整数不带小数点，其余按 double 输出
+     */
+    private static final class PlainDataFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getJavaDate(value, use1904Windowing).toString();
+            }
+            if (value == (long) value) {
+                return String.valueOf((long) value);
+            }
+            return String.valueOf(value);
+        }
+    }
+}
@@ -104,67 +104,65 @@ public class TableDataReader {
             return result;
         }
         
-        String expectedCol0 = config.getBasicInfoTableNameColumn();
-        String expectedCol1 = config.getBasicInfoFieldNameColumn();
-        String expectedCol2 = config.getBasicInfoFieldValueColumn();
+        try (Workbook workbook = openWorkbook(file)) {
+            return readBasicInfo(workbook);
+        }
+    }
+    
+    /**
+     * 从已打开的工作簿读取基本信息表格数据，调用方负责关闭工作簿
+     * 
+     * @param workbook 已打开的工作簿
+     * @return Map<表格名称, BasicInfoData>
+     */
+    public Map<String, BasicInfoData> readBasicInfo(Workbook workbook) {
+        return readBasicInfo(SheetIndex.build(workbook));
+    }
+    
+    /**
+     * 从Sheet分类索引读取基本信息表格数据
+     * 
+     * @param index 工作簿的Sheet分类索引
+     * @return Map<表格名称, BasicInfoData>
+     */
+    public Map<String, BasicInfoData> readBasicInfo(SheetIndex index) {
+        Map<String, BasicInfoData> result = new LinkedHashMap<>();
         
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        CellValueContext context = index.getCellContext();
+        for (SheetIndex.SheetInfo info : index.all(SheetIndex.SheetType.BASIC_INFO)) {
+            Sheet sheet = info.getSheet();
+            System.out.println("发现基本信息Sheet: " + sheet.getSheetName());
             
-            // 自动搜索符合基本信息格式的 Sheet
-            for (int sheetIdx = 0; sheetIdx < workbook.getNumberOfSheets(); sheetIdx++) {
-                Sheet sheet = workbook.getSheetAt(sheetIdx);
-                if (sheet == null || sheet.getPhysicalNumberOfRows() == 0) {
-                    continue;
-                }
-                
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    continue;
-                }
+            // 读取数据行
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) continue;
                 
-                // 验证列名
-                String col0 = getCellValue(headerRow.getCell(0));
-                String col1 = getCellValue(headerRow.getCell(1));
-                String col2 = getCellValue(headerRow.getCell(2));
+                String tableName = getCellValue(row.getCell(0), context);
+                String fieldName = getCellValue(row.getCell(1), context);
+                String fieldValue = getCellValue(row.getCell(2), context);
                 
-                if (!expectedCol0.equals(col0) || !expectedCol1.equals(col1) || !expectedCol2.equals(col2)) {
-                    continue;
-                }
+                if (tableName == null || tableName.trim().isEmpty()) continue;
+                if (fieldName == null || fieldName.trim().isEmpty()) continue;
                 
-                System.out.println("发现基本信息Sheet: " + sheet.getSheetName());
+                tableName = tableName.trim();
+                fieldName = fieldName.trim();
+                fieldValue = fieldValue != null ? fieldValue.trim() : "";
                 
-                // 读取数据行
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-                    
-                    String tableName = getCellValue(row.getCell(0));
-                    String fieldName = getCellValue(row.getCell(1));
-                    String fieldValue = getCellValue(row.getCell(2));
-                    
-                    if (tableName == null || tableName.trim().isEmpty()) continue;
-                    if (fieldName == null || fieldName.trim().isEmpty()) continue;
-                    
-                    tableName = tableName.trim();
-                    fieldName = fieldName.trim();
-                    fieldValue = fieldValue != null ? fieldValue.trim() : "";
-                    
-                    // 获取或创建 BasicInfoData
-                    BasicInfoData data = result.get(tableName);
-                    if (data == null) {
-                        data = new BasicInfoData(tableName);
-                        result.put(tableName, data);
-                    }
-                    data.addField(fieldName, fieldValue);
+                // 获取或创建 BasicInfoData
+                BasicInfoData data = result.get(tableName);
+                if (data == null) {
+                    data = new BasicInfoData(tableName);
+                    result.put(tableName, data);
                 }
-            }
-            
-            if (!result.isEmpty()) {
-                System.out.println("读取基本信息完成，共" + result.size() + "个表格");
+                data.addField(fieldName, fieldValue);
             }
         }
         
+        if (!result.isEmpty()) {
+            System.out.println("读取基本信息完成，共" + result.size() + "个表格");
+        }
+        
         return result;
     }
     
@@ -185,9 +183,9 @@ public class TableDataReader {
             return result;
         }
         
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        try (Workbook workbook = openWorkbook(file)) {
             
+            CellValueContext context = new CellValueContext();
             Sheet sheet = workbook.getSheet(sheetName);
             if (sheet == null) {
                 System.out.println("未找到 '" + sheetName + "' Sheet，跳过读取");
@@ -203,7 +201,7 @@ public class TableDataReader {
             // 读取列名（从第二列开始，第一列是表格名称）
             List<String> columnNames = new ArrayList<>();
             for (int c = 1; c < headerRow.getLastCellNum(); c++) {
-                String colName = getCellValue(headerRow.getCell(c));
+                String colName = getCellValue(headerRow.getCell(c), context);
                 if (colName != null && !colName.trim().isEmpty()) {
                     columnNames.add(colName.trim());
                 }
@@ -219,7 +217,7 @@ public class TableDataReader {
                 Row row = sheet.getRow(i);
                 if (row == null) continue;
                 
-                String tableName = getCellValue(row.getCell(0));
+                String tableName = getCellValue(row.getCell(0), context);
                 if (tableName == null || tableName.trim().isEmpty()) continue;
                 tableName = tableName.trim();
                 
@@ -234,7 +232,7 @@ public class TableDataReader {
                 // 读取行数据
                 Map<String, String> rowData = new LinkedHashMap<>();
                 for (int c = 0; c < columnNames.size(); c++) {
-                    String value = getCellValue(row.getCell(c + 1));
+                    String value = getCellValue(row.getCell(c + 1), context);
                     rowData.put(columnNames.get(c), value != null ? value.trim() : "");
                 }
                 data.addRow(rowData);
@@ -263,122 +261,118 @@ public class TableDataReader {
             return result;
         }
         
-        String testCaseRequiredColumn = config.getTestCaseRequiredColumn();
-        String basicInfoFieldNameColumn = config.getBasicInfoFieldNameColumn();
-        String basicInfoFieldValueColumn = config.getBasicInfoFieldValueColumn();
-        String listDataTableNameColumn = config.getListDataTableNameColumn();
+        try (Workbook workbook = openWorkbook(file)) {
+            return readAllListTableData(workbook);
+        }
+    }
+    
+    /**
+     * 从已打开的工作簿读取所有列表型表格数据，调用方负责关闭工作簿
+     * 
+     * @param workbook 已打开的工作簿
+     * @return Map<表格名称, ListTableData>
+     */
+    public Map<String, ListTableData> readAllListTableData(Workbook workbook) {
+        return readAllListTableData(SheetIndex.build(workbook));
+    }
+    
+    /**
+     * 从Sheet分类索引读取所有列表型表格数据
+     * 
+     * @param index 工作簿的Sheet分类索引
+     * @return Map<表格名称, ListTableData>
+     */
+    public Map<String, ListTableData> readAllListTableData(SheetIndex index) {
+        Map<String, ListTableData> result = new LinkedHashMap<>();
         
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        CellValueContext context = index.getCellContext();
+        for (SheetIndex.SheetInfo info : index.all(SheetIndex.SheetType.LIST)) {
+            Sheet sheet = info.getSheet();
             
-            // 遍历所有Sheet
-            for (int sheetIdx = 0; sheetIdx < workbook.getNumberOfSheets(); sheetIdx++) {
-                Sheet sheet = workbook.getSheetAt(sheetIdx);
-                String sheetName = sheet.getSheetName();
-                
-                Row headerRow = sheet.getRow(0);
-                if (headerRow == null) {
-                    continue;
-                }
-                
-                // 读取所有列名
-                List<String> headerColumns = new ArrayList<>();
-                for (int c = 0; c < headerRow.getLastCellNum(); c++) {
-                    String colName = getCellValue(headerRow.getCell(c));
-                    headerColumns.add(colName != null ? colName.trim() : "");
-                }
-                
-                // 跳过测试用例Sheet（包含模块编号列）
-                if (headerColumns.contains(testCaseRequiredColumn)) {
-                    continue;
-                }
-                
-                // 跳过基本信息Sheet（第二列是字段名，第三列是字段值）
-                if (headerColumns.size() >= 3 && 
-                    headerColumns.get(1).equals(basicInfoFieldNameColumn) &&
-                    headerColumns.get(2).equals(basicInfoFieldValueColumn)) {
-                    continue;
-                }
-                
-                // 检查是否是列表型Sheet（第一列是表格名称列）
-                String firstColName = headerColumns.isEmpty() ? "" : headerColumns.get(0);
-                if (!firstColName.equals(listDataTableNameColumn)) {
-                    continue;
+            System.out.println("发现列表型Sheet: " + info.getSheetName());
+            
+            // 读取列名（从第二列开始）
+            List<String> columnNames = new ArrayList<>();
+            List<String> header = info.getHeader();
+            for (int c = 1; c < header.size(); c++) {
+                if (!header.get(c).isEmpty()) {
+                    columnNames.add(header.get(c));
                 }
+            }
+            
+            if (columnNames.isEmpty()) {
+                continue;
+            }
+            
+            // 读取数据行
+            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                Row row = sheet.getRow(i);
+                if (row == null) continue;
                 
-                System.out.println("发现列表型Sheet: " + sheetName);
-                
-                // 读取列名（从第二列开始）
-                List<String> columnNames = new ArrayList<>();
-                for (int c = 1; c < headerRow.getLastCellNum(); c++) {
-                    String colName = getCellValue(headerRow.getCell(c));
-                    if (colName != null && !colName.trim().isEmpty()) {
-                        columnNames.add(colName.trim());
-                    }
-                }
+                String tableName = getCellValue(row.getCell(0), context);
+                if (tableName == null || tableName.trim().isEmpty()) continue;
+                tableName = tableName.trim();
                 
-                if (columnNames.isEmpty()) {
-                    continue;
+                // 获取或创建 ListTableData
+                ListTableData data = result.get(tableName);
+                if (data == null) {
+                    data = new ListTableData(tableName);
+                    data.setColumnNames(columnNames);
+                    result.put(tableName, data);
                 }
                 
-                // 读取数据行
-                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                    Row row = sheet.getRow(i);
-                    if (row == null) continue;
-                    
-                    String tableName = getCellValue(row.getCell(0));
-                    if (tableName == null || tableName.trim().isEmpty()) continue;
-                    tableName = tableName.trim();
-                    
-                    // 获取或创建 ListTableData
-                    ListTableData data = result.get(tableName);
-                    if (data == null) {
-                        data = new ListTableData(tableName);
-                        data.setColumnNames(columnNames);
-                        result.put(tableName, data);
-                    }
-                    
-                    // 读取行数据
-                    Map<String, String> rowData = new LinkedHashMap<>();
-                    for (int c = 0; c < columnNames.size(); c++) {
-                        String value = getCellValue(row.getCell(c + 1));
-                        rowData.put(columnNames.get(c), value != null ? value.trim() : "");
-                    }
-                    data.addRow(rowData);
+                // 读取行数据
+                Map<String, String> rowData = new LinkedHashMap<>();
+                for (int c = 0; c < columnNames.size(); c++) {
+                    String value = getCellValue(row.getCell(c + 1), context);
+                    rowData.put(columnNames.get(c), value != null ? value.trim() : "");
                 }
+                data.addRow(rowData);
             }
-            
-            System.out.println("共读取 " + result.size() + " 个列表型表格");
         }
         
+        System.out.println("共读取 " + result.size() + " 个列表型表格");
+        
         return result;
     }
     
+    /**
+     * 打开工作簿；.xlsb 按单元格显示值流式复制为内存中的工作簿
+     */
+    private Workbook openWorkbook(File file) throws Exception {
+        if (ExcelReader.isBinaryWorkbook(file.getName())) {
+            return new StreamingExcelReader().copyWorkbook(file.getPath());
+        }
+        try (FileInputStream fis = new FileInputStream(file)) {
+            return new XSSFWorkbook(fis);
+        }
+    }
+    
     /**
      * 获取单元格值（转为字符串）
      */
-    private String getCellValue(Cell cell) {
+    private String getCellValue(Cell cell, CellValueContext context) {
         if (cell == null) {
             return null;
         }
         
         switch (cell.getCellType()) {
             case STRING:
-                return cell.getStringCellValue();
+                return context.canonical(cell.getStringCellValue());
             case NUMERIC:
                 double numValue = cell.getNumericCellValue();
                 if (numValue == Math.floor(numValue)) {
-                    return String.valueOf((long) numValue);
+                    return context.canonical(String.valueOf((long) numValue));
                 }
-                return String.valueOf(numValue);
+                return context.canonical(String.valueOf(numValue));
             case BOOLEAN:
                 return String.valueOf(cell.getBooleanCellValue());
             case FORMULA:
                 try {
-                    return cell.getStringCellValue();
+                    return context.canonical(cell.getStringCellValue());
                 } catch (Exception e) {
                     try {
-                        return String.valueOf(cell.getNumericCellValue());
+                        return context.canonical(String.valueOf(cell.getNumericCellValue()));
                     } catch (Exception e2) {
                         return "";
                     }
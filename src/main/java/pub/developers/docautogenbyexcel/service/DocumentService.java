@@ -7,7 +7,12 @@ import pub.developers.docautogenbyexcel.generator.AbstractDocumentGenerator;
 import pub.developers.docautogenbyexcel.generator.STRGenerator;
 import pub.developers.docautogenbyexcel.generator.STDGenerator;
 import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
 import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.SnapshotCache;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+import pub.developers.docautogenbyexcel.validator.PreflightValidator;
+import pub.developers.docautogenbyexcel.validator.ValidationReport;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -17,6 +22,8 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
  * 文档处理服务
@@ -38,6 +45,11 @@ public class DocumentService {
     @Autowired(required = false)
     private S3StorageService s3StorageService;
 
+    @Autowired
+    private ExcelDataHub excelDataHub;
+
+    private final PreflightValidator preflightValidator = new PreflightValidator();
+
     private final String pythonCommand;
 
     public DocumentService() {
@@ -87,22 +99,52 @@ public class DocumentService {
      */
     public ProcessResult processDocuments(InputStream excelStream, String excelFileName,
             InputStream wordStream, String wordFileName, String docType) throws Exception {
+        return processDocuments(excelStream, excelFileName, wordStream, wordFileName, docType, null);
+    }
+
+    /**
+     * 处理上传的数据和Word文件（支持文档类型和数据源类型选择）
+     *
+     * @param dataSource 数据源类型：excel（默认）时上传Excel工作簿；csv/jsonl/store时上传包含数据文件的zip包
+     */
+    public ProcessResult processDocuments(InputStream excelStream, String excelFileName,
+            InputStream wordStream, String wordFileName, String docType, String dataSource) throws Exception {
+        return processDocuments(excelStream, excelFileName, wordStream, wordFileName, docType, dataSource, null);
+    }
+
+    /**
+     * 处理上传的数据和Word文件，只重新生成选中的模块
+     *
+     * @param modules 模块筛选，逗号分隔的章节前缀或通配符（如 "5.3.*, 6.1"）；为空时生成全部模块
+     */
+    public ProcessResult processDocuments(InputStream excelStream, String excelFileName,
+            InputStream wordStream, String wordFileName, String docType, String dataSource,
+            String modules) throws Exception {
         String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
         String sessionId = UUID.randomUUID().toString().substring(0, 8);
+        DataSourceType sourceType = DataSourceType.of(dataSource);
 
         // 保存上传的文件
-        String excelPath = saveUploadedFile(excelStream, excelFileName, sessionId);
+        String excelPath = sourceType.isDirectory()
+                ? extractDataArchive(excelStream, sessionId)
+                : saveUploadedFile(excelStream, excelFileName, sessionId);
         String wordPath = saveUploadedFile(wordStream, wordFileName, sessionId);
 
+        // 预检：只读取表头和模板段落，有错误时在完整解析之前中止
+        preflightValidator.check(sourceType == DataSourceType.EXCEL ? excelPath : null, wordPath, docType);
+
         // 生成输出文件名
         String baseName = wordFileName.replaceAll("\\.docx?$", "");
         String outputFileName = baseName + "_" + timestamp + ".docx";
         String outputPath = OUTPUT_DIR + "/" + outputFileName;
 
         // 基于抽象层执行生成流程：数据中枢 -> 生成引擎 -> 文档构建器
-        DataHub dataHub = new ExcelDataHub();
+        // Excel数据中枢为单例Bean，相同内容的Excel重复上传时直接复用已解析的数据；
+        // CSV/JSON-Lines数据目录逐行流式读取，索引存储只读取所需的存储文件，都不经过电子表格解析
+        DataHub dataHub = sourceType == DataSourceType.EXCEL ? excelDataHub : sourceType.createHub();
         AbstractDocumentGenerator generator = createGenerator(docType, dataHub);
-        AbstractDocumentGenerator.GenerateResult generateResult = generator.generate(excelPath, wordPath, outputPath);
+        AbstractDocumentGenerator.GenerateResult generateResult = generator.generate(excelPath, wordPath, outputPath,
+                ModuleFilter.parse(modules));
         int successCount = generateResult.moduleCount();
 
         // 如果使用S3存储，上传到S3
@@ -127,6 +169,48 @@ public class DocumentService {
                 "成功处理 " + successCount + " 个模块");
     }
 
+    /**
+     * 只预检上传的Excel和Word文件，不生成文档
+     *
+     * @param excelStream Excel文件，为null时只检查Word模板
+     * @param wordStream  Word模板，为null时只检查Excel
+     */
+    public ValidationReport validateDocuments(InputStream excelStream, String excelFileName,
+            InputStream wordStream, String wordFileName, String docType) throws IOException {
+        Path tempDir = Files.createTempDirectory("docautogen_preflight_");
+        try {
+            String excelPath = null;
+            String wordPath = null;
+            if (excelStream != null) {
+                excelPath = saveToDirectory(excelStream, excelFileName, tempDir);
+            }
+            if (wordStream != null) {
+                wordPath = saveToDirectory(wordStream, wordFileName, tempDir);
+            }
+            return preflightValidator.validate(excelPath, wordPath, docType);
+        } finally {
+            try (var stream = Files.list(tempDir)) {
+                for (Path path : stream.toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    private String saveToDirectory(InputStream inputStream, String fileName, Path dir) throws IOException {
+        Path filePath = dir.resolve(Paths.get(fileName).getFileName().toString());
+        Files.copy(inputStream, filePath, StandardCopyOption.REPLACE_EXISTING);
+        return filePath.toString();
+    }
+
+    /**
+     * 获取Excel解析缓存统计
+     */
+    public SnapshotCache.Stats getParseCacheStats() {
+        return excelDataHub.getCacheStats();
+    }
+
     private AbstractDocumentGenerator createGenerator(String docType, DataHub dataHub) {
         String normalized = docType == null ? "STD" : docType.trim().toUpperCase(Locale.ROOT);
         if ("STR".equals(normalized)) {
@@ -135,6 +219,34 @@ public class DocumentService {
         return new STDGenerator(dataHub);
     }
 
+    /**
+     * 把上传的zip数据包解压到本次会话的数据目录
+     * 只取各条目的文件名，忽略目录层级，避免条目路径指向数据目录之外
+     */
+    private String extractDataArchive(InputStream inputStream, String sessionId) throws IOException {
+        Path dataDir = Paths.get(UPLOAD_DIR, sessionId + "_data");
+        Files.createDirectories(dataDir);
+        int count = 0;
+        try (ZipInputStream zip = new ZipInputStream(inputStream, StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                String fileName = Paths.get(entry.getName()).getFileName().toString();
+                if (fileName.startsWith(".") || entry.getName().startsWith("__MACOSX")) {
+                    continue;
+                }
+                Files.copy(zip, dataDir.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IOException("数据包中没有数据文件");
+        }
+        return dataDir.toString();
+    }
+
     /**
      * 保存上传的文件
      */
@@ -0,0 +1,101 @@
+package pub.developers.docautogenbyexcel.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Word表格标签与Excel列名的模糊匹配
+ * 填充测试用例表格和按模板裁剪读取列时共用，保证两处匹配结果一致
+ */
+public class ColumnMatcher {
+
+    /** 常见别名：规范列名 -> 别名 */
+    private static final Map<String, String[]> ALIASES;
+
+    static {
+        Map<String, String[]> aliases = new LinkedHashMap<>();
+        aliases.put("测试用例标识", new String[]{"用例标识", "标识", "ID", "编号", "用例编号"});
+        aliases.put("测试项名称", new String[]{"测试项", "名称", "用例名称", "测试名称"});
+        aliases.put("设计人员", new String[]{"设计者", "编写人", "作者", "创建人"});
+        aliases.put("设计日期", new String[]{"创建日期", "编写日期", "日期", "测试日期"});
+        aliases.put("需求追踪", new String[]{"追溯", "追踪", "需求", "关联需求", "追溯合同"});
+        aliases.put("测试用例综述", new String[]{"综述", "描述", "说明", "概述", "用例描述"});
+        aliases.put("前提和约束", new String[]{"前提", "约束", "前置条件", "先决条件"});
+        aliases.put("测试用例终止条件", new String[]{"终止条件", "结束条件", "退出条件"});
+        aliases.put("测试用例通过准则", new String[]{"通过准则", "通过条件", "成功标准"});
+        aliases.put("测试结果示图", new String[]{"结果示图", "截图", "示图"});
+        aliases.put("测试人员", new String[]{"执行人", "执行者", "测试员"});
+        aliases.put("测试时间", new String[]{"执行时间", "执行日期", "时间"});
+        aliases.put("测试结论", new String[]{"结论", "结果", "判定"});
+        ALIASES = Collections.unmodifiableMap(aliases);
+    }
+
+    /**
+     * 在Excel列名集合中查找与标签匹配的列名
+     * 依次尝试：精确匹配、去空白后精确匹配、双向包含、常见别名
+     *
+     * @param label Word表格中的标签文本
+     * @param cols  Excel列名（按Sheet中的顺序）
+     * @return 匹配的列名，没有匹配返回null
+     */
+    public static String findMatchingColumn(String label, Set<String> cols) {
+        if (label == null || label.isEmpty()) return null;
+
+        // 1. 精确匹配
+        if (cols.contains(label)) return label;
+
+        // 2. 去除空格后精确匹配
+        String cleanLabel = clean(label);
+        for (String col : cols) {
+            if (cleanLabel.equals(clean(col))) return col;
+        }
+
+        // 3. 包含匹配（双向）
+        for (String col : cols) {
+            if (label.contains(col) || col.contains(label)) return col;
+            if (cleanLabel.contains(col.replace(" ", "")) || col.replace(" ", "").contains(cleanLabel)) return col;
+        }
+
+        // 4. 常见别名映射
+        for (var entry : ALIASES.entrySet()) {
+            String colName = entry.getKey();
+            if (cols.contains(colName)) {
+                // 正向：标签包含别名 → 返回规范列名
+                for (String alias : entry.getValue()) {
+                    if (cleanLabel.contains(alias.replace(" ", "")) ||
+                        alias.replace(" ", "").contains(cleanLabel)) {
+                        return colName;
+                    }
+                }
+            } else {
+                // 反向：Excel列名可能是别名，尝试将cols中的每一列与规范名匹配
+                for (String col : cols) {
+                    String cleanCol = clean(col);
+                    if (colName.equals(cleanCol)) return col;
+                    for (String alias : entry.getValue()) {
+                        String cleanAlias = clean(alias);
+                        if (cleanCol.equals(cleanAlias) || cleanCol.contains(cleanAlias) || cleanAlias.contains(cleanCol)) {
+                            return col;
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 是否为别名表中的规范列名
+     * 规范列名是否存在会改变别名匹配的方向，按列裁剪时需要保留这些列才能得到相同的匹配结果
+     */
+    public static boolean isCanonicalColumn(String columnName) {
+        return ALIASES.containsKey(columnName);
+    }
+
+    private static String clean(String text) {
+        return text.replace(" ", "").replace("　", "").replace("\t", "");
+    }
+}
@@ -0,0 +1,680 @@
+package pub.developers.docautogenbyexcel.validator;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import pub.developers.docautogenbyexcel.config.TableConfig;
+import pub.developers.docautogenbyexcel.processor.WordProcessor;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.SheetIndex;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+import pub.developers.docautogenbyexcel.validator.ValidationReport.SheetSummary;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.InputStream;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 生成前预检
+ * 在完整解析Excel和Word之前，只流式读取Excel各Sheet的表头、行数和模块编号列，
+ * 以及Word模板正文中的目录、标题和占位符段落，提前发现缺少必要列、模块编号在模板中没有对应章节、
+ * 占位符没有数据等问题。共享字符串只解析到用到的最大序号，不构建工作簿或文档模型。
+ *
+ * 章节匹配规则与 {@link WordProcessor#processWord} 一致：模块按目录中的章节编号定位，
+ * 或由占位符（如 5.x）展开为其直接子模块。
+ */
+public class PreflightValidator {
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String STYLES_RELATIONSHIP =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles";
+    private static final Pattern MODULE_NUMBER_PATTERN = Pattern.compile("^\\d+(?:\\.\\d+)*$");
+    /** 问题描述中最多列出的编号个数 */
+    private static final int MAX_LISTED = 20;
+
+    private final TableConfig config = TableConfig.getInstance();
+
+    /**
+     * 预检Excel数据和Word模板
+     *
+     * @param excelPath Excel文件路径，为null时只检查Word模板（如CSV/JSON-Lines数据源）
+     * @param wordPath  Word模板路径，为null时只检查Excel
+     * @param docType   文档类型：STD 或 STR
+     * @return 预检结果，不会抛出异常
+     */
+    public ValidationReport validate(String excelPath, String wordPath, String docType) {
+        long start = System.currentTimeMillis();
+        ValidationReport report = new ValidationReport();
+
+        ExcelScan excel = excelPath != null ? scanExcel(excelPath, report) : null;
+        if (excel != null) {
+            checkExcel(excel, docType, report);
+        }
+        WordScan word = wordPath != null ? scanWord(wordPath, report) : null;
+        if (word != null && word.tocSections.isEmpty() && word.placeholders.isEmpty()) {
+            report.addWarning("Word模板中未找到目录章节或占位符（如5.x），测试用例表格将无法定位章节");
+        }
+        if (excel != null && word != null) {
+            checkModulesAgainstTemplate(excel, word, report);
+        }
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        return report;
+    }
+
+    /**
+     * 预检并输出结果，存在错误时抛出异常；供生成流程在完整解析之前调用
+     *
+     * @throws Exception 预检发现错误
+     */
+    public ValidationReport check(String excelPath, String wordPath, String docType) throws Exception {
+        ValidationReport report = validate(excelPath, wordPath, docType);
+        System.out.println("预检完成（" + report.getElapsedMillis() + "ms）：错误 " + report.getErrors().size()
+                + " 个，警告 " + report.getWarnings().size() + " 个");
+        for (String warning : report.getWarnings()) {
+            System.out.println("预检警告: " + warning);
+        }
+        if (!report.isValid()) {
+            throw new Exception("预检未通过: " + String.join("；", report.getErrors()));
+        }
+        return report;
+    }
+
+    // ==================== Excel ====================
+
+    /**
+     * 单个Sheet的扫描结果
+     */
+    private static final class SheetScan {
+        private final String name;
+        private List<String> header = List.of();
+        private SheetType type = SheetType.OTHER;
+        private int rowCount;
+        private int moduleColumn = -1;
+        private int blankModuleRows;
+        private final Set<String> moduleNumbers = new LinkedHashSet<>();
+
+        SheetScan(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class ExcelScan {
+        private final List<SheetScan> sheets = new ArrayList<>();
+
+        SheetScan first(SheetType type) {
+            for (SheetScan sheet : sheets) {
+                if (sheet.type == type) {
+                    return sheet;
+                }
+            }
+            return null;
+        }
+    }
+
+    private ExcelScan scanExcel(String excelPath, ValidationReport report) {
+        File file = new File(excelPath);
+        if (!file.isFile()) {
+            report.addError("Excel文件不存在: " + excelPath);
+            return null;
+        }
+        if (!excelPath.toLowerCase().endsWith(".xlsx")) {
+            report.addWarning("预检只支持.xlsx文件，已跳过Excel检查: " + file.getName());
+            return null;
+        }
+
+        ExcelScan scan = new ExcelScan();
+        String requiredColumn = config.getTestCaseRequiredColumn();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            try (LazySharedStrings strings = new LazySharedStrings(pkg)) {
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                while (sheets.hasNext()) {
+                    try (InputStream sheetStream = sheets.next()) {
+                        SheetScan sheet = new SheetScan(sheets.getSheetName());
+                        XMLReader parser = XMLHelper.newXMLReader();
+                        parser.setContentHandler(new SheetHandler(sheet, strings, requiredColumn));
+                        parser.parse(new InputSource(sheetStream));
+                        scan.sheets.add(sheet);
+                        report.getSheets().add(new SheetSummary(sheet.name, sheet.type.name(), sheet.header,
+                                sheet.rowCount));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            report.addError("Excel文件无法读取: " + file.getName() + " (" + e.getMessage() + ")");
+            return null;
+        }
+        return scan;
+    }
+
+    private void checkExcel(ExcelScan scan, String docType, ValidationReport report) {
+        boolean recognized = false;
+        for (SheetScan sheet : scan.sheets) {
+            recognized |= sheet.type != SheetType.OTHER;
+        }
+        if (!recognized) {
+            report.addError("Excel中没有可识别的数据Sheet（测试用例、基本信息、列表型等），请检查各Sheet第一行的列名");
+            return;
+        }
+
+        SheetScan cases = scan.first(SheetType.TEST_CASE);
+        SheetScan steps = scan.first(SheetType.STEPS);
+        if (cases == null) {
+            report.addWarning("未找到包含'" + config.getTestCaseRequiredColumn()
+                    + "'列的测试用例Sheet，将只填充基本信息和列表型表格");
+        } else {
+            report.getModuleNumbers().addAll(cases.moduleNumbers);
+            if (cases.rowCount == 0) {
+                report.addWarning("测试用例Sheet '" + cases.name + "' 没有数据行");
+            }
+            if (cases.blankModuleRows > 0) {
+                report.addWarning("测试用例Sheet '" + cases.name + "' 有 " + cases.blankModuleRows
+                        + " 行缺少" + config.getTestCaseRequiredColumn() + "，这些行将被忽略");
+            }
+            List<String> malformed = new ArrayList<>();
+            for (String moduleNumber : cases.moduleNumbers) {
+                if (!MODULE_NUMBER_PATTERN.matcher(moduleNumber).matches()) {
+                    malformed.add(moduleNumber);
+                }
+            }
+            if (!malformed.isEmpty()) {
+                report.addWarning("模块编号格式不正确（应为以点分隔的数字，如5.2.1）: " + listed(malformed));
+            }
+            if (steps != null && !cases.header.contains("测试用例标识") && !cases.header.contains("标识")) {
+                report.addWarning("测试用例Sheet '" + cases.name + "' 缺少'测试用例标识'列，测试步骤无法关联到用例");
+            }
+        }
+
+        if (steps != null && (indexOf(steps.header, ExcelReader.STEP_CASE_ID_COLUMNS) < 0
+                || indexOf(steps.header, ExcelReader.STEP_ACTION_COLUMNS) < 0)) {
+            report.addWarning("测试步骤Sheet '" + steps.name + "' 缺少必要列（测试用例标识、测试步骤），步骤将被忽略");
+        }
+        if ("STR".equalsIgnoreCase(docType) && scan.first(SheetType.RESULTS) == null) {
+            report.addWarning("未找到测试结果Sheet（需包含TCID和Result列），STR统计将只包含已导入的结果");
+        }
+    }
+
+    /**
+     * 流式读取一个Sheet：表头行读取全部列，数据行只统计行数并读取模块编号列
+     */
+    private final class SheetHandler extends DefaultHandler {
+        private final SheetScan sheet;
+        private final LazySharedStrings strings;
+        private final String requiredColumn;
+        private final StringBuilder value = new StringBuilder();
+        private final List<String> headerCells = new ArrayList<>();
+
+        private int rowNum = -1;
+        private boolean firstRow = true;
+        private boolean headerRow;
+        private boolean rowHasValue;
+        private String moduleValue;
+        private int column = -1;
+        private String cellType;
+        private boolean captureCell;
+        private boolean inValue;
+
+        SheetHandler(SheetScan sheet, LazySharedStrings strings, String requiredColumn) {
+            this.sheet = sheet;
+            this.strings = strings;
+            this.requiredColumn = requiredColumn;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attributes.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    headerRow = firstRow && rowNum == 0;
+                    rowHasValue = false;
+                    moduleValue = null;
+                    column = -1;
+                }
+                case "c" -> {
+                    String ref = attributes.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : column + 1;
+                    cellType = attributes.getValue("t");
+                    captureCell = headerRow || (column == sheet.moduleColumn && !firstRow);
+                    value.setLength(0);
+                }
+                case "v", "t" -> inValue = true;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (!inValue) {
+                return;
+            }
+            if (captureCell) {
+                value.append(ch, start, length);
+            }
+            if (!rowHasValue) {
+                for (int i = start; i < start + length; i++) {
+                    if (!Character.isWhitespace(ch[i])) {
+                        rowHasValue = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> inValue = false;
+                case "c" -> {
+                    if (captureCell) {
+                        String cellValue = cellValue();
+                        if (headerRow) {
+                            while (headerCells.size() < column) {
+                                headerCells.add("");
+                            }
+                            headerCells.add(cellValue.trim());
+                        } else {
+                            moduleValue = cellValue;
+                        }
+                    }
+                }
+                case "row" -> endRow();
+                default -> {
+                }
+            }
+        }
+
+        private void endRow() {
+            if (firstRow) {
+                firstRow = false;
+                sheet.header = List.copyOf(headerCells);
+                if (!headerRow) {
+                    // 首行不是表头行时与流式读取一致：按无表头处理，本行计为数据行
+                    sheet.type = SheetIndex.classify(sheet.name, List.of());
+                    countDataRow();
+                    return;
+                }
+                sheet.type = SheetIndex.classify(sheet.name, sheet.header);
+                if (sheet.type == SheetType.TEST_CASE) {
+                    sheet.moduleColumn = sheet.header.lastIndexOf(requiredColumn);
+                }
+                return;
+            }
+            countDataRow();
+        }
+
+        private void countDataRow() {
+            if (!rowHasValue) {
+                return;
+            }
+            sheet.rowCount++;
+            if (sheet.moduleColumn >= 0) {
+                String moduleNumber = moduleValue == null ? "" : moduleValue.trim();
+                if (moduleNumber.isEmpty()) {
+                    sheet.blankModuleRows++;
+                } else {
+                    sheet.moduleNumbers.add(moduleNumber);
+                }
+            }
+        }
+
+        private String cellValue() {
+            String raw = value.toString();
+            if ("s".equals(cellType)) {
+                try {
+                    return strings.get(Integer.parseInt(raw.trim()));
+                } catch (Exception e) {
+                    return "";
+                }
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                // 数值与流式读取的格式化一致：整数不带小数点
+                try {
+                    double number = Double.parseDouble(raw);
+                    return number == (long) number ? String.valueOf((long) number) : String.valueOf(number);
+                } catch (NumberFormatException e) {
+                    return raw;
+                }
+            }
+            if ("b".equals(cellType)) {
+                return "1".equals(raw) ? "TRUE" : "FALSE";
+            }
+            return raw;
+        }
+    }
+
+    /**
+     * 按需读取的共享字符串表：只解析到请求过的最大序号为止
+     * 表头和模块编号通常位于共享字符串表的前部，大文件无需读完整个表
+     */
+    private static final class LazySharedStrings implements AutoCloseable {
+        private final List<String> loaded = new ArrayList<>();
+        private InputStream stream;
+        private XMLStreamReader reader;
+
+        LazySharedStrings(OPCPackage pkg) throws Exception {
+            List<PackagePart> parts = pkg.getPartsByContentType(
+                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml");
+            if (!parts.isEmpty()) {
+                stream = parts.get(0).getInputStream();
+                XMLInputFactory factory = XMLHelper.newXMLInputFactory();
+                reader = factory.createXMLStreamReader(stream);
+            }
+        }
+
+        String get(int index) throws Exception {
+            while (loaded.size() <= index && reader != null) {
+                readNext();
+            }
+            return index < loaded.size() ? loaded.get(index) : "";
+        }
+
+        /**
+         * 读取下一个 si 元素；跳过拼音（rPh）中的文本
+         */
+        private void readNext() throws Exception {
+            StringBuilder text = null;
+            int phoneticDepth = 0;
+            boolean inText = false;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("si".equals(name)) {
+                        text = new StringBuilder();
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth++;
+                    } else if ("t".equals(name) && phoneticDepth == 0) {
+                        inText = true;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    if (inText && text != null) {
+                        text.append(reader.getText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("t".equals(name)) {
+                        inText = false;
+                    } else if ("rPh".equals(name)) {
+                        phoneticDepth--;
+                    } else if ("si".equals(name) && text != null) {
+                        loaded.add(text.toString());
+                        return;
+                    }
+                }
+            }
+            close();
+        }
+
+        @Override
+        public void close() throws Exception {
+            if (reader != null) {
+                reader.close();
+                reader = null;
+            }
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+    }
+
+    // ==================== Word ====================
+
+    private record Placeholder(String parentNumber, String text) {
+    }
+
+    private static final class WordScan {
+        private final List<String> tocSections = new ArrayList<>();
+        private final Set<String> headingSections = new HashSet<>();
+        private final List<Placeholder> placeholders = new ArrayList<>();
+    }
+
+    private WordScan scanWord(String wordPath, ValidationReport report) {
+        File file = new File(wordPath);
+        String lower = wordPath.toLowerCase();
+        if (lower.endsWith(".doc")) {
+            report.addError("不支持旧版Word格式(.doc文件)，请另存为.docx后再使用");
+            return null;
+        }
+        if (!file.isFile()) {
+            report.addError("Word模板文件不存在: " + wordPath);
+            return null;
+        }
+
+        WordScan scan = new WordScan();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            PackageRelationshipCollection documents =
+                    pkg.getRelationshipsByType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (documents.size() == 0) {
+                report.addError("Word模板缺少正文部件，文件可能已损坏: " + file.getName());
+                return null;
+            }
+            PackagePart document = pkg.getPart(documents.getRelationship(0));
+
+            Map<String, String> styleNames = new HashMap<>();
+            PackageRelationshipCollection styles = document.getRelationshipsByType(STYLES_RELATIONSHIP);
+            if (styles.size() > 0) {
+                try (InputStream in = document.getRelatedPart(styles.getRelationship(0)).getInputStream()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new StyleNameHandler(styleNames));
+                    parser.parse(new InputSource(in));
+                }
+            }
+            try (InputStream in = document.getInputStream()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new BodyParagraphHandler(scan, styleNames));
+                parser.parse(new InputSource(in));
+            }
+        } catch (Exception e) {
+            report.addError("Word模板无法读取: " + file.getName() + " (" + e.getMessage() + ")");
+            return null;
+        }
+        report.getWordSections().addAll(scan.tocSections);
+        for (Placeholder placeholder : scan.placeholders) {
+            report.getPlaceholders().add(placeholder.text());
+        }
+        return scan;
+    }
+
+    /**
+     * 模块编号与模板章节的对应关系，规则同 WordProcessor：目录中有该章节，或被占位符展开
+     */
+    private void checkModulesAgainstTemplate(ExcelScan excel, WordScan word, ValidationReport report) {
+        SheetScan cases = excel.first(SheetType.TEST_CASE);
+        if (cases == null || cases.moduleNumbers.isEmpty()) {
+            return;
+        }
+
+        for (Placeholder placeholder : word.placeholders) {
+            boolean hasData = false;
+            for (String moduleNumber : cases.moduleNumbers) {
+                if (WordProcessor.isDirectChildSection(placeholder.parentNumber(), moduleNumber)) {
+                    hasData = true;
+                    break;
+                }
+            }
+            if (!hasData) {
+                report.addWarning("占位符 '" + placeholder.text() + "' 在Excel中没有对应的子模块数据（"
+                        + placeholder.parentNumber() + ".N）");
+            }
+        }
+
+        List<String> notInToc = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String moduleNumber : cases.moduleNumbers) {
+            if (word.tocSections.contains(moduleNumber)) {
+                continue;
+            }
+            boolean expanded = false;
+            for (Placeholder placeholder : word.placeholders) {
+                if (moduleNumber.startsWith(placeholder.parentNumber() + ".")) {
+                    expanded = true;
+                    break;
+                }
+            }
+            if (expanded) {
+                continue;
+            }
+            if (word.headingSections.contains(moduleNumber)) {
+                notInToc.add(moduleNumber);
+            } else {
+                unknown.add(moduleNumber);
+            }
+        }
+        if (!notInToc.isEmpty()) {
+            report.addWarning("以下模块的章节标题不在Word目录中（请先更新目录），将被跳过: " + listed(notInToc));
+        }
+        if (!unknown.isEmpty()) {
+            report.addWarning("以下模块编号在Word模板中没有对应章节或占位符，将被跳过: " + listed(unknown));
+        }
+    }
+
+    /**
+     * 读取 styles.xml 中的样式ID与样式名
+     */
+    private static final class StyleNameHandler extends DefaultHandler {
+        private final Map<String, String> styleNames;
+        private String styleId;
+
+        StyleNameHandler(Map<String, String> styleNames) {
+            this.styleNames = styleNames;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (!W_NS.equals(uri)) {
+                return;
+            }
+            if ("style".equals(localName)) {
+                styleId = attributes.getValue(W_NS, "styleId");
+            } else if ("name".equals(localName) && styleId != null) {
+                String name = attributes.getValue(W_NS, "val");
+                if (name != null && !name.isEmpty()) {
+                    styleNames.put(styleId, name);
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (W_NS.equals(uri) && "style".equals(localName)) {
+                styleId = null;
+            }
+        }
+    }
+
+    /**
+     * 只处理正文一级段落（与 XWPFDocument#getParagraphs 范围一致），收集目录、标题和占位符
+     */
+    private static final class BodyParagraphHandler extends DefaultHandler {
+        private final WordScan scan;
+        private final Map<String, String> styleNames;
+        private final StringBuilder text = new StringBuilder();
+        private int depth;
+        private int bodyDepth = -1;
+        private boolean inParagraph;
+        private boolean inText;
+        private String style;
+
+        BodyParagraphHandler(WordScan scan, Map<String, String> styleNames) {
+            this.scan = scan;
+            this.styleNames = styleNames;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            depth++;
+            if (!W_NS.equals(uri)) {
+                return;
+            }
+            if ("body".equals(localName)) {
+                bodyDepth = depth;
+            } else if ("p".equals(localName) && depth == bodyDepth + 1) {
+                inParagraph = true;
+                style = null;
+                text.setLength(0);
+            } else if (inParagraph) {
+                switch (localName) {
+                    case "pStyle" -> style = attributes.getValue(W_NS, "val");
+                    case "t" -> inText = true;
+                    case "tab" -> text.append('\t');
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            if (W_NS.equals(uri)) {
+                if ("t".equals(localName)) {
+                    inText = false;
+                } else if ("p".equals(localName) && inParagraph && depth == bodyDepth + 1) {
+                    inParagraph = false;
+                    paragraph(text.toString().trim());
+                }
+            }
+            depth--;
+        }
+
+        private void paragraph(String trimmed) {
+            if (trimmed.isEmpty()) {
+                return;
+            }
+            String styleName = style != null ? styleNames.getOrDefault(style, style) : null;
+            Matcher section = WordProcessor.SECTION_PATTERN.matcher(trimmed);
+            if (WordProcessor.isTocStyle(style, styleName)) {
+                if (section.matches() && !scan.tocSections.contains(section.group(1))) {
+                    scan.tocSections.add(section.group(1));
+                }
+            } else if (WordProcessor.isHeadingStyle(style, styleName) && section.matches()) {
+                scan.headingSections.add(section.group(1));
+            }
+            Matcher placeholder = WordProcessor.PLACEHOLDER_PATTERN.matcher(trimmed);
+            if (placeholder.matches()) {
+                scan.placeholders.add(new Placeholder(placeholder.group(1), trimmed));
+            }
+        }
+    }
+
+    private static int indexOf(List<String> header, String... names) {
+        for (String name : names) {
+            int index = header.indexOf(name);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static String listed(List<String> numbers) {
+        if (numbers.size() <= MAX_LISTED) {
+            return String.join(", ", numbers);
+        }
+        return String.join(", ", numbers.subList(0, MAX_LISTED)) + " 等" + numbers.size() + "个";
+    }
+}
@@ -0,0 +1,110 @@
+package pub.developers.docautogenbyexcel.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成前预检结果
+ * 包含Excel各Sheet的表头和行数、模块编号、Word模板的目录章节和占位符，以及发现的问题
+ */
+public class ValidationReport {
+
+    /**
+     * 问题级别：ERROR 会中止生成，WARNING 只提示
+     */
+    public enum Severity {
+        ERROR,
+        WARNING
+    }
+
+    /**
+     * 一条预检问题
+     */
+    public record Issue(Severity severity, String message) {
+    }
+
+    /**
+     * 一个Sheet的表头摘要
+     *
+     * @param rowCount 表头之外的非空行数
+     */
+    public record SheetSummary(String name, String type, List<String> header, int rowCount) {
+    }
+
+    private final List<Issue> issues = new ArrayList<>();
+    private final List<SheetSummary> sheets = new ArrayList<>();
+    private final List<String> moduleNumbers = new ArrayList<>();
+    private final List<String> wordSections = new ArrayList<>();
+    private final List<String> placeholders = new ArrayList<>();
+    private long elapsedMillis;
+
+    public void addError(String message) {
+        issues.add(new Issue(Severity.ERROR, message));
+    }
+
+    public void addWarning(String message) {
+        issues.add(new Issue(Severity.WARNING, message));
+    }
+
+    /**
+     * 没有 ERROR 级别的问题
+     */
+    public boolean isValid() {
+        return getErrors().isEmpty();
+    }
+
+    public List<Issue> getIssues() {
+        return issues;
+    }
+
+    public List<String> getErrors() {
+        return messages(Severity.ERROR);
+    }
+
+    public List<String> getWarnings() {
+        return messages(Severity.WARNING);
+    }
+
+    public List<SheetSummary> getSheets() {
+        return sheets;
+    }
+
+    /**
+     * 测试用例Sheet中出现的模块编号（按首次出现顺序）
+     */
+    public List<String> getModuleNumbers() {
+        return moduleNumbers;
+    }
+
+    /**
+     * Word模板目录中的章节编号
+     */
+    public List<String> getWordSections() {
+        return wordSections;
+    }
+
+    /**
+     * Word模板中的占位符段落（如 "5.x"）
+     */
+    public List<String> getPlaceholders() {
+        return placeholders;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    private List<String> messages(Severity severity) {
+        List<String> result = new ArrayList<>();
+        for (Issue issue : issues) {
+            if (issue.severity() == severity) {
+                result.add(issue.message());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,188 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.processor.WordProcessor;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnProjectionTest {
+
+    private static final int EXTRA_COLUMNS = 60;
+
+    @Test
+    void selectKeepsMatchedLabelsAndKeyColumns() {
+        List<String> header = new ArrayList<>(List.of("测试用例标识", "测试项名称", "测试内容", "判定准则", "追踪关系", "设计人员"));
+        for (int i = 1; i <= EXTRA_COLUMNS; i++) {
+            header.add("扩展列" + i);
+        }
+
+        ColumnProjection projection = ColumnProjection.ofLabels(List.of("测试内容", " 判定准则 ", "设计者", ""));
+
+        assertEquals(List.of("测试用例标识", "测试项名称", "测试内容", "判定准则", "追踪关系", "设计人员"),
+                projection.select(header));
+        assertEquals(header, ColumnProjection.ALL.select(header));
+        assertTrue(projection.union(ColumnProjection.ofLabels(List.of("扩展列1"))).covers(projection));
+        assertTrue(ColumnProjection.ALL.covers(projection));
+    }
+
+    @Test
+    void readersMaterializeOnlyProjectedColumns() throws Exception {
+        Path excelPath = createWideWorkbook(Files.createTempDirectory("projection-read-"));
+        ColumnProjection projection = ColumnProjection.ofLabels(List.of("测试内容", "扩展列7"));
+        List<String> expected = List.of("测试用例标识", "测试项名称", "测试内容", "追踪关系", "扩展列7");
+
+        Map<String, ModuleData> full = new ExcelReader().readExcel(excelPath.toString());
+        Map<String, ModuleData> projected = new ExcelReader().readExcel(excelPath.toString(), projection);
+        Map<String, ModuleData> streamed = new StreamingExcelReader().readExcel(excelPath.toString(), projection);
+
+        assertEquals(full.keySet(), projected.keySet());
+        for (String module : full.keySet()) {
+            for (int i = 0; i < full.get(module).getTestCases().size(); i++) {
+                TestCase all = full.get(module).getTestCases().get(i);
+                for (TestCase tc : List.of(projected.get(module).getTestCases().get(i),
+                        streamed.get(module).getTestCases().get(i))) {
+                    assertEquals(expected, List.copyOf(tc.getColumnData().keySet()));
+                    for (String column : expected) {
+                        assertEquals(all.getColumnValue(column), tc.getColumnValue(column));
+                    }
+                }
+            }
+        }
+        TestCase first = projected.get("5.2").getTestCases().get(0);
+        assertEquals(1, first.getTestSteps().size(), "按用例标识关联的步骤不受裁剪影响");
+        assertEquals(EXTRA_COLUMNS + 4, full.get("5.2").getTestCases().get(0).getColumnData().size());
+    }
+
+    @Test
+    void projectedDataFillsTemplateTheSameWay() throws Exception {
+        Path dir = Files.createTempDirectory("projection-fill-");
+        Path excelPath = createWideWorkbook(dir);
+        Path templatePath = createTemplate(dir);
+        WordProcessor processor = new WordProcessor();
+        ColumnProjection projection = processor.templateColumnProjection(templatePath.toString());
+
+        Path fullOut = dir.resolve("full.docx");
+        Path projectedOut = dir.resolve("projected.docx");
+        processor.processWord(templatePath.toString(), fullOut.toString(),
+                new ExcelReader().readExcel(excelPath.toString()));
+        processor.processWord(templatePath.toString(), projectedOut.toString(),
+                new ExcelReader().readExcel(excelPath.toString(), projection));
+
+        assertEquals(tableTexts(fullOut), tableTexts(projectedOut));
+        assertTrue(String.join("\n", tableTexts(projectedOut)).contains("内容-1"));
+    }
+
+    @Test
+    void projectedSessionDoesNotNarrowUnprojectedLoads() throws Exception {
+        Path excelPath = createWideWorkbook(Files.createTempDirectory("projection-session-"));
+        String path = excelPath.toString();
+        ColumnProjection projection = ColumnProjection.ofLabels(List.of("测试内容"));
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 10, false);
+
+        try (DataHub.Session ignored = hub.openSession(path, projection)) {
+            Map<String, ModuleData> projected = hub.loadModuleData(path, projection);
+            assertEquals(4, projected.get("5.2").getTestCases().get(0).getColumnData().size());
+            assertEquals(projected, hub.loadModuleData(path, projection), "会话内的裁剪读取应复用快照");
+            assertEquals(EXTRA_COLUMNS + 4, hub.loadModuleData(path).get("5.2").getTestCases().get(0).getColumnData().size());
+
+            try (DataHub.Session ignoredToo = hub.openSession(path)) {
+                // 并发打开的完整会话使共用快照扩展为全部列
+                assertEquals(EXTRA_COLUMNS + 4,
+                        hub.loadModuleData(path, projection).get("5.2").getTestCases().get(0).getColumnData().size());
+            }
+        }
+    }
+
+    private static Path createWideWorkbook(Path dir) throws Exception {
+        Path excelPath = dir.resolve("wide.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFSheet cases = wb.createSheet("测试用例");
+            List<String> header = new ArrayList<>(List.of("模块编号", "测试用例标识", "测试项名称", "测试内容", "追踪关系"));
+            for (int i = 1; i <= EXTRA_COLUMNS; i++) {
+                header.add("扩展列" + i);
+            }
+            writeRow(cases, 0, header);
+            String[] modules = {"5.2", "5.2", "5.3"};
+            for (int r = 1; r <= modules.length; r++) {
+                List<String> values = new ArrayList<>(List.of(modules[r - 1], "TC-00" + r, "用例" + r, "内容-" + r, "REQ-" + r));
+                for (int i = 1; i <= EXTRA_COLUMNS; i++) {
+                    values.add("值" + r + "-" + i);
+                }
+                writeRow(cases, r, values);
+            }
+            XSSFSheet steps = wb.createSheet("测试步骤");
+            writeRow(steps, 0, List.of("测试用例标识", "步骤序号", "测试步骤", "预期结果"));
+            writeRow(steps, 1, List.of("TC-001", "1", "打开页面", "页面显示"));
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+        return excelPath;
+    }
+
+    private static Path createTemplate(Path dir) throws Exception {
+        Path templatePath = dir.resolve("template.docx");
+        try (XWPFDocument doc = new XWPFDocument()) {
+            XWPFParagraph toc = doc.createParagraph();
+            toc.setStyle("22");
+            toc.createRun().setText("5.2 功能测试");
+            XWPFParagraph section = doc.createParagraph();
+            section.setStyle("3");
+            section.createRun().setText("5.2 功能测试");
+            XWPFParagraph sub = doc.createParagraph();
+            sub.setStyle("4");
+            sub.createRun().setText("5.2.1 占位子章节");
+
+            XWPFTable table = doc.createTable(3, 4);
+            table.getRow(0).getCell(0).setText("测试项名称");
+            table.getRow(0).getCell(2).setText("用例标识");
+            table.getRow(1).getCell(0).setText("测试内容");
+            table.getRow(1).getCell(2).setText("扩展列3");
+            table.getRow(2).getCell(0).setText("追踪关系");
+            try (FileOutputStream fos = new FileOutputStream(templatePath.toFile())) {
+                doc.write(fos);
+            }
+        }
+        return templatePath;
+    }
+
+    private static List<String> tableTexts(Path docx) throws Exception {
+        List<String> texts = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(docx.toFile());
+             XWPFDocument doc = new XWPFDocument(fis)) {
+            for (XWPFTable table : doc.getTables()) {
+                texts.add(table.getText());
+            }
+        }
+        return texts;
+    }
+
+    private static void writeRow(XSSFSheet sheet, int rowIndex, List<String> values) {
+        Row row = sheet.createRow(rowIndex);
+        for (int i = 0; i < values.size(); i++) {
+            row.createCell(i).setCellValue(values.get(i));
+        }
+    }
+}
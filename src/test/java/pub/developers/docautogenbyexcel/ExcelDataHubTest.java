@@ -0,0 +1,578 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.ss.usermodel.DataValidationHelper;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellRangeAddressList;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFName;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.generator.STDGenerator;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.ImportSummary;
+import pub.developers.docautogenbyexcel.hub.SnapshotCache;
+import pub.developers.docautogenbyexcel.hub.WorkbookSnapshot;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+
+import java.io.FileOutputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelDataHubTest {
+
+    @Test
+    void sessionServesAllLoadsFromOneParse() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-session-"));
+        ExcelDataHub hub = new ExcelDataHub();
+
+        try (DataHub.Session ignored = hub.openSession(excelPath.toString())) {
+            Map<String, ModuleData> modules = hub.loadModuleData(excelPath.toString());
+            assertSame(modules, hub.loadModuleData(excelPath.toString()), "会话内应复用同一次解析结果");
+
+            List<TestCase> cases = hub.loadTestCases(excelPath.toString());
+            assertEquals(3, cases.size());
+            assertSame(modules.get("5.2").getTestCases().get(0), cases.get(0), "用例列表应与模块数据共享对象");
+
+            assertEquals(1, hub.loadBasicInfo(excelPath.toString()).size());
+            assertEquals(1, hub.loadListTables(excelPath.toString()).size());
+            assertEquals(2, hub.loadRequirements(excelPath.toString()).size());
+            assertEquals(2, hub.loadTestResults(excelPath.toString()).size());
+            assertEquals("Demo", hub.loadConfig(excelPath.toString()).get("Project"));
+        }
+
+        Map<String, ModuleData> first = hub.loadModuleData(excelPath.toString());
+        assertNotSame(first, hub.loadModuleData(excelPath.toString()), "会话关闭后不应再共享快照");
+        assertEquals(2, first.size());
+    }
+
+    @Test
+    void identicalContentIsServedFromParseCache() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-cache-");
+        Path first = createHubWorkbook(dir);
+        Path copy = Files.copy(first, dir.resolve("upload-copy.xlsx"));
+        ExcelDataHub hub = new ExcelDataHub();
+
+        WorkbookSnapshot a = hub.loadSnapshot(first.toString());
+        WorkbookSnapshot b = hub.loadSnapshot(copy.toString());
+
+        assertSame(a, b, "内容相同的上传应命中缓存");
+        SnapshotCache.Stats stats = hub.getCacheStats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+    }
+
+    @Test
+    void leastRecentlyUsedSnapshotIsEvicted() throws Exception {
+        Path dirA = Files.createTempDirectory("datahub-lru-a-");
+        Path dirB = Files.createTempDirectory("datahub-lru-b-");
+        Path a = createHubWorkbook(dirA);
+        Path b = createHubWorkbook(dirB);
+        try (XSSFWorkbook wb = new XSSFWorkbook(Files.newInputStream(b))) {
+            writeRow(wb.getSheet("Meta"), 2, "Owner", "QA");
+            try (FileOutputStream fos = new FileOutputStream(b.toFile())) {
+                wb.write(fos);
+            }
+        }
+        ExcelDataHub hub = new ExcelDataHub(256, 1);
+
+        hub.loadSnapshot(a.toString());
+        hub.loadSnapshot(b.toString());
+        hub.loadSnapshot(a.toString());
+
+        SnapshotCache.Stats stats = hub.getCacheStats();
+        assertEquals(0, stats.hits());
+        assertEquals(3, stats.misses());
+        assertEquals(2, stats.evictions());
+    }
+
+    @Test
+    void parallelParseMatchesSequentialParse() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-parallel-"));
+
+        WorkbookSnapshot sequential = new ExcelDataHub(256, 32, 1).readSnapshot(excelPath.toString());
+        WorkbookSnapshot parallel = new ExcelDataHub(256, 32, 4).readSnapshot(excelPath.toString());
+
+        assertEquals(List.copyOf(sequential.getModuleDataMap().keySet()), List.copyOf(parallel.getModuleDataMap().keySet()));
+        List<TestCase> expectedCases = sequential.getTestCases();
+        List<TestCase> actualCases = parallel.getTestCases();
+        assertEquals(expectedCases.size(), actualCases.size());
+        for (int i = 0; i < expectedCases.size(); i++) {
+            assertEquals(expectedCases.get(i).getColumnData(), actualCases.get(i).getColumnData());
+            assertEquals(expectedCases.get(i).getTestSteps().size(), actualCases.get(i).getTestSteps().size());
+        }
+        assertEquals(1, parallel.getTestCases().get(0).getTestSteps().size(), "测试步骤应在汇合时关联到用例");
+        assertEquals(List.copyOf(sequential.getBasicInfoMap().keySet()), List.copyOf(parallel.getBasicInfoMap().keySet()));
+        assertEquals(List.copyOf(sequential.getListTableMap().keySet()), List.copyOf(parallel.getListTableMap().keySet()));
+        assertEquals(sequential.getRequirements().size(), parallel.getRequirements().size());
+        assertEquals(sequential.getTestResults().size(), parallel.getTestResults().size());
+        assertEquals(List.copyOf(sequential.getConfig().entrySet()), List.copyOf(parallel.getConfig().entrySet()));
+    }
+
+    @Test
+    void repeatedCellValuesShareOneInstance() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-intern-"));
+
+        WorkbookSnapshot snapshot = new ExcelDataHub().readSnapshot(excelPath.toString());
+
+        List<TestCase> cases = snapshot.getTestCases();
+        assertSame(cases.get(0).getColumnValue("追踪关系"), cases.get(1).getColumnValue("追踪关系"),
+                "重复的单元格取值应共享同一个实例");
+        assertSame(snapshot.getTestResults().get(0).getExecutionDate(), snapshot.getTestResults().get(1).getExecutionDate());
+    }
+
+    @Test
+    void onlyChangedSheetsAreReRead() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-incremental-"));
+        ExcelDataHub hub = new ExcelDataHub();
+
+        WorkbookSnapshot before = hub.loadSnapshot(excelPath.toString());
+        try (XSSFWorkbook wb = new XSSFWorkbook(Files.newInputStream(excelPath))) {
+            writeRow(wb.getSheet("Data_STR_TestResults"), 3, "TC-003", "2024-02-02", "通过", "");
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+        WorkbookSnapshot after = hub.loadSnapshot(excelPath.toString());
+
+        assertEquals(3, after.getTestResults().size(), "变化的结果Sheet应重新解析");
+        assertSame(before.getModuleDataMap(), after.getModuleDataMap(), "未变化的Sheet应复用上次的对象");
+        assertSame(before.getRequirements(), after.getRequirements());
+        assertSame(before.getListTableMap(), after.getListTableMap());
+        assertSame(before.getConfig(), after.getConfig());
+    }
+
+    @Test
+    void parseHistoryDoesNotKeepSnapshotsEvictedFromCache() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-history-"));
+        // 内存上限为0：解析结果不进缓存，只有解析历史可能引用它
+        ExcelDataHub hub = new ExcelDataHub(0, 32);
+
+        WeakReference<WorkbookSnapshot> loaded = new WeakReference<>(hub.loadSnapshot(excelPath.toString()));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (loaded.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(loaded.get(), "解析历史不应在缓存预算之外持有快照");
+        assertEquals(3, hub.loadSnapshot(excelPath.toString()).getTestCases().size());
+    }
+
+    @Test
+    void appendedResultsGoToJournalUntilCompacted() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-journal-"));
+        byte[] original = Files.readAllBytes(excelPath);
+        ExcelDataHub hub = new ExcelDataHub();
+
+        ImportSummary summary = hub.appendTestResults(excelPath.toString(), List.of(
+                new TestResult("TC-003", "2024-03-01", "通过", ""),
+                new TestResult("TC-404", "2024-03-01", "失败", "")));
+        hub.appendTestResults(excelPath.toString(), List.of(new TestResult("TC-001", "2024-03-02", "失败", "BUG\t2")));
+
+        assertEquals(1, summary.getSuccessCount());
+        assertEquals(1, summary.getFailedCount());
+        assertArrayEquals(original, Files.readAllBytes(excelPath), "追加结果不应重写工作簿");
+        List<TestResult> merged = hub.loadTestResults(excelPath.toString());
+        assertEquals(4, merged.size());
+        assertEquals("BUG\t2", merged.get(3).getDefectId());
+
+        assertEquals(2, hub.compactTestResults(excelPath.toString()));
+        assertEquals(0, hub.compactTestResults(excelPath.toString()));
+        assertEquals(4, hub.loadTestResults(excelPath.toString()).size());
+        assertEquals(4, hub.loadSnapshot(excelPath.toString()).getTestResults().size(), "压缩后结果应写入工作簿");
+    }
+
+    @Test
+    void concurrentImportsAreCoalescedWithPerCallerSummaries() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-group-"));
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 200);
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<ImportSummary>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                List<TestResult> batch = new ArrayList<>();
+                batch.add(new TestResult("TC-00" + (i % 3 + 1), "2024-04-0" + (i + 1), "通过", ""));
+                for (int j = 0; j < i % 3; j++) {
+                    batch.add(new TestResult("TC-9" + i + j, "2024-04-0" + (i + 1), "失败", ""));
+                }
+                futures.add(pool.submit(() -> hub.appendTestResults(excelPath.toString(), batch)));
+            }
+            for (int i = 0; i < callers; i++) {
+                ImportSummary summary = futures.get(i).get();
+                assertEquals(1, summary.getSuccessCount(), "每个调用方只统计自己的批次");
+                assertEquals(i % 3, summary.getFailedCount());
+                assertEquals(i % 3, summary.getErrors().size());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2 + callers, hub.loadTestResults(excelPath.toString()).size());
+    }
+
+    @Test
+    void interruptedImportStillWritesItsBatchAndReleasesTheCoordinator() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-interrupt-"));
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 10_000);
+        AtomicReference<ImportSummary> summary = new AtomicReference<>();
+        AtomicBoolean interruptRestored = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            try {
+                summary.set(hub.appendTestResults(excelPath.toString(),
+                        List.of(new TestResult("TC-001", "2024-05-01", "通过", ""))));
+                interruptRestored.set(Thread.currentThread().isInterrupted());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        Thread.sleep(300);
+        // 中断等待窗口中的写入方：应立即写入已排队的批次，而不是丢下批次和写入状态
+        writer.interrupt();
+        writer.join(5_000);
+        assertFalse(writer.isAlive(), "等待窗口被中断后应立即写入");
+        assertEquals(1, summary.get().getSuccessCount());
+        assertTrue(interruptRestored.get(), "应恢复线程的中断标志");
+
+        ExcelDataHub quick = new ExcelDataHub(256, 32, 1, 0);
+        quick.appendTestResults(excelPath.toString(), List.of(new TestResult("TC-002", "2024-05-02", "通过", "")));
+        hub.appendTestResults(excelPath.toString(), List.of(new TestResult("TC-003", "2024-05-03", "通过", "")));
+        assertEquals(5, hub.loadTestResults(excelPath.toString()).size());
+    }
+
+    @Test
+    void interruptedQueuedImportIsWithdrawn() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-withdraw-"));
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 1_000);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<ImportSummary> first = pool.submit(() -> hub.appendTestResults(excelPath.toString(),
+                    List.of(new TestResult("TC-001", "2024-05-01", "通过", ""))));
+            Thread.sleep(200);
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            Thread queued = new Thread(() -> {
+                try {
+                    hub.appendTestResults(excelPath.toString(),
+                            List.of(new TestResult("TC-002", "2024-05-02", "通过", "")));
+                } catch (Exception e) {
+                    failure.set(e);
+                }
+            });
+            queued.start();
+            Thread.sleep(200);
+            // 排队中的调用方被中断：撤回本批，不应在之后被写入
+            queued.interrupt();
+            queued.join(5_000);
+            assertTrue(failure.get() instanceof InterruptedException);
+
+            assertEquals(1, first.get().getSuccessCount());
+            assertEquals(3, hub.loadTestResults(excelPath.toString()).size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentWritesAndLoadsOfOneWorkbookDoNotInterleave() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-locks-"));
+        ExcelDataHub hub = new ExcelDataHub();
+        int writers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers * 2);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                int count = 10 * (i + 1);
+                futures.add(pool.submit(() -> {
+                    List<Requirement> requirements = new ArrayList<>();
+                    for (int r = 0; r < count; r++) {
+                        requirements.add(new Requirement("REQ-" + r, "需求" + r));
+                    }
+                    hub.writeRequirements(excelPath.toString(), requirements);
+                    return null;
+                }));
+                futures.add(pool.submit(() -> {
+                    int size = hub.loadRequirements(excelPath.toString()).size();
+                    assertTrue(size == 2 || size % 10 == 0, "读取不应看到写了一半的工作簿: " + size);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(3, hub.loadTestCases(excelPath.toString()).size(), "其他Sheet应保持完整");
+    }
+
+    @Test
+    void streamingExportRebuildsTargetSheetAndKeepsOthers() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-export-"));
+        ExcelDataHub hub = new ExcelDataHub();
+        List<Requirement> requirements = new ArrayList<>();
+        for (int r = 0; r < 5_000; r++) {
+            requirements.add(new Requirement("REQ-" + r, "需求" + r));
+        }
+
+        hub.writeRequirements(excelPath.toString(), requirements);
+        TestCase first = new TestCase("5.2");
+        first.addColumnData("TCID", "TC-100");
+        first.addColumnData("ReqID", "REQ-1");
+        hub.writeTestCases(excelPath.toString(), List.of(first));
+        TestCase second = new TestCase("5.2");
+        second.addColumnData("TCID", "TC-101");
+        second.addColumnData("ReqID", "REQ-MISSING");
+        ImportSummary summary = hub.writeTestCases(excelPath.toString(), List.of(second));
+
+        assertEquals(1, summary.getWarnings().size());
+        List<Requirement> written = hub.loadRequirements(excelPath.toString());
+        assertEquals(5_000, written.size());
+        assertEquals("REQ-4999", written.get(4_999).getRequirementId());
+        try (XSSFWorkbook wb = new XSSFWorkbook(excelPath.toFile())) {
+            assertEquals(List.of("测试用例", "测试步骤", "基本信息", "接口信息", "Data_SRS_Requirements",
+                    "Data_STR_TestResults", "Meta", "Data_STD_TestCases"), sheetNames(wb), "Sheet顺序应保持不变");
+            XSSFSheet exported = wb.getSheet("Data_STD_TestCases");
+            assertEquals(2, exported.getLastRowNum(), "第二次导出应保留第一次写入的用例");
+            assertEquals("TC-100", exported.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("TC-101", exported.getRow(2).getCell(0).getStringCellValue());
+        }
+        assertEquals(3, hub.loadTestCases(excelPath.toString()).size());
+        assertEquals(2, hub.loadTestResults(excelPath.toString()).size());
+    }
+
+    @Test
+    void exportKeepsTargetSheetLayout() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-layout-"));
+        try (XSSFWorkbook wb = new XSSFWorkbook(Files.newInputStream(excelPath))) {
+            XSSFSheet reqs = wb.getSheet("Data_SRS_Requirements");
+            reqs.setColumnWidth(2, 40 * 256);
+            XSSFCellStyle headerStyle = wb.createCellStyle();
+            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            reqs.getRow(0).getCell(0).setCellStyle(headerStyle);
+            reqs.getRow(0).setHeightInPoints(30);
+            reqs.createFreezePane(0, 1);
+            reqs.addMergedRegion(new CellRangeAddress(0, 0, 4, 5));
+            DataValidationHelper helper = reqs.getDataValidationHelper();
+            reqs.addValidationData(helper.createValidation(helper.createExplicitListConstraint(new String[]{"高", "中", "低"}),
+                    new CellRangeAddressList(1, 100, 3, 3)));
+            int index = wb.getSheetIndex(reqs);
+            wb.setPrintArea(index, "$A$1:$D$100");
+            XSSFName scoped = wb.createName();
+            scoped.setNameName("ReqIds");
+            scoped.setSheetIndex(index);
+            scoped.setRefersToFormula("Data_SRS_Requirements!$A$2:$A$100");
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+
+        new ExcelDataHub().writeRequirements(excelPath.toString(), List.of(new Requirement("REQ-9", "新需求")));
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(excelPath.toFile())) {
+            XSSFSheet reqs = wb.getSheet("Data_SRS_Requirements");
+            int index = wb.getSheetIndex(reqs);
+            assertEquals(4, index, "Sheet位置应保持不变");
+            assertEquals("REQ-9", reqs.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(40 * 256, reqs.getColumnWidth(2), "列宽应保留");
+            assertEquals(FillPatternType.SOLID_FOREGROUND, reqs.getRow(0).getCell(0).getCellStyle().getFillPattern(),
+                    "表头样式应保留");
+            assertEquals(30f, reqs.getRow(0).getHeightInPoints());
+            assertEquals(1, reqs.getPaneInformation().getHorizontalSplitPosition(), "冻结窗格应保留");
+            assertEquals(List.of(new CellRangeAddress(0, 0, 4, 5)), reqs.getMergedRegions());
+            assertEquals(1, reqs.getDataValidations().size(), "数据验证应保留");
+            assertEquals("Data_SRS_Requirements!$A$1:$D$100", wb.getPrintArea(index), "打印区域应保留");
+            XSSFName scoped = wb.getName("ReqIds");
+            assertEquals(index, scoped.getSheetIndex(), "Sheet作用域的名称应保留");
+            assertEquals("Data_SRS_Requirements!$A$2:$A$100", scoped.getRefersToFormula());
+        }
+    }
+
+    @Test
+    void snapshotFileIsReusedAcrossInstancesAndIgnoredWhenStale() throws Exception {
+        Path excelPath = createHubWorkbook(Files.createTempDirectory("datahub-dhub-"));
+        Path snapshotPath = Path.of(excelPath + ".dhub");
+        WorkbookSnapshot parsed = new ExcelDataHub().loadSnapshot(excelPath.toString());
+        assertTrue(Files.isRegularFile(snapshotPath), "解析后应保存快照文件");
+
+        WorkbookSnapshot loaded = new ExcelDataHub().loadSnapshot(excelPath.toString());
+        assertSnapshotsEqual(parsed, loaded);
+        List<TestCase> cases = loaded.getTestCases();
+        assertSame(cases.get(0).getSchema(), cases.get(2).getSchema(), "解码后同一Sheet的用例应共用列结构");
+        assertEquals("输入用户名", cases.get(0).getTestSteps().get(0).action);
+
+        // 格式版本不符时重新解析，并用当前版本覆盖快照文件
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[7] = 99;
+        Files.write(snapshotPath, bytes);
+        assertSnapshotsEqual(parsed, new ExcelDataHub().loadSnapshot(excelPath.toString()));
+        assertEquals(1, Files.readAllBytes(snapshotPath)[7]);
+
+        // 源文件变化后指纹不符，不能使用旧快照
+        new ExcelDataHub().writeRequirements(excelPath.toString(), List.of(new Requirement("REQ-9", "新需求")));
+        assertEquals(List.of("REQ-9"), new ExcelDataHub().loadSnapshot(excelPath.toString()).getRequirements()
+                .stream().map(Requirement::getRequirementId).toList());
+    }
+
+    @Test
+    void generationWithTemplateProjectionSavesAndReusesSnapshotFile() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-generate-");
+        Path excelPath = createHubWorkbook(dir);
+        Path templatePath = dir.resolve("template.docx");
+        try (XWPFDocument doc = new XWPFDocument()) {
+            doc.createParagraph().createRun().setText("5.2 功能测试");
+            XWPFTable table = doc.createTable(1, 4);
+            table.getRow(0).getCell(0).setText("测试项名称");
+            table.getRow(0).getCell(2).setText("标识");
+            try (FileOutputStream fos = new FileOutputStream(templatePath.toFile())) {
+                doc.write(fos);
+            }
+        }
+
+        // 每次生成使用新的数据中枢，相当于批量任务中先后运行的两个进程
+        ParseCountingHub first = new ParseCountingHub();
+        new STDGenerator(first).generate(excelPath.toString(), templatePath.toString(),
+                dir.resolve("out1.docx").toString());
+        assertTrue(first.projections.size() >= 1);
+        assertFalse(first.projections.get(0).isAll(), "生成时应按模板列裁剪解析，而不是整本解析");
+
+        // 完整快照在后台解析保存，等待快照文件写出
+        Path snapshotPath = Path.of(excelPath + ".dhub");
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!Files.isRegularFile(snapshotPath) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(Files.isRegularFile(snapshotPath), "按模板列裁剪生成后也应保存快照文件");
+
+        ParseCountingHub second = new ParseCountingHub();
+        new STDGenerator(second).generate(excelPath.toString(), templatePath.toString(),
+                dir.resolve("out2.docx").toString());
+        assertEquals(0, second.parses.get(), "第二次生成应从快照文件加载，不再解析工作簿");
+    }
+
+    /** 记录解析次数及每次解析所用列投影的数据中枢 */
+    private static final class ParseCountingHub extends ExcelDataHub {
+        private final AtomicInteger parses = new AtomicInteger();
+        private final List<ColumnProjection> projections = new CopyOnWriteArrayList<>();
+
+        @Override
+        public WorkbookSnapshot readSnapshot(String excelPath, ColumnProjection projection, ModuleFilter moduleFilter)
+                throws Exception {
+            parses.incrementAndGet();
+            projections.add(projection);
+            return super.readSnapshot(excelPath, projection, moduleFilter);
+        }
+    }
+
+    private static void assertSnapshotsEqual(WorkbookSnapshot expected, WorkbookSnapshot actual) {
+        assertEquals(expected.getSheetTypes(), actual.getSheetTypes());
+        assertEquals(expected.getModuleDataMap().keySet(), actual.getModuleDataMap().keySet());
+        List<TestCase> expectedCases = expected.getTestCases();
+        List<TestCase> actualCases = actual.getTestCases();
+        assertEquals(expectedCases.size(), actualCases.size());
+        for (int i = 0; i < expectedCases.size(); i++) {
+            assertEquals(expectedCases.get(i).getModuleNumber(), actualCases.get(i).getModuleNumber());
+            assertEquals(expectedCases.get(i).getColumnData(), actualCases.get(i).getColumnData());
+            assertEquals(expectedCases.get(i).getTestSteps().size(), actualCases.get(i).getTestSteps().size());
+        }
+        assertEquals(expected.getBasicInfoMap().get("表1.1 被测软件基本信息").getAllFields(),
+                actual.getBasicInfoMap().get("表1.1 被测软件基本信息").getAllFields());
+        assertEquals(expected.getListTableMap().get("表1.2 被测软件接口信息").getRows(),
+                actual.getListTableMap().get("表1.2 被测软件接口信息").getRows());
+        assertEquals(expected.getRequirements(), actual.getRequirements());
+        assertEquals(expected.getRequirements().get(0).getPriority(), actual.getRequirements().get(0).getPriority());
+        assertEquals(expected.getTestResults().size(), actual.getTestResults().size());
+        assertEquals(expected.getTestResults().get(1).getDefectId(), actual.getTestResults().get(1).getDefectId());
+        assertEquals(expected.getConfig(), actual.getConfig());
+    }
+
+    private static List<String> sheetNames(XSSFWorkbook wb) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < wb.getNumberOfSheets(); i++) {
+            names.add(wb.getSheetName(i));
+        }
+        return names;
+    }
+
+    static Path createHubWorkbook(Path dir) throws Exception {
+        Path excelPath = dir.resolve("hub.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            XSSFSheet cases = wb.createSheet("测试用例");
+            writeRow(cases, 0, "模块编号", "测试用例标识", "测试项名称", "追踪关系");
+            writeRow(cases, 1, "5.2", "TC-001", "登录测试", "REQ-1");
+            writeRow(cases, 2, "5.2", "TC-002", "注销测试", "REQ-1");
+            writeRow(cases, 3, "5.3", "TC-003", "导出测试", "REQ-2");
+
+            XSSFSheet steps = wb.createSheet("测试步骤");
+            writeRow(steps, 0, "测试用例标识", "步骤序号", "测试步骤", "预期结果");
+            writeRow(steps, 1, "TC-001", "1", "输入用户名", "显示主页");
+
+            XSSFSheet basic = wb.createSheet("基本信息");
+            writeRow(basic, 0, "表格名称", "字段名", "字段值");
+            writeRow(basic, 1, "表1.1 被测软件基本信息", "软件等级", "D");
+
+            XSSFSheet list = wb.createSheet("接口信息");
+            writeRow(list, 0, "表格名称", "序号", "接口类型");
+            writeRow(list, 1, "表1.2 被测软件接口信息", "1", "串口");
+
+            XSSFSheet reqs = wb.createSheet("Data_SRS_Requirements");
+            writeRow(reqs, 0, "ReqID", "ReqTitle", "Description", "Priority");
+            writeRow(reqs, 1, "REQ-1", "登录", "用户登录", "高");
+            writeRow(reqs, 2, "REQ-2", "导出", "导出报表", "中");
+
+            XSSFSheet results = wb.createSheet("Data_STR_TestResults");
+            writeRow(results, 0, "TCID", "ExecDate", "Result", "DefectID");
+            writeRow(results, 1, "TC-001", "2024-01-01", "通过", "");
+            writeRow(results, 2, "TC-002", "2024-01-01", "失败", "BUG-1");
+
+            XSSFSheet meta = wb.createSheet("Meta");
+            writeRow(meta, 0, "Key", "Value");
+            writeRow(meta, 1, "Project", "Demo");
+
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+        return excelPath;
+    }
+
+    private static void writeRow(XSSFSheet sheet, int rowIndex, String... values) {
+        Row row = sheet.createRow(rowIndex);
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+}
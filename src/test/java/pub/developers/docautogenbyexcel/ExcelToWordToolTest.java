@@ -0,0 +1,33 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.commons.cli.CommandLine;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelToWordToolTest {
+
+    @Test
+    void sourceOptionIsReadInAnyPosition() throws Exception {
+        CommandLine cmd = ExcelToWordTool.parseCommandLine(new String[]{
+                "-excel", "ci-data", "-source", "csv", "-word", "template.docx", "-docType", "STR"});
+        assertEquals(DataSourceType.CSV, ExcelToWordTool.parseDataSource(cmd));
+        assertEquals("ci-data", cmd.getOptionValue("excel"));
+    }
+
+    @Test
+    void modulesOptionIsReadAfterOtherOptions() throws Exception {
+        CommandLine cmd = ExcelToWordTool.parseCommandLine(new String[]{
+                "-excel", "data.xlsx", "-word", "template.docx", "-out", "output", "-docType", "STD",
+                "-modules", "6.2"});
+        ModuleFilter filter = ExcelToWordTool.parseModuleFilter(cmd);
+        assertFalse(filter.isAll());
+        assertTrue(filter.matches("6.2"));
+        assertFalse(filter.matches("6.1"));
+        assertEquals("STD", cmd.getOptionValue("docType"));
+    }
+}
@@ -0,0 +1,159 @@
+package pub.developers.docautogenbyexcel;
+
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.ImportSummary;
+import pub.developers.docautogenbyexcel.hub.IndexedStoreDataHub;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IndexedStoreDataHubTest {
+
+    @Test
+    void importedStoreMatchesExcelSource() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-store-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        String store = dir.resolve("hub-store").toString();
+        ExcelDataHub excelHub = new ExcelDataHub();
+
+        assertEquals(3, new IndexedStoreDataHub().importFrom(excelHub, excelPath.toString(), store));
+
+        DataHub storeHub = DataSourceType.STORE.createHub();
+        List<TestCase> expected = excelHub.loadTestCases(excelPath.toString());
+        List<TestCase> actual = storeHub.loadTestCases(store);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getModuleNumber(), actual.get(i).getModuleNumber());
+            assertEquals(expected.get(i).getColumnData(), actual.get(i).getColumnData());
+            assertEquals(expected.get(i).getTestSteps().size(), actual.get(i).getTestSteps().size());
+        }
+        assertSame(actual.get(0).getSchema(), actual.get(2).getSchema(), "同一列结构的用例应共用列结构");
+        assertEquals(excelHub.loadModuleData(excelPath.toString()).keySet(), storeHub.loadModuleData(store).keySet());
+        assertEquals(excelHub.loadRequirements(excelPath.toString()), storeHub.loadRequirements(store));
+        assertEquals(Requirement.Priority.HIGH, storeHub.loadRequirements(store).get(0).getPriority());
+        assertEquals(2, storeHub.loadTestResults(store).size());
+        assertEquals("BUG-1", storeHub.loadTestResults(store).get(1).getDefectId());
+        assertEquals("D", storeHub.loadBasicInfo(store).get("表1.1 被测软件基本信息").getFieldValue("软件等级"));
+        assertEquals(1, storeHub.loadListTables(store).get("表1.2 被测软件接口信息").getRows().size());
+        assertEquals("Demo", storeHub.loadConfig(store).get("Project"));
+    }
+
+    @Test
+    void indexedQueriesReadOnlyMatchingRecords() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-store-query-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        String store = dir.resolve("hub-store").toString();
+        IndexedStoreDataHub hub = new IndexedStoreDataHub();
+        hub.importFrom(new ExcelDataHub(), excelPath.toString(), store);
+
+        Map<String, ModuleData> modules = hub.loadModules(store, List.of("5.3", "9.9"));
+        assertEquals(List.of("5.3"), List.copyOf(modules.keySet()));
+        assertEquals("TC-003", modules.get("5.3").getTestCases().get(0).getColumnValue("测试用例标识"));
+
+        TestCase tc = hub.findTestCase(store, "TC-001");
+        assertEquals("登录测试", tc.getColumnValue("测试项名称"));
+        assertEquals(1, tc.getTestSteps().size());
+        assertNull(hub.findTestCase(store, "TC-404"));
+
+        assertEquals(List.of("TC-001", "TC-002"), hub.findTestCasesByRequirement(store, "REQ-1").stream()
+                .map(c -> c.getColumnValue("测试用例标识")).toList());
+        assertEquals("导出", hub.findRequirement(store, "REQ-2").getRequirementName());
+        assertNull(hub.findRequirement(store, "REQ-404"));
+    }
+
+    @Test
+    void appendTestResultsOnlyAppendsTheBatch() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-store-append-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        Path store = dir.resolve("hub-store");
+        IndexedStoreDataHub hub = new IndexedStoreDataHub();
+        hub.importFrom(new ExcelDataHub(), excelPath.toString(), store.toString());
+        byte[] before = Files.readAllBytes(store.resolve("results.log"));
+        byte[] cases = Files.readAllBytes(store.resolve("cases.dat"));
+
+        ImportSummary summary = hub.appendTestResults(store.toString(), List.of(
+                new TestResult("TC-003", "2024-01-02", "通过", ""),
+                new TestResult("TC-404", "2024-01-02", "通过", "")));
+
+        assertEquals(1, summary.getSuccessCount());
+        assertEquals(1, summary.getFailedCount());
+        byte[] after = Files.readAllBytes(store.resolve("results.log"));
+        assertArrayEquals(before, Arrays.copyOf(after, before.length), "已有结果不应被改写");
+        assertArrayEquals(cases, Files.readAllBytes(store.resolve("cases.dat")), "追加结果不应改写用例");
+        List<TestResult> results = hub.loadTestResults(store.toString());
+        assertEquals(3, results.size());
+        assertEquals("TC-003", results.get(2).getTestCaseId());
+
+        // 新实例从文件读取，结果一致
+        assertEquals(3, new IndexedStoreDataHub().loadTestResults(store.toString()).size());
+    }
+
+    @Test
+    void writeRequirementsUpdatesIndexAndSession() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-store-req-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        String store = dir.resolve("hub-store").toString();
+        IndexedStoreDataHub hub = new IndexedStoreDataHub();
+        hub.importFrom(new ExcelDataHub(), excelPath.toString(), store);
+
+        try (DataHub.Session ignored = hub.openSession(store)) {
+            Map<String, ModuleData> modules = hub.loadModuleData(store);
+            assertSame(modules, hub.loadModuleData(store), "会话内应复用已读取的用例");
+            assertEquals(2, hub.loadRequirements(store).size());
+
+            hub.writeRequirements(store, List.of(new Requirement("REQ-9", "新需求")));
+            assertEquals(List.of("REQ-9"), hub.loadRequirements(store).stream()
+                    .map(Requirement::getRequirementId).toList(), "写入后应重新读取");
+        }
+        assertEquals("新需求", hub.findRequirement(store, "REQ-9").getRequirementName());
+        assertNull(hub.findRequirement(store, "REQ-1"));
+        assertEquals(3, hub.loadTestCases(store).size());
+    }
+
+    @Test
+    void dataFilesFromAnInterruptedImportAreRejected() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-store-interrupted-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        Path store = dir.resolve("hub-store");
+        new IndexedStoreDataHub().importFrom(new ExcelDataHub(), excelPath.toString(), store.toString());
+        byte[] oldIndex = Files.readAllBytes(store.resolve("store.idx"));
+
+        // 再次导入后换回旧索引，相当于数据文件已替换、索引尚未写入时中断
+        new ExcelDataHub().writeRequirements(excelPath.toString(), List.of(new Requirement("REQ-9", "新需求")));
+        new IndexedStoreDataHub().importFrom(new ExcelDataHub(), excelPath.toString(), store.toString());
+        Files.write(store.resolve("store.idx"), oldIndex);
+
+        IndexedStoreDataHub hub = new IndexedStoreDataHub();
+        assertThrows(IOException.class, () -> hub.loadModuleData(store.toString()));
+        assertThrows(IOException.class, () -> hub.findTestCase(store.toString(), "TC-001"));
+        assertThrows(IOException.class, () -> hub.loadRequirements(store.toString()));
+        assertThrows(IOException.class, () -> hub.findRequirement(store.toString(), "REQ-1"));
+        assertThrows(IOException.class, () -> hub.loadTestResults(store.toString()));
+        assertThrows(IOException.class, () -> hub.loadConfig(store.toString()));
+    }
+
+    @Test
+    void missingStoreIsReported() {
+        IndexedStoreDataHub hub = new IndexedStoreDataHub();
+        assertThrows(FileNotFoundException.class,
+                () -> hub.loadModuleData(Path.of("target", "no-such-store").toString()));
+    }
+}
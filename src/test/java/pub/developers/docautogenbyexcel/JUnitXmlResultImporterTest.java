@@ -0,0 +1,74 @@
+package pub.developers.docautogenbyexcel;
+
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.ImportSummary;
+import pub.developers.docautogenbyexcel.importer.JUnitXmlResultImporter;
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JUnitXmlResultImporterTest {
+
+    @Test
+    void latestVerdictPerTcidAcrossJUnitAndTestNgReports() throws Exception {
+        Path dir = Files.createTempDirectory("junit-import-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        Path first = Files.writeString(dir.resolve("TEST-first.xml"), """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <testsuites>
+                  <testsuite name="LoginTest" timestamp="2024-05-01T10:00:00" tests="4">
+                    <testcase classname="demo.LoginTest" name="testTC001_login[1]" time="0.1"/>
+                    <testcase classname="demo.LoginTest" name="testTC001_login[2]" time="0.1">
+                      <failure message="expected true">stack</failure>
+                    </testcase>
+                    <testcase classname="demo.LoginTest" name="tc_002_logout" time="0.1"/>
+                    <testcase classname="demo.LoginTest" name="helperCheck" time="0.1"/>
+                  </testsuite>
+                </testsuites>
+                """);
+        Path second = Files.writeString(dir.resolve("TEST-second.xml"), """
+                <testsuite name="LoginTest" timestamp="2024-05-02T09:00:00">
+                  <testcase classname="demo.LoginTest" name="testTC001_login[1]"/>
+                  <testcase classname="demo.LoginTest" name="tc_002_logout"><skipped/></testcase>
+                </testsuite>
+                """);
+        Path testng = Files.writeString(dir.resolve("testng-results.xml"), """
+                <testng-results>
+                  <suite name="Export" started-at="2024-05-03T08:00:00Z">
+                    <test name="export">
+                      <class name="demo.ExportTC003Test">
+                        <test-method status="FAIL" name="setUpTC002" is-config="true" started-at="2024-05-03T08:00:01Z"/>
+                        <test-method status="FAIL" name="export" started-at="2024-05-03T08:01:00Z"/>
+                      </class>
+                    </test>
+                  </suite>
+                </testng-results>
+                """);
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 10, false);
+
+        ImportSummary summary = new JUnitXmlResultImporter(hub)
+                .importReports(excelPath.toString(), List.of(first, second, testng));
+
+        assertEquals(3, summary.getSuccessCount());
+        assertEquals(0, summary.getFailedCount());
+        assertEquals(1, summary.getWarnings().size());
+        assertTrue(summary.getWarnings().get(0).contains("demo.LoginTest.helperCheck"), summary.getWarnings().get(0));
+
+        List<TestResult> results = hub.loadTestResults(excelPath.toString());
+        List<String> imported = new ArrayList<>();
+        for (TestResult result : results.subList(results.size() - 3, results.size())) {
+            imported.add(result.getTestCaseId() + "/" + result.getExecutionDate() + "/" + result.getVerdict());
+        }
+        assertEquals(List.of(
+                "TC-001/2024-05-02/通过",
+                "TC-002/2024-05-01/通过",
+                "TC-003/2024-05-03/失败"), imported);
+    }
+}
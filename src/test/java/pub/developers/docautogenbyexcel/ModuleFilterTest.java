@@ -0,0 +1,145 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.generator.STDGenerator;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.reader.ColumnProjection;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.ModuleFilter;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModuleFilterTest {
+
+    @Test
+    void prefixAndGlobPatterns() {
+        ModuleFilter filter = ModuleFilter.parse("5.3.*， 6.1; 7.?");
+
+        assertTrue(filter.matches("5.3"));
+        assertTrue(filter.matches("5.3.2"));
+        assertTrue(filter.matches("6.1"));
+        assertTrue(filter.matches("6.1.4.1"));
+        assertTrue(filter.matches("7.2"));
+        assertFalse(filter.matches("5.30"));
+        assertFalse(filter.matches("6.10"));
+        assertFalse(filter.matches("5.2"));
+        assertFalse(filter.matches("7.12"));
+        assertFalse(filter.matches(null));
+
+        assertSame(ModuleFilter.ALL, ModuleFilter.parse("  "));
+        assertTrue(ModuleFilter.ALL.matches("任意"));
+        assertTrue(filter.union(ModuleFilter.parse("8")).covers(filter));
+        assertFalse(filter.covers(ModuleFilter.ALL));
+    }
+
+    @Test
+    void readersSkipRowsOfOtherModules() throws Exception {
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(Files.createTempDirectory("module-filter-read-"));
+        ModuleFilter filter = ModuleFilter.parse("5.2");
+
+        Map<String, ModuleData> dom = new ExcelReader().readExcel(excelPath.toString(), ColumnProjection.ALL, filter);
+        Map<String, ModuleData> streamed = new StreamingExcelReader().readExcel(excelPath.toString(),
+                ColumnProjection.ALL, filter);
+
+        for (Map<String, ModuleData> modules : List.of(dom, streamed)) {
+            assertEquals(List.of("5.2"), List.copyOf(modules.keySet()));
+            assertEquals(2, modules.get("5.2").getTestCaseCount());
+            assertEquals("TC-002", modules.get("5.2").getTestCases().get(1).getColumnValue("测试用例标识"));
+            assertEquals(1, modules.get("5.2").getTestCases().get(0).getTestSteps().size());
+        }
+    }
+
+    @Test
+    void filteredSessionKeepsOtherModulesReachable() throws Exception {
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(Files.createTempDirectory("module-filter-session-"));
+        String path = excelPath.toString();
+        ModuleFilter filter = ModuleFilter.parse("5.3.*");
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 10, false);
+
+        try (DataHub.Session ignored = hub.openSession(path, ColumnProjection.ALL, filter)) {
+            assertEquals(List.of("5.3"), List.copyOf(hub.loadModuleData(path, ColumnProjection.ALL, filter).keySet()));
+            assertEquals(1, hub.loadTestCases(path, ColumnProjection.ALL, filter).size());
+            assertEquals(List.of("5.2", "5.3"), List.copyOf(hub.loadModuleData(path).keySet()));
+            assertEquals(3, hub.loadTestCases(path).size());
+            assertEquals(2, hub.loadRequirements(path).size());
+        }
+    }
+
+    @Test
+    void generatorRebuildsOnlySelectedSections() throws Exception {
+        Path dir = Files.createTempDirectory("module-filter-generate-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        Path templatePath = createTemplate(dir);
+        Path outputPath = dir.resolve("output.docx");
+
+        new STDGenerator(new ExcelDataHub(256, 32, 1, 10, false))
+                .generate(excelPath.toString(), templatePath.toString(), outputPath.toString(), ModuleFilter.parse("5.3"));
+
+        List<String> headings = new ArrayList<>();
+        List<String> tables = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(outputPath.toFile());
+             XWPFDocument doc = new XWPFDocument(fis)) {
+            for (XWPFParagraph paragraph : doc.getParagraphs()) {
+                if (paragraph.getStyle() != null) {
+                    headings.add(paragraph.getStyle() + ":" + paragraph.getText().trim());
+                }
+            }
+            for (XWPFTable table : doc.getTables()) {
+                tables.add(table.getText());
+            }
+        }
+
+        assertEquals(List.of(
+                "22:5.2 功能测试", "22:5.3 导出测试", "16:5.3.1 导出测试测试",
+                "3:5.2 功能测试", "4:5.2.1 XX测试",
+                "3:5.3 导出测试", "4:5.3.1 导出测试测试",
+                "3:6 测试结论"), headings);
+        assertEquals("测试项名称\tXX\t标识\tXX\n", tables.get(0), "未选中章节的表格保持模板原样");
+        assertTrue(tables.get(1).contains("导出测试") && tables.get(1).contains("TC-003"), tables.get(1));
+    }
+
+    private static Path createTemplate(Path dir) throws Exception {
+        Path templatePath = dir.resolve("template.docx");
+        try (XWPFDocument doc = new XWPFDocument()) {
+            paragraph(doc, "22", "5.2 功能测试");
+            paragraph(doc, "22", "5.3 导出测试");
+            for (String module : List.of("5.2", "5.3")) {
+                paragraph(doc, "3", module + ("5.2".equals(module) ? " 功能测试" : " 导出测试"));
+                paragraph(doc, "4", module + ".1 XX测试");
+                XWPFTable table = doc.createTable(1, 4);
+                table.getRow(0).getCell(0).setText("测试项名称");
+                table.getRow(0).getCell(1).setText("XX");
+                table.getRow(0).getCell(2).setText("标识");
+                table.getRow(0).getCell(3).setText("XX");
+            }
+            paragraph(doc, "3", "6 测试结论");
+            try (FileOutputStream fos = new FileOutputStream(templatePath.toFile())) {
+                doc.write(fos);
+            }
+        }
+        return templatePath;
+    }
+
+    private static void paragraph(XWPFDocument doc, String style, String text) {
+        XWPFParagraph paragraph = doc.createParagraph();
+        paragraph.setStyle(style);
+        paragraph.createRun().setText(text);
+    }
+}
@@ -0,0 +1,116 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.validator.PreflightValidator;
+import pub.developers.docautogenbyexcel.validator.ValidationReport;
+
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreflightValidatorTest {
+
+    @Test
+    void headersAndTemplateSectionsAreCrossChecked() throws Exception {
+        Path dir = Files.createTempDirectory("preflight-");
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(dir);
+        Path wordPath = dir.resolve("template.docx");
+        try (XWPFDocument doc = new XWPFDocument()) {
+            paragraph(doc, "22", "5.2 功能测试");
+            paragraph(doc, "3", "5.2 功能测试");
+            // 5.3 只有正文标题，不在目录中
+            paragraph(doc, "3", "5.3 导出测试");
+            paragraph(doc, null, "6.x");
+            try (FileOutputStream fos = new FileOutputStream(wordPath.toFile())) {
+                doc.write(fos);
+            }
+        }
+
+        ValidationReport report = new PreflightValidator().validate(excelPath.toString(), wordPath.toString(), "STR");
+
+        assertTrue(report.isValid(), "不应有错误: " + report.getErrors());
+        assertEquals(List.of("5.2", "5.3"), report.getModuleNumbers());
+        assertEquals(List.of("5.2"), report.getWordSections());
+        assertEquals(List.of("6.x"), report.getPlaceholders());
+        ValidationReport.SheetSummary cases = report.getSheets().get(0);
+        assertEquals("TEST_CASE", cases.type());
+        assertEquals(List.of("模块编号", "测试用例标识", "测试项名称", "追踪关系"), cases.header());
+        assertEquals(3, cases.rowCount());
+        assertEquals("STEPS", report.getSheets().get(1).type());
+
+        List<String> warnings = report.getWarnings();
+        assertEquals(2, warnings.size(), warnings.toString());
+        assertTrue(warnings.get(0).contains("6.x"), warnings.get(0));
+        assertTrue(warnings.get(1).contains("不在Word目录中") && warnings.get(1).contains("5.3"), warnings.get(1));
+    }
+
+    @Test
+    void missingColumnsAndMalformedModulesAreReported() throws Exception {
+        Path dir = Files.createTempDirectory("preflight-columns-");
+        Path excelPath = dir.resolve("bad.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            var cases = wb.createSheet("用例");
+            cases.createRow(0).createCell(0).setCellValue("模块编号");
+            cases.getRow(0).createCell(1).setCellValue("测试项名称");
+            cases.createRow(1).createCell(0).setCellValue("5.2");
+            cases.createRow(2).createCell(0).setCellValue("第五章");
+            cases.createRow(3).createCell(1).setCellValue("缺模块编号");
+            var steps = wb.createSheet("测试步骤");
+            steps.createRow(0).createCell(0).setCellValue("测试用例标识");
+            steps.getRow(0).createCell(1).setCellValue("预期结果");
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+
+        ValidationReport report = new PreflightValidator().validate(excelPath.toString(), null, "STD");
+
+        assertTrue(report.isValid());
+        assertEquals(List.of("5.2", "第五章"), report.getModuleNumbers());
+        String warnings = String.join("\n", report.getWarnings());
+        assertTrue(warnings.contains("1 行缺少模块编号"), warnings);
+        assertTrue(warnings.contains("第五章"), warnings);
+        assertTrue(warnings.contains("测试步骤Sheet '测试步骤' 缺少必要列"), warnings);
+        assertTrue(warnings.contains("缺少'测试用例标识'列"), warnings);
+    }
+
+    @Test
+    void unreadableInputsAreErrors() throws Exception {
+        Path dir = Files.createTempDirectory("preflight-errors-");
+        Path excelPath = dir.resolve("other.xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            wb.createSheet("说明").createRow(0).createCell(0).setCellValue("随便写写");
+            try (FileOutputStream fos = new FileOutputStream(excelPath.toFile())) {
+                wb.write(fos);
+            }
+        }
+        Path brokenWord = Files.writeString(dir.resolve("broken.docx"), "not a zip");
+
+        PreflightValidator validator = new PreflightValidator();
+        ValidationReport report = validator.validate(excelPath.toString(), brokenWord.toString(), "STD");
+
+        assertFalse(report.isValid());
+        assertEquals(2, report.getErrors().size(), report.getErrors().toString());
+        assertTrue(report.getErrors().get(0).contains("没有可识别的数据Sheet"));
+        assertTrue(report.getErrors().get(1).contains("Word模板无法读取"));
+        assertFalse(validator.validate(null, dir.resolve("old.doc").toString(), "STD").isValid());
+        assertThrows(Exception.class, () -> validator.check(excelPath.toString(), null, "STD"));
+    }
+
+    private static void paragraph(XWPFDocument doc, String style, String text) {
+        XWPFParagraph paragraph = doc.createParagraph();
+        if (style != null) {
+            paragraph.setStyle(style);
+        }
+        paragraph.createRun().setText(text);
+    }
+}
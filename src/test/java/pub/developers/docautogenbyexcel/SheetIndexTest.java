@@ -0,0 +1,35 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.reader.SheetIndex;
+import pub.developers.docautogenbyexcel.reader.SheetIndex.SheetType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SheetIndexTest {
+
+    @Test
+    void everySheetIsClassifiedOnce() throws Exception {
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(Files.createTempDirectory("sheet-index-"));
+
+        try (XSSFWorkbook wb = new XSSFWorkbook(Files.newInputStream(excelPath))) {
+            SheetIndex index = SheetIndex.build(wb);
+
+            List<SheetType> types = new ArrayList<>();
+            for (SheetIndex.SheetInfo info : index.getSheets()) {
+                types.add(info.getType());
+            }
+            assertEquals(List.of(SheetType.TEST_CASE, SheetType.STEPS, SheetType.BASIC_INFO, SheetType.LIST,
+                    SheetType.REQUIREMENTS, SheetType.RESULTS, SheetType.META), types);
+            assertEquals("Data_STR_TestResults", index.first(SheetType.RESULTS).getSheetName(),
+                    "测试用例Sheet含用例标识列但不应被当作结果Sheet");
+            assertEquals(2, index.first(SheetType.RESULTS).findColumn("Result"));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package pub.developers.docautogenbyexcel;
+
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader;
+import pub.developers.docautogenbyexcel.reader.StreamingExcelReader.StreamedWorkbook;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StreamingExcelReaderTest {
+
+    @Test
+    void streamingReaderMatchesDomReader() throws Exception {
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(Files.createTempDirectory("streaming-reader-"));
+
+        Map<String, ModuleData> dom = new ExcelReader().readExcel(excelPath.toString());
+        Map<String, ModuleData> streamed = new StreamingExcelReader().readExcel(excelPath.toString());
+
+        assertEquals(dom.keySet(), streamed.keySet(), "模块顺序应一致");
+        for (String module : dom.keySet()) {
+            assertEquals(dom.get(module).getTestCaseCount(), streamed.get(module).getTestCaseCount());
+            for (int i = 0; i < dom.get(module).getTestCaseCount(); i++) {
+                TestCase expected = dom.get(module).getTestCases().get(i);
+                TestCase actual = streamed.get(module).getTestCases().get(i);
+                assertEquals(expected.getColumnData(), actual.getColumnData());
+                assertEquals(expected.getTestSteps().size(), actual.getTestSteps().size());
+            }
+        }
+        TestCase first = streamed.get("5.2").getTestCases().get(0);
+        assertEquals("输入用户名", first.getTestSteps().get(0).action, "测试步骤应关联到用例");
+    }
+
+    @Test
+    void otherSheetsAreKeptForRemainingReaders() throws Exception {
+        Path excelPath = ExcelDataHubTest.createHubWorkbook(Files.createTempDirectory("streaming-other-"));
+
+        try (StreamedWorkbook streamed = new StreamingExcelReader().read(excelPath.toString(), true)) {
+            assertNotNull(streamed.getOtherSheets().getSheet("基本信息"));
+            assertNotNull(streamed.getOtherSheets().getSheet("Meta"));
+            assertNull(streamed.getOtherSheets().getSheet("测试用例"), "测试用例Sheet不应被复制");
+            assertNull(streamed.getOtherSheets().getSheet("测试步骤"), "测试步骤Sheet不应被复制");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.processor.WordProcessor;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableFillPlanTest {
+
+    @Test
+    void clonedTablesReuseFillPlanAcrossStepCountsAndColumnSets() throws Exception {
+        Path dir = Files.createTempDirectory("table-fill-plan-");
+        Path template = dir.resolve("template.docx");
+        Path output = dir.resolve("out.docx");
+        createTemplate(template);
+
+        new WordProcessor().processWord(template.toString(), output.toString(), moduleData(testCases()));
+
+        List<List<List<String>>> tables = tables(output);
+        assertEquals(4, tables.size());
+        assertTable(tables.get(0), "登录", "GNCS_001", "内容1", 1);
+        assertTable(tables.get(1), "注销", "GNCS_002", "内容2", 3);
+        assertTable(tables.get(2), "查询", "GNCS_003", "内容3", 2);
+        assertTable(tables.get(3), "导出", "GNCS_004", "内容4", 2);
+    }
+
+    @Test
+    void compiledPlanFillsLikeFreshMatchingOfEachTable() throws Exception {
+        Path dir = Files.createTempDirectory("table-fill-plan-");
+        Path template = dir.resolve("template.docx");
+        createTemplate(template);
+        List<TestCase> testCases = testCases();
+
+        // 所有用例在同一次生成中：第一个用例填充模板表格，其余用例的表格复制自模板表格并复用填充计划
+        Path combined = dir.resolve("combined.docx");
+        new WordProcessor().processWord(template.toString(), combined.toString(), moduleData(testCases));
+        List<List<List<String>>> planned = tables(combined);
+
+        // 每个用例单独生成：只填充模板表格本身，每次重新匹配标签
+        for (int i = 0; i < testCases.size(); i++) {
+            Path single = dir.resolve("single" + i + ".docx");
+            new WordProcessor().processWord(template.toString(), single.toString(), moduleData(List.of(testCases.get(i))));
+            List<List<List<String>>> fresh = tables(single);
+            assertEquals(1, fresh.size());
+            assertEquals(fresh.get(0), planned.get(i), "第" + (i + 1) + "个用例的表格");
+        }
+    }
+
+    private static List<TestCase> testCases() {
+        // 多出"备注"列：列结构不同，单独编译计划
+        TestCase extra = testCase("查询", "GNCS_003", "内容3", 2);
+        extra.addColumnData("备注", "无");
+        return List.of(testCase("登录", "GNCS_001", "内容1", 1),
+                testCase("注销", "GNCS_002", "内容2", 3),
+                extra,
+                testCase("导出", "GNCS_004", "内容4", 2));
+    }
+
+    private static Map<String, ModuleData> moduleData(List<TestCase> testCases) {
+        ModuleData module = new ModuleData("5.2");
+        testCases.forEach(module::addTestCase);
+        Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        moduleDataMap.put("5.2", module);
+        return moduleDataMap;
+    }
+
+    private static void assertTable(List<List<String>> rows, String testName, String id, String content, int steps) {
+        assertEquals(List.of("测试项名称", testName, "标识", id), rows.get(0));
+        assertEquals(content, rows.get(1).get(1));
+        assertEquals(4 + steps, rows.size(), testName + " 步骤行数");
+        for (int i = 1; i <= steps; i++) {
+            assertEquals(List.of(String.valueOf(i), "操作" + i, "预期" + i, "通过"), rows.get(3 + i));
+        }
+    }
+
+    private static TestCase testCase(String testName, String id, String content, int steps) {
+        TestCase testCase = new TestCase("5.2");
+        testCase.addColumnData("模块编号", "5.2");
+        testCase.addColumnData("测试项名称", testName);
+        testCase.addColumnData("标识", id);
+        testCase.addColumnData("测试内容", content);
+        for (int i = 1; i <= steps; i++) {
+            testCase.addTestStep(i, "操作" + i, "预期" + i, "通过");
+        }
+        return testCase;
+    }
+
+    private static List<List<List<String>>> tables(Path docx) throws Exception {
+        List<List<List<String>>> tables = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(docx.toFile());
+             XWPFDocument doc = new XWPFDocument(fis)) {
+            for (XWPFTable table : doc.getTables()) {
+                List<List<String>> rows = new ArrayList<>();
+                for (XWPFTableRow row : table.getRows()) {
+                    List<String> cells = new ArrayList<>();
+                    row.getTableCells().forEach(cell -> cells.add(cell.getText().trim()));
+                    rows.add(cells);
+                }
+                tables.add(rows);
+            }
+        }
+        return tables;
+    }
+
+    private static void createTemplate(Path path) throws Exception {
+        try (XWPFDocument doc = new XWPFDocument()) {
+            paragraph(doc, "22", "5.2 功能测试");
+            paragraph(doc, "16", "5.2.1 占位子章节");
+            paragraph(doc, "22", "6.1 动态测试环境");
+            paragraph(doc, "3", "5.2 功能测试");
+            paragraph(doc, "4", "5.2.1 占位子章节");
+
+            XWPFTable table = doc.createTable(5, 4);
+            table.getRow(0).getCell(0).setText("测试项名称");
+            table.getRow(0).getCell(2).setText("标识");
+            table.getRow(1).getCell(0).setText("测试内容");
+            table.getRow(1).getCell(1).setText("默认内容");
+            table.getRow(2).getCell(0).setText("测试步骤");
+            table.getRow(3).getCell(0).setText("序号");
+            table.getRow(3).getCell(1).setText("输入及操作");
+            table.getRow(3).getCell(2).setText("期望结果");
+            table.getRow(3).getCell(3).setText("实测结果");
+            table.getRow(4).getCell(0).setText("1");
+
+            paragraph(doc, "3", "6.1 动态测试环境");
+            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
+                doc.write(fos);
+            }
+        }
+    }
+
+    private static void paragraph(XWPFDocument doc, String style, String text) {
+        XWPFParagraph para = doc.createParagraph();
+        para.setStyle(style);
+        para.createRun().setText(text);
+    }
+}
@@ -0,0 +1,152 @@
+package pub.developers.docautogenbyexcel;
+
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.CsvDataHub;
+import pub.developers.docautogenbyexcel.hub.DataHub;
+import pub.developers.docautogenbyexcel.hub.DataSourceType;
+import pub.developers.docautogenbyexcel.hub.ImportSummary;
+import pub.developers.docautogenbyexcel.hub.JsonLinesDataHub;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.model.TestResult;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TabularDataHubTest {
+
+    @Test
+    void csvDirectoryLoadsAllTables() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-csv-");
+        write(dir, "test_cases.csv",
+                "\uFEFF模块编号,测试用例标识,测试用例名称,测试内容\r\n"
+                        + "5.2,TC-001,登录,\"输入用户名,密码\"\r\n"
+                        + "5.2,TC-002,\"含\"\"引号\"\"的名称\",\"第一行\n第二行\"\r\n"
+                        + "5.3,TC-003,导出,导出报表\r\n"
+                        + ",TC-004,无模块,忽略\r\n");
+        write(dir, "test_steps.csv",
+                "测试用例标识,步骤序号,测试步骤,预期结果\n"
+                        + "TC-001,1,打开页面,显示登录框\n"
+                        + "TC-001,2,提交,登录成功\n");
+        write(dir, "basic_info.csv", "表格名称,字段名,字段值\n软件信息,版本,1.0\n");
+        write(dir, "list_接口.csv", "表格名称,接口名,说明\n接口列表,login,登录\n接口列表,export,导出\n");
+        write(dir, "requirements.csv", "ReqID,ReqTitle,Description,Priority\nREQ-1,登录,用户登录,高\n");
+        write(dir, "test_results.csv", "TCID,ExecDate,Result,DefectID\nTC-001,2024-01-01,通过,\n");
+        write(dir, "config.csv", "Key,Value\nProject,Demo\n");
+
+        CsvDataHub hub = new CsvDataHub();
+        String path = dir.toString();
+
+        Map<String, ModuleData> modules = hub.loadModuleData(path);
+        assertEquals(List.of("5.2", "5.3"), List.copyOf(modules.keySet()));
+        List<TestCase> cases = hub.loadTestCases(path);
+        assertEquals(3, cases.size());
+        assertSame(cases.get(0).getSchema(), cases.get(2).getSchema(), "同一文件的用例应共用列结构");
+        assertEquals("输入用户名,密码", cases.get(0).getColumnValue("测试内容"));
+        assertEquals("含\"引号\"的名称", cases.get(1).getColumnValue("测试用例名称"));
+        assertEquals("第一行\n第二行", cases.get(1).getColumnValue("测试内容"));
+        assertEquals(2, cases.get(0).getTestSteps().size());
+        assertEquals("登录成功", cases.get(0).getTestSteps().get(1).expected);
+
+        assertEquals("1.0", hub.loadBasicInfo(path).get("软件信息").getFieldValue("版本"));
+        assertEquals(List.of("接口名", "说明"), hub.loadListTables(path).get("接口列表").getColumnNames());
+        assertEquals(2, hub.loadListTables(path).get("接口列表").getRows().size());
+        assertEquals("用户登录", hub.loadRequirements(path).get(0).getDescription());
+        assertEquals(1, hub.loadTestResults(path).size());
+        assertEquals("Demo", hub.loadConfig(path).get("Project"));
+    }
+
+    @Test
+    void jsonLinesDirectoryLoadsTestCasesAndSteps() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-jsonl-");
+        write(dir, "test_cases.jsonl",
+                "{\"模块编号\":\"5.2\",\"测试用例标识\":\"TC-001\",\"测试用例名称\":\"登录\"}\n"
+                        + "\n"
+                        + "# 注释行\n"
+                        + "{\"模块编号\":5.3,\"测试用例标识\":\"TC-002\",\"测试用例名称\":null,\"优先级\":1}\n");
+        write(dir, "test_steps.jsonl", "{\"测试用例标识\":\"TC-002\",\"测试步骤\":\"导出\",\"预期结果\":\"成功\"}\n");
+
+        JsonLinesDataHub hub = new JsonLinesDataHub();
+        List<TestCase> cases = hub.loadTestCases(dir.toString());
+
+        assertEquals(2, cases.size());
+        assertEquals("5.3", cases.get(1).getModuleNumber());
+        assertEquals("", cases.get(1).getColumnValue("测试用例名称"));
+        assertEquals("1", cases.get(1).getColumnValue("优先级"));
+        assertEquals(1, cases.get(1).getTestSteps().size());
+        assertTrue(hub.loadRequirements(dir.toString()).isEmpty(), "缺少的表应按空表处理");
+
+        write(dir, "config.jsonl", "[1,2]\n");
+        assertThrows(Exception.class, () -> hub.loadConfig(dir.toString()));
+    }
+
+    @Test
+    void appendTestResultsOnlyAppendsTheBatch() throws Exception {
+        for (DataSourceType type : List.of(DataSourceType.CSV, DataSourceType.JSONL)) {
+            Path dir = Files.createTempDirectory("datahub-append-");
+            DataHub hub = type.createHub();
+            String ext = type == DataSourceType.CSV ? ".csv" : ".jsonl";
+            write(dir, "test_cases" + ext, type == DataSourceType.CSV
+                    ? "模块编号,测试用例标识\n5.2,TC-001\n5.2,TC-002\n"
+                    : "{\"模块编号\":\"5.2\",\"测试用例标识\":\"TC-001\"}\n{\"模块编号\":\"5.2\",\"测试用例标识\":\"TC-002\"}\n");
+
+            ImportSummary first = hub.appendTestResults(dir.toString(),
+                    List.of(new TestResult("TC-001", "2024-01-01", "通过", "")));
+            byte[] afterFirst = Files.readAllBytes(dir.resolve("test_results" + ext));
+            ImportSummary second = hub.appendTestResults(dir.toString(), List.of(
+                    new TestResult("TC-002", "2024-01-02", "不通过", "BUG-1, BUG-2"),
+                    new TestResult("TC-404", "2024-01-02", "通过", "")));
+            byte[] afterSecond = Files.readAllBytes(dir.resolve("test_results" + ext));
+
+            assertEquals(1, first.getSuccessCount());
+            assertEquals(1, second.getSuccessCount());
+            assertEquals(1, second.getFailedCount());
+            for (int i = 0; i < afterFirst.length; i++) {
+                assertEquals(afterFirst[i], afterSecond[i], type + " 已有数据不应被改写");
+            }
+            List<TestResult> results = hub.loadTestResults(dir.toString());
+            assertEquals(2, results.size());
+            assertEquals("BUG-1, BUG-2", results.get(1).getDefectId());
+        }
+    }
+
+    @Test
+    void sessionReadsEachTableOnceAndWritesInvalidateIt() throws Exception {
+        Path dir = Files.createTempDirectory("datahub-tabular-session-");
+        write(dir, "test_cases.csv", "模块编号,测试用例标识\n5.2,TC-001\n");
+        CsvDataHub hub = new CsvDataHub();
+        String path = dir.toString();
+
+        try (DataHub.Session ignored = hub.openSession(path)) {
+            Map<String, ModuleData> modules = hub.loadModuleData(path);
+            assertSame(modules, hub.loadModuleData(path), "会话内应复用已读取的表");
+            assertSame(modules.get("5.2").getTestCases().get(0), hub.loadTestCases(path).get(0));
+
+            List<TestResult> before = hub.loadTestResults(path);
+            hub.appendTestResults(path, List.of(new TestResult("TC-001", "2024-01-01", "通过", "")));
+            assertEquals(before.size() + 1, hub.loadTestResults(path).size(), "写入后应重新读取");
+        }
+        assertNotSame(hub.loadModuleData(path), hub.loadModuleData(path), "会话关闭后不应再共享");
+    }
+
+    @Test
+    void dataSourceTypeParsesNames() {
+        assertEquals(DataSourceType.EXCEL, DataSourceType.of(null));
+        assertEquals(DataSourceType.CSV, DataSourceType.of(" CSV "));
+        assertEquals(DataSourceType.JSONL, DataSourceType.of("ndjson"));
+        assertThrows(IllegalArgumentException.class, () -> DataSourceType.of("xml"));
+    }
+
+    private static void write(Path dir, String name, String content) throws Exception {
+        Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.processor.TemplateModelCache;
+import pub.developers.docautogenbyexcel.processor.WordProcessor;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TemplateModelCacheTest {
+
+    @Test
+    void sameTemplateContentIsAnalyzedOnceAndEachJobGetsItsOwnCopy() throws Exception {
+        Path dir = Files.createTempDirectory("template-model-");
+        Path first = dir.resolve("first.docx");
+        Path second = dir.resolve("second.docx");
+        createTemplate(first, "5.2 功能测试");
+        Files.copy(first, second);
+        Map<String, ModuleData> moduleDataMap = moduleData();
+
+        TemplateModelCache.Stats before = WordProcessor.getTemplateCacheStats();
+        new WordProcessor().processWord(first.toString(), dir.resolve("out1.docx").toString(), moduleDataMap);
+        new WordProcessor().processWord(second.toString(), dir.resolve("out2.docx").toString(), moduleDataMap);
+        TemplateModelCache.Stats after = WordProcessor.getTemplateCacheStats();
+
+        assertEquals(1, after.misses() - before.misses(), "相同内容的模板只分析一次");
+        assertEquals(1, after.hits() - before.hits());
+        List<String> expected = bodyTexts(dir.resolve("out1.docx"));
+        assertEquals(expected, bodyTexts(dir.resolve("out2.docx")), "复用分析结果的生成与首次生成一致");
+        assertEquals(List.of("5.2 功能测试", "5.2.1 登录测试", "5.2.2 注销测试", "6.1 动态测试环境"),
+                expected.subList(expected.size() - 4, expected.size()), "正文（目录之后）");
+
+        // 模板内容变化后重新分析
+        createTemplate(second, "5.2 接口测试");
+        new WordProcessor().processWord(second.toString(), dir.resolve("out3.docx").toString(), moduleDataMap);
+        assertEquals(2, WordProcessor.getTemplateCacheStats().misses() - before.misses());
+        List<String> changed = bodyTexts(dir.resolve("out3.docx"));
+        assertEquals("5.2 接口测试", changed.get(changed.size() - 4));
+    }
+
+    private static Map<String, ModuleData> moduleData() {
+        ModuleData module = new ModuleData("5.2");
+        module.addTestCase(testCase("登录", "GNCS_001"));
+        module.addTestCase(testCase("注销", "GNCS_002"));
+        Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        moduleDataMap.put("5.2", module);
+        return moduleDataMap;
+    }
+
+    private static TestCase testCase(String testName, String id) {
+        TestCase testCase = new TestCase("5.2");
+        testCase.addColumnData("模块编号", "5.2");
+        testCase.addColumnData("测试项名称", testName);
+        testCase.addColumnData("标识", id);
+        testCase.addColumnData("测试内容", "内容");
+        return testCase;
+    }
+
+    private static List<String> bodyTexts(Path docx) throws Exception {
+        List<String> texts = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(docx.toFile());
+             XWPFDocument doc = new XWPFDocument(fis)) {
+            for (XWPFParagraph para : doc.getParagraphs()) {
+                String text = para.getText() == null ? "" : para.getText().trim();
+                if (!text.isEmpty() && !text.startsWith("表")) {
+                    texts.add(text);
+                }
+            }
+        }
+        return texts;
+    }
+
+    private static void createTemplate(Path path, String sectionTitle) throws Exception {
+        try (XWPFDocument doc = new XWPFDocument()) {
+            paragraph(doc, "22", sectionTitle);
+            paragraph(doc, "16", "5.2.1 占位子章节");
+            paragraph(doc, "22", "6.1 动态测试环境");
+            paragraph(doc, "3", sectionTitle);
+            paragraph(doc, "4", "5.2.1 占位子章节");
+
+            XWPFTable table = doc.createTable(2, 4);
+            table.getRow(0).getCell(0).setText("测试项名称");
+            table.getRow(0).getCell(2).setText("标识");
+            table.getRow(1).getCell(0).setText("测试内容");
+
+            paragraph(doc, "3", "6.1 动态测试环境");
+            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
+                doc.write(fos);
+            }
+        }
+    }
+
+    private static void paragraph(XWPFDocument doc, String style, String text) {
+        XWPFParagraph para = doc.createParagraph();
+        para.setStyle(style);
+        para.createRun().setText(text);
+    }
+}
@@ -0,0 +1,89 @@
+package pub.developers.docautogenbyexcel;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.model.ColumnSchema;
+import pub.developers.docautogenbyexcel.model.TestCase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 对比每行独立LinkedHashMap与共享列结构两种存储方式的堆占用（50000行 × 20列）
+ * 堆占用对比依赖GC时机，标记为 benchmark，默认测试不运行，需要时用 {@code mvn test -Pbenchmark} 运行。
+ */
+class TestCaseMemoryBenchmarkTest {
+
+    private static final int ROWS = 50_000;
+    private static final int COLUMNS = 20;
+
+    @Test
+    @Tag("benchmark")
+    void columnarStorageUsesLessHeapThanPerRowMaps() {
+        List<String> columnNames = new ArrayList<>();
+        for (int c = 0; c < COLUMNS; c++) {
+            columnNames.add("列" + c);
+        }
+        // 两种方式共用同一批值字符串，只比较行结构本身的开销
+        String[] cellValues = new String[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            cellValues[c] = "值" + c;
+        }
+
+        long before = usedHeap();
+        List<TestCase> mapRows = new ArrayList<>(ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            TestCase tc = new TestCase("5.2");
+            Map<String, String> data = new LinkedHashMap<>();
+            for (int c = 0; c < COLUMNS; c++) {
+                data.put(columnNames.get(c), cellValues[c]);
+            }
+            tc.setColumnData(data);
+            mapRows.add(tc);
+        }
+        long mapBytes = usedHeap() - before;
+
+        ColumnSchema schema = new ColumnSchema(columnNames);
+        before = usedHeap();
+        List<TestCase> columnarRows = new ArrayList<>(ROWS);
+        for (int r = 0; r < ROWS; r++) {
+            TestCase tc = new TestCase("5.2", schema);
+            for (int c = 0; c < COLUMNS; c++) {
+                tc.addColumnData(columnNames.get(c), cellValues[c]);
+            }
+            columnarRows.add(tc);
+        }
+        long columnarBytes = usedHeap() - before;
+
+        assertEquals(mapRows.get(ROWS - 1).getColumnData(), columnarRows.get(ROWS - 1).getColumnData());
+        assertTrue(columnarBytes * 2 < mapBytes, "共享列结构的堆占用应不到每行Map的一半（每行Map存储: "
+                + mapBytes / 1024 + " KB，共享列结构存储: " + columnarBytes / 1024 + " KB）");
+    }
+
+    @Test
+    void columnDataViewKeepsMapSemantics() {
+        TestCase tc = new TestCase("5.2", new ColumnSchema(List.of("测试项名称", "标识")));
+        tc.addColumnData("标识", "TC-001");
+        tc.setTestName("登录");
+
+        assertEquals(List.of("标识", "testName"), new ArrayList<>(tc.getColumnData().keySet()),
+                "未设置的结构列不出现，额外列排在结构列之后");
+        assertEquals("", tc.getColumnValue("测试项名称"));
+        tc.getColumnData().put("测试项名称", "登录测试");
+        assertEquals("登录测试", tc.getColumnValue("测试项名称"));
+        assertEquals(Map.of("测试项名称", "登录测试", "标识", "TC-001", "testName", "登录"), tc.getColumnData());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -137,6 +137,103 @@ class WordProcessorSectionBoundaryTest {
         }
     }
 
+    @Test
+    void thousandGeneratedSubSectionsKeepOrderInsideBoundary() throws Exception {
+        Path tempDir = Files.createTempDirectory("word-boundary-large-");
+        Path templatePath = tempDir.resolve("template.docx");
+        Path outputPath = tempDir.resolve("output.docx");
+
+        createTemplateWith52And61(templatePath);
+
+        ModuleData module52 = new ModuleData("5.2");
+        for (int i = 1; i <= 1000; i++) {
+            module52.addTestCase(createTestCase("5.2", "用例" + i, String.format("GNCS_%04d", i)));
+        }
+        Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        moduleDataMap.put("5.2", module52);
+
+        new WordProcessor().processWord(templatePath.toString(), outputPath.toString(), moduleDataMap);
+
+        try (FileInputStream fis = new FileInputStream(outputPath.toFile());
+             XWPFDocument outDoc = new XWPFDocument(fis)) {
+
+            int expected = 1;
+            boolean after61 = false;
+            for (XWPFParagraph para : outDoc.getParagraphs()) {
+                String text = para.getText() == null ? "" : para.getText().trim();
+                String style = para.getStyle() == null ? "" : para.getStyle();
+                if ("3".equals(style) && text.startsWith("6.1 ")) {
+                    after61 = true;
+                }
+                if ("4".equals(style) && text.startsWith("5.2.")) {
+                    assertTrue(!after61, "5.2.x 子章节出现在 6.1 之后: " + text);
+                    assertEquals("5.2." + expected + " 用例" + expected + "测试", text);
+                    expected++;
+                }
+            }
+            assertEquals(1001, expected, "应按顺序生成 1000 个 5.2.x 子章节");
+            assertEquals(1000, outDoc.getTables().size());
+            assertTrue(outDoc.getTables().get(999).getText().contains("GNCS_1000"));
+        }
+    }
+
+    @Test
+    void placeholderChildrenFollowEachOtherInModuleOrder() throws Exception {
+        Path tempDir = Files.createTempDirectory("word-placeholder-order-");
+        Path templatePath = tempDir.resolve("template.docx");
+        Path outputPath = tempDir.resolve("output.docx");
+
+        try (XWPFDocument doc = new XWPFDocument()) {
+            XWPFParagraph toc5 = doc.createParagraph();
+            toc5.setStyle("22");
+            toc5.createRun().setText("5 功能测试");
+
+            XWPFParagraph toc6 = doc.createParagraph();
+            toc6.setStyle("22");
+            toc6.createRun().setText("6 性能测试");
+
+            XWPFParagraph section5 = doc.createParagraph();
+            section5.setStyle("2");
+            section5.createRun().setText("5 功能测试");
+
+            doc.createParagraph().createRun().setText("5.x");
+
+            XWPFParagraph section6 = doc.createParagraph();
+            section6.setStyle("2");
+            section6.createRun().setText("6 性能测试");
+
+            try (FileOutputStream fos = new FileOutputStream(templatePath.toFile())) {
+                doc.write(fos);
+            }
+        }
+
+        Map<String, ModuleData> moduleDataMap = new LinkedHashMap<>();
+        for (String number : new String[]{"5.1", "5.2", "5.3"}) {
+            ModuleData module = new ModuleData(number);
+            module.addTestCase(createTestCase(number, "模块" + number + "用例1", "GNCS_" + number + "_1"));
+            module.addTestCase(createTestCase(number, "模块" + number + "用例2", "GNCS_" + number + "_2"));
+            moduleDataMap.put(number, module);
+        }
+
+        new WordProcessor().processWord(templatePath.toString(), outputPath.toString(), moduleDataMap);
+
+        try (FileInputStream fis = new FileInputStream(outputPath.toFile());
+             XWPFDocument outDoc = new XWPFDocument(fis)) {
+            java.util.List<String> body = new java.util.ArrayList<>();
+            boolean inSection5 = false;
+            for (XWPFParagraph para : outDoc.getParagraphs()) {
+                String text = para.getText() == null ? "" : para.getText().trim();
+                if ("2".equals(para.getStyle())) {
+                    inSection5 = text.startsWith("5 ");
+                } else if (inSection5 && !text.isEmpty()) {
+                    body.add(text.split(" ")[0]);
+                }
+            }
+            assertEquals(java.util.List.of("5.1", "5.1.1", "5.1.2", "5.2", "5.2.1", "5.2.2", "5.3", "5.3.1", "5.3.2"),
+                body, "占位符生成的子章节应按模块顺序排列在第5章内，占位符删除");
+        }
+    }
+
     private static TestCase createTestCase(String moduleNumber, String testName, String id) {
         TestCase testCase = new TestCase(moduleNumber);
         testCase.addColumnData("模块编号", moduleNumber);
@@ -0,0 +1,230 @@
+package pub.developers.docautogenbyexcel;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import pub.developers.docautogenbyexcel.hub.ExcelDataHub;
+import pub.developers.docautogenbyexcel.hub.WorkbookSnapshot;
+import pub.developers.docautogenbyexcel.model.ModuleData;
+import pub.developers.docautogenbyexcel.model.Requirement;
+import pub.developers.docautogenbyexcel.model.TestCase;
+import pub.developers.docautogenbyexcel.reader.ExcelReader;
+import pub.developers.docautogenbyexcel.reader.TableDataReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XlsbWorkbookTest {
+
+    @Test
+    void binaryWorkbookReadsLikeXlsx() throws Exception {
+        Path dir = Files.createTempDirectory("xlsb-read-");
+        Path xlsx = createNumericStepWorkbook(dir);
+        Path xlsb = toXlsb(xlsx, dir.resolve("hub.xlsb"));
+
+        Map<String, ModuleData> expected = new ExcelReader().readExcel(xlsx.toString());
+        Map<String, ModuleData> actual = new ExcelReader().readExcel(xlsb.toString());
+
+        assertModulesEqual(expected, actual);
+        TestCase first = actual.get("5.2").getTestCases().get(0);
+        assertEquals(1, first.getTestSteps().size());
+        assertEquals(1, first.getTestSteps().get(0).stepNo, "数值单元格按常规格式读取");
+        assertEquals(new TableDataReader().readBasicInfo(xlsx.toString()).get("表1.1 被测软件基本信息").getAllFields(),
+                new TableDataReader().readBasicInfo(xlsb.toString()).get("表1.1 被测软件基本信息").getAllFields());
+    }
+
+    @Test
+    void hubSnapshotOfBinaryWorkbookMatchesXlsx() throws Exception {
+        Path dir = Files.createTempDirectory("xlsb-hub-");
+        Path xlsx = createNumericStepWorkbook(dir);
+        Path xlsb = toXlsb(xlsx, dir.resolve("hub.xlsb"));
+        ExcelDataHub hub = new ExcelDataHub(256, 32, 1, 10, false);
+
+        WorkbookSnapshot expected = hub.readSnapshot(xlsx.toString());
+        WorkbookSnapshot actual = hub.readSnapshot(xlsb.toString());
+
+        assertModulesEqual(expected.getModuleDataMap(), actual.getModuleDataMap());
+        assertEquals(expected.getBasicInfoMap().keySet(), actual.getBasicInfoMap().keySet());
+        assertEquals(expected.getListTableMap().get("表1.2 被测软件接口信息").getRows(),
+                actual.getListTableMap().get("表1.2 被测软件接口信息").getRows());
+        assertEquals(requirementIds(expected.getRequirements()), requirementIds(actual.getRequirements()));
+        assertEquals(expected.getTestResults().size(), actual.getTestResults().size());
+        assertEquals(expected.getConfig(), actual.getConfig());
+        assertEquals(requirementIds(expected.getRequirements()),
+                requirementIds(hub.loadRequirements(xlsb.toString())), "会话外的读取也应支持.xlsb");
+        assertThrows(Exception.class, () -> hub.writeRequirements(xlsb.toString(), expected.getRequirements()),
+                ".xlsb不支持写回");
+    }
+
+    private static Path createNumericStepWorkbook(Path dir) throws Exception {
+        Path xlsx = ExcelDataHubTest.createHubWorkbook(dir);
+        try (FileInputStream fis = new FileInputStream(xlsx.toFile());
+             XSSFWorkbook wb = new XSSFWorkbook(fis)) {
+            wb.getSheet("测试步骤").getRow(1).getCell(1).setCellValue(1);
+            try (FileOutputStream fos = new FileOutputStream(xlsx.toFile())) {
+                wb.write(fos);
+            }
+        }
+        return xlsx;
+    }
+
+    private static void assertModulesEqual(Map<String, ModuleData> expected, Map<String, ModuleData> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (String module : expected.keySet()) {
+            assertEquals(expected.get(module).getTestCaseCount(), actual.get(module).getTestCaseCount());
+            for (int i = 0; i < expected.get(module).getTestCaseCount(); i++) {
+                TestCase e = expected.get(module).getTestCases().get(i);
+                TestCase a = actual.get(module).getTestCases().get(i);
+                assertEquals(e.getColumnData(), a.getColumnData());
+                assertEquals(e.getTestSteps().size(), a.getTestSteps().size());
+            }
+        }
+    }
+
+    private static List<String> requirementIds(List<Requirement> requirements) {
+        List<String> ids = new ArrayList<>();
+        for (Requirement requirement : requirements) {
+            ids.add(requirement.getRequirementId());
+        }
+        return ids;
+    }
+
+    /**
+     * 把.xlsx转换为最小的.xlsb：字符串写入共享字符串表，数值写为常规格式的浮点数
+     */
+    private static Path toXlsb(Path xlsx, Path xlsb) throws Exception {
+        List<String> strings = new ArrayList<>();
+        Map<String, Integer> stringIndex = new LinkedHashMap<>();
+        List<String> sheetNames = new ArrayList<>();
+        List<byte[]> sheetParts = new ArrayList<>();
+        try (FileInputStream fis = new FileInputStream(xlsx.toFile());
+             XSSFWorkbook wb = new XSSFWorkbook(fis)) {
+            for (Sheet sheet : wb) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                record(out, 129, new byte[0]);   // BrtBeginSheet
+                record(out, 145, new byte[0]);   // BrtBeginSheetData
+                for (Row row : sheet) {
+                    record(out, 0, le(17).putInt(row.getRowNum()).array());   // BrtRowHdr
+                    for (Cell cell : row) {
+                        if (cell.getCellType() == CellType.NUMERIC) {
+                            record(out, 5, le(16).putInt(cell.getColumnIndex()).putInt(0)
+                                    .putDouble(cell.getNumericCellValue()).array());   // BrtCellReal
+                        } else {
+                            String value = cell.getStringCellValue();
+                            int isst = stringIndex.computeIfAbsent(value, v -> {
+                                strings.add(v);
+                                return strings.size() - 1;
+                            });
+                            record(out, 7, le(12).putInt(cell.getColumnIndex()).putInt(0).putInt(isst).array());   // BrtCellIsst
+                        }
+                    }
+                }
+                record(out, 146, new byte[0]);   // BrtEndSheetData
+                record(out, 130, new byte[0]);   // BrtEndSheet
+                sheetNames.add(sheet.getSheetName());
+                sheetParts.add(out.toByteArray());
+            }
+        }
+
+        try (OPCPackage pkg = OPCPackage.create(xlsb.toFile())) {
+            PackagePartName workbookName = PackagingURIHelper.createPartName("/xl/workbook.bin");
+            PackagePart workbook = pkg.createPart(workbookName, "application/vnd.ms-excel.sheet.binary.macroEnabled.main");
+            pkg.addRelationship(workbookName, TargetMode.INTERNAL, PackageRelationshipTypes.CORE_DOCUMENT);
+
+            ByteArrayOutputStream book = new ByteArrayOutputStream();
+            record(book, 131, new byte[0]);   // BrtBeginBook
+            record(book, 143, new byte[0]);   // BrtBeginBundleShs
+            for (int i = 0; i < sheetNames.size(); i++) {
+                PackagePartName sheetName = PackagingURIHelper.createPartName("/xl/worksheets/sheet" + (i + 1) + ".bin");
+                writePart(pkg.createPart(sheetName, "application/vnd.ms-excel.worksheet"), sheetParts.get(i));
+                String relId = workbook.addRelationship(sheetName, TargetMode.INTERNAL,
+                        XSSFRelation.WORKSHEET.getRelation()).getId();
+                ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+                bundle.write(le(8).putInt(0).putInt(i + 1).array());
+                wideString(bundle, relId);
+                wideString(bundle, sheetNames.get(i));
+                record(book, 156, bundle.toByteArray());   // BrtBundleSh
+            }
+            record(book, 144, new byte[0]);   // BrtEndBundleShs
+            record(book, 132, new byte[0]);   // BrtEndBook
+            writePart(workbook, book.toByteArray());
+
+            ByteArrayOutputStream sst = new ByteArrayOutputStream();
+            record(sst, 159, le(8).putInt(strings.size()).putInt(strings.size()).array());   // BrtBeginSst
+            for (String value : strings) {
+                ByteArrayOutputStream item = new ByteArrayOutputStream();
+                item.write(0);
+                wideString(item, value);
+                record(sst, 19, item.toByteArray());   // BrtSSTItem
+            }
+            record(sst, 160, new byte[0]);   // BrtEndSst
+            PackagePartName sstName = PackagingURIHelper.createPartName("/xl/sharedStrings.bin");
+            writePart(pkg.createPart(sstName, "application/vnd.ms-excel.sharedStrings"), sst.toByteArray());
+            workbook.addRelationship(sstName, TargetMode.INTERNAL, XSSFRelation.SHARED_STRINGS.getRelation());
+
+            ByteArrayOutputStream styles = new ByteArrayOutputStream();
+            record(styles, 617, le(4).putInt(1).array());   // BrtBeginCellXFs
+            record(styles, 47, new byte[16]);                // BrtXF，常规格式
+            record(styles, 618, new byte[0]);               // BrtEndCellXFs
+            PackagePartName stylesName = PackagingURIHelper.createPartName("/xl/styles.bin");
+            writePart(pkg.createPart(stylesName, "application/vnd.ms-excel.styles"), styles.toByteArray());
+            workbook.addRelationship(stylesName, TargetMode.INTERNAL, XSSFRelation.STYLES.getRelation());
+        }
+        return xlsb;
+    }
+
+    private static void record(ByteArrayOutputStream out, int type, byte[] data) {
+        if (type < 0x80) {
+            out.write(type);
+        } else {
+            out.write((type & 0x7F) | 0x80);
+            out.write(type >> 7);
+        }
+        int size = data.length;
+        do {
+            int b = size & 0x7F;
+            size >>= 7;
+            out.write(size > 0 ? b | 0x80 : b);
+        } while (size > 0);
+        out.writeBytes(data);
+    }
+
+    private static void wideString(ByteArrayOutputStream out, String value) {
+        out.writeBytes(le(4).putInt(value.length()).array());
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_16LE));
+    }
+
+    private static ByteBuffer le(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writePart(PackagePart part, byte[] data) throws Exception {
+        try (OutputStream out = part.getOutputStream()) {
+            out.write(data);
+        }
+    }
+}